@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.archive.reader.columnar;
+
+import java.nio.ByteBuffer;
+
+/** Reads stream of bits, most significant bit first
+ *
+ *  <p>Decodes the delta-of-delta and XOR encodings
+ *  written by the archive engine's columnar writer.
+ */
+class BitInput
+{
+    private final ByteBuffer data;
+    private final int start;
+    private final long limit;
+    private long bits = 0;
+
+    /** Previous value and delta for {@link #readDeltaOfDelta()} */
+    private long previous_value = 0, previous_delta = 0;
+
+    /** Previous value and window of meaningful bits for {@link #readXOR()} */
+    private long previous_bits = 0;
+    private int previous_leading = 0, previous_trailing = 0;
+
+    /** @param data Buffer with bits from position to limit */
+    BitInput(final ByteBuffer data)
+    {
+        this.data = data;
+        start = data.position();
+        limit = 8L * (data.limit() - start);
+    }
+
+    /** @param count Number of bits to read, 1..64
+     *  @return Bits
+     *  @throws IllegalStateException when reading beyond the end of the data
+     */
+    long readBits(int count)
+    {
+        if (bits + count > limit)
+            throw new IllegalStateException("Read beyond end of data");
+        long value = 0;
+        while (count > 0)
+        {
+            final int index = start + (int) (bits / 8);
+            final int available = 8 - (int) (bits % 8);
+            final int chunk = Math.min(available, count);
+            final int part = (data.get(index) >>> (available - chunk)) & ((1 << chunk) - 1);
+            value = (value << chunk) | part;
+            bits += chunk;
+            count -= chunk;
+        }
+        return value;
+    }
+
+    private long readSigned(final int count)
+    {
+        final long value = readBits(count);
+        return (value << (64 - count)) >> (64 - count);
+    }
+
+    /** @return Next value of a delta-of-delta encoded sequence */
+    long readDeltaOfDelta()
+    {
+        final long dod;
+        if (readBits(1) == 0)
+            dod = 0;
+        else if (readBits(1) == 0)
+            dod = readSigned(14);
+        else if (readBits(1) == 0)
+            dod = readSigned(24);
+        else if (readBits(1) == 0)
+            dod = readSigned(32);
+        else
+            dod = readBits(64);
+        previous_delta += dod;
+        previous_value += previous_delta;
+        return previous_value;
+    }
+
+    /** @return Next value of an XOR encoded sequence */
+    double readXOR()
+    {
+        if (readBits(1) != 0)
+        {
+            if (readBits(1) != 0)
+            {
+                previous_leading = (int) readBits(5);
+                final int meaningful = (int) readBits(6) + 1;
+                previous_trailing = 64 - previous_leading - meaningful;
+            }
+            final int meaningful = 64 - previous_leading - previous_trailing;
+            previous_bits ^= readBits(meaningful) << previous_trailing;
+        }
+        return Double.longBitsToDouble(previous_bits);
+    }
+}
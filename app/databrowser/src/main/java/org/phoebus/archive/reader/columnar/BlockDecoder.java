@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.archive.reader.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import org.epics.util.array.ArrayDouble;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.EnumDisplay;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VString;
+import org.epics.vtype.VType;
+
+/** Decodes the columns of a block written by the archive engine's columnar writer
+ *
+ *  <p>Payload of a block:
+ *  <pre>
+ *  varint length, time stamps as bits, delta-of-delta of each time stamp
+ *  varint length, alarms as varint run count,
+ *                 each run with varint length, byte severity, byte status, varint length and UTF-8 message
+ *  values, depending on the type
+ *    DOUBLE:       bits, XOR of each value with the previous one
+ *    LONG, ENUM:   bits, delta-of-delta of each value
+ *    TEXT:         varint length and UTF-8 text for each value
+ *    DOUBLE_ARRAY: varint length, varint element count for each value,
+ *                  followed by bits, XOR of all elements in sequence
+ *  </pre>
+ *  The bit encodings are described in {@link BitInput}.
+ */
+@SuppressWarnings("nls")
+class BlockDecoder
+{
+    /** Value types */
+    private static final byte DOUBLE = 1, LONG = 2, ENUM = 3, TEXT = 4, DOUBLE_ARRAY = 5;
+
+    private final byte type;
+    private final int count;
+    private final long[] times;
+    private final Alarm[] alarms;
+    private double[] doubles;
+    private long[] longs;
+    private String[] texts;
+    private double[][] arrays;
+
+    /** @param type Value type
+     *  @param count Number of samples
+     *  @param payload Payload of the block
+     *  @throws RuntimeException on invalid data
+     */
+    BlockDecoder(final byte type, final int count, final ByteBuffer payload)
+    {
+        this.type = type;
+        this.count = count;
+
+        times = new long[count];
+        final BitInput time_bits = new BitInput(section(payload, readVarInt(payload)));
+        for (int i=0; i<count; ++i)
+            times[i] = time_bits.readDeltaOfDelta();
+
+        alarms = new Alarm[count];
+        final ByteBuffer runs = section(payload, readVarInt(payload));
+        final AlarmSeverity[] severities = AlarmSeverity.values();
+        final AlarmStatus[] states = AlarmStatus.values();
+        int i = 0;
+        for (int r = readVarInt(runs);  r > 0;  --r)
+        {
+            final int length = readVarInt(runs);
+            final AlarmSeverity severity = severities[runs.get()];
+            final AlarmStatus status = states[runs.get()];
+            final Alarm alarm = Alarm.of(severity, status, readString(runs));
+            for (int j=0; j<length; ++j)
+                alarms[i++] = alarm;
+        }
+        if (i != count)
+            throw new IllegalStateException("Alarms for " + i + " instead of " + count + " samples");
+
+        switch (type)
+        {
+        case DOUBLE:
+        {
+            doubles = new double[count];
+            final BitInput bits = new BitInput(payload);
+            for (i=0; i<count; ++i)
+                doubles[i] = bits.readXOR();
+            break;
+        }
+        case LONG:
+        case ENUM:
+        {
+            longs = new long[count];
+            final BitInput bits = new BitInput(payload);
+            for (i=0; i<count; ++i)
+                longs[i] = bits.readDeltaOfDelta();
+            break;
+        }
+        case TEXT:
+            texts = new String[count];
+            for (i=0; i<count; ++i)
+                texts[i] = readString(payload);
+            break;
+        case DOUBLE_ARRAY:
+        {
+            arrays = new double[count][];
+            final ByteBuffer sizes = section(payload, readVarInt(payload));
+            final BitInput bits = new BitInput(payload);
+            for (i=0; i<count; ++i)
+            {
+                arrays[i] = new double[readVarInt(sizes)];
+                for (int e=0; e<arrays[i].length; ++e)
+                    arrays[i][e] = bits.readXOR();
+            }
+            break;
+        }
+        default:
+            throw new IllegalStateException("Unknown value type " + type);
+        }
+    }
+
+    /** @return Buffer for the next 'length' bytes of the payload, which is advanced beyond them */
+    private static ByteBuffer section(final ByteBuffer payload, final int length)
+    {
+        final ByteBuffer section = payload.slice();
+        section.limit(length);
+        payload.position(payload.position() + length);
+        return section;
+    }
+
+    private static int readVarInt(final ByteBuffer buffer)
+    {
+        int value = 0;
+        for (int shift = 0;  shift < 32;  shift += 7)
+        {
+            final int b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IllegalStateException("Invalid varint");
+    }
+
+    private static String readString(final ByteBuffer buffer)
+    {
+        final byte[] utf8 = new byte[readVarInt(buffer)];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /** @return Number of samples */
+    int getCount()
+    {
+        return count;
+    }
+
+    /** @param index Sample index
+     *  @return Time stamp, epoch nanoseconds
+     */
+    long getTime(final int index)
+    {
+        return times[index];
+    }
+
+    /** @param index Sample index
+     *  @param display Display for numeric samples
+     *  @param labels Labels for enumerated samples, may be <code>null</code>
+     *  @return Sample
+     */
+    VType getSample(final int index, final Display display, final EnumDisplay labels)
+    {
+        final Time time = Time.of(Instant.ofEpochSecond(0, times[index]));
+        final Alarm alarm = alarms[index];
+        switch (type)
+        {
+        case DOUBLE:
+            return VDouble.of(doubles[index], alarm, time, display);
+        case ENUM:
+            if (labels != null  &&  longs[index] >= 0  &&  longs[index] < labels.getChoices().size())
+                return VEnum.of((int) longs[index], labels, alarm, time);
+            return VLong.of(longs[index], alarm, time, display);
+        case LONG:
+            return VLong.of(longs[index], alarm, time, display);
+        case DOUBLE_ARRAY:
+            return VDoubleArray.of(ArrayDouble.of(arrays[index]), alarm, time, display);
+        default:
+            return VString.of(texts[index], alarm, time);
+        }
+    }
+}
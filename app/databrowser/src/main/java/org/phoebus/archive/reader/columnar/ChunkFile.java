@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.archive.reader.columnar;
+
+import static org.phoebus.archive.reader.ArchiveReaders.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/** Data and index file of a channel for one day
+ *
+ *  <p>The index is read when opening the file.
+ *  The data file is memory-mapped when the first block is read.
+ *
+ *  @see BlockDecoder
+ */
+@SuppressWarnings("nls")
+class ChunkFile
+{
+    static final String DATA = ".data";
+    static final String INDEX = ".index";
+
+    private static final int BLOCK_MAGIC = 0x43424B31; // "CBK1"
+    private static final int BLOCK_HEADER_SIZE = 33;
+    private static final int BLOCK_CHECKSUM_START = 12;
+    private static final int INDEX_ENTRY_SIZE = 32;
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private final File file;
+    private final ByteBuffer index;
+    private final int blocks;
+    private ByteBuffer data = null;
+
+    /** @param time Time stamp
+     *  @return Nanoseconds since epoch
+     */
+    static long toNanos(final Instant time)
+    {
+        return time.getEpochSecond() * 1_000_000_000L + time.getNano();
+    }
+
+    /** @param time Nanoseconds since epoch
+     *  @return Base name of data file for the UTC day of that time
+     */
+    static String getFileName(final long time)
+    {
+        return DAY.format(Instant.ofEpochSecond(0, time));
+    }
+
+    /** @param file Data file, with index file next to it
+     *  @throws IOException on error
+     */
+    ChunkFile(final File file) throws IOException
+    {
+        this.file = file;
+        final String name = file.getName();
+        final File index_file = new File(file.getParentFile(), name.substring(0, name.length() - DATA.length()) + INDEX);
+        if (index_file.exists())
+            index = ByteBuffer.wrap(Files.readAllBytes(index_file.toPath()));
+        else
+            index = ByteBuffer.allocate(0);
+        // Ignore incomplete entry that's still being written
+        blocks = index.capacity() / INDEX_ENTRY_SIZE;
+    }
+
+    /** @return Number of blocks */
+    int getBlockCount()
+    {
+        return blocks;
+    }
+
+    /** @param block Block index
+     *  @return Time of first sample in block, epoch nanoseconds
+     */
+    long getFirstTime(final int block)
+    {
+        return index.getLong(block * INDEX_ENTRY_SIZE);
+    }
+
+    /** @param block Block index
+     *  @return Time of last sample in block, epoch nanoseconds
+     */
+    long getLastTime(final int block)
+    {
+        return index.getLong(block * INDEX_ENTRY_SIZE + 8);
+    }
+
+    /** @param block Block index
+     *  @return Number of samples in block
+     */
+    int getSampleCount(final int block)
+    {
+        return index.getInt(block * INDEX_ENTRY_SIZE + 24);
+    }
+
+    /** @param time Epoch nanoseconds
+     *  @return Index of first block that ends at or after the time, or block count
+     */
+    int findBlock(final long time)
+    {
+        int low = 0, high = blocks;
+        while (low < high)
+        {
+            final int mid = (low + high) >>> 1;
+            if (getLastTime(mid) < time)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /** @param block Block index
+     *  @return Decoded block or <code>null</code> if block is invalid
+     *  @throws IOException on error mapping the data file
+     */
+    BlockDecoder readBlock(final int block) throws IOException
+    {
+        if (data == null)
+            map();
+        final long offset = index.getLong(block * INDEX_ENTRY_SIZE + 16);
+        final int size = index.getInt(block * INDEX_ENTRY_SIZE + 28);
+        if (offset < 0  ||  size < BLOCK_HEADER_SIZE  ||  offset + size > data.capacity())
+        {
+            logger.log(Level.WARNING, "Block " + block + " of " + file + " is beyond the end of the file");
+            return null;
+        }
+        final int start = (int) offset;
+        if (data.getInt(start) != BLOCK_MAGIC  ||  data.getInt(start + 4) != size - BLOCK_HEADER_SIZE)
+        {
+            logger.log(Level.WARNING, "Invalid block " + block + " of " + file);
+            return null;
+        }
+        final ByteBuffer buffer = data.duplicate();
+        buffer.limit(start + size).position(start + BLOCK_CHECKSUM_START);
+        final CRC32 crc = new CRC32();
+        crc.update(buffer);
+        if ((int) crc.getValue() != data.getInt(start + 8))
+        {
+            logger.log(Level.WARNING, "Checksum error in block " + block + " of " + file);
+            return null;
+        }
+        buffer.position(start + BLOCK_CHECKSUM_START);
+        final int count = buffer.getInt();
+        final byte type = buffer.get();
+        // Skip first and last time
+        buffer.position(start + BLOCK_HEADER_SIZE);
+        try
+        {
+            return new BlockDecoder(type, count, buffer.slice());
+        }
+        catch (RuntimeException ex)
+        {
+            logger.log(Level.WARNING, "Cannot decode block " + block + " of " + file, ex);
+            return null;
+        }
+    }
+
+    private void map() throws IOException
+    {
+        try
+        (
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)
+        )
+        {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("Cannot map " + file + " of size " + size);
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return file.toString();
+    }
+}
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.archive.reader.columnar;
+
+import static org.phoebus.archive.reader.ArchiveReaders.logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+
+import org.epics.util.stats.Range;
+import org.epics.util.text.NumberFormats;
+import org.epics.vtype.Display;
+import org.epics.vtype.EnumDisplay;
+import org.phoebus.archive.reader.ArchiveReader;
+import org.phoebus.archive.reader.AveragedValueIterator;
+import org.phoebus.archive.reader.UnknownChannelException;
+import org.phoebus.archive.reader.ValueIterator;
+import org.phoebus.util.time.TimeDuration;
+
+/** ArchiveReader for the columnar chunk files of the archive engine
+ *
+ *  <p>The archive directory has a sub-directory per channel
+ *  with a meta data file and a data and index file per UTC day.
+ *  Blocks of samples are located via the index
+ *  and decoded from the memory-mapped data file.
+ */
+@SuppressWarnings("nls")
+public class ColumnarArchiveReader implements ArchiveReader
+{
+    private static final String META = "meta.properties";
+
+    private final File directory;
+
+    /** Active iterators, to support cancellation */
+    private final List<ColumnarValueIterator> iterators = new CopyOnWriteArrayList<>();
+
+    /** @param directory Archive directory
+     *  @throws Exception on error
+     */
+    public ColumnarArchiveReader(final File directory) throws Exception
+    {
+        if (! directory.isDirectory())
+            throw new IOException("Cannot find archive directory " + directory);
+        this.directory = directory;
+    }
+
+    @Override
+    public String getDescription()
+    {
+        return "Columnar archive files in " + directory;
+    }
+
+    @Override
+    public List<String> getNamesByPattern(final String glob_pattern) throws Exception
+    {
+        final List<String> result = new ArrayList<>();
+        if (glob_pattern.isEmpty())
+            return result;
+        final String reg_exp = glob_pattern.replace("\\", "\\\\")
+                                           .replace(".", "\\.")
+                                           .replace("*", ".*")
+                                           .replace("?", ".");
+        final Pattern pattern = Pattern.compile(reg_exp, Pattern.CASE_INSENSITIVE);
+        final File[] dirs = directory.listFiles(File::isDirectory);
+        if (dirs != null)
+            for (File dir : dirs)
+            {
+                final String name = URLDecoder.decode(dir.getName(), StandardCharsets.UTF_8);
+                if (pattern.matcher(name).matches())
+                    result.add(name);
+            }
+        result.sort(String::compareTo);
+        return result;
+    }
+
+    private File getChannelDirectory(final String name) throws UnknownChannelException
+    {
+        String dir_name = URLEncoder.encode(name, StandardCharsets.UTF_8);
+        if (dir_name.startsWith("."))
+            dir_name = "%2E" + dir_name.substring(1);
+        final File dir = new File(directory, dir_name);
+        if (! dir.isDirectory())
+            throw new UnknownChannelException(name);
+        return dir;
+    }
+
+    /** @param dir Channel directory
+     *  @param start Start time
+     *  @param end End time
+     *  @return Data files that cover the time range, starting with the last one before the start day
+     */
+    private static List<File> getDataFiles(final File dir, final long start, final long end)
+    {
+        final String first = ChunkFile.getFileName(start), last = ChunkFile.getFileName(end);
+        final String[] names = dir.list((d, name) -> name.endsWith(ChunkFile.DATA));
+        final List<File> files = new ArrayList<>();
+        if (names == null)
+            return files;
+        Arrays.sort(names);
+        File before = null;
+        for (String name : names)
+        {
+            final String day = name.substring(0, name.length() - ChunkFile.DATA.length());
+            if (day.compareTo(first) < 0)
+                before = new File(dir, name);
+            else if (day.compareTo(last) <= 0)
+                files.add(new File(dir, name));
+        }
+        if (before != null)
+            files.add(0, before);
+        return files;
+    }
+
+    @Override
+    public ValueIterator getRawValues(final String name, final Instant start, final Instant end)
+            throws UnknownChannelException, Exception
+    {
+        final File dir = getChannelDirectory(name);
+        final long start_nanos = ChunkFile.toNanos(start), end_nanos = ChunkFile.toNanos(end);
+
+        // Meta data
+        Display display = Display.none();
+        EnumDisplay labels = null;
+        final File meta_file = new File(dir, META);
+        if (meta_file.exists())
+        {
+            final Properties meta = new Properties();
+            try
+            (
+                InputStream in = new FileInputStream(meta_file)
+            )
+            {
+                meta.load(in);
+                if (meta.containsKey("labels"))
+                {
+                    final List<String> choices = new ArrayList<>();
+                    final int count = Integer.parseInt(meta.getProperty("labels"));
+                    for (int i=0; i<count; ++i)
+                        choices.add(meta.getProperty("label." + i, ""));
+                    labels = EnumDisplay.of(choices);
+                }
+                else
+                    display = Display.of(getRange(meta, "display"),
+                                         getRange(meta, "alarm"),
+                                         getRange(meta, "warning"),
+                                         getRange(meta, "control"),
+                                         meta.getProperty("units", ""),
+                                         NumberFormats.precisionFormat(Integer.parseInt(meta.getProperty("precision", "0"))));
+            }
+            catch (Exception ex)
+            {
+                logger.log(Level.WARNING, "Cannot read " + meta_file, ex);
+            }
+        }
+
+        final ColumnarValueIterator iterator = new ColumnarValueIterator(getDataFiles(dir, start_nanos, end_nanos),
+                                                                         start_nanos, end_nanos, display, labels)
+        {
+            @Override
+            public void close()
+            {
+                iterators.remove(this);
+                super.close();
+            }
+        };
+        iterators.add(iterator);
+        return iterator;
+    }
+
+    private static Range getRange(final Properties meta, final String name)
+    {
+        return Range.of(Double.parseDouble(meta.getProperty(name + "_low", "NaN")),
+                        Double.parseDouble(meta.getProperty(name + "_high", "NaN")));
+    }
+
+    @Override
+    public ValueIterator getOptimizedValues(final String name, final Instant start, final Instant end, final int count)
+            throws UnknownChannelException, Exception
+    {
+        // Count samples in the index
+        final long start_nanos = ChunkFile.toNanos(start), end_nanos = ChunkFile.toNanos(end);
+        long counted = 0;
+        for (File data : getDataFiles(getChannelDirectory(name), start_nanos, end_nanos))
+        {
+            final ChunkFile file = new ChunkFile(data);
+            for (int block = file.findBlock(start_nanos);
+                 block < file.getBlockCount()  &&  file.getFirstTime(block) <= end_nanos;
+                 ++block)
+                counted += file.getSampleCount(block);
+        }
+
+        final ValueIterator raw_data = getRawValues(name, start, end);
+        final long actual = counted;
+        if (counted < count)
+        {
+            logger.log(Level.FINER, () -> name + " has only " + actual + " samples, using raw data");
+            return raw_data;
+        }
+        final double seconds = TimeDuration.toSecondsDouble(Duration.between(start, end)) / count;
+        logger.log(Level.FINER, () -> name + " has " + actual + " samples, averaging into " + count + " bins");
+        return new AveragedValueIterator(raw_data, seconds);
+    }
+
+    @Override
+    public void cancel()
+    {
+        for (ColumnarValueIterator iterator : iterators)
+            iterator.cancel();
+    }
+
+    @Override
+    public void close()
+    {
+        cancel();
+        iterators.clear();
+    }
+}
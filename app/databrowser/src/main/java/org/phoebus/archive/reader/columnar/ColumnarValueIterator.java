@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.archive.reader.columnar;
+
+import static org.phoebus.archive.reader.ArchiveReaders.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.logging.Level;
+
+import org.epics.vtype.Display;
+import org.epics.vtype.EnumDisplay;
+import org.epics.vtype.VType;
+import org.phoebus.archive.reader.ValueIterator;
+
+/** Iterates over the samples of a channel in its chunk files
+ *
+ *  <p>Starts with the last sample at or before the start time,
+ *  followed by all samples up to the end time.
+ */
+@SuppressWarnings("nls")
+class ColumnarValueIterator implements ValueIterator
+{
+    private final long start, end;
+    private final Display display;
+    private final EnumDisplay labels;
+
+    /** Data files to read */
+    private final Queue<File> files;
+
+    /** Current file and block */
+    private ChunkFile file = null;
+    private int block_index;
+    private BlockDecoder block = null;
+    private int sample_index;
+
+    /** Last sample before the start time that's still to be returned */
+    private BlockDecoder before_block = null;
+    private int before_index;
+
+    /** Sample that will be returned by next(), or <code>null</code> */
+    private VType next;
+
+    private volatile boolean cancelled = false;
+
+    /** @param files Data files, sorted by day, the first one may end before the start time
+     *  @param start Start time, epoch nanoseconds
+     *  @param end End time, epoch nanoseconds
+     *  @param display Display for numeric samples
+     *  @param labels Labels for enumerated samples, may be <code>null</code>
+     */
+    ColumnarValueIterator(final List<File> files, final long start, final long end,
+                          final Display display, final EnumDisplay labels)
+    {
+        this.files = new ArrayDeque<>(files);
+        this.start = start;
+        this.end = end;
+        this.display = display;
+        this.labels = labels;
+        next = fetch();
+    }
+
+    private VType fetch()
+    {
+        try
+        {
+            while (! cancelled)
+            {
+                if (block != null  &&  sample_index < block.getCount())
+                {
+                    final long time = block.getTime(sample_index);
+                    if (time < start)
+                    {
+                        before_block = block;
+                        before_index = sample_index++;
+                        continue;
+                    }
+                    if (time > end)
+                        break;
+                    if (before_block != null)
+                        return takeBefore();
+                    return block.getSample(sample_index++, display, labels);
+                }
+                if (! nextBlock())
+                    break;
+            }
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Error reading " + file, ex);
+        }
+        // Done. Return sample before start if that's all there is
+        files.clear();
+        file = null;
+        block = null;
+        return takeBefore();
+    }
+
+    private VType takeBefore()
+    {
+        if (before_block == null)
+            return null;
+        final VType sample = before_block.getSample(before_index, display, labels);
+        before_block = null;
+        return sample;
+    }
+
+    /** @return <code>true</code> if there's another block to read */
+    private boolean nextBlock() throws IOException
+    {
+        while (true)
+        {
+            if (file != null  &&  ++block_index < file.getBlockCount())
+            {
+                if (file.getFirstTime(block_index) > end)
+                    return false;
+                block = file.readBlock(block_index);
+                sample_index = 0;
+                if (block != null)
+                    return true;
+                continue;
+            }
+            if (files.isEmpty())
+                return false;
+            file = new ChunkFile(files.remove());
+            // Skip blocks before the start time, but remember the last sample of the last one
+            block_index = file.findBlock(start);
+            if (block_index > 0)
+            {
+                final BlockDecoder skipped = file.readBlock(block_index - 1);
+                if (skipped != null)
+                {
+                    before_block = skipped;
+                    before_index = skipped.getCount() - 1;
+                }
+            }
+            --block_index;
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        return next != null;
+    }
+
+    @Override
+    public VType next()
+    {
+        if (next == null)
+            throw new NoSuchElementException();
+        final VType result = next;
+        next = fetch();
+        return result;
+    }
+
+    /** Stop iterating */
+    void cancel()
+    {
+        cancelled = true;
+    }
+
+    @Override
+    public void close()
+    {
+        cancel();
+        files.clear();
+        file = null;
+        block = null;
+        before_block = null;
+    }
+}
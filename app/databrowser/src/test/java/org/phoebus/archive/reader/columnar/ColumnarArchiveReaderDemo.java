@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.archive.reader.columnar;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.epics.vtype.VType;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.phoebus.archive.reader.ArchiveReader;
+import org.phoebus.archive.reader.ValueIterator;
+
+/** Demo of columnar archive reader */
+@SuppressWarnings("nls")
+public class ColumnarArchiveReaderDemo
+{
+    // Meant for an archive engine with columnar_directory=/tmp/columnar_archive
+    private static ArchiveReader reader;
+    private static String name;
+
+    @BeforeClass
+    public static void setup() throws Exception
+    {
+        reader = new ColumnarArchiveReaderFactory().createReader("columnar:/tmp/columnar_archive");
+        final List<String> names = new ArrayList<>(reader.getNamesByPattern("*"));
+        System.out.println(names);
+        name = names.get(0);
+    }
+
+    @AfterClass
+    public static void shutdown()
+    {
+        reader.close();
+    }
+
+    @Test
+    public void testInfo() throws Exception
+    {
+        System.out.println(reader.getDescription());
+    }
+
+    @Test
+    public void testRaw() throws Exception
+    {
+        final Instant end = Instant.now();
+        final Instant start = end.minus(Duration.ofDays(1));
+        System.out.println(name);
+        final long t0 = System.nanoTime();
+        int count = 0;
+        try
+        (
+            ValueIterator values = reader.getRawValues(name, start, end)
+        )
+        {
+            while (values.hasNext())
+            {
+                final VType value = values.next();
+                if (count < 10)
+                    System.out.println(value);
+                ++count;
+            }
+        }
+        final double secs = (System.nanoTime() - t0) / 1e9;
+        System.out.format("%d samples in %.3f seconds, %.0f samples/sec\n", count, secs, count / secs);
+    }
+
+    @Test
+    public void testOptimized() throws Exception
+    {
+        final Instant end = Instant.now();
+        final Instant start = end.minus(Duration.ofDays(30));
+        System.out.println(name);
+        try
+        (
+            ValueIterator values = reader.getOptimizedValues(name, start, end, 100)
+        )
+        {
+            while (values.hasNext())
+                System.out.println(values.next());
+        }
+    }
+}
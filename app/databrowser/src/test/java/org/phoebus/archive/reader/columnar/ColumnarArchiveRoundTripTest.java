@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.archive.reader.columnar;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.csstudio.archive.writer.WriteChannel;
+import org.csstudio.archive.writer.columnar.ColumnarArchiveWriter;
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.stats.Range;
+import org.epics.util.text.NumberFormats;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.EnumDisplay;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VNumber;
+import org.epics.vtype.VNumberArray;
+import org.epics.vtype.VString;
+import org.epics.vtype.VType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.phoebus.archive.reader.UnknownChannelException;
+import org.phoebus.archive.reader.ValueIterator;
+
+/** Reads files written by the archive engine's {@link ColumnarArchiveWriter}
+ *
+ *  <p>The writer and the {@link ColumnarArchiveReader} each implement the file format,
+ *  so this test checks that they agree.
+ */
+@SuppressWarnings("nls")
+public class ColumnarArchiveRoundTripTest
+{
+    private static final Display display = Display.of(Range.of(0, 10), Range.of(1, 9), Range.of(2, 8), Range.of(-1, 11), "a.u.", NumberFormats.precisionFormat(2));
+
+    private static final EnumDisplay labels = EnumDisplay.of("Off", "On", "Fault");
+
+    /** 2026-03-04 00:00:00 UTC */
+    private static final long START = 1772582400L;
+
+    private File directory;
+
+    @Before
+    public void setup() throws Exception
+    {
+        directory = Files.createTempDirectory("columnar").toFile();
+    }
+
+    @After
+    public void cleanup()
+    {
+        delete(directory);
+    }
+
+    private static void delete(final File file)
+    {
+        final File[] files = file.listFiles();
+        if (files != null)
+            for (File sub : files)
+                delete(sub);
+        file.delete();
+    }
+
+    /** @return Mix of value types and alarms, 1 Hz for two days */
+    private static List<VType> createSamples()
+    {
+        final List<VType> samples = new ArrayList<>();
+        for (int i=0; i<2*24*3600; ++i)
+        {
+            final Time time = Time.of(Instant.ofEpochSecond(START + i, (i * 7919 % 1000) * 1000));
+            final Alarm alarm = (i % 1000 < 10)
+                              ? Alarm.of(AlarmSeverity.MINOR, AlarmStatus.DEVICE, "LOW")
+                              : Alarm.none();
+            if (i % 50000 == 7)
+                samples.add(VString.of("Disconnected", Alarm.disconnected(), time));
+            else if (i % 40000 == 9)
+                samples.add(VDoubleArray.of(ArrayDouble.of(1.5, -2, Double.NaN), alarm, time, display));
+            else if (i % 30000 == 3)
+                samples.add(VLong.of(-(1L << 40) + i, alarm, time, display));
+            else
+                samples.add(VDouble.of(5.0 + Math.sin(i / 100.0), alarm, time, display));
+        }
+        return samples;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        final List<VType> written = createSamples();
+        final ColumnarArchiveWriter writer = new ColumnarArchiveWriter(directory);
+        final WriteChannel channel = writer.getChannel("ca://Test:PV.VAL");
+        for (int i=0; i<written.size(); ++i)
+        {
+            writer.addSample(channel, written.get(i));
+            if (i % 300 == 299)
+                writer.flush();
+        }
+        final WriteChannel enum_channel = writer.getChannel("Test:State");
+        for (int i=0; i<10; ++i)
+            writer.addSample(enum_channel, VEnum.of(i % 3, labels, Alarm.none(), Time.of(Instant.ofEpochSecond(START + i))));
+        writer.flush();
+        writer.close();
+
+        final ColumnarArchiveReader reader = new ColumnarArchiveReader(directory);
+        assertThat(reader.getNamesByPattern("*Test*").size(), equalTo(2));
+
+        // All samples with their value type, value, time stamp, alarm and meta data
+        final List<VType> read = read(reader.getRawValues("ca://Test:PV.VAL", Instant.ofEpochSecond(START - 100), Instant.ofEpochSecond(START + 10*24*3600)));
+        assertThat(read.size(), equalTo(written.size()));
+        for (int i=0; i<written.size(); ++i)
+        {
+            final VType expected = written.get(i), sample = read.get(i);
+            assertThat(sample, instanceOf(getType(expected)));
+            assertThat(Time.timeOf(sample).getTimestamp(), equalTo(Time.timeOf(expected).getTimestamp()));
+            assertThat(Alarm.alarmOf(sample), equalTo(Alarm.alarmOf(expected)));
+            if (expected instanceof VNumber)
+            {
+                assertThat(((VNumber)sample).getValue().doubleValue(), equalTo(((VNumber)expected).getValue().doubleValue()));
+                assertThat(Display.displayOf(sample), equalTo(display));
+            }
+            else if (expected instanceof VNumberArray)
+            {
+                assertThat(((VNumberArray)sample).getData(), equalTo(((VNumberArray)expected).getData()));
+                assertThat(Display.displayOf(sample), equalTo(display));
+            }
+            else
+                assertThat(((VString)sample).getValue(), equalTo(((VString)expected).getValue()));
+        }
+
+        // Window starts with the last sample before the start, here from the previous day
+        final Instant day = Instant.ofEpochSecond(START + 24*3600);
+        read.clear();
+        read.addAll(read(reader.getRawValues("ca://Test:PV.VAL", day, day.plusSeconds(5))));
+        assertThat(read.size(), equalTo(6));
+        assertThat(Time.timeOf(read.get(0)).getTimestamp(), equalTo(Time.timeOf(written.get(24*3600 - 1)).getTimestamp()));
+
+        // Enum with labels
+        read.clear();
+        read.addAll(read(reader.getRawValues("Test:State", Instant.ofEpochSecond(START), Instant.ofEpochSecond(START + 5))));
+        assertThat(read.size(), equalTo(6));
+        for (int i=0; i<read.size(); ++i)
+        {
+            final VEnum sample = (VEnum) read.get(i);
+            assertThat(sample.getIndex(), equalTo(i % 3));
+            assertThat(sample.getDisplay().getChoices(), equalTo(labels.getChoices()));
+        }
+
+        try
+        {
+            reader.getRawValues("Test:Unknown", Instant.ofEpochSecond(START), day);
+            throw new AssertionError("Unknown channel was found");
+        }
+        catch (UnknownChannelException ex)
+        {
+            // Expected
+        }
+        reader.close();
+    }
+
+    private static Class<?> getType(final VType sample)
+    {
+        for (Class<?> type : new Class<?>[] { VDouble.class, VLong.class, VDoubleArray.class, VString.class })
+            if (type.isInstance(sample))
+                return type;
+        return VType.class;
+    }
+
+    private static List<VType> read(final ValueIterator values) throws Exception
+    {
+        final List<VType> result = new ArrayList<>();
+        while (values.hasNext())
+            result.add(values.next());
+        values.close();
+        return result;
+    }
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.csstudio.apputil.formula.Node;
+import org.csstudio.apputil.formula.VariableNode;
+import org.csstudio.apputil.formula.node.AddNode;
+import org.csstudio.apputil.formula.node.DivNode;
+import org.csstudio.apputil.formula.node.FusedNode;
+import org.csstudio.apputil.formula.node.GreaterThanNode;
+import org.csstudio.apputil.formula.node.MulNode;
+import org.epics.util.array.ArrayDouble;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Interpreted node tree compared with {@link FusedNode}
+ *
+ *  <p>Expressions operate on arrays a, b, c.
+ *  Note that for example <code>a*2</code> results in a scalar,
+ *  so only operations between arrays are element-wise.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FusedNodeBenchmark
+{
+    /** Array elements */
+    @Param({ "1", "1000", "100000" })
+    public int elements;
+
+    /** Expression */
+    @Param({ "a+b", "(a*b+b)/c", "(a*b+b)/c>a" })
+    public String expression;
+
+    private Node interpreted, fused;
+
+    private static VType createArray(final int elements, final double offset)
+    {
+        final double[] data = new double[elements];
+        for (int i=0; i<elements; ++i)
+            data[i] = offset + i;
+        return VDoubleArray.of(ArrayDouble.of(data), Alarm.none(), Time.now(), Display.none());
+    }
+
+    @Setup
+    public void setup()
+    {
+        final VariableNode a = new VariableNode("a", createArray(elements, 1));
+        final VariableNode b = new VariableNode("b", createArray(elements, 2));
+        final VariableNode c = new VariableNode("c", createArray(elements, 3));
+        switch (expression)
+        {
+        case "a+b":
+            interpreted = new AddNode(a, b);
+            break;
+        case "(a*b+b)/c":
+            interpreted = new DivNode(new AddNode(new MulNode(a, b), b), c);
+            break;
+        case "(a*b+b)/c>a":
+            interpreted = new GreaterThanNode(new DivNode(new AddNode(new MulNode(a, b), b), c), a);
+            break;
+        default:
+            throw new IllegalArgumentException(expression);
+        }
+        fused = FusedNode.compile(interpreted);
+    }
+
+    @Benchmark
+    public VType interpreted()
+    {
+        return interpreted.eval();
+    }
+
+    @Benchmark
+    public VType fused()
+    {
+        return fused.eval();
+    }
+}
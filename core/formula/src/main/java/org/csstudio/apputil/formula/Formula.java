@@ -13,6 +13,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Vector;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,6 +22,7 @@ import org.csstudio.apputil.formula.node.AndNode;
 import org.csstudio.apputil.formula.node.ConstantNode;
 import org.csstudio.apputil.formula.node.DivNode;
 import org.csstudio.apputil.formula.node.EqualNode;
+import org.csstudio.apputil.formula.node.FusedNode;
 import org.csstudio.apputil.formula.node.GreaterEqualNode;
 import org.csstudio.apputil.formula.node.GreaterThanNode;
 import org.csstudio.apputil.formula.node.IfNode;
@@ -70,11 +72,16 @@ import org.epics.vtype.VType;
  *      Before evaluating the formula,
  *      caller needs to query the formula for its automatically determined variables
  *      and set their values.
+ *  <li><code>new Formula("2+A+B", variables, shared)</code> also determines the variables,
+ *      but obtains them from a function so that several formulas can use the same variables.
+ *      Identical sub-expressions of such formulas are shared via {@link SharedNodes}.
  *  </ul>
  *
  *  <p>The formula string is parsed into a tree, so that subsequent
  *  evaluations, possibly with modified values for input variables,
  *  are reasonably fast.
+ *  Arithmetic sub-trees are compiled into a {@link FusedNode}
+ *  which computes array results in one loop.
  *
  *  <p>Functions can be provided via the {@link FormulaFunction} SPI.
  *
@@ -111,12 +118,25 @@ public class Formula implements Node
         }
     }
 
+    /** Compile arithmetic sub-expressions into {@link FusedNode}s?
+     *
+     *  <p>Enabled by default, can be disabled via the system property
+     *  <code>org.csstudio.apputil.formula.compile=false</code>
+     */
+    static boolean compile = ! "false".equals(System.getProperty("org.csstudio.apputil.formula.compile"));
+
     /** Determine variables from formula? */
     final private boolean determine_variables;
 
     /** Variables that can be used in the formula */
     final private ArrayList<VariableNode> variables;
 
+    /** Provides variables by name, or <code>null</code> to create them */
+    final private Function<String, VariableNode> variable_provider;
+
+    /** Sub-expressions shared with other formulas, or <code>null</code> */
+    final private SharedNodes shared;
+
     /** Create formula from string.
      *  @param formula The formula to parse
      *  @throws Exception on parse error
@@ -144,6 +164,8 @@ public class Formula implements Node
                 this.variables.add(var);
         }
         this.determine_variables = false;
+        this.variable_provider = null;
+        this.shared = null;
         tree = parse();
     }
 
@@ -158,6 +180,26 @@ public class Formula implements Node
         this.formula = formula;
         this.variables = new ArrayList<>();
         this.determine_variables = determine_variables;
+        this.variable_provider = null;
+        this.shared = null;
+        tree = parse();
+    }
+
+    /** Create formula from string, sharing variables and sub-expressions with other formulas.
+     *  @param formula The formula to parse
+     *  @param variables Provides the variable for each name found in the formula
+     *  @param shared Sub-expressions shared with other formulas
+     *  @throws Exception on parse error
+     */
+    public Formula(final String formula,
+                   final Function<String, VariableNode> variables,
+                   final SharedNodes shared) throws Exception
+    {
+        this.formula = formula;
+        this.variables = new ArrayList<>();
+        this.determine_variables = true;
+        this.variable_provider = variables;
+        this.shared = shared;
         tree = parse();
     }
 
@@ -319,7 +361,7 @@ public class Formula implements Node
                 !function.isVarArgs())
                 throw new Exception("Function " + function.getSignature() + " takes " +
                                     function.getArguments().size() + " arguments but received " + Arrays.toString(args));
-            return new SPIFuncNode(function, args);
+            return share(new SPIFuncNode(function, args));
         }
         // ... oddballs
         if (name.equalsIgnoreCase("rnd"))
@@ -332,13 +374,13 @@ public class Formula implements Node
         {
             if (args.length < 2)
                 throw new Exception("Expected >=2 arg, got " + args.length);
-            return new MinNode(args);
+            return share(new MinNode(args));
         }
         if (name.equalsIgnoreCase("max"))
         {
             if (args.length < 2)
                 throw new Exception("Expected >=2 arg, got " + args.length);
-            return new MaxNode(args);
+            return share(new MaxNode(args));
         }
         throw new Exception("Unknown function '" + name +"'");
     }
@@ -355,7 +397,7 @@ public class Formula implements Node
         while (!s.isDone())
         {
             Node arg = parseBool(s);
-            args.add(arg);
+            args.add(share(fuse(arg)));
             // Expect ',' and another arg or ')'
             if (s.get() != ',')
                 break;
@@ -390,7 +432,7 @@ public class Formula implements Node
         if (!determine_variables)
            throw new Exception("Unknown variable '" + name + "'");
         // else: Automatically generate the unknown variable
-        final VariableNode var = new VariableNode(name);
+        final VariableNode var = variable_provider != null ? variable_provider.apply(name) : new VariableNode(name);
         variables.add(var);
         return var;
     }
@@ -563,13 +605,21 @@ public class Formula implements Node
                 if (s.get() != ':')
                     throw new Exception("Expected ':' to follow the (cond) ? ...");
                 s.next();
-                n = new IfNode(n, yes, parseBool(s));
+                n = share(new IfNode(fuse(n), fuse(yes), fuse(parseBool(s))));
             }
             else break;
         }
         return n;
     }
 
+    /** @param node Node
+     *  @return {@link FusedNode} for arithmetic sub-tree if {@link #compile} is enabled, else original node
+     */
+    private static Node fuse(final Node node)
+    {
+        return compile ? FusedNode.compile(node) : node;
+    }
+
     /** Parse formula.
      */
     private Node parse() throws Exception
@@ -578,7 +628,17 @@ public class Formula implements Node
         final Node tree = parseBool(scanner);
         if (! scanner.isDone())
             throw new Exception("Parse error at '" + scanner.rest() + "'");
-        return tree;
+        return share(fuse(tree));
+    }
+
+    /** @param node Newly parsed node
+     *  @return Node shared with other formulas, or the original node
+     */
+    private Node share(final Node node)
+    {
+        if (shared == null)
+            return node;
+        return shared.share(node, variables);
     }
 
     @Override
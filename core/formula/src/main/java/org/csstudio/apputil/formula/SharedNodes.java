@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.csstudio.apputil.formula.node.ConstantNode;
+import org.epics.vtype.VType;
+
+/** Sub-expressions shared between formulas
+ *
+ *  <p>Formulas that are parsed with the same {@link SharedNodes}
+ *  and the same {@link VariableNode}s for their inputs
+ *  use one node for identical sub-expressions,
+ *  for example function calls.
+ *  A shared node remembers its last result and the input values
+ *  from which it was computed.
+ *  When another formula evaluates the node with unchanged inputs,
+ *  it receives the remembered result.
+ *
+ *  <p>Sub-expressions are identified by their canonical text
+ *  and the variables they use.
+ *  Nodes are only held while a formula uses them.
+ */
+@SuppressWarnings("nls")
+public class SharedNodes
+{
+    /** Result of a shared node and the input values used to compute it */
+    private static class Result
+    {
+        final VType[] inputs;
+        final VType value;
+
+        Result(final VType[] inputs, final VType value)
+        {
+            this.inputs = inputs;
+            this.value = value;
+        }
+    }
+
+    /** Node shared by formulas */
+    private class SharedNode implements Node
+    {
+        private final Node node;
+        private final VariableNode[] variables;
+        private volatile Result result = null;
+
+        SharedNode(final Node node, final VariableNode[] variables)
+        {
+            this.node = node;
+            this.variables = variables;
+        }
+
+        /** @param others Variables
+         *  @return Does this node use exactly these variables?
+         */
+        boolean uses(final VariableNode[] others)
+        {
+            if (others.length != variables.length)
+                return false;
+            for (VariableNode other : others)
+            {
+                boolean found = false;
+                for (VariableNode variable : variables)
+                    if (variable == other)
+                    {
+                        found = true;
+                        break;
+                    }
+                if (! found)
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public VType eval()
+        {
+            final VType[] inputs = new VType[variables.length];
+            for (int i=0; i<inputs.length; ++i)
+                inputs[i] = variables[i].eval();
+            final Result last = result;
+            if (last != null  &&  isSame(last.inputs, inputs))
+            {
+                reused.increment();
+                return last.value;
+            }
+            // Formulas evaluated in parallel may both compute a new result,
+            // the one computed last is kept
+            final VType value = node.eval();
+            result = new Result(inputs, value);
+            return value;
+        }
+
+        @Override
+        public boolean hasSubnode(final Node other)
+        {
+            return node == other  ||  node.hasSubnode(other);
+        }
+
+        @Override
+        public boolean hasSubnode(final String name)
+        {
+            return node.hasSubnode(name);
+        }
+
+        @Override
+        public String toString()
+        {
+            return node.toString();
+        }
+    }
+
+    /** Weak reference to a shared node that remembers its expression */
+    private static class NodeReference extends WeakReference<SharedNode>
+    {
+        final String expression;
+
+        NodeReference(final SharedNode node, final String expression, final ReferenceQueue<SharedNode> queue)
+        {
+            super(node, queue);
+            this.expression = expression;
+        }
+    }
+
+    /** Shared nodes by expression. Expressions with different variables of the same name are in the list */
+    private final Map<String, List<NodeReference>> nodes = new HashMap<>();
+
+    /** Nodes that are no longer used by any formula */
+    private final ReferenceQueue<SharedNode> unused = new ReferenceQueue<>();
+
+    private final LongAdder reused = new LongAdder();
+
+    /** @param last Input values of the last evaluation
+     *  @param inputs Current input values
+     *  @return Are these the same values?
+     */
+    private static boolean isSame(final VType[] last, final VType[] inputs)
+    {
+        for (int i=0; i<inputs.length; ++i)
+            if (last[i] != inputs[i])
+                return false;
+        return true;
+    }
+
+    /** Get shared node for a sub-expression
+     *
+     *  @param node Node of a newly parsed formula
+     *  @param variables All variables of that formula
+     *  @return Shared node for the same expression with the same variables
+     */
+    synchronized Node share(final Node node, final List<VariableNode> variables)
+    {
+        // Sharing a plain value or a random number has no benefit
+        if (node == null  ||  node instanceof VariableNode  ||  node instanceof ConstantNode  ||
+            node instanceof SharedNode)
+            return node;
+        final String expression = node.toString();
+        if (expression.contains("rnd("))
+            return node;
+
+        removeUnused();
+
+        final List<VariableNode> used = new ArrayList<>();
+        for (VariableNode variable : variables)
+            if (node.hasSubnode(variable))
+                used.add(variable);
+        final VariableNode[] inputs = used.toArray(new VariableNode[used.size()]);
+
+        final List<NodeReference> refs = nodes.computeIfAbsent(expression, e -> new ArrayList<>(1));
+        for (NodeReference ref : refs)
+        {
+            final SharedNode shared = ref.get();
+            if (shared != null  &&  shared.uses(inputs))
+                return shared;
+        }
+        final SharedNode shared = new SharedNode(node, inputs);
+        refs.add(new NodeReference(shared, expression, unused));
+        return shared;
+    }
+
+    private void removeUnused()
+    {
+        NodeReference ref;
+        while ((ref = (NodeReference) unused.poll()) != null)
+        {
+            final List<NodeReference> refs = nodes.get(ref.expression);
+            if (refs == null)
+                continue;
+            refs.remove(ref);
+            if (refs.isEmpty())
+                nodes.remove(ref.expression);
+        }
+    }
+
+    /** @return Number of sub-expressions currently shared */
+    public synchronized int size()
+    {
+        removeUnused();
+        int count = 0;
+        for (List<NodeReference> refs : nodes.values())
+            count += refs.size();
+        return count;
+    }
+
+    /** @return Number of evaluations that used a remembered result instead of computing it again */
+    public long getReuseCount()
+    {
+        return reused.sum();
+    }
+}
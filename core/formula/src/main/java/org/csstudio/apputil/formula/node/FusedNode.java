@@ -0,0 +1,368 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula.node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntToDoubleFunction;
+
+import org.csstudio.apputil.formula.Node;
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.array.ListNumber;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VNumber;
+import org.epics.vtype.VNumberArray;
+import org.epics.vtype.VType;
+import org.phoebus.core.vtypes.VTypeHelper;
+
+/** Fused evaluation of an arithmetic sub-tree
+ *
+ *  <p>The interpreted {@link AbstractBinaryNode} and {@link AbstractUnaryNode}
+ *  compute each operation for the complete array,
+ *  allocating a temporary array and {@link VType} per operation.
+ *  For a tree of such operations, this node evaluates the inputs once
+ *  and then computes each element of the result in one loop,
+ *  composing the per-element operations without intermediate arrays.
+ *
+ *  <p>Results are the same as for the interpreted tree,
+ *  including the handling of mixed scalar and array operands,
+ *  alarm, time stamp and display information.
+ *  When an input is not numeric, for example a string,
+ *  the interpreted tree is used.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class FusedNode implements Node
+{
+    /** Nodes that can be fused because they only use the element-wise <code>calc(..)</code> */
+    private static final Set<Class<?>> fusible = Set.of(AddNode.class, SubNode.class, MulNode.class, DivNode.class, PwrNode.class,
+                                                        EqualNode.class, NotEqualNode.class,
+                                                        GreaterThanNode.class, GreaterEqualNode.class,
+                                                        LessThanNode.class, LessEqualNode.class,
+                                                        AndNode.class, OrNode.class,
+                                                        NotNode.class, RndNode.class);
+
+    /** Arrays below this size are computed without composing per-element functions */
+    private static final int SMALL_ARRAY = 16;
+
+    /** Compiled operation, numbered for per-evaluation state */
+    private static abstract class Op
+    {
+        final int id;
+
+        Op(final int id)
+        {
+            this.id = id;
+        }
+    }
+
+    /** Input to the fused tree: Variable, constant, or a node that cannot be fused */
+    private static class Input extends Op
+    {
+        final Node node;
+
+        Input(final int id, final Node node)
+        {
+            super(id);
+            this.node = node;
+        }
+    }
+
+    private static class Unary extends Op
+    {
+        final AbstractUnaryNode node;
+        final Op arg;
+
+        Unary(final int id, final AbstractUnaryNode node, final Op arg)
+        {
+            super(id);
+            this.node = node;
+            this.arg = arg;
+        }
+    }
+
+    private static class Binary extends Op
+    {
+        final AbstractBinaryNode node;
+        final Op left, right;
+
+        Binary(final int id, final AbstractBinaryNode node, final Op left, final Op right)
+        {
+            super(id);
+            this.node = node;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /** Original, interpreted tree */
+    private final Node tree;
+
+    /** Compiled tree */
+    private final Op root;
+
+    /** Inputs in the order they are evaluated by the interpreted tree */
+    private final List<Input> inputs = new ArrayList<>();
+
+    /** Number of operations */
+    private int ops = 0;
+
+    /** Compile node into fused evaluator
+     *  @param node Node, may be <code>null</code>
+     *  @return {@link FusedNode} or original node if nothing can be fused
+     */
+    public static Node compile(final Node node)
+    {
+        if (node == null  ||  ! fusible.contains(node.getClass()))
+            return node;
+        // A single operation has no intermediate results to avoid
+        if (node instanceof AbstractUnaryNode)
+        {
+            if (! fusible.contains(((AbstractUnaryNode) node).n.getClass()))
+                return node;
+        }
+        else if (! fusible.contains(((AbstractBinaryNode) node).left.getClass())  &&
+                 ! fusible.contains(((AbstractBinaryNode) node).right.getClass()))
+            return node;
+        return new FusedNode(node);
+    }
+
+    private FusedNode(final Node tree)
+    {
+        this.tree = tree;
+        root = compileOp(tree);
+    }
+
+    private Op compileOp(final Node node)
+    {
+        if (fusible.contains(node.getClass()))
+        {
+            if (node instanceof AbstractUnaryNode)
+            {
+                final AbstractUnaryNode unary = (AbstractUnaryNode) node;
+                final Op arg = compileOp(unary.n);
+                return new Unary(ops++, unary, arg);
+            }
+            final AbstractBinaryNode binary = (AbstractBinaryNode) node;
+            final Op left = compileOp(binary.left);
+            final Op right = compileOp(binary.right);
+            return new Binary(ops++, binary, left, right);
+        }
+        final Input input = new Input(ops++, node);
+        inputs.add(input);
+        return input;
+    }
+
+    /** State of one evaluation */
+    private class Evaluation
+    {
+        /** Values of inputs by op ID */
+        final VType[] values = new VType[ops];
+
+        /** Array size by op ID, -1 for scalar */
+        final int[] sizes = new int[ops];
+
+        /** @return <code>true</code> if all inputs are numbers that can be fused */
+        boolean evalInputs()
+        {
+            for (Input input : inputs)
+            {
+                final VType value = input.node.eval();
+                if (value instanceof VNumberArray)
+                    sizes[input.id] = VTypeHelper.getArraySize(value);
+                else if (value instanceof VNumber)
+                    sizes[input.id] = -1;
+                else
+                    return false;
+                values[input.id] = value;
+            }
+            determineSize(root);
+            return true;
+        }
+
+        /** Like interpreter, operation results in array if all arguments are arrays */
+        private int determineSize(final Op op)
+        {
+            if (op instanceof Unary)
+                sizes[op.id] = determineSize(((Unary) op).arg);
+            else if (op instanceof Binary)
+            {
+                final int left = determineSize(((Binary) op).left);
+                final int right = determineSize(((Binary) op).right);
+                sizes[op.id] = (left >= 0  &&  right >= 0) ? Math.min(left, right) : -1;
+            }
+            return sizes[op.id];
+        }
+
+        /** @param op Operation
+         *  @return Scalar result, using the first element of an array
+         */
+        double scalar(final Op op)
+        {
+            if (op instanceof Input)
+                return VTypeHelper.toDouble(values[op.id]);
+            if (sizes[op.id] >= 0)
+                return sizes[op.id] > 0 ? element(op, 0) : Double.NaN;
+            if (op instanceof Unary)
+            {
+                final Unary unary = (Unary) op;
+                return unary.node.calc(scalar(unary.arg));
+            }
+            final Binary binary = (Binary) op;
+            return binary.node.calc(scalar(binary.left), scalar(binary.right));
+        }
+
+        /** @param op Operation that results in an array
+         *  @param i Element index
+         *  @return Element of the result
+         */
+        double element(final Op op, final int i)
+        {
+            if (op instanceof Input)
+            {
+                final ListNumber data = ((VNumberArray) values[op.id]).getData();
+                return i < data.size() ? data.getDouble(i) : Double.NaN;
+            }
+            if (op instanceof Unary)
+            {
+                final Unary unary = (Unary) op;
+                return unary.node.calc(element(unary.arg, i));
+            }
+            final Binary binary = (Binary) op;
+            return binary.node.calc(element(binary.left, i), element(binary.right, i));
+        }
+
+        /** @param op Operation that results in an array
+         *  @return Function that computes an element of the result
+         */
+        IntToDoubleFunction elements(final Op op)
+        {
+            if (op instanceof Input)
+            {
+                final ListNumber data = ((VNumberArray) values[op.id]).getData();
+                final int n = data.size();
+                return i -> i < n ? data.getDouble(i) : Double.NaN;
+            }
+            if (op instanceof Unary)
+            {
+                final AbstractUnaryNode node = ((Unary) op).node;
+                final IntToDoubleFunction arg = elements(((Unary) op).arg);
+                return i -> node.calc(arg.applyAsDouble(i));
+            }
+            // Array result implies that both left and right are arrays
+            final Binary binary = (Binary) op;
+            final IntToDoubleFunction left = elements(binary.left);
+            final IntToDoubleFunction right = elements(binary.right);
+            // Separate lambdas for the most common operations
+            // allow the JIT to inline them
+            final Class<?> type = binary.node.getClass();
+            if (type == AddNode.class)
+                return i -> left.applyAsDouble(i) + right.applyAsDouble(i);
+            if (type == SubNode.class)
+                return i -> left.applyAsDouble(i) - right.applyAsDouble(i);
+            if (type == MulNode.class)
+                return i -> left.applyAsDouble(i) * right.applyAsDouble(i);
+            if (type == DivNode.class)
+                return i -> left.applyAsDouble(i) / right.applyAsDouble(i);
+            final AbstractBinaryNode node = binary.node;
+            return i -> node.calc(left.applyAsDouble(i), right.applyAsDouble(i));
+        }
+
+        /** Like {@link VTypeHelper#highestAlarmOf(VType, VType)} for each operation */
+        Alarm alarm(final Op op)
+        {
+            if (op instanceof Input)
+                return Alarm.alarmOf(values[op.id]);
+            if (op instanceof Unary)
+                return alarm(((Unary) op).arg);
+            final Alarm left = alarm(((Binary) op).left);
+            final Alarm right = alarm(((Binary) op).right);
+            Alarm result = Alarm.none();
+            if (left.getSeverity().compareTo(result.getSeverity()) > 0)
+                result = left;
+            if (right.getSeverity().compareTo(result.getSeverity()) > 0)
+                result = right;
+            return result;
+        }
+
+        /** Like {@link VTypeHelper#lastestTimeOf(VType, VType)} for each operation */
+        Time time(final Op op)
+        {
+            if (op instanceof Input)
+                return Time.timeOf(values[op.id]);
+            if (op instanceof Unary)
+                return time(((Unary) op).arg);
+            final Time left = time(((Binary) op).left);
+            final Time right = time(((Binary) op).right);
+            return left.getTimestamp().isAfter(right.getTimestamp()) ? left : right;
+        }
+
+        /** Like interpreter, result has display of the (left) argument */
+        Display display(final Op op)
+        {
+            if (op instanceof Input)
+                return Display.displayOf(values[op.id]);
+            if (op instanceof Unary)
+                return display(((Unary) op).arg);
+            return display(((Binary) op).left);
+        }
+    }
+
+    @Override
+    public VType eval()
+    {
+        final Evaluation evaluation = new Evaluation();
+        if (! evaluation.evalInputs())
+            return tree.eval();
+
+        final Alarm alarm = evaluation.alarm(root);
+        final Time time = evaluation.time(root);
+        final Display display = evaluation.display(root);
+        final int n = evaluation.sizes[root.id];
+        if (n < 0)
+            return VDouble.of(evaluation.scalar(root), alarm, time, display);
+
+        final double[] result = new double[n];
+        if (n < SMALL_ARRAY)
+            for (int i=0; i<n; ++i)
+                result[i] = evaluation.element(root, i);
+        else
+        {
+            final IntToDoubleFunction elements = evaluation.elements(root);
+            for (int i=0; i<n; ++i)
+                result[i] = elements.applyAsDouble(i);
+        }
+        return VDoubleArray.of(ArrayDouble.of(result), alarm, time, display);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasSubnode(final Node node)
+    {
+        return tree == node  ||  tree.hasSubnode(node);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasSubnode(final String name)
+    {
+        return tree.hasSubnode(name);
+    }
+
+    @Override
+    public String toString()
+    {
+        return tree.toString();
+    }
+}
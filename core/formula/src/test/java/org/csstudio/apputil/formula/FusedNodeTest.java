@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.csstudio.apputil.formula.node.FusedNode;
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.stats.Range;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VString;
+import org.epics.vtype.VType;
+import org.junit.Test;
+import org.phoebus.core.vtypes.VTypeHelper;
+
+/** Compare {@link FusedNode} with interpreted formula */
+@SuppressWarnings("nls")
+public class FusedNodeTest
+{
+    private static final Display display = Display.of(Range.of(0, 10), Range.undefined(), Range.undefined(),
+                                                      Range.undefined(), "mm", Display.defaultNumberFormat());
+
+    private static final VType[] values = new VType[]
+    {
+        VDoubleArray.of(ArrayDouble.of(1, 2, 3, 4), Alarm.none(), Time.of(Instant.ofEpochSecond(10)), display),
+        VDoubleArray.of(ArrayDouble.of(10, 20, 30), Alarm.of(AlarmSeverity.MINOR, AlarmStatus.RECORD, "LOW"),
+                        Time.of(Instant.ofEpochSecond(20)), Display.none()),
+        VDouble.of(2.0, Alarm.of(AlarmSeverity.MAJOR, AlarmStatus.RECORD, "HIHI"), Time.of(Instant.ofEpochSecond(5)), Display.none()),
+        VDoubleArray.of(ArrayDouble.of(), Alarm.none(), Time.of(Instant.ofEpochSecond(1)), Display.none()),
+    };
+
+    /** @param node Formula or node
+     *  @param visited Nodes already checked
+     *  @return Number of {@link FusedNode}s in the node and its sub-nodes
+     */
+    private static int countFused(final Object node, final Map<Object, Object> visited) throws Exception
+    {
+        if (node == null  ||  visited.put(node, node) != null)
+            return 0;
+        int count = node instanceof FusedNode ? 1 : 0;
+        for (Class<?> clazz = node.getClass();  clazz != null;  clazz = clazz.getSuperclass())
+            for (Field field : clazz.getDeclaredFields())
+            {
+                if (Node.class.isAssignableFrom(field.getType()))
+                {
+                    field.setAccessible(true);
+                    count += countFused(field.get(node), visited);
+                }
+                else if (Node[].class.isAssignableFrom(field.getType()))
+                {
+                    field.setAccessible(true);
+                    final Node[] nodes = (Node[]) field.get(node);
+                    if (nodes != null)
+                        for (Node sub : nodes)
+                            count += countFused(sub, visited);
+                }
+            }
+        return count;
+    }
+
+    /** @param expression Formula with variables a, b, c, e
+     *  @param compile Compile?
+     *  @return Result
+     */
+    private static VType eval(final String expression, final boolean compile) throws Exception
+    {
+        final boolean orig = Formula.compile;
+        Formula.compile = compile;
+        try
+        {
+            final VariableNode[] vars = new VariableNode[]
+            {
+                new VariableNode("a", values[0]),
+                new VariableNode("b", values[1]),
+                new VariableNode("c", values[2]),
+                new VariableNode("e", values[3]),
+            };
+            final Formula formula = new Formula(expression, vars);
+            // Reference result must not use any fused node
+            if (! compile)
+                assertThat(expression + " is interpreted", countFused(formula, new IdentityHashMap<>()), equalTo(0));
+            return formula.eval();
+        }
+        finally
+        {
+            Formula.compile = orig;
+        }
+    }
+
+    private static void check(final String expression) throws Exception
+    {
+        final VType interpreted = eval(expression, false);
+        final VType fused = eval(expression, true);
+        System.out.println(expression + " = " + fused);
+        assertThat(expression, fused.getClass(), equalTo(interpreted.getClass()));
+        assertThat(expression, VTypeHelper.toString(fused), equalTo(VTypeHelper.toString(interpreted)));
+        assertThat(expression, Alarm.alarmOf(fused), equalTo(Alarm.alarmOf(interpreted)));
+        // Constants are time-stamped when parsed, so allow small difference
+        final Duration time_diff = Duration.between(Time.timeOf(fused).getTimestamp(), Time.timeOf(interpreted).getTimestamp());
+        assertTrue(expression, time_diff.abs().toMillis() < 100);
+        assertThat(expression, Display.displayOf(fused), equalTo(Display.displayOf(interpreted)));
+    }
+
+    @Test
+    public void testSameAsInterpreted() throws Exception
+    {
+        // Array operations
+        check("a + a");
+        check("b - a");
+        check("a * b");
+        check("(a*b + b)/a");
+        check("a ^ a");
+        check("!(a > b) | (a == a) & (b != a)");
+        check("a >= a  &  a <= b  &  a < b");
+        // Array and scalar, which uses first array element
+        check("(a*2+b)/c");
+        check("c * a");
+        check("(a + b) * c");
+        // Empty array
+        check("a + e");
+        check("(a + e) * 2");
+        check("e * 2");
+        // Scalar
+        check("c * 3 + 1");
+        check("-c");
+        // Other nodes as input
+        check("max(a, c) + a");
+        check("c ? (a + b) : (a - b)");
+        check("sqrt(a * a) + b");
+        // Function arguments and if/else parts with more than one operation
+        check("max(a*2 + b, c) + a");
+        check("c ? (a + b)*2 : (a - b)/2");
+        check("sqrt(a * a + 1) + b");
+    }
+
+    @Test
+    public void testFallback() throws Exception
+    {
+        // Strings use interpreter
+        final VType result = eval("\"Value: \" + (c + 1)", true);
+        assertThat(result, instanceOf(VString.class));
+        assertThat(((VString) result).getValue(), equalTo("Value: 3.0"));
+    }
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.phoebus.core.vtypes.VTypeHelper;
+
+/** Test of the {@link SharedNodes} */
+@SuppressWarnings("nls")
+public class SharedNodesTest
+{
+    private final Map<String, VariableNode> variables = new HashMap<>();
+    private final Function<String, VariableNode> provider = name -> variables.computeIfAbsent(name, VariableNode::new);
+
+    private static double eval(final Formula formula)
+    {
+        return VTypeHelper.toDouble(formula.eval());
+    }
+
+    @Test
+    public void testSharedFunction() throws Exception
+    {
+        final SharedNodes shared = new SharedNodes();
+        final Formula f1 = new Formula("max(a, b) * 2", provider, shared);
+        final Formula f2 = new Formula("max(a,b) + 1", provider, shared);
+        // Different variables
+        final Formula f3 = new Formula("max(a, c) + 1", provider, shared);
+
+        variables.get("a").setValue(1);
+        variables.get("b").setValue(3);
+        variables.get("c").setValue(7);
+        assertThat(eval(f1), equalTo(6.0));
+        // Second formula uses the result of max(a, b) computed for the first one
+        assertThat(eval(f2), equalTo(4.0));
+        assertThat(shared.getReuseCount(), equalTo(1L));
+        assertThat(eval(f3), equalTo(8.0));
+        assertThat(shared.getReuseCount(), equalTo(1L));
+
+        // Changed input is used by both formulas
+        variables.get("b").setValue(5);
+        assertThat(eval(f2), equalTo(6.0));
+        assertThat(eval(f1), equalTo(10.0));
+        assertThat(shared.getReuseCount(), equalTo(2L));
+
+        // Formulas with their own variables don't share
+        final Formula own = new Formula("max(a, b) + 1", true);
+        own.getVariables()[0].setValue(1);
+        own.getVariables()[1].setValue(2);
+        assertThat(eval(own), equalTo(3.0));
+        assertThat(eval(f2), equalTo(6.0));
+    }
+
+    @Test
+    public void testSameNameOtherVariable() throws Exception
+    {
+        final SharedNodes shared = new SharedNodes();
+        final Formula f1 = new Formula("max(a, 1) + 1", provider, shared);
+        // Variable 'a' of another input, for example after the first one was closed
+        final VariableNode other = new VariableNode("a", 10.0);
+        final Formula f2 = new Formula("max(a, 1) + 1", name -> other, shared);
+
+        variables.get("a").setValue(3);
+        assertThat(eval(f1), equalTo(4.0));
+        assertThat(eval(f2), equalTo(11.0));
+        assertThat(shared.getReuseCount(), equalTo(0L));
+    }
+}
@@ -66,6 +66,10 @@ public class PV
      *  no longer react to write access via immediate notification
      *  in the calling thread, which impacts unit tests and
      *  other code that depends on this long standing behavior.
+     *
+     *  With the opt-in {@link ValueDispatch#async_dispatch},
+     *  notifications only place the value into each subscriber's
+     *  mailbox, so the lock is held very briefly.
      */
     final private Lock value_notification_lock = new ReentrantLock();
 
@@ -83,6 +87,9 @@ public class PV
      */
     private volatile VType last_value = null;
 
+    /** Update and callback counters, see {@link PVMetrics} */
+    final PVMetrics.Counters counters = new PVMetrics.Counters();
+
     /** Initialize
      *  @param name PV name
      */
@@ -151,6 +158,16 @@ public class PV
         value_subs.remove(value_sub);
     }
 
+    /** Values are dropped when subscribers can't keep up
+     *  with asynchronous dispatch.
+     *
+     *  @return Number of dropped values for each current value subscriber
+     */
+    public long[] getDroppedValues()
+    {
+        return value_subs.stream().mapToLong(ValueEventHandler.Subscription::getDropped).toArray();
+    }
+
     /** @param access_sub Listener that will receive permission updates
      *  @see #removeSubscription()
      */
@@ -188,7 +205,7 @@ public class PV
      */
     public Flowable<VType> onValueEvent(final BackpressureStrategy mode)
     {
-        return Flowable.create(new ValueEventHandler(this), mode);
+        return Flowable.create(new ValueEventHandler(this, mode), mode);
     }
 
     /** Obtain {@link Flowable} for PV's write access.
@@ -305,6 +322,7 @@ public class PV
         try
         {
             last_value = value;
+            PVMetrics.recordUpdate(this);
             for (ValueEventHandler.Subscription sub : value_subs)
             {
                 try
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.epics.vtype.VType;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+
+/** PVs obtained from the {@link PVPool} as one batch
+ *
+ *  <p>Tracks when each PV receives its first value,
+ *  which for most PV types means that it connected.
+ *
+ *  <p>Caller must {@link #close()} the batch to release
+ *  the PVs back to the pool.
+ *
+ *  @see PVPool#getPVs(java.util.Collection, Duration)
+ */
+public class PVBatch implements AutoCloseable
+{
+    private final List<String> names;
+    private final List<PV> pvs;
+    private final List<CompletableFuture<VType>> values;
+    private final CompletableFuture<List<VType>> connected;
+
+    /** @param names PV names
+     *  @param pvs PVs, <code>null</code> for those that could not be created
+     *  @param errors Errors for PVs that could not be created
+     *  @param timeout Time for each PV to receive its first value
+     */
+    PVBatch(final List<String> names, final List<PV> pvs, final List<Exception> errors, final Duration timeout)
+    {
+        this.names = Collections.unmodifiableList(names);
+        this.pvs = Collections.unmodifiableList(pvs);
+        final List<CompletableFuture<VType>> values = new ArrayList<>(pvs.size());
+        for (int i=0; i<pvs.size(); ++i)
+        {
+            final PV pv = pvs.get(i);
+            if (pv == null)
+                values.add(CompletableFuture.failedFuture(errors.get(i)));
+            else
+                values.add(awaitValue(pv, timeout));
+        }
+        this.values = Collections.unmodifiableList(values);
+
+        // When all values are known or failed, collect the results
+        connected = CompletableFuture.allOf(values.stream()
+                                                  .map(value -> value.exceptionally(ex -> null))
+                                                  .toArray(CompletableFuture[]::new))
+                                     .thenApply(ignored ->
+                                     {
+                                         final List<VType> result = new ArrayList<>(values.size());
+                                         for (CompletableFuture<VType> value : values)
+                                             result.add(value.exceptionally(ex -> null).join());
+                                         return result;
+                                     });
+    }
+
+    /** @param pv PV
+     *  @param timeout Timeout
+     *  @return Future for first value that is not disconnected
+     */
+    private static CompletableFuture<VType> awaitValue(final PV pv, final Duration timeout)
+    {
+        final CompletableFuture<VType> value = new CompletableFuture<>();
+        // May receive initial value, completing the future, right away
+        final Disposable subscription = pv.onValueEvent().subscribe(update ->
+        {
+            if (! PV.isDisconnected(update))
+                value.complete(update);
+        });
+        value.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+             .whenComplete((result, error) -> subscription.dispose());
+        return value;
+    }
+
+    /** @return PV names, in the order they were requested */
+    public List<String> getNames()
+    {
+        return names;
+    }
+
+    /** @return PVs, in the order of the names; <code>null</code> for PVs that could not be created */
+    public List<PV> getPVs()
+    {
+        return pvs;
+    }
+
+    /** @param index Index of PV
+     *  @return Future for first value of the PV, failing when PV could not be created or on timeout
+     */
+    public CompletableFuture<VType> getValue(final int index)
+    {
+        return values.get(index);
+    }
+
+    /** @return Future that completes when every PV received a value or timed out,
+     *          providing the values in the order of the names,
+     *          <code>null</code> for PVs that failed or timed out
+     */
+    public CompletableFuture<List<VType>> whenConnected()
+    {
+        return connected;
+    }
+
+    /** Release all PVs to the {@link PVPool} */
+    @Override
+    public void close()
+    {
+        for (CompletableFuture<VType> value : values)
+            value.cancel(false);
+        for (PV pv : pvs)
+            if (pv != null)
+                PVPool.releasePV(pv);
+    }
+}
@@ -50,4 +50,26 @@ public interface PVFactory
      *  @throws Exception on error
      */
     public PV createPV(final String name, final String base_name) throws Exception;
+
+    /** Start a batch of PV creations
+     *
+     *  <p>Called by {@link PVPool#getPVs} before it creates
+     *  several PVs in the calling thread.
+     *  The factory may then defer network requests for PVs
+     *  created by this thread until {@link #endBatch()}.
+     */
+    public default void beginBatch()
+    {
+        // Default: Create each PV as usual
+    }
+
+    /** End a batch of PV creations
+     *
+     *  <p>Called in the same thread as {@link #beginBatch()},
+     *  even if creating PVs in between failed.
+     */
+    public default void endBatch()
+    {
+        // Default: Nothing was deferred
+    }
 }
@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.phoebus.pv.RefCountMap.ReferencedEntry;
+
+/** Runtime metrics of PV value updates
+ *
+ *  <p>Counts value updates, time spent in subscriber callbacks
+ *  and values dropped for slow subscribers,
+ *  both for each {@link PV} and in total.
+ *  Counters are {@link LongAdder}s, so updating them
+ *  is cheap even when many threads send values.
+ *
+ *  <p>Callback times are collected in a histogram
+ *  with decade buckets: below 1us, 10us, 100us, 1ms, 10ms, 100ms, 1s,
+ *  and 1s or longer.
+ *
+ *  @see Sampler for update rates
+ */
+@SuppressWarnings("nls")
+public class PVMetrics
+{
+    /** Upper limits of histogram buckets in nanoseconds, last bucket has no limit */
+    private static final long[] BUCKET_LIMITS =
+    {
+        1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private static final String[] BUCKET_LABELS =
+    {
+        "< 1us", "< 10us", "< 100us", "< 1ms", "< 10ms", "< 100ms", "< 1s", ">= 1s"
+    };
+
+    private static final LongAdder updates = new LongAdder();
+    private static final LongAdder dropped = new LongAdder();
+    private static final LongAdder callbacks = new LongAdder();
+    private static final LongAdder callback_nanos = new LongAdder();
+    private static final LongAccumulator max_callback_nanos = new LongAccumulator(Math::max, 0);
+    private static final LongAdder[] histogram = new LongAdder[BUCKET_LIMITS.length + 1];
+
+    static
+    {
+        for (int i=0; i<histogram.length; ++i)
+            histogram[i] = new LongAdder();
+    }
+
+    /** Per-PV counters, held by each {@link PV} */
+    static class Counters
+    {
+        final long created = System.nanoTime();
+        final LongAdder updates = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final LongAdder callbacks = new LongAdder();
+        final LongAdder callback_nanos = new LongAdder();
+        final LongAccumulator max_callback_nanos = new LongAccumulator(Math::max, 0);
+    }
+
+    /** @param pv PV that received a value */
+    static void recordUpdate(final PV pv)
+    {
+        pv.counters.updates.increment();
+        updates.increment();
+    }
+
+    /** @param pv PV where a subscriber dropped a value */
+    static void recordDrop(final PV pv)
+    {
+        pv.counters.dropped.increment();
+        dropped.increment();
+    }
+
+    /** @param pv PV that invoked a subscriber callback
+     *  @param nanos Duration of the callback
+     */
+    static void recordCallback(final PV pv, final long nanos)
+    {
+        final Counters counters = pv.counters;
+        counters.callbacks.increment();
+        counters.callback_nanos.add(nanos);
+        counters.max_callback_nanos.accumulate(nanos);
+        callbacks.increment();
+        callback_nanos.add(nanos);
+        max_callback_nanos.accumulate(nanos);
+        int bucket = 0;
+        while (bucket < BUCKET_LIMITS.length  &&  nanos >= BUCKET_LIMITS[bucket])
+            ++bucket;
+        histogram[bucket].increment();
+    }
+
+    /** @return Total number of value updates of all PVs */
+    public static long getUpdateCount()
+    {
+        return updates.sum();
+    }
+
+    /** @return Total number of values dropped for slow subscribers */
+    public static long getDroppedCount()
+    {
+        return dropped.sum();
+    }
+
+    /** @return Total number of subscriber callbacks */
+    public static long getCallbackCount()
+    {
+        return callbacks.sum();
+    }
+
+    /** @return Total duration of subscriber callbacks in nanoseconds */
+    public static long getCallbackTime()
+    {
+        return callback_nanos.sum();
+    }
+
+    /** @return Average duration of subscriber callbacks in nanoseconds */
+    public static long getAverageCallbackTime()
+    {
+        final long count = callbacks.sum();
+        return count > 0 ? callback_nanos.sum() / count : 0;
+    }
+
+    /** @return Longest subscriber callback in nanoseconds */
+    public static long getMaxCallbackTime()
+    {
+        return max_callback_nanos.get();
+    }
+
+    /** @return Labels of the histogram buckets */
+    public static String[] getCallbackHistogramLabels()
+    {
+        return BUCKET_LABELS.clone();
+    }
+
+    /** @return Number of callbacks in each histogram bucket */
+    public static long[] getCallbackHistogram()
+    {
+        final long[] counts = new long[histogram.length];
+        for (int i=0; i<counts.length; ++i)
+            counts[i] = histogram[i].sum();
+        return counts;
+    }
+
+    /** Snapshot of one PV's metrics */
+    public static class PVInfo
+    {
+        /** PV name */
+        public final String name;
+        /** Number of value updates */
+        public final long updates;
+        /** Number of values dropped for slow subscribers */
+        public final long dropped;
+        /** Number of subscriber callbacks */
+        public final long callbacks;
+        /** Average duration of subscriber callbacks in nanoseconds */
+        public final long average_callback_nanos;
+        /** Longest subscriber callback in nanoseconds */
+        public final long max_callback_nanos;
+        /** Update rate in Hz, see {@link Sampler} and {@link PVMetrics#getPVInfos()} */
+        public final double rate;
+
+        PVInfo(final PV pv, final double rate)
+        {
+            final Counters counters = pv.counters;
+            name = pv.getName();
+            updates = counters.updates.sum();
+            dropped = counters.dropped.sum();
+            callbacks = counters.callbacks.sum();
+            average_callback_nanos = callbacks > 0 ? counters.callback_nanos.sum() / callbacks : 0;
+            max_callback_nanos = counters.max_callback_nanos.get();
+            this.rate = rate;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s: %.1f Hz, %d updates, %d dropped, %d callbacks avg. %.3f ms, max. %.3f ms",
+                                 name, rate, updates, dropped, callbacks,
+                                 average_callback_nanos / 1e6, max_callback_nanos / 1e6);
+        }
+    }
+
+    /** @return PVs in the {@link PVPool} */
+    private static List<PV> getPVs()
+    {
+        final List<PV> pvs = new ArrayList<>();
+        for (ReferencedEntry<PV> entry : PVPool.getPVReferences())
+            pvs.add(entry.getEntry());
+        return pvs;
+    }
+
+    /** @return Metrics of all PVs in the {@link PVPool},
+     *          sorted by number of updates, with average rate since the PV was created
+     */
+    public static List<PVInfo> getPVInfos()
+    {
+        final long now = System.nanoTime();
+        final List<PVInfo> infos = new ArrayList<>();
+        for (PV pv : getPVs())
+        {
+            final double seconds = (now - pv.counters.created) / 1e9;
+            infos.add(new PVInfo(pv, seconds > 0 ? pv.counters.updates.sum() / seconds : 0.0));
+        }
+        infos.sort(Comparator.comparingLong((PVInfo info) -> info.updates).reversed());
+        return infos;
+    }
+
+    /** Samples update rates
+     *
+     *  <p>Each call to {@link #sample()} determines
+     *  the update rates since the previous call.
+     *  Each user of rates should have its own sampler.
+     */
+    public static class Sampler
+    {
+        /** Update counts of PVs at last sample */
+        private final Map<PV, Long> last_updates = new WeakHashMap<>();
+        private long last_total = updates.sum();
+        private long last_time = System.nanoTime();
+        private double total_rate = 0.0;
+        private List<PVInfo> infos = List.of();
+
+        /** Determine rates since the previous call */
+        public synchronized void sample()
+        {
+            final long now = System.nanoTime();
+            final double seconds = (now - last_time) / 1e9;
+            if (seconds <= 0)
+                return;
+            final long total = updates.sum();
+            total_rate = (total - last_total) / seconds;
+            last_total = total;
+            last_time = now;
+
+            final List<PVInfo> infos = new ArrayList<>();
+            for (PV pv : getPVs())
+            {
+                final long count = pv.counters.updates.sum();
+                final Long last = last_updates.put(pv, count);
+                // PV that's new since last sample: Rate since it was created
+                final double rate = last == null
+                                  ? count / Math.max(seconds, (now - pv.counters.created) / 1e9)
+                                  : (count - last) / seconds;
+                infos.add(new PVInfo(pv, rate));
+            }
+            infos.sort(Comparator.comparingDouble((PVInfo info) -> info.rate).reversed());
+            this.infos = infos;
+        }
+
+        /** @return Total updates per second of all PVs at last sample */
+        public synchronized double getTotalRate()
+        {
+            return total_rate;
+        }
+
+        /** @param n Maximum number of PVs to return
+         *  @return PVs with the highest update rate at last sample
+         */
+        public synchronized List<PVInfo> getBusiest(final int n)
+        {
+            return infos.subList(0, Math.min(n, infos.size()));
+        }
+    }
+
+    /** Create a text dump of the metrics for support logs
+     *
+     *  <p>Lists the totals, callback time histogram,
+     *  and all PVs in the pool sorted by number of updates.
+     *
+     *  @return Text with one item per line
+     */
+    public static String dump()
+    {
+        final StringBuilder buf = new StringBuilder();
+        buf.append("PV Metrics\n");
+        buf.append("Updates         : ").append(getUpdateCount()).append('\n');
+        buf.append("Dropped         : ").append(getDroppedCount()).append('\n');
+        buf.append("Callbacks       : ").append(getCallbackCount()).append('\n');
+        buf.append(String.format("Callback avg.   : %.3f ms\n", getAverageCallbackTime() / 1e6));
+        buf.append(String.format("Callback max.   : %.3f ms\n", getMaxCallbackTime() / 1e6));
+        buf.append("Callback times  :\n");
+        final long[] counts = getCallbackHistogram();
+        for (int i=0; i<counts.length; ++i)
+            buf.append(String.format("  %-8s %d\n", BUCKET_LABELS[i], counts[i]));
+        final List<PVInfo> infos = getPVInfos();
+        buf.append("PVs             : ").append(infos.size()).append('\n');
+        for (PVInfo info : infos)
+            buf.append("  ").append(info).append('\n');
+        return buf.toString();
+    }
+}
@@ -9,9 +9,13 @@ package org.phoebus.pv;
 
 import static org.phoebus.pv.PV.logger;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
@@ -173,8 +177,9 @@ public class PVPool
     }
 
     /** PV Pool
-     *  SYNC on 'pool':
-     *  Otherwise, two threads concurrently looking for a new PV would both add it.
+     *
+     *  <p>Thread-safe, creating each PV only once
+     *  even when several threads concurrently look for a new PV.
      */
     final private static RefCountMap<String, PV> pool = new RefCountMap<>();
 
@@ -214,6 +219,65 @@ public class PVPool
         return ref.getEntry();
     }
 
+    /** Obtain many PVs
+     *
+     *  <p>Like calling {@link #getPV(String)} for each name,
+     *  but PV factories may combine network requests
+     *  of the whole batch.
+     *  Invalid names do not fail the complete batch,
+     *  only their entry in the resulting {@link PVBatch}.
+     *
+     *  @param names PV names
+     *  @param timeout Time that each PV has to receive its first value
+     *  @return {@link PVBatch} with PVs and a future for their first values
+     *  @see PVBatch#close()
+     */
+    public static PVBatch getPVs(final Collection<String> names, final Duration timeout)
+    {
+        final List<String> pv_names = new ArrayList<>(names);
+        final List<PV> pvs = new ArrayList<>(pv_names.size());
+        final List<Exception> errors = new ArrayList<>(pv_names.size());
+        final Set<PVFactory> batched = new HashSet<>();
+        try
+        {
+            for (String name : pv_names)
+            {
+                try
+                {
+                    final PVFactory factory = factories.get(TypedName.analyze(name).type);
+                    if (factory != null  &&  batched.add(factory))
+                        factory.beginBatch();
+                    final PV pv = getPV(name);
+                    if (pv == null)
+                        throw new Exception("Cannot create PV '" + name + "'");
+                    pvs.add(pv);
+                    errors.add(null);
+                }
+                catch (Exception ex)
+                {
+                    logger.log(Level.WARNING, "Cannot get PV '" + name + "'", ex);
+                    pvs.add(null);
+                    errors.add(ex);
+                }
+            }
+        }
+        finally
+        {
+            for (PVFactory factory : batched)
+            {
+                try
+                {
+                    factory.endBatch();
+                }
+                catch (Throwable ex)
+                {
+                    logger.log(Level.WARNING, "Batch error for PV type " + factory.getType(), ex);
+                }
+            }
+        }
+        return new PVBatch(pv_names, pvs, errors, timeout);
+    }
+
     private static PV createPV(PVFactory factory, final String name, final String base_name)
     {
         try
@@ -243,9 +307,6 @@ public class PVPool
     /** @return PVs currently in the pool with reference count information */
     public static Collection<ReferencedEntry<PV>> getPVReferences()
     {
-        synchronized (pool)
-        {
-            return pool.getEntries();
-        }
+        return pool.getEntries();
     }
 }
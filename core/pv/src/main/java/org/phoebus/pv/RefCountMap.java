@@ -9,18 +9,34 @@ package org.phoebus.pv;
 
 import static org.phoebus.pv.PV.logger;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 
 /** Map that keeps reference count for its objects
  *
- *  <p>Thread-safe.
+ *  <p>Thread-safe and non-blocking for different keys.
+ *  Entries are held in a {@link ConcurrentHashMap},
+ *  which locks only the affected bin of the map for each update,
+ *  and no lock is held while a new entry is created.
+ *  Creating one entry thus does not delay
+ *  lookups or releases of other entries.
+ *  Threads that request an entry while it is being created
+ *  wait for that creation to complete.
+ *
+ *  <p>An entry whose reference count dropped to zero
+ *  is 'dead' and can no longer be referenced.
+ *  A thread that concurrently requests the same key
+ *  removes the dead entry and creates a new one,
+ *  so the caller that released the last reference
+ *  can always close the old entry.
  *
  *  @param <K> Key data type
  *  @param <E> Entry data type
@@ -32,18 +48,23 @@ public class RefCountMap<K, E>
     /** Wrapper for an entry with reference count */
     public static class ReferencedEntry<E>
     {
-        private final E entry;
-        private final AtomicInteger references = new AtomicInteger(0);
+        /** Completes with the entry once it has been created */
+        private final CompletableFuture<E> entry = new CompletableFuture<>();
+
+        /** Thread that creates the entry */
+        private final Thread creator = Thread.currentThread();
+
+        /** Reference count. Starts at 1 for the creator, 0 means 'dead' */
+        private final AtomicInteger references = new AtomicInteger(1);
 
-        private ReferencedEntry(final E entry)
+        private ReferencedEntry()
         {
-            this.entry = Objects.requireNonNull(entry);
         }
 
-        /** @return Item */
+        /** @return Item, <code>null</code> while it's being created */
         public E getEntry()
         {
-            return entry;
+            return entry.getNow(null);
         }
 
         /** @return Reference count for the item */
@@ -52,9 +73,25 @@ public class RefCountMap<K, E>
             return references.get();
         }
 
-        private int addRef()
+        /** @return Has item been created? */
+        private boolean isCreated()
+        {
+            return entry.isDone()  &&  ! entry.isCompletedExceptionally();
+        }
+
+        /** Add reference unless entry is already dead
+         *  @return <code>true</code> if reference was added
+         */
+        private boolean addRef()
         {
-            return references.incrementAndGet();
+            int refs = references.get();
+            while (refs > 0)
+            {
+                if (references.compareAndSet(refs, refs + 1))
+                    return true;
+                refs = references.get();
+            }
+            return false;
         }
 
         private int decRef()
@@ -62,22 +99,34 @@ public class RefCountMap<K, E>
             return references.decrementAndGet();
         }
 
+        /** @return Created item
+         *  @throws Exception if creation failed
+         */
+        private E await() throws Exception
+        {
+            if (! entry.isDone()  &&  creator == Thread.currentThread())
+                throw new Exception("Recursive creation");
+            return entry.get();
+        }
+
         @Override
         public String toString()
         {
-            return entry + " (" + references + " references)";
+            return getEntry() + " (" + references + " references)";
         }
     }
 
-    // Started with ConcurrentHashMap and computeIfAbsent() in createOrGet().
+    // Original version used ConcurrentHashMap and computeIfAbsent() in createOrGet().
     // But the computeIfAbsent() mapping function must not itself update the map,
     // which can happen with a formula PV which references and thus creates
     // other PVs.
-    // With plain synchronization, adding a formula takes the synchronization lock,
-    // and while it is held, recursive additions from the same thread are possible.
+    // Next version used plain synchronization, so adding a formula took the synchronization lock,
+    // and while it is held, recursive additions from the same thread were possible.
+    // That, however, serialized all access while any PV was created.
     //
-    // SYNC on access.
-    final private Map<K, ReferencedEntry<E>> map = new HashMap<>();
+    // Now entries are placed in the map as a 'future' via putIfAbsent(),
+    // and created by the calling thread without holding any lock.
+    final private ConcurrentHashMap<K, ReferencedEntry<E>> map = new ConcurrentHashMap<>();
 
     /** Get or create item
      *
@@ -85,25 +134,53 @@ public class RefCountMap<K, E>
      *  Otherwise create new item with initial reference count of 1.
      *
      *  @param key Item key
-     *  @param creator Function that will be called atomically to create new items
+     *  @param creator Function that will be called once per key to create new items.
+     *                 May itself add other items to the map.
      *  @return reference counted entry
      */
     public ReferencedEntry<E> createOrGet(final K key, final Supplier<E> creator)
     {
         try
         {
-            ReferencedEntry<E> ref_entry;
-            synchronized (map)
+            while (true)
             {
-                ref_entry = map.get(key);
+                ReferencedEntry<E> ref_entry = map.get(key);
                 if (ref_entry == null)
                 {
-                    ref_entry = new ReferencedEntry<>(creator.get());
-                    map.put(key, ref_entry);
+                    final ReferencedEntry<E> new_entry = new ReferencedEntry<>();
+                    ref_entry = map.putIfAbsent(key, new_entry);
+                    if (ref_entry == null)
+                    {   // This thread needs to create the item
+                        try
+                        {
+                            new_entry.entry.complete(Objects.requireNonNull(creator.get()));
+                        }
+                        catch (Throwable ex)
+                        {
+                            map.remove(key, new_entry);
+                            new_entry.references.set(0);
+                            new_entry.entry.completeExceptionally(ex);
+                            throw ex;
+                        }
+                        return new_entry;
+                    }
+                }
+                if (ref_entry.addRef())
+                {
+                    try
+                    {
+                        ref_entry.await();
+                    }
+                    catch (Exception ex)
+                    {
+                        ref_entry.decRef();
+                        throw ex;
+                    }
+                    return ref_entry;
                 }
+                // Entry has just been released, remove and try again
+                map.remove(key, ref_entry);
             }
-            ref_entry.addRef();
-            return ref_entry;
         }
         catch (Throwable ex)
         {
@@ -119,31 +196,29 @@ public class RefCountMap<K, E>
     public int release(final K key)
     {
         // System.out.println("Release " + key + " in " + map);
-        synchronized (map)
+        final ReferencedEntry<E> entry = map.get(key);
+        if (entry == null)
         {
-            final ReferencedEntry<E> entry = map.get(key);
-            if (entry == null)
-            {
-                logger.log(Level.WARNING, "No reference found for " + key, new Exception("Call stack"));
-                return 0;
-            }
+            logger.log(Level.WARNING, "No reference found for " + key, new Exception("Call stack"));
+            return 0;
+        }
 
-            final int refs = entry.decRef();
-            if (refs <= 0)
-            {   // No more references
-                map.remove(key);
-                return 0;
-            }
-            return refs;
+        final int refs = entry.decRef();
+        if (refs <= 0)
+        {   // No more references
+            map.remove(key, entry);
+            return 0;
         }
+        return refs;
     }
 
-    /** @return Entries in map */
+    /** @return Snapshot of created entries in map */
     public Collection<ReferencedEntry<E>> getEntries()
     {
-        synchronized (map)
-        {
-            return Collections.unmodifiableCollection(map.values());
-        }
+        final List<ReferencedEntry<E>> entries = new ArrayList<>(map.size());
+        for (ReferencedEntry<E> entry : map.values())
+            if (entry.isCreated())
+                entries.add(entry);
+        return Collections.unmodifiableCollection(entries);
     }
 }
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.phoebus.framework.jobs.NamedThreadFactory;
+import org.phoebus.framework.preferences.AnnotatedPreferences;
+import org.phoebus.framework.preferences.Preference;
+
+/** Preferences and thread pool for asynchronous value dispatch
+ *  @see ValueEventHandler
+ */
+@SuppressWarnings("nls")
+class ValueDispatch
+{
+    /** Deliver values to subscribers on the {@link #executor}? */
+    @Preference static boolean async_dispatch;
+
+    /** Number of dispatch threads */
+    @Preference static int dispatch_threads;
+
+    /** Shared thread pool for asynchronous dispatch */
+    static final ExecutorService executor;
+
+    static
+    {
+        AnnotatedPreferences.initialize(PVPool.class, ValueDispatch.class, "/pv_preferences.properties");
+        executor = Executors.newFixedThreadPool(Math.max(1, dispatch_threads), new NamedThreadFactory("PVDispatch"));
+    }
+}
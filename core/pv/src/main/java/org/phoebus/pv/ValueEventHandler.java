@@ -7,14 +7,39 @@
  ******************************************************************************/
 package org.phoebus.pv;
 
+import static org.phoebus.pv.PV.logger;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
 import org.epics.vtype.VType;
 
+import io.reactivex.rxjava3.core.BackpressureStrategy;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.FlowableEmitter;
 import io.reactivex.rxjava3.core.FlowableOnSubscribe;
 import io.reactivex.rxjava3.functions.Cancellable;
 
 /** Support for {@link Flowable} that sends PV value updates
+ *
+ *  <p>By default, values are emitted in the thread that calls
+ *  {@link Subscription#update(VType)}.
+ *  With {@link ValueDispatch#async_dispatch}, each subscription
+ *  keeps only the latest value in a single-slot mailbox
+ *  which is emitted on the shared {@link ValueDispatch#executor}.
+ *  A value that is replaced before it was emitted counts as dropped.
+ *
+ *  <p>With {@link BackpressureStrategy#LATEST}, the {@link Flowable}
+ *  itself only keeps the latest value that the subscriber did not yet request.
+ *  A value emitted while an earlier one is still waiting for such a request
+ *  is also counted as dropped.
+ *  This is an estimate because the emitter's
+ *  request count does not reveal when a waiting value was delivered.
+ *
+ *  <p>Callback durations and dropped values are recorded in {@link PVMetrics}.
+ *
  *  @author Eric Berryman
  *  @author Kay Kasemir
  */
@@ -22,10 +47,28 @@ class ValueEventHandler implements FlowableOnSubscribe<VType>
 {
     private final PV pv;
 
+    /** Does the {@link Flowable} drop values that were not requested? */
+    private final boolean latest;
+
     class Subscription implements Cancellable
     {
         private final FlowableEmitter<VType> emitter;
 
+        /** Dispatch values via mailbox and executor? */
+        private final boolean async = ValueDispatch.async_dispatch;
+
+        /** Latest value that has not been emitted, or <code>null</code> */
+        private final AtomicReference<VType> mailbox = new AtomicReference<>();
+
+        /** Is a drain of the mailbox scheduled or running? */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /** Was the last value emitted without having been requested? */
+        private boolean waiting = false;
+
+        /** Number of values replaced in the mailbox or the emitter before being received */
+        private final LongAdder dropped = new LongAdder();
+
         public Subscription(final FlowableEmitter<VType> emitter)
         {
             this.emitter = emitter;
@@ -33,9 +76,70 @@ class ValueEventHandler implements FlowableOnSubscribe<VType>
         }
 
         public void update(final VType value)
+        {
+            if (! async)
+            {
+                emit(value);
+                return;
+            }
+            if (mailbox.getAndSet(value) != null)
+                countDrop();
+            if (scheduled.compareAndSet(false, true))
+                ValueDispatch.executor.execute(this::drain);
+        }
+
+        /** Emit latest value from mailbox, re-schedule if another one arrived meanwhile */
+        private void drain()
+        {
+            final VType value = mailbox.getAndSet(null);
+            if (value != null)
+            {
+                try
+                {
+                    emit(value);
+                }
+                catch (Throwable ex)
+                {
+                    logger.log(Level.WARNING, pv.getName() + " value update error", ex);
+                }
+            }
+            scheduled.set(false);
+            // update() may have placed a value while 'scheduled' was still set
+            if (mailbox.get() != null  &&  scheduled.compareAndSet(false, true))
+                ValueDispatch.executor.execute(this::drain);
+        }
+
+        private void countDrop()
+        {
+            dropped.increment();
+            PVMetrics.recordDrop(pv);
+            if (dropped.sum() == 1)
+                logger.log(Level.FINE, () -> pv.getName() + " subscriber is dropping updates");
+        }
+
+        private void emit(final VType value)
         {
             if (! (emitter.isCancelled()  ||  emitter.requested() <0))
+            {
+                if (latest)
+                {
+                    if (emitter.requested() > 0)
+                        waiting = false;
+                    else if (waiting)
+                        countDrop();
+                    else
+                        waiting = true;
+                }
+                final long start = System.nanoTime();
                 emitter.onNext(value);
+                PVMetrics.recordCallback(pv, System.nanoTime() - start);
+            }
+        }
+
+        /** @return Number of values that were dropped because subscriber was busy */
+        public long getDropped()
+        {
+            return dropped.sum();
         }
 
         // Cancellable
@@ -46,9 +150,13 @@ class ValueEventHandler implements FlowableOnSubscribe<VType>
         }
     };
 
-    public ValueEventHandler(final PV pv)
+    /** @param pv PV
+     *  @param mode {@link BackpressureStrategy} of the {@link Flowable}
+     */
+    public ValueEventHandler(final PV pv, final BackpressureStrategy mode)
     {
         this.pv = pv;
+        latest = mode == BackpressureStrategy.LATEST;
     }
 
     @Override
@@ -10,8 +10,16 @@ package org.phoebus.pv.ca;
 import static org.phoebus.pv.PV.logger;
 
 import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
+import org.phoebus.framework.jobs.NamedThreadFactory;
+
 import com.cosylab.epics.caj.CAJContext;
 
 import gov.aps.jca.Channel;
@@ -36,13 +44,46 @@ public class JCAContext implements ContextMessageListener, ContextExceptionListe
     final private Context context;
     final private boolean is_var_array_supported;
 
+    /** Is the current thread creating a batch of channels? */
+    final private ThreadLocal<Boolean> in_batch = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /** Delay for combining requests into one flush */
+    final private int flush_delay_ms;
+
+    /** Requests since the last flush, non-zero while a flush is scheduled */
+    final private AtomicInteger pending = new AtomicInteger();
+
+    /** Thread for scheduled flushes */
+    final private ScheduledExecutorService flusher =
+        Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("JCAFlush"));
+
+    /** Runs a flush after the flush delay */
+    final private Consumer<Runnable> scheduler;
+
+    /** Flush statistics */
+    final private LongAdder flushes = new LongAdder(), requests = new LongAdder();
+
     private JCAContext() throws Exception
     {
-        logger.log(Level.CONFIG, "Using Pure Java CAJ");
         // API used to be jca.createContext(JCALibrary.CHANNEL_ACCESS_JAVA),
         // but JCA plugin cannot locate CAJContext in separate CAJ plugin.
         // This plugin, however, can see both and thus create a CAJContext.
-        context = new CAJContext();
+        this(new CAJContext(), JCA_Preferences.getInstance().getFlushDelay(), null);
+    }
+
+    /** @param context CAJ context
+     *  @param flush_delay_ms Delay for combining requests into one flush
+     *  @param scheduler Runs a flush after the flush delay, <code>null</code> to use the 'JCAFlush' thread
+     *  @throws Exception on error
+     */
+    JCAContext(final Context context, final int flush_delay_ms, final Consumer<Runnable> scheduler) throws Exception
+    {
+        logger.log(Level.CONFIG, "Using Pure Java CAJ");
+        this.context = context;
+        this.flush_delay_ms = flush_delay_ms;
+        this.scheduler = scheduler != null
+                       ? scheduler
+                       : task -> flusher.schedule(task, flush_delay_ms, TimeUnit.MILLISECONDS);
 
         // PVPool will try to re-use channels, but
         // if user creates the same PV with and without prefix,
@@ -87,6 +128,74 @@ public class JCAContext implements ContextMessageListener, ContextExceptionListe
         return context;
     }
 
+    /** Start a batch of channel creations in the calling thread
+     *  @see #endBatch()
+     */
+    public void beginBatch()
+    {
+        in_batch.set(Boolean.TRUE);
+    }
+
+    /** End a batch of channel creations, sending all their requests
+     *  @throws Exception on error
+     */
+    public void endBatch() throws Exception
+    {
+        in_batch.set(Boolean.FALSE);
+        flushNow();
+    }
+
+    /** Flush pending requests
+     *
+     *  <p>To be called after issuing a request.
+     *  Requests issued within the flush delay are sent together.
+     *  Within a batch, the flush is deferred to the end of the batch.
+     *
+     *  @throws Exception on error
+     */
+    public void flushIO() throws Exception
+    {
+        requests.increment();
+        if (in_batch.get())
+            return;
+        if (flush_delay_ms <= 0)
+            flushNow();
+        else if (pending.getAndIncrement() == 0)
+            scheduler.accept(this::scheduledFlush);
+    }
+
+    private void scheduledFlush()
+    {
+        try
+        {
+            flushNow();
+        }
+        catch (Throwable ex)
+        {
+            logger.log(Level.WARNING, "Channel Access flush error", ex);
+        }
+    }
+
+    private void flushNow() throws Exception
+    {
+        // Requests issued from now on need another flush
+        pending.set(0);
+        flushes.increment();
+        context.flushIO();
+    }
+
+    /** @return Number of network flushes */
+    public long getFlushCount()
+    {
+        return flushes.sum();
+    }
+
+    /** @return Number of requests that called for a flush */
+    public long getFlushRequestCount()
+    {
+        return requests.sum();
+    }
+
     /** Determine how many array elements to request
      *  @param channel Channel
      *  @return Array request count
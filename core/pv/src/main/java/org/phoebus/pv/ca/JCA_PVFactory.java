@@ -7,6 +7,10 @@
  ******************************************************************************/
 package org.phoebus.pv.ca;
 
+import static org.phoebus.pv.PV.logger;
+
+import java.util.logging.Level;
+
 import org.phoebus.pv.PV;
 import org.phoebus.pv.PVFactory;
 
@@ -30,4 +34,30 @@ public class JCA_PVFactory implements PVFactory
     {
         return new JCA_PV(name, base_name);
     }
+
+    @Override
+    public void beginBatch()
+    {
+        try
+        {
+            JCAContext.getInstance().beginBatch();
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot start batch", ex);
+        }
+    }
+
+    @Override
+    public void endBatch()
+    {
+        try
+        {
+            JCAContext.getInstance().endBatch();
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot end batch", ex);
+        }
+    }
 }
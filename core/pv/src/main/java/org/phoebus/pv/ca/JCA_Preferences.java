@@ -42,6 +42,7 @@ public class JCA_Preferences
     private static final String DBE_PROPERTY_SUPPORTED = "dbe_property_supported";
     private static final String MONITOR_MASK = "monitor_mask";
     private static final String NAME_SERVERS = "name_servers";
+    private static final String FLUSH_DELAY_MS = "flush_delay_ms";
 
     private static final JCA_Preferences instance = new JCA_Preferences();
 
@@ -53,6 +54,8 @@ public class JCA_Preferences
 
     private int large_array_threshold = 100000;
 
+    private int flush_delay_ms = 1;
+
     /** Initialize */
     private JCA_Preferences()
     {
@@ -115,6 +118,8 @@ public class JCA_Preferences
 
         large_array_threshold = prefs.getInt(LARGE_ARRAY_THRESHOLD);
 
+        flush_delay_ms = prefs.getInt(FLUSH_DELAY_MS);
+
         // Set the 'CAJ' and 'JNI' copies of the settings
         setSystemProperty("com.cosylab.epics.caj.CAJContext.use_pure_java", "true");
 
@@ -201,4 +206,10 @@ public class JCA_Preferences
     {
         return large_array_threshold;
     }
+
+    /** @return Delay in milliseconds for combining requests into one flush, 0 to flush right away */
+    public int getFlushDelay()
+    {
+        return flush_delay_ms;
+    }
 }
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.formula;
+
+import static org.phoebus.pv.PV.logger;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+import org.csstudio.apputil.formula.SharedNodes;
+import org.csstudio.apputil.formula.VariableNode;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.phoebus.framework.jobs.NamedThreadFactory;
+
+/** Evaluation engine for {@link FormulaPV}s
+ *
+ *  <p>Formulas are evaluated on a bounded thread pool,
+ *  so an expensive formula only occupies one of the threads
+ *  while others continue to be evaluated.
+ *
+ *  <p>Each formula is evaluated by at most one thread at a time.
+ *  Input updates that arrive while an evaluation is already pending
+ *  are combined into that one evaluation and counted as 'skipped'.
+ *
+ *  <p>Formulas that use the same input PV share its variable,
+ *  and identical sub-expressions of such formulas are shared
+ *  via {@link SharedNodes}.
+ *  For example, when several formulas call the same function
+ *  on the same input waveform, the function is computed once per update.
+ */
+@SuppressWarnings("nls")
+public class FormulaEngine
+{
+    private static final ExecutorService executor =
+        Executors.newFixedThreadPool(Math.max(1, FormulaPVPreferences.formula_threads),
+                                     new NamedThreadFactory("FormulaPV"));
+
+    private static final LongAdder evaluations = new LongAdder(), skips = new LongAdder(), latency = new LongAdder();
+    private static final LongAccumulator max_latency = new LongAccumulator(Math::max, 0);
+
+    /** Sub-expressions shared by formulas */
+    static final SharedNodes shared_nodes = new SharedNodes();
+
+    /** Variables by input name, held while used by a formula. Synchronize on access */
+    private static final Map<String, WeakReference<VariableNode>> variables = new HashMap<>();
+
+    /** Scheduled evaluation of one formula */
+    static class Evaluation
+    {
+        private final String name;
+        private final Runnable evaluate;
+
+        /** Has evaluation been requested? */
+        private final AtomicBoolean pending = new AtomicBoolean();
+
+        /** Is evaluation scheduled or running? */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /** Time of the first request that's still pending */
+        private volatile long requested;
+
+        private final LongAdder evaluations = new LongAdder(), skips = new LongAdder(), latency = new LongAdder();
+
+        Evaluation(final String name, final Runnable evaluate)
+        {
+            this.name = name;
+            this.evaluate = evaluate;
+        }
+
+        /** Request evaluation */
+        void request()
+        {
+            final long now = System.nanoTime();
+            if (pending.getAndSet(true))
+            {
+                skips.increment();
+                FormulaEngine.skips.increment();
+                logger.log(Level.FINE, () -> name + " skips recalc on " + Thread.currentThread());
+                return;
+            }
+            requested = now;
+            schedule();
+        }
+
+        private void schedule()
+        {
+            if (scheduled.compareAndSet(false, true))
+                executor.execute(this::run);
+        }
+
+        private void run()
+        {
+            try
+            {
+                if (pending.getAndSet(false))
+                {
+                    final long start = requested;
+                    evaluate.run();
+                    final long nanos = System.nanoTime() - start;
+                    evaluations.increment();
+                    latency.add(nanos);
+                    FormulaEngine.evaluations.increment();
+                    FormulaEngine.latency.add(nanos);
+                    max_latency.accumulate(nanos);
+                }
+            }
+            catch (Throwable ex)
+            {
+                logger.log(Level.WARNING, name + " evaluation error", ex);
+            }
+            finally
+            {
+                scheduled.set(false);
+                // request() may have been called while still 'scheduled'
+                if (pending.get())
+                    schedule();
+            }
+        }
+
+        /** @return Number of evaluations */
+        long getEvaluationCount()
+        {
+            return evaluations.sum();
+        }
+
+        /** @return Number of requests combined into an already pending evaluation */
+        long getSkipCount()
+        {
+            return skips.sum();
+        }
+
+        /** @return Average time in nanoseconds from request until evaluation completed */
+        long getAverageLatency()
+        {
+            final long count = evaluations.sum();
+            return count > 0 ? latency.sum() / count : 0;
+        }
+    }
+
+    private FormulaEngine()
+    {
+    }
+
+    /** @param name Name of input PV
+     *  @return Variable for that input, shared by all formulas that use it
+     */
+    static VariableNode getVariable(final String name)
+    {
+        synchronized (variables)
+        {
+            final WeakReference<VariableNode> ref = variables.get(name);
+            VariableNode variable = ref == null ? null : ref.get();
+            if (variable == null)
+            {
+                variables.values().removeIf(r -> r.get() == null);
+                // Initialize 'disconnected' until PV sends first value
+                variable = new VariableNode(name, VDouble.of(Double.NaN, Alarm.disconnected(), Time.now(), Display.none()));
+                variables.put(name, new WeakReference<>(variable));
+            }
+            return variable;
+        }
+    }
+
+    /** @return Number of sub-expressions that are shared by formulas */
+    public static int getSharedNodeCount()
+    {
+        return shared_nodes.size();
+    }
+
+    /** @return Number of times that a shared sub-expression used a remembered result instead of computing it again */
+    public static long getSharedResultCount()
+    {
+        return shared_nodes.getReuseCount();
+    }
+
+    /** @return Number of formula evaluations */
+    public static long getEvaluationCount()
+    {
+        return evaluations.sum();
+    }
+
+    /** @return Number of requests combined into an already pending evaluation */
+    public static long getSkipCount()
+    {
+        return skips.sum();
+    }
+
+    /** @return Average time in nanoseconds from request until evaluation completed */
+    public static long getAverageLatency()
+    {
+        final long count = evaluations.sum();
+        return count > 0 ? latency.sum() / count : 0;
+    }
+
+    /** @return Maximum time in nanoseconds from request until evaluation completed */
+    public static long getMaxLatency()
+    {
+        return max_latency.get();
+    }
+}
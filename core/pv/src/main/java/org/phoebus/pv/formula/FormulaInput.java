@@ -9,6 +9,10 @@ package org.phoebus.pv.formula;
 
 import static org.phoebus.pv.PV.logger;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
@@ -19,26 +23,85 @@ import org.phoebus.pv.PVPool;
 
 import io.reactivex.rxjava3.disposables.Disposable;
 
-/** Input to a formula
+/** Input to formulas
  *
- *  <p>Reads a PV, updates formula variable
+ *  <p>Reads a PV, updates formula variables
  *  and triggers formula evaluation.
  *
+ *  <p>Formulas that use the same input PV share
+ *  one subscription to it.
+ *
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
 class FormulaInput
 {
-    private final FormulaPV formula_pv;
-    private final VariableNode variable;
+    /** Formula and its variable for this input */
+    private static class Dependent
+    {
+        final FormulaPV formula_pv;
+        final VariableNode variable;
+
+        Dependent(final FormulaPV formula_pv, final VariableNode variable)
+        {
+            this.formula_pv = formula_pv;
+            this.variable = variable;
+        }
+    }
+
+    /** Inputs by PV name, synchronize on access */
+    private static final Map<String, FormulaInput> inputs = new HashMap<>();
+
+    private final String name;
+    private final List<Dependent> dependents = new CopyOnWriteArrayList<>();
+    private volatile VType last_value = null;
     private volatile PV pv;
     private volatile Disposable subscription;
 
-    protected FormulaInput(final FormulaPV formula_pv, final VariableNode variable) throws Exception
+    /** Get input for a formula variable
+     *  @param formula_pv Formula
+     *  @param variable Variable of the formula, name determines the input PV
+     *  @return {@link FormulaInput}
+     *  @throws Exception on error
+     */
+    static FormulaInput attach(final FormulaPV formula_pv, final VariableNode variable) throws Exception
     {
-        this.formula_pv = formula_pv;
-        this.variable = variable;
-        pv = PVPool.getPV(variable.getName());
+        // Get PV outside of lock because it might be another formula
+        // that's created by a different thread and needs the lock for its own inputs
+        final PV pv = PVPool.getPV(variable.getName());
+        final FormulaInput input;
+        PV extra_reference = null;
+        synchronized (inputs)
+        {
+            FormulaInput existing = inputs.get(variable.getName());
+            if (existing == null)
+            {
+                existing = new FormulaInput(variable.getName(), pv);
+                inputs.put(variable.getName(), existing);
+            }
+            else
+                extra_reference = pv;
+            input = existing;
+            input.dependents.add(new Dependent(formula_pv, variable));
+        }
+        if (extra_reference != null)
+            PVPool.releasePV(extra_reference);
+
+        // New subscription sends initial value,
+        // but existing one needs to update the new dependent
+        final VType value = input.last_value;
+        if (value != null)
+        {
+            variable.setValue(value);
+            formula_pv.update();
+        }
+        return input;
+    }
+
+    private FormulaInput(final String name, final PV pv)
+    {
+        this.name = name;
+        this.pv = pv;
         subscription = pv.onValueEvent()
                          .throttleLatest(FormulaPVPreferences.throttle_ms, TimeUnit.MILLISECONDS)
                          .subscribe(this::handleUpdate);
@@ -51,12 +114,31 @@ class FormulaInput
 
     private void handleUpdate(final VType value)
     {
-        logger.log(Level.FINE, () -> formula_pv.getName() + " updated by " + pv);
-        variable.setValue(value);
-        formula_pv.update();
+        last_value = value;
+        for (Dependent dependent : dependents)
+        {
+            logger.log(Level.FINE, () -> dependent.formula_pv.getName() + " updated by " + pv);
+            dependent.variable.setValue(value);
+            dependent.formula_pv.update();
+        }
+    }
+
+    /** @param formula_pv Formula that no longer uses this input
+     *  @param variable Variable of that formula
+     */
+    void detach(final FormulaPV formula_pv, final VariableNode variable)
+    {
+        synchronized (inputs)
+        {
+            dependents.removeIf(dep -> dep.formula_pv == formula_pv  &&  dep.variable == variable);
+            if (! dependents.isEmpty())
+                return;
+            inputs.remove(name);
+        }
+        close();
     }
 
-    protected void close()
+    private void close()
     {
         if (subscription != null)
         {
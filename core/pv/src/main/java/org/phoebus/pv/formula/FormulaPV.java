@@ -10,17 +10,12 @@ package org.phoebus.pv.formula;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
 import org.csstudio.apputil.formula.Formula;
 import org.csstudio.apputil.formula.VariableNode;
 import org.epics.vtype.Alarm;
-import org.epics.vtype.Display;
 import org.epics.vtype.Time;
-import org.epics.vtype.VDouble;
 import org.epics.vtype.VString;
 import org.epics.vtype.VType;
 import org.phoebus.pv.PV;
@@ -31,41 +26,33 @@ import org.phoebus.pv.PV;
 @SuppressWarnings("nls")
 public class FormulaPV extends PV
 {
-    /** Evaluate formulas on one thread
+    /** Evaluate formula via {@link FormulaEngine}
      *  to decouple and throttle input updates
      */
-    private static final ExecutorService update_thread = Executors.newSingleThreadExecutor(target ->
-    {
-        final Thread thread = new Thread(target, "FormulaPV");
-        thread.setDaemon(true);
-        return thread;
-    });
-
-    /** Is there already a pending update? */
-    private AtomicBoolean pending = new AtomicBoolean();
+    private final FormulaEngine.Evaluation evaluation;
 
     private Formula formula;
+    private volatile VariableNode[] variables;
     private volatile FormulaInput[] inputs;
 
     protected FormulaPV(final String name, final String expression)
     {
         super(name);
+        evaluation = new FormulaEngine.Evaluation(name, this::doUpdate);
         try
         {
-            // Parse expression...
-            formula = new Formula(expression, true);
+            // Parse expression, sharing variables and sub-expressions with other formulas
+            formula = new Formula(expression, FormulaEngine::getVariable, FormulaEngine.shared_nodes);
 
             final VType value = formula.eval();
             notifyListenersOfValue(value);
 
             // Determine variables, connect to PVs
             final VariableNode vars[] = formula.getVariables();
+            variables = vars;
             inputs = new FormulaInput[vars.length];
             for (int i=0; i<inputs.length; ++i)
-            {   // Initialize 'disconnected' until PV sends first value
-                vars[i].setValue(VDouble.of(Double.NaN, Alarm.disconnected(), Time.now(), Display.none()));
-                inputs[i] = new FormulaInput(this, vars[i]);
-            }
+                inputs[i] = FormulaInput.attach(this, vars[i]);
 
             // Set initial value
             doUpdate();
@@ -93,19 +80,33 @@ public class FormulaPV extends PV
         return pvs;
     }
 
+    /** @return Number of times the formula was evaluated for input updates */
+    public long getEvaluationCount()
+    {
+        return evaluation.getEvaluationCount();
+    }
+
+    /** @return Number of input updates that were combined into an already pending evaluation */
+    public long getSkipCount()
+    {
+        return evaluation.getSkipCount();
+    }
+
+    /** @return Average time in nanoseconds from input update until formula was evaluated */
+    public long getAverageLatency()
+    {
+        return evaluation.getAverageLatency();
+    }
+
     /** Schedule evaluation of formula */
     void update()
     {
-        if (pending.getAndSet(true))
-            logger.log(Level.FINE, () -> getName() + " skips recalc on " + Thread.currentThread());
-        else
-            update_thread.submit(this::doUpdate);
+        evaluation.request();
     }
 
     /** Compute updated value of formula and notify listeners */
     private void doUpdate()
     {
-        pending.set(false);
         logger.log(Level.FINE, () -> getName() + " recalc on " + Thread.currentThread());
 
         // Simulate slow evaluation
@@ -120,10 +121,11 @@ public class FormulaPV extends PV
     {
         // Close variable PVs
         // Inputs or individual input may be null for formulas that failed to initialize
-        if (inputs != null)
-            for (FormulaInput input : inputs)
-                if (input != null)
-                    input.close();
+        final FormulaInput[] ins = inputs;
+        if (ins != null)
+            for (int i=0; i<ins.length; ++i)
+                if (ins[i] != null)
+                    ins[i].detach(this, variables[i]);
         inputs = null;
     }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2020 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,10 +16,11 @@ import org.phoebus.framework.preferences.Preference;
 @SuppressWarnings("nls")
 class FormulaPVPreferences
 {
-    @Preference public static int throttle_ms;
+    @Preference static int throttle_ms;
+    @Preference static int formula_threads;
 
     static
     {
-    	AnnotatedPreferences.initialize(FormulaPVFactory.class, "/pv_formula_preferences.properties");
+    	AnnotatedPreferences.initialize(FormulaPVFactory.class, FormulaPVPreferences.class, "/pv_formula_preferences.properties");
     }
 }
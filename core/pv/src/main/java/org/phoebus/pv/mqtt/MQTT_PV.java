@@ -29,14 +29,30 @@ public class MQTT_PV extends PV
 {
     static final MQTT_PVConn conx = new MQTT_PVConn();
 
+    /** Connection used by this PV */
+    private final MQTT_PVConn conn;
+
     volatile private String topicStr;
 
     private Class<? extends VType> type;
 
+    /** Was the type declared in the PV name? */
+    private boolean declared_type = false;
 
     protected MQTT_PV(final String name, final String base_name) throws Exception
+    {
+        this(name, base_name, conx);
+    }
+
+    /** @param name Full PV name
+     *  @param base_name Base name
+     *  @param conn Connection to use
+     *  @throws Exception on error
+     */
+    MQTT_PV(final String name, final String base_name, final MQTT_PVConn conn) throws Exception
     {
         super(name);
+        this.conn = conn;
         final String initial_value = parseTopicValue(base_name);
 
         if (initial_value == null)
@@ -48,7 +64,7 @@ public class MQTT_PV extends PV
             write(initial_value);
         }
 
-        conx.subscribeTopic(topicStr, this);
+        conn.subscribeTopic(topicStr, this);
 
     }
 
@@ -60,6 +76,7 @@ public class MQTT_PV extends PV
         if (ntv[1] != null) {
             //topicStr += ntv[1];
             type = parseType(ntv[1]);
+            declared_type = true;
         }
 
         if (ntv[2] == null)
@@ -148,11 +165,10 @@ public class MQTT_PV extends PV
         if (new_value == null)
             throw new Exception(getName() + " got null");
 
-        final String pubMsg;
+        final VType value;
         try
         {
-            final VType value = VTypeToFromString.convert(new_value, type, read());
-            pubMsg = VTypeToFromString.ToString(value);
+            value = VTypeToFromString.convert(new_value, type, read());
         }
         catch (Exception ex)
         {
@@ -161,7 +177,7 @@ public class MQTT_PV extends PV
 
 
         try {
-            conx.publishTopic(topicStr, pubMsg, 0, true);
+            conn.publish(topicStr, value);
         } catch (Exception ex) {
             throw new Exception("Failed to write '" + new_value + "' to " + getName(), ex);
         }
@@ -173,7 +189,7 @@ public class MQTT_PV extends PV
     {
         try
         {
-            conx.unsubscribeTopic(topicStr, this);
+            conn.unsubscribeTopic(topicStr, this);
         }
         catch (Exception ex)
         {
@@ -211,4 +227,33 @@ public class MQTT_PV extends PV
         }
     }
 
+    /** Called when a binary value arrives, either on the PV's topic or in a batch
+     *
+     *  <p>Value keeps its encoded type unless the PV name declared a type.
+     *
+     *  @param value Value
+     */
+    void valueArrived(final VType value)
+    {
+        if (! declared_type)
+        {
+            notifyListenersOfValue(value);
+            return;
+        }
+        try
+        {
+            notifyListenersOfValue(VTypeToFromString.convert(value, type));
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot convert " + value + " for " + getName(), ex);
+        }
+    }
+
+    /** Called when connection to broker is lost */
+    void disconnected()
+    {
+        notifyListenersOfDisconnect();
+    }
+
 }
\ No newline at end of file
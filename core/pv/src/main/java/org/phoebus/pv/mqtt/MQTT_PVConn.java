@@ -9,42 +9,70 @@ package org.phoebus.pv.mqtt;
 
 import java.net.InetAddress;
 import java.net.NetworkInterface;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
-import org.eclipse.paho.client.mqttv3.MqttCallback;
+import org.eclipse.paho.client.mqttv3.MqttCallbackExtended;
 import org.eclipse.paho.client.mqttv3.MqttClient;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
-import org.eclipse.paho.client.mqttv3.MqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
-import org.eclipse.paho.client.mqttv3.MqttTopic;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.epics.vtype.VType;
+import org.phoebus.framework.jobs.NamedThreadFactory;
 import org.phoebus.pv.PV;
 
 /** MQTT Topic subscription handler
  *
- *  <p>Dispatches MQTT data to {@link MQTT_PV}s
+ *  <p>Dispatches MQTT data to {@link MQTT_PV}s.
+ *
+ *  <p>Values are published as text or in binary,
+ *  see {@link VTypeToFromBinary}.
+ *  With a 'batch topic', values are collected
+ *  and published in one message for many topics.
+ *
+ *  <p>Connection state is handled via the client callbacks.
+ *  The client reconnects automatically,
+ *  and topics are subscribed again once the connection is restored.
  *  @author Megan Grodowitz
  */
 @SuppressWarnings("nls")
-public class MQTT_PVConn implements MqttCallback
+public class MQTT_PVConn implements MqttCallbackExtended
 {
-    private final AtomicBoolean connected = new AtomicBoolean();
-
+    /** Client, <code>null</code> while not connected. SYNC on this */
     MqttClient myClient;
     MqttConnectOptions connOpt;
 
     /** Mapping from topic to PVs */
     final ConcurrentHashMap<String, CopyOnWriteArrayList<MQTT_PV>> subscribers = new ConcurrentHashMap<>();
 
-    volatile private String brokerURL = MQTT_Preferences.mqtt_broker;
+    volatile private String brokerURL;
     volatile private String clientID;
 
+    /** Publish in binary format? */
+    private final boolean binary;
+
+    /** Topic for batches of values, <code>null</code> if not used */
+    private final String batch_topic;
+
+    /** Delay for collecting values into a batch */
+    private final long batch_delay_ms;
+
+    /** Values to publish in next batch. SYNC on batch */
+    private final Map<String, VType> batch = new LinkedHashMap<>();
+
+    private static final ScheduledExecutorService batch_timer = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("MQTTBatch"));
+
     //Random integer in case
     final static Integer randInt = ThreadLocalRandom.current().nextInt(0, 1000000 + 1);
 
@@ -52,6 +80,21 @@ public class MQTT_PVConn implements MqttCallback
 
     MQTT_PVConn()
     {
+        this(MQTT_Preferences.mqtt_broker, MQTT_Preferences.binary_payload,
+             MQTT_Preferences.batch_topic, MQTT_Preferences.batch_delay_ms);
+    }
+
+    /** @param brokerURL Broker URL
+     *  @param binary Publish in binary format?
+     *  @param batch_topic Topic for batches of values, empty or <code>null</code> to disable
+     *  @param batch_delay_ms Delay for collecting values into a batch
+     */
+    MQTT_PVConn(final String brokerURL, final boolean binary, final String batch_topic, final long batch_delay_ms)
+    {
+        this.brokerURL = brokerURL;
+        this.binary = binary;
+        this.batch_topic = (batch_topic == null  ||  batch_topic.isBlank()) ? null : batch_topic;
+        this.batch_delay_ms = batch_delay_ms;
         connect();
     }
 
@@ -62,8 +105,31 @@ public class MQTT_PVConn implements MqttCallback
     @Override
     public void messageArrived(String topic, MqttMessage msg) throws Exception
     {
-        for (MQTT_PV pv : subscribers.get(topic))
-            pv.messageArrived(topic, msg);
+        final byte[] payload = msg.getPayload();
+        if (topic.equals(batch_topic))
+        {
+            VTypeToFromBinary.fromBinaryBatch(payload, (entry_topic, value) ->
+            {
+                final List<MQTT_PV> pvs = subscribers.get(entry_topic);
+                if (pvs != null)
+                    for (MQTT_PV pv : pvs)
+                        pv.valueArrived(value);
+            });
+            return;
+        }
+
+        final List<MQTT_PV> pvs = subscribers.get(topic);
+        if (pvs == null)
+            return;
+        if (VTypeToFromBinary.isBinary(payload))
+        {   // Decode once for all PVs on this topic
+            final VType value = VTypeToFromBinary.fromBinary(payload);
+            for (MQTT_PV pv : pvs)
+                pv.valueArrived(value);
+        }
+        else
+            for (MQTT_PV pv : pvs)
+                pv.messageArrived(topic, msg);
     }
 
     /** @param topicStr Topic
@@ -81,20 +147,30 @@ public class MQTT_PVConn implements MqttCallback
 
         final List<MQTT_PV> pvs = subscribers.computeIfAbsent(topicStr, topic ->
         {
-            int subQoS = 0;
-            try
-            {
-                myClient.subscribe(topicStr, subQoS);
-            }
-            catch (Exception ex)
-            {
-                PV.logger.log(Level.WARNING, "Cannot subscribe to MQTT topic '" + topicStr + "'", ex);
-            }
+            if (batch_topic != null  &&  subscribers.isEmpty())
+                subscribe(batch_topic);
+            subscribe(topicStr);
             return new CopyOnWriteArrayList<>();
         });
         pvs.add(pv);
     }
 
+    /** @param topicStr Topic to subscribe, logging errors */
+    private synchronized void subscribe(final String topicStr)
+    {
+        int subQoS = 0;
+        try
+        {
+            if (myClient != null  &&  myClient.isConnected())
+                myClient.subscribe(topicStr, subQoS);
+            // else: Will subscribe in connectComplete
+        }
+        catch (Exception ex)
+        {
+            PV.logger.log(Level.WARNING, "Cannot subscribe to MQTT topic '" + topicStr + "'", ex);
+        }
+    }
+
     /** @param topicStr Topic
      *  @param pv PV
      *  @throws Exception on error
@@ -120,7 +196,11 @@ public class MQTT_PVConn implements MqttCallback
         if (pvs.isEmpty())
         {
             subscribers.remove(topicStr);
-            myClient.unsubscribe(topicStr);
+            synchronized (this)
+            {
+                if (myClient != null  &&  myClient.isConnected())
+                    myClient.unsubscribe(topicStr);
+            }
             if (subscribers.isEmpty())
                 disconnect();
         }
@@ -133,6 +213,17 @@ public class MQTT_PVConn implements MqttCallback
      *  @throws Exception on error
      */
     public void publishTopic(String topicStr, String pubMsg, int pubQoS, boolean retained) throws Exception
+    {
+        publishTopic(topicStr, pubMsg.getBytes(StandardCharsets.UTF_8), pubQoS, retained);
+    }
+
+    /** @param topicStr Topic
+     *  @param payload Message
+     *  @param pubQoS QOS
+     *  @param retained Retain message?
+     *  @throws Exception on error
+     */
+    public void publishTopic(String topicStr, byte[] payload, int pubQoS, boolean retained) throws Exception
     {
         if (!connect())
         {
@@ -141,65 +232,116 @@ public class MQTT_PVConn implements MqttCallback
             throw new Exception("MQTT publish failed: no broker connection");
         }
 
-        MqttTopic topic = myClient.getTopic(topicStr);
-        MqttMessage message = new MqttMessage(pubMsg.getBytes());
-        message.setQos(pubQoS);
-        message.setRetained(retained);
-
-        MqttDeliveryToken token = null;
         try {
-            // publish message to broker
-            token = topic.publish(message);
-            // Wait until the message has been delivered to the broker
-            token.waitForCompletion();
-            Thread.sleep(100);
+            // MqttClient.publish returns once the message has been delivered to the broker
+            final MqttClient client;
+            synchronized (this)
+            {
+                client = myClient;
+            }
+            client.publish(topicStr, payload, pubQoS, retained);
         } catch (Exception ex) {
             throw new Exception("Failed to publish message to broker", ex);
         }
     }
 
-    private void disconnect()
+    /** Publish value as text, binary or in batch, depending on configuration
+     *
+     *  @param topicStr Topic
+     *  @param value Value
+     *  @throws Exception on error
+     */
+    public void publish(final String topicStr, final VType value) throws Exception
     {
-        if (! connected.compareAndSet(true, false))
-            return; // Already disconnected
+        final boolean can_encode = VTypeToFromBinary.canEncode(value);
+        if (batch_topic != null  &&  can_encode)
+        {
+            synchronized (batch)
+            {
+                // Schedule flush for the first value of a new batch
+                if (batch.isEmpty())
+                    batch_timer.schedule(this::publishBatch, batch_delay_ms, TimeUnit.MILLISECONDS);
+                batch.put(topicStr, value);
+            }
+        }
+        else if (binary  &&  can_encode)
+            publishTopic(topicStr, VTypeToFromBinary.toBinary(value), 0, true);
+        else
+            publishTopic(topicStr, VTypeToFromString.ToString(value), 0, true);
+    }
 
+    /** Publish values collected for batch */
+    private void publishBatch()
+    {
+        final byte[] payload;
         try
         {
-            if (! myClient.isConnected())
-                throw new Exception("Already disconnected");
+            synchronized (batch)
+            {
+                payload = VTypeToFromBinary.toBinary(batch);
+                batch.clear();
+            }
+            publishTopic(batch_topic, payload, 0, false);
+        }
+        catch (Exception ex)
+        {
+            PV.logger.log(Level.WARNING, "Cannot publish batch to MQTT topic '" + batch_topic + "'", ex);
+        }
+    }
 
-            // wait to ensure subscribed messages are delivered
-            Thread.sleep(100);
+    private synchronized void disconnect()
+    {
+        if (myClient == null)
+            return; // Already disconnected
+
+        try
+        {
+            // Waits for pending work to complete
             myClient.disconnect();
+            myClient.close();
         }
         catch (Exception ex)
         {
             PV.logger.log(Level.WARNING, "Failed to disconnect from MQTT broker " + brokerURL, ex);
         }
+        myClient = null;
     }
 
-    private boolean connect()
+    /** Connect unless already connected or reconnecting
+     *  @return <code>true</code> if there is a client
+     */
+    private synchronized boolean connect()
     {
-        if (! connected.compareAndSet(false, true))
-            return true; // Already connected
+        if (myClient != null)
+            return true; // Already connected, or automatically reconnecting
 
         generateClientID();
         setOptions();
 
         // Connect to Broker
+        MqttClient client = null;
         try
         {
-            myClient = new MqttClient(brokerURL, clientID);
-            myClient.setCallback(this);
-            myClient.connect(connOpt);
+            client = new MqttClient(brokerURL, clientID, new MemoryPersistence());
+            client.setCallback(this);
+            client.connect(connOpt);
+            myClient = client;
         }
         catch (MqttException ex)
         {
             PV.logger.log(Level.SEVERE, "Could not connect to MQTT broker " + brokerURL, ex);
-            connected.set(false);
+            try
+            {
+                if (client != null)
+                    client.close();
+            }
+            catch (MqttException e)
+            {
+                // Ignore
+            }
         }
 
-        return connected.get();
+        return myClient != null;
     }
 
     private void generateClientID()
@@ -233,9 +375,28 @@ public class MQTT_PVConn implements MqttCallback
         connOpt.setCleanSession(true);
         connOpt.setKeepAliveInterval(30);
         connOpt.setWill("ERROR", "PV Disconnected".getBytes(), 0, true);
+        // Client reconnects in background with increasing delay
+        connOpt.setAutomaticReconnect(true);
         //connOpt.setUserName(userName);
         //connOpt.setPassword(passWord.getBytes());
-        //TODO: Look up best practices for reconnect
+    }
+
+    /**
+     * Called when connection to broker is established, initially or after reconnect
+     * @see org.eclipse.paho.client.mqttv3.MqttCallbackExtended#connectComplete(boolean, java.lang.String)
+     */
+    @Override
+    public void connectComplete(final boolean reconnect, final String serverURI)
+    {
+        if (! reconnect)
+            return;
+        PV.logger.log(Level.INFO, "Reconnected to MQTT broker " + serverURI);
+        // Clean session, so subscribe again.
+        // Server will then send retained values
+        if (batch_topic != null  &&  ! subscribers.isEmpty())
+            subscribe(batch_topic);
+        for (String topic : subscribers.keySet())
+            subscribe(topic);
     }
 
     /**
@@ -245,16 +406,10 @@ public class MQTT_PVConn implements MqttCallback
     @Override
     public void connectionLost(Throwable arg0)
     {
-        PV.logger.log(Level.FINE, "Disconnected from MQTT broker " + brokerURL);
-
-        // Connect to Broker
-        // TODO: attempt reconnect repeatedly in background thread with timer backoff and eventual timeout
-        try {
-            myClient.connect(connOpt);
-        } catch (MqttException ex) {
-            PV.logger.log(Level.SEVERE, "Could not reconnect to MQTT broker " + brokerURL);
-            ex.printStackTrace();
-        }
+        PV.logger.log(Level.WARNING, "Disconnected from MQTT broker " + brokerURL);
+        for (List<MQTT_PV> pvs : subscribers.values())
+            for (MQTT_PV pv : pvs)
+                pv.disconnected();
     }
 
     /**
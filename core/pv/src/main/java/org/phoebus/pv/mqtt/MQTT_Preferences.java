@@ -20,6 +20,15 @@ public class MQTT_Preferences
     /** Broker URL */
     @Preference public static String mqtt_broker;
 
+    /** Publish values in binary format? */
+    @Preference public static boolean binary_payload;
+
+    /** Topic for publishing batches of values, empty to disable */
+    @Preference public static String batch_topic;
+
+    /** Delay for collecting values into one batch */
+    @Preference public static int batch_delay_ms;
+
     static
     {
     	AnnotatedPreferences.initialize(MQTT_Preferences.class, "/pv_mqtt_preferences.properties");
@@ -0,0 +1,417 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.phoebus.pv.mqtt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.epics.util.array.ArrayByte;
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.array.ArrayFloat;
+import org.epics.util.array.ArrayInteger;
+import org.epics.util.array.ArrayLong;
+import org.epics.util.array.ArrayShort;
+import org.epics.util.array.ListByte;
+import org.epics.util.array.ListDouble;
+import org.epics.util.array.ListFloat;
+import org.epics.util.array.ListInteger;
+import org.epics.util.array.ListNumber;
+import org.epics.util.array.ListShort;
+import org.epics.util.array.ListUByte;
+import org.epics.util.array.ListUShort;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VByte;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VFloat;
+import org.epics.vtype.VInt;
+import org.epics.vtype.VNumber;
+import org.epics.vtype.VNumberArray;
+import org.epics.vtype.VShort;
+import org.epics.vtype.VString;
+import org.epics.vtype.VStringArray;
+import org.epics.vtype.VType;
+import org.epics.vtype.VUByte;
+import org.epics.vtype.VUShort;
+
+/** Binary payload for MQTT messages
+ *
+ *  <p>Values are encoded in big-endian byte order:
+ *  <pre>
+ *  byte   0, marks binary payload (text never starts with a zero byte)
+ *  byte   type: 'D' double, 'F' float, 'J' long, 'I' int, 'H' short, 'Y' byte, 'S' string,
+ *         lower case for an array of that type
+ *  long   time stamp, seconds since epoch
+ *  int    time stamp, nanoseconds
+ *  byte   alarm severity
+ *  byte   alarm status
+ *  string alarm message
+ *  ...    value
+ *  </pre>
+ *  Strings are encoded as int length followed by UTF-8 bytes,
+ *  arrays as int length followed by the elements.
+ *  Unsigned numbers use the next larger signed type,
+ *  except for unsigned long which uses long.
+ *
+ *  <p>A batch of values for several topics uses type 'B',
+ *  followed by the int number of entries,
+ *  and then the string topic and encoded value of each entry.
+ */
+@SuppressWarnings("nls")
+public class VTypeToFromBinary
+{
+    /** First byte of binary payload */
+    static final byte MARKER = 0;
+
+    private static final byte DOUBLE = 'D', FLOAT = 'F', LONG = 'J', INT = 'I', SHORT = 'H', BYTE = 'Y',
+                              STRING = 'S', BATCH = 'B';
+
+    /** Offset from scalar to array type code */
+    private static final byte ARRAY = 'a' - 'A';
+
+    /** @param payload MQTT message payload
+     *  @return <code>true</code> if payload uses binary encoding
+     */
+    public static boolean isBinary(final byte[] payload)
+    {
+        return payload.length > 0  &&  payload[0] == MARKER;
+    }
+
+    /** @param value Value
+     *  @return <code>true</code> if value can be encoded in binary
+     */
+    public static boolean canEncode(final VType value)
+    {
+        return value instanceof VNumber       ||
+               value instanceof VString       ||
+               value instanceof VNumberArray  ||
+               value instanceof VStringArray;
+    }
+
+    /** @param value Value to encode
+     *  @return Binary payload
+     *  @throws Exception on error
+     */
+    public static byte[] toBinary(final VType value) throws Exception
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(encodedSize(value));
+        encode(value, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /** @param values Values by topic
+     *  @return Binary payload for a batch of values
+     *  @throws Exception on error
+     */
+    public static byte[] toBinary(final Map<String, VType> values) throws Exception
+    {
+        int size = 2 + Integer.BYTES;
+        for (Map.Entry<String, VType> entry : values.entrySet())
+            size += encodedSize(entry.getKey()) + encodedSize(entry.getValue());
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(MARKER);
+        buffer.put(BATCH);
+        buffer.putInt(values.size());
+        for (Map.Entry<String, VType> entry : values.entrySet())
+        {
+            encode(entry.getKey(), buffer);
+            encode(entry.getValue(), buffer);
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static int encodedSize(final String text)
+    {
+        // Worst case for UTF-8 is 3 bytes per char,
+        // buffer is then trimmed to the actual size
+        return Integer.BYTES + 3 * text.length();
+    }
+
+    /** @param value Number
+     *  @return Type code for the number
+     */
+    private static byte getType(final VNumber value)
+    {
+        if (value instanceof VDouble)
+            return DOUBLE;
+        if (value instanceof VFloat)
+            return FLOAT;
+        if (value instanceof VByte)
+            return BYTE;
+        if (value instanceof VShort  ||  value instanceof VUByte)
+            return SHORT;
+        if (value instanceof VInt  ||  value instanceof VUShort)
+            return INT;
+        final Number number = value.getValue();
+        return (number instanceof Double  ||  number instanceof Float) ? DOUBLE : LONG;
+    }
+
+    /** @param data Array data
+     *  @return Type code for the array elements
+     */
+    private static byte getType(final ListNumber data)
+    {
+        if (data instanceof ListDouble)
+            return DOUBLE;
+        if (data instanceof ListFloat)
+            return FLOAT;
+        if (data instanceof ListByte)
+            return BYTE;
+        if (data instanceof ListShort  ||  data instanceof ListUByte)
+            return SHORT;
+        if (data instanceof ListInteger  ||  data instanceof ListUShort)
+            return INT;
+        return LONG;
+    }
+
+    /** @param type Type code of a number
+     *  @return Encoded size of the number
+     */
+    private static int getSize(final byte type)
+    {
+        switch (type)
+        {
+        case FLOAT: return Float.BYTES;
+        case INT:   return Integer.BYTES;
+        case SHORT: return Short.BYTES;
+        case BYTE:  return Byte.BYTES;
+        default:    return Long.BYTES;
+        }
+    }
+
+    private static int encodedSize(final VType value) throws Exception
+    {
+        final Alarm alarm = Alarm.alarmOf(value);
+        int size = 2 + Long.BYTES + Integer.BYTES + 2 + encodedSize(alarm.getName());
+        if (value instanceof VNumber)
+            size += getSize(getType((VNumber) value));
+        else if (value instanceof VString)
+            size += encodedSize(((VString) value).getValue());
+        else if (value instanceof VNumberArray)
+        {
+            final ListNumber data = ((VNumberArray) value).getData();
+            size += Integer.BYTES + data.size() * getSize(getType(data));
+        }
+        else if (value instanceof VStringArray)
+        {
+            size += Integer.BYTES;
+            for (String item : ((VStringArray) value).getData())
+                size += encodedSize(item);
+        }
+        else
+            throw new Exception("Cannot encode " + value.getClass().getName());
+        return size;
+    }
+
+    private static void encode(final String text, final ByteBuffer buffer)
+    {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static void encode(final VType value, final ByteBuffer buffer) throws Exception
+    {
+        final byte type;
+        if (value instanceof VNumber)
+            type = getType((VNumber) value);
+        else if (value instanceof VString)
+            type = STRING;
+        else if (value instanceof VNumberArray)
+            type = (byte) (getType(((VNumberArray) value).getData()) + ARRAY);
+        else if (value instanceof VStringArray)
+            type = STRING + ARRAY;
+        else
+            throw new Exception("Cannot encode " + value.getClass().getName());
+        buffer.put(MARKER);
+        buffer.put(type);
+
+        final Instant stamp = Time.timeOf(value).getTimestamp();
+        buffer.putLong(stamp.getEpochSecond());
+        buffer.putInt(stamp.getNano());
+        final Alarm alarm = Alarm.alarmOf(value);
+        buffer.put((byte) alarm.getSeverity().ordinal());
+        buffer.put((byte) alarm.getStatus().ordinal());
+        encode(alarm.getName(), buffer);
+
+        if (value instanceof VNumber)
+        {
+            final Number number = ((VNumber) value).getValue();
+            switch (type)
+            {
+            case DOUBLE: buffer.putDouble(number.doubleValue());       break;
+            case FLOAT:  buffer.putFloat(number.floatValue());         break;
+            case INT:    buffer.putInt((int) number.longValue());      break;
+            case SHORT:  buffer.putShort((short) number.longValue());  break;
+            case BYTE:   buffer.put((byte) number.longValue());        break;
+            default:     buffer.putLong(number.longValue());
+            }
+        }
+        else if (value instanceof VString)
+            encode(((VString) value).getValue(), buffer);
+        else if (value instanceof VNumberArray)
+        {
+            final ListNumber data = ((VNumberArray) value).getData();
+            final int size = data.size();
+            buffer.putInt(size);
+            // Unsigned elements are read via getLong() to keep their value
+            for (int i=0; i<size; ++i)
+                switch (type - ARRAY)
+                {
+                case DOUBLE: buffer.putDouble(data.getDouble(i));       break;
+                case FLOAT:  buffer.putFloat(data.getFloat(i));         break;
+                case INT:    buffer.putInt((int) data.getLong(i));      break;
+                case SHORT:  buffer.putShort((short) data.getLong(i));  break;
+                case BYTE:   buffer.put(data.getByte(i));               break;
+                default:     buffer.putLong(data.getLong(i));
+                }
+        }
+        else
+        {
+            final List<String> data = ((VStringArray) value).getData();
+            buffer.putInt(data.size());
+            for (String item : data)
+                encode(item, buffer);
+        }
+    }
+
+    private static String decodeString(final ByteBuffer buffer)
+    {
+        final int length = buffer.getInt();
+        final String text = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return text;
+    }
+
+    /** @param payload Binary payload for one value
+     *  @return Decoded value
+     *  @throws Exception on error
+     */
+    public static VType fromBinary(final byte[] payload) throws Exception
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap(payload);
+        if (payload.length > 1  &&  payload[1] == BATCH)
+            throw new Exception("Got batch, expected single value");
+        return decode(buffer);
+    }
+
+    /** @param payload Binary payload for a batch of values
+     *  @param handler Will be called with topic and value of each entry
+     *  @throws Exception on error
+     */
+    public static void fromBinaryBatch(final byte[] payload, final BatchHandler handler) throws Exception
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap(payload);
+        if (buffer.get() != MARKER  ||  buffer.get() != BATCH)
+            throw new Exception("Expected batch");
+        final int count = buffer.getInt();
+        for (int i=0; i<count; ++i)
+        {
+            final String topic = decodeString(buffer);
+            handler.handle(topic, decode(buffer));
+        }
+    }
+
+    /** Handler for entries of a batch */
+    @FunctionalInterface
+    public interface BatchHandler
+    {
+        /** @param topic Topic
+         *  @param value Value for that topic
+         *  @throws Exception on error
+         */
+        void handle(String topic, VType value) throws Exception;
+    }
+
+    private static VType decode(final ByteBuffer buffer) throws Exception
+    {
+        if (buffer.get() != MARKER)
+            throw new Exception("Missing binary marker");
+        final byte type = buffer.get();
+        final Time time = Time.of(Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()));
+        final AlarmSeverity severity = AlarmSeverity.values()[buffer.get()];
+        final AlarmStatus status = AlarmStatus.values()[buffer.get()];
+        final Alarm alarm = Alarm.of(severity, status, decodeString(buffer));
+        switch (type)
+        {
+        case DOUBLE:
+            return VNumber.of(buffer.getDouble(), alarm, time, Display.none());
+        case FLOAT:
+            return VNumber.of(buffer.getFloat(), alarm, time, Display.none());
+        case LONG:
+            return VNumber.of(buffer.getLong(), alarm, time, Display.none());
+        case INT:
+            return VNumber.of(buffer.getInt(), alarm, time, Display.none());
+        case SHORT:
+            return VNumber.of(buffer.getShort(), alarm, time, Display.none());
+        case BYTE:
+            return VNumber.of(buffer.get(), alarm, time, Display.none());
+        case STRING:
+            return VString.of(decodeString(buffer), alarm, time);
+        case DOUBLE + ARRAY:
+        {
+            final double[] data = new double[buffer.getInt()];
+            buffer.asDoubleBuffer().get(data);
+            buffer.position(buffer.position() + data.length * Double.BYTES);
+            return VNumberArray.of(ArrayDouble.of(data), alarm, time, Display.none());
+        }
+        case FLOAT + ARRAY:
+        {
+            final float[] data = new float[buffer.getInt()];
+            buffer.asFloatBuffer().get(data);
+            buffer.position(buffer.position() + data.length * Float.BYTES);
+            return VNumberArray.of(ArrayFloat.of(data), alarm, time, Display.none());
+        }
+        case LONG + ARRAY:
+        {
+            final long[] data = new long[buffer.getInt()];
+            buffer.asLongBuffer().get(data);
+            buffer.position(buffer.position() + data.length * Long.BYTES);
+            return VNumberArray.of(ArrayLong.of(data), alarm, time, Display.none());
+        }
+        case INT + ARRAY:
+        {
+            final int[] data = new int[buffer.getInt()];
+            buffer.asIntBuffer().get(data);
+            buffer.position(buffer.position() + data.length * Integer.BYTES);
+            return VNumberArray.of(ArrayInteger.of(data), alarm, time, Display.none());
+        }
+        case SHORT + ARRAY:
+        {
+            final short[] data = new short[buffer.getInt()];
+            buffer.asShortBuffer().get(data);
+            buffer.position(buffer.position() + data.length * Short.BYTES);
+            return VNumberArray.of(ArrayShort.of(data), alarm, time, Display.none());
+        }
+        case BYTE + ARRAY:
+        {
+            final byte[] data = new byte[buffer.getInt()];
+            buffer.get(data);
+            return VNumberArray.of(ArrayByte.of(data), alarm, time, Display.none());
+        }
+        case STRING + ARRAY:
+        {
+            final int size = buffer.getInt();
+            final List<String> data = new ArrayList<>(size);
+            for (int i=0; i<size; ++i)
+                data.add(decodeString(buffer));
+            return VStringArray.of(data, alarm, time);
+        }
+        default:
+            throw new Exception("Unknown binary type '" + (char) type + "'");
+        }
+    }
+}
@@ -454,4 +454,84 @@ public class VTypeToFromString
 
         throw new Exception("Expected type " + type.getSimpleName() + " but got " + new_value.getClass().getName());
     }
+
+    /** Convert received value to desired type
+     *
+     *  <p>Numbers and number arrays are converted to the desired
+     *  number or array type, strings are parsed,
+     *  keeping the alarm and time stamp of the value.
+     *
+     *  @param value Received value
+     *  @param type Desired type
+     *  @return Value of desired type
+     *  @throws Exception on error
+     */
+    public static VType convert(final VType value, final Class<? extends VType> type) throws Exception
+    {
+        if (type.isInstance(value))
+            return value;
+
+        final Alarm alarm = Alarm.alarmOf(value);
+        final Time time = Time.timeOf(value);
+        if (type == VDouble.class  ||  type == VLong.class)
+        {
+            final double number;
+            if (value instanceof VNumber)
+                number = ((VNumber) value).getValue().doubleValue();
+            else if (value instanceof VString)
+                number = ((VNumber) FromStringVDouble(((VString) value).getValue())).getValue().doubleValue();
+            else
+                throw new Exception("Cannot convert " + value.getClass().getSimpleName() + " to " + type.getSimpleName());
+            if (type == VLong.class)
+                return VLong.of((long) number, alarm, time, Display.displayOf(value));
+            return VDouble.of(number, alarm, time, Display.displayOf(value));
+        }
+
+        if (type == VDoubleArray.class)
+        {
+            final double[] numbers;
+            if (value instanceof VNumberArray)
+            {
+                final ListNumber data = ((VNumberArray) value).getData();
+                numbers = new double[data.size()];
+                for (int i=0; i<numbers.length; ++i)
+                    numbers[i] = data.getDouble(i);
+            }
+            else if (value instanceof VNumber)
+                numbers = new double[] { ((VNumber) value).getValue().doubleValue() };
+            else if (value instanceof VStringArray)
+                numbers = parseDoubles(((VStringArray) value).getData());
+            else
+                throw new Exception("Cannot convert " + value.getClass().getSimpleName() + " to " + type.getSimpleName());
+            return VDoubleArray.of(ArrayDouble.of(numbers), alarm, time, Display.displayOf(value));
+        }
+
+        if (type == VString.class)
+        {
+            final String text = value instanceof VNumber
+                              ? ((VNumber) value).getValue().toString()
+                              : ToString(value);
+            return VString.of(text, alarm, time);
+        }
+
+        if (type == VStringArray.class)
+        {
+            final List<String> strings = new ArrayList<>();
+            if (value instanceof VNumberArray)
+            {
+                final ListNumber data = ((VNumberArray) value).getData();
+                for (int i=0; i<data.size(); ++i)
+                    strings.add(nf.format(data.getDouble(i)));
+            }
+            else if (value instanceof VString)
+                strings.add(((VString) value).getValue());
+            else if (value instanceof VNumber)
+                strings.add(((VNumber) value).getValue().toString());
+            else
+                throw new Exception("Cannot convert " + value.getClass().getSimpleName() + " to " + type.getSimpleName());
+            return VStringArray.of(strings, alarm, time);
+        }
+
+        throw new Exception("Cannot convert " + value.getClass().getSimpleName() + " to " + type.getSimpleName());
+    }
 }
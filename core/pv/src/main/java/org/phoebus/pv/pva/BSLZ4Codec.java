@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+/** PVA NDArray codec for bitshuffle/LZ4-compressed data
+ *
+ *  <p>Data is split into blocks of elements.
+ *  Each block is bit-shuffled, i.e. the bits of all elements
+ *  are transposed to group the same bit of every element,
+ *  and then LZ4-compressed.
+ *  Each compressed block is preceded by its size as a 4 byte big-endian number.
+ *  Elements that don't fill a multiple of 8 at the end are appended uncompressed.
+ *
+ *  <p>Data may start with the 12 byte header used by the bitshuffle HDF5 filter,
+ *  holding the total de-compressed size (8 byte big-endian)
+ *  and the block size in bytes (4 byte big-endian).
+ *  Without header, the default bitshuffle block size is assumed.
+ */
+@SuppressWarnings("nls")
+public class BSLZ4Codec extends Codec
+{
+    /** Block sizes are a multiple of this number of elements */
+    private static final int BLOCKED_MULT = 8;
+
+    /** Default block size in bytes */
+    private static final int TARGET_BLOCK_SIZE = 8192;
+
+    /** Minimum block size in elements */
+    private static final int MIN_BLOCK_SIZE = 128;
+
+    /** Buffer for one de-compressed, still bit-shuffled block, one per decoding thread */
+    private static final ThreadLocal<byte[]> block_buffer = ThreadLocal.withInitial(() -> new byte[0]);
+
+    /** @param element_size Bytes per element
+     *  @return Default block size in elements
+     */
+    static int getDefaultBlockSize(final int element_size)
+    {
+        final int block_size = TARGET_BLOCK_SIZE / element_size;
+        return Math.max(MIN_BLOCK_SIZE, block_size - block_size % BLOCKED_MULT);
+    }
+
+    @Override
+    public byte[] decompress(final byte[] data, final int decompressed_size) throws Exception
+    {
+        return decompress(data, 1, null, decompressed_size);
+    }
+
+    @Override
+    protected byte[] decompress(final byte[] data, final int element_size,
+                                final byte[] buffer, final int decompressed_size) throws Exception
+    {
+        final byte[] result = buffer != null ? buffer : new byte[decompressed_size];
+        final int elements = decompressed_size / element_size;
+
+        int pos = 0;
+        int block_size = getDefaultBlockSize(element_size);
+        if (data.length >= 12  &&  getLong(data, 0) == decompressed_size)
+        {
+            block_size = getInt(data, 8) / element_size;
+            if (block_size <= 0  ||  block_size % BLOCKED_MULT != 0)
+                throw new Exception("Invalid bitshuffle block size " + block_size);
+            pos = 12;
+        }
+
+        byte[] shuffled = block_buffer.get();
+        if (shuffled.length < block_size * element_size)
+        {
+            shuffled = new byte[block_size * element_size];
+            block_buffer.set(shuffled);
+        }
+
+        int done = 0;
+        while (done < elements - elements % BLOCKED_MULT)
+        {
+            // Full blocks, then a last block with a multiple of 8 elements
+            final int count = Math.min(block_size, elements - done - (elements - done) % BLOCKED_MULT);
+            final int bytes = count * element_size;
+            if (pos + 4 > data.length)
+                throw new Exception("Missing bitshuffle block at element " + done);
+            final int compressed = getInt(data, pos);
+            pos += 4;
+            if (compressed < 0  ||  pos + compressed > data.length)
+                throw new Exception("Invalid bitshuffle block size " + compressed + " at element " + done);
+            final int expanded = LZ4Codec.decode(data, pos, compressed, shuffled, 0, bytes);
+            if (expanded != bytes)
+                throw new Exception("Expected " + bytes + " bytes in bitshuffle block at element " + done + ", got " + expanded);
+            pos += compressed;
+            unshuffle(shuffled, result, done * element_size, count, element_size);
+            done += count;
+        }
+
+        // Remaining elements are not compressed
+        final int leftover = (elements - done) * element_size;
+        if (pos + leftover > data.length)
+            throw new Exception("Missing " + leftover + " uncompressed bytes at end of bitshuffle data");
+        System.arraycopy(data, pos, result, done * element_size, leftover);
+
+        return result;
+    }
+
+    /** Undo the bit shuffle of one block
+     *
+     *  <p>The shuffled data holds one row of bits for each bit of the elements,
+     *  first for bits 0..7 of the first byte of each element, then bits 0..7
+     *  of the second byte and so on.
+     *  Bit <code>j % 8</code> of byte <code>j / 8</code> in a row belongs to element j.
+     *
+     *  @param in Bit-shuffled block
+     *  @param out Buffer for elements
+     *  @param offset Where to place the elements in 'out'
+     *  @param count Number of elements, multiple of 8
+     *  @param element_size Bytes per element
+     */
+    static void unshuffle(final byte[] in, final byte[] out, final int offset,
+                          final int count, final int element_size)
+    {
+        final int row = count / 8;
+        for (int b=0; b<element_size; ++b)
+        {
+            final int rows = b * 8 * row;
+            for (int group=0; group<row; ++group)
+            {
+                // Collect the 8 bit rows of byte b for 8 elements
+                long x = 0;
+                for (int bit=0; bit<8; ++bit)
+                    x |= (in[rows + bit*row + group] & 0xFFL) << (8*bit);
+
+                // Transpose 8x8 bit matrix
+                long t = (x ^ (x >>> 7)) & 0x00AA00AA00AA00AAL;
+                x = x ^ t ^ (t << 7);
+                t = (x ^ (x >>> 14)) & 0x0000CCCC0000CCCCL;
+                x = x ^ t ^ (t << 14);
+                t = (x ^ (x >>> 28)) & 0x00000000F0F0F0F0L;
+                x = x ^ t ^ (t << 28);
+
+                // Now byte i of x is byte b of element group*8+i
+                int o = offset + group * 8 * element_size + b;
+                for (int i=0; i<8; ++i)
+                {
+                    out[o] = (byte) x;
+                    x >>>= 8;
+                    o += element_size;
+                }
+            }
+        }
+    }
+
+    private static int getInt(final byte[] data, final int pos)
+    {
+        return (data[pos] & 0xFF) << 24 | (data[pos+1] & 0xFF) << 16 | (data[pos+2] & 0xFF) << 8 | (data[pos+3] & 0xFF);
+    }
+
+    private static long getLong(final byte[] data, final int pos)
+    {
+        return (getInt(data, pos) & 0xFFFFFFFFL) << 32 | (getInt(data, pos+4) & 0xFFFFFFFFL);
+    }
+}
@@ -11,6 +11,7 @@ import static org.phoebus.pv.PV.logger;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Locale;
 import java.util.logging.Level;
 
 import org.epics.pva.data.PVAByteArray;
@@ -24,11 +25,22 @@ import org.epics.pva.data.PVAShortArray;
 /** PVA NDArray compression codec
  *
  *  <p>Base for all compression codecs.
+ *  Codecs are stateless and may be called concurrently.
  *
  *  @author Kay Kasemir
  */
+@SuppressWarnings("nls")
 abstract public class Codec
 {
+    private static final Codec LZ4 = new LZ4Codec(),
+                               BSLZ4 = new BSLZ4Codec(),
+                               JPEG = new JPEGCodec();
+
+    /** Buffer for de-compressed bytes that are then converted to the original data type.
+     *  One per decoding thread, grows to the largest frame size.
+     */
+    private static final ThreadLocal<byte[]> scratch = ThreadLocal.withInitial(() -> new byte[0]);
+
     /** Bytes per sample for the various `orig_data_type` */
     private static final int[] BYTES_PER_SAMPLE =
     {
@@ -45,6 +57,38 @@ abstract public class Codec
         Double.BYTES    // 10 double
     };
 
+    /** @param name Codec name as used in NTNDArray 'codec.name'
+     *  @return {@link Codec} or <code>null</code> if not supported
+     */
+    public static Codec forName(final String name)
+    {
+        switch (name.toLowerCase(Locale.ROOT))
+        {
+        case "lz4":
+            return LZ4;
+        case "bslz4":
+            return BSLZ4;
+        case "jpeg":
+            return JPEG;
+        default:
+            return null;
+        }
+    }
+
+    /** @param size Required size
+     *  @return Scratch buffer of at least that size for the calling thread
+     */
+    private static byte[] getScratch(final int size)
+    {
+        byte[] buffer = scratch.get();
+        if (buffer.length < size)
+        {
+            buffer = new byte[size];
+            scratch.set(buffer);
+        }
+        return buffer;
+    }
+
     /** De-compress value
      *
      *  @param value Value with compressed value
@@ -56,20 +100,29 @@ abstract public class Codec
     public PVAData decompress(final PVAByteArray value, final int orig_data_type,
                               final int value_count) throws Exception
     {
+        if (orig_data_type < 1  ||  orig_data_type >= BYTES_PER_SAMPLE.length)
+            throw new Exception("Cannot decode compressed data for orig data type  " + orig_data_type);
         final boolean unsigned = orig_data_type >= 5  &&  orig_data_type <= 8;
         final byte[] compressed = ((PVAByteArray)value).get();
-        final byte[] expanded = decompress(compressed, BYTES_PER_SAMPLE[orig_data_type] * value_count);
-        logger.log(Level.FINE, () -> "Decompressed " + compressed.length + " into " + expanded.length + " bytes");
+        final int element_size = BYTES_PER_SAMPLE[orig_data_type];
+        final int size = element_size * value_count;
+        logger.log(Level.FINE, () -> "Decompressing " + compressed.length + " into " + size + " bytes");
 
-        // byte, ubyte: Done!
+        // byte, ubyte: Decompress into new array, done!
         if (orig_data_type == 1  ||  orig_data_type == 5)
+        {
+            final byte[] expanded = decompress(compressed, element_size, null, size);
             return new PVAByteArray(unsigned ? "ubyteValue" : "byteValue", unsigned, expanded);
+        }
+
+        // Other types: Decompress into scratch buffer, then convert
+        final byte[] expanded = decompress(compressed, element_size, getScratch(size), size);
 
         // Need to 'cast' the expanded data from byte[] to orig_data_type[].
         // In C/C++, that's easy without copying the data:
         //   return new PVAIntArray("intValue", unsigned, (int *) expanded);
         // For Java, these similar looking constructs compile, but result in runtime errors:
-        final ByteBuffer cvt = ByteBuffer.wrap(expanded);
+        final ByteBuffer cvt = ByteBuffer.wrap(expanded, 0, size);
         //   int[] ints = (short []) (Object) expanded;
         //   int[] ints = cvt.asIntBuffer().array();
         //
@@ -80,7 +133,8 @@ abstract public class Codec
         // a per-element copy, but they still result in a full copy of the data,
         // not saving any memory.
         // Besides, the array elements might need to be swapped to the correct endian,
-        // so going with the ByteBuffer.getXXX() calls which handle byte order.
+        // so going with the ByteBuffer views which handle byte order
+        // and copy the complete array in one call.
 
         // Unclear what byte order the data will be.
         // This worked in tests with X86_64 on Linux,
@@ -93,34 +147,29 @@ abstract public class Codec
         case 2: // short
         case 6: // ushort
             final short[] shorts = new short[value_count];
-            for (int i=0; i<shorts.length; ++i)
-                shorts[i] = cvt.getShort();
+            cvt.asShortBuffer().get(shorts);
             return new PVAShortArray(unsigned ? "ushortValue" : "shortValue", unsigned, shorts);
 
         case 3: // int
         case 7: // uint
             final int[] ints = new int[value_count];
-            for (int i=0; i<ints.length; ++i)
-                ints[i] = cvt.getInt();
+            cvt.asIntBuffer().get(ints);
             return new PVAIntArray(unsigned ? "uintValue" : "intValue", unsigned, ints);
 
         case 4: // long
         case 8: // ulong
             final long[] longs = new long[value_count];
-            for (int i=0; i<longs.length; ++i)
-                longs[i] = cvt.getLong();
+            cvt.asLongBuffer().get(longs);
             return new PVALongArray(unsigned ? "ulongValue" : "longValue", unsigned, longs);
 
         case 9: // float
             final float[] floats = new float[value_count];
-            for (int i=0; i<floats.length; ++i)
-                floats[i] = cvt.getFloat();
+            cvt.asFloatBuffer().get(floats);
             return new PVAFloatArray("floatValue", floats);
 
         case 10: // double
             final double[] doubles = new double[value_count];
-            for (int i=0; i<doubles.length; ++i)
-                doubles[i] = cvt.getDouble();
+            cvt.asDoubleBuffer().get(doubles);
             return new PVADoubleArray("doubleValue", doubles);
 
         default:
@@ -128,6 +177,25 @@ abstract public class Codec
         }
     }
 
+    /** De-compress byte array into buffer
+     *
+     *  <p>Default implementation calls {@link #decompress(byte[], int)}.
+     *  Codecs that can de-compress into a provided buffer should override.
+     *
+     *  @param data Compressed data
+     *  @param element_size Bytes per element of the original data
+     *  @param buffer Buffer for de-compressed data, may be larger than needed.
+     *                <code>null</code> to request a new array of the exact size.
+     *  @param decompressed_size Expected de-compressed size in bytes
+     *  @return 'buffer' or other array that holds the de-compressed data
+     *  @throws Exception on error
+     */
+    protected byte[] decompress(final byte[] data, final int element_size,
+                                final byte[] buffer, final int decompressed_size) throws Exception
+    {
+        return decompress(data, decompressed_size);
+    }
+
     /** De-compress byte array
      *
      *  @param data Compressed data
@@ -18,6 +18,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.epics.pva.data.PVAArray;
 import org.epics.pva.data.PVAByte;
 import org.epics.pva.data.PVAByteArray;
+import org.epics.pva.data.PVAData;
 import org.epics.pva.data.PVADouble;
 import org.epics.pva.data.PVADoubleArray;
 import org.epics.pva.data.PVAFloat;
@@ -229,7 +230,7 @@ public class Decoders
         }
     }
 
-    private static Display decodeDisplay(final PVAStructure struct)
+    static Display decodeDisplay(final PVAStructure struct)
     {
         String units;
         NumberFormat format;
@@ -321,6 +322,14 @@ public class Decoders
         return Display.of(display, alarm, warn, control, units, format, description);
     }
 
+    /** @param choices Enum labels
+     *  @return {@link EnumDisplay}
+     */
+    static EnumDisplay decodeEnumDisplay(final PVAStringArray choices)
+    {
+        return EnumDisplay.of(choices.get());
+    }
+
     /** @param struct Structure
      *  @param field Field
      *  @return Text for that field's value
@@ -343,7 +352,7 @@ public class Decoders
         final int value = ((PVAInt)section.get("index")).get();
         final PVAStringArray choices = section.get("choices");
 
-        return VEnum.of(value, EnumDisplay.of(choices.get()), alarm, time);
+        return VEnum.of(value, decodeEnumDisplay(choices), alarm, time);
     }
 
     /** @param struct Structure
@@ -538,4 +547,98 @@ public class Decoders
             return Decoders.decodeStringArray(struct, (PVAStringArray) field);
         throw new Exception("Cannot handle " + field.getClass().getName());
     }
+
+    /** @param field Field for number or string
+     *  @param alarm Alarm
+     *  @param time Time
+     *  @param display Display, ignored for string
+     *  @return VType for number or string
+     *  @throws Exception on error
+     */
+    static VType decodeScalar(final PVAData field, final Alarm alarm, final Time time, final Display display) throws Exception
+    {
+        if (field instanceof PVADouble)
+            return VDouble.of(((PVADouble) field).get(), alarm, time, display);
+        if (field instanceof PVAFloat)
+            return VFloat.of(((PVAFloat) field).get(), alarm, time, display);
+        if (field instanceof PVALong)
+        {
+            final PVALong typed = (PVALong) field;
+            if (typed.isUnsigned())
+                return VULong.of(typed.get(), alarm, time, display);
+            return VLong.of(typed.get(), alarm, time, display);
+        }
+        if (field instanceof PVAInt)
+        {
+            final PVAInt typed = (PVAInt) field;
+            if (typed.isUnsigned())
+                return VUInt.of(typed.get(), alarm, time, display);
+            return VInt.of(typed.get(), alarm, time, display);
+        }
+        if (field instanceof PVAShort)
+        {
+            final PVAShort typed = (PVAShort) field;
+            if (typed.isUnsigned())
+                return VUShort.of(typed.get(), alarm, time, display);
+            return VShort.of(typed.get(), alarm, time, display);
+        }
+        if (field instanceof PVAByte)
+        {
+            final PVAByte typed = (PVAByte) field;
+            if (typed.isUnsigned())
+                return VUByte.of(typed.get(), alarm, time, display);
+            return VByte.of(typed.get(), alarm, time, display);
+        }
+        if (field instanceof PVAString)
+            return VString.of(((PVAString) field).get(), alarm, time);
+        throw new Exception("Cannot handle " + field.getClass().getName());
+    }
+
+    /** Wrap array data without copying
+     *
+     *  @param field Field for numeric or string array
+     *  @param alarm Alarm
+     *  @param time Time
+     *  @param display Display, ignored for string array
+     *  @return VType for array
+     *  @throws Exception on error
+     */
+    static VType decodeArray(final PVAArray field, final Alarm alarm, final Time time, final Display display) throws Exception
+    {
+        if (field instanceof PVADoubleArray)
+            return VDoubleArray.of(ArrayDouble.of(((PVADoubleArray) field).get()), alarm, time, display);
+        if (field instanceof PVAFloatArray)
+            return VFloatArray.of(ArrayFloat.of(((PVAFloatArray) field).get()), alarm, time, display);
+        if (field instanceof PVALongArray)
+        {
+            final PVALongArray typed = (PVALongArray) field;
+            if (typed.isUnsigned())
+                return VULongArray.of(ArrayULong.of(typed.get()), alarm, time, display);
+            return VLongArray.of(ArrayLong.of(typed.get()), alarm, time, display);
+        }
+        if (field instanceof PVAIntArray)
+        {
+            final PVAIntArray typed = (PVAIntArray) field;
+            if (typed.isUnsigned())
+                return VUIntArray.of(ArrayUInteger.of(typed.get()), alarm, time, display);
+            return VIntArray.of(ArrayInteger.of(typed.get()), alarm, time, display);
+        }
+        if (field instanceof PVAShortArray)
+        {
+            final PVAShortArray typed = (PVAShortArray) field;
+            if (typed.isUnsigned())
+                return VUShortArray.of(ArrayUShort.of(typed.get()), alarm, time, display);
+            return VShortArray.of(ArrayShort.of(typed.get()), alarm, time, display);
+        }
+        if (field instanceof PVAByteArray)
+        {
+            final PVAByteArray typed = (PVAByteArray) field;
+            if (typed.isUnsigned())
+                return VUByteArray.of(ArrayUByte.of(typed.get()), alarm, time, display);
+            return VByteArray.of(ArrayByte.of(typed.get()), alarm, time, display);
+        }
+        if (field instanceof PVAStringArray)
+            return VStringArray.of(Arrays.asList(((PVAStringArray) field).get()), alarm, time);
+        throw new Exception("Cannot handle " + field.getClass().getName());
+    }
 }
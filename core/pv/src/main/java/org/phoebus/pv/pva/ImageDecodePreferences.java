@@ -0,0 +1,23 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+import org.phoebus.framework.preferences.AnnotatedPreferences;
+import org.phoebus.framework.preferences.Preference;
+
+/** Preferences for the {@link ImageDecodeStage} */
+@SuppressWarnings("nls")
+class ImageDecodePreferences
+{
+    @Preference static int image_decode_threads;
+
+    static
+    {
+        AnnotatedPreferences.initialize(PVA_PVFactory.class, ImageDecodePreferences.class, "/pv_pva_preferences.properties");
+    }
+}
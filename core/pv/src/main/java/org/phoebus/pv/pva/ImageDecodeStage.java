@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.epics.pva.data.PVAStructure;
+import org.phoebus.framework.jobs.NamedThreadFactory;
+
+/** Decode stage for compressed images
+ *
+ *  <p>De-compressing NTNDArray images on the PVA receive thread
+ *  would delay all other channels on the same TCP connection.
+ *  Instead, updates of a PV that sends compressed images are handed
+ *  to a fixed pool of decoder threads.
+ *
+ *  <p>Each PV decodes at most one update at a time, in the order received.
+ *  When updates arrive while the previous one is still being decoded,
+ *  only the most recent one is kept.
+ *  The work queue of the pool thus holds at most one entry per PV.
+ */
+@SuppressWarnings("nls")
+class ImageDecodeStage
+{
+    /** Decoder threads, <code>null</code> when decoding on the receive thread */
+    private static final ExecutorService workers =
+        ImageDecodePreferences.image_decode_threads > 0
+        ? Executors.newFixedThreadPool(ImageDecodePreferences.image_decode_threads,
+                                       new NamedThreadFactory("PVA Image Decoder"))
+        : null;
+
+    /** Decodes an update and notifies listeners */
+    private final Consumer<PVAStructure> decoder;
+
+    /** Most recent update that's waiting to be decoded, or <code>null</code>. SYNC on this */
+    private PVAStructure pending = null;
+
+    /** Is an update submitted to or being decoded by a worker? SYNC on this */
+    private boolean busy = false;
+
+    /** Number of updates that were dropped. SYNC on this */
+    private long dropped = 0;
+
+    /** @return Are images decoded by a separate stage? */
+    static boolean isEnabled()
+    {
+        return workers != null;
+    }
+
+    /** @param decoder Decodes an update and notifies listeners */
+    ImageDecodeStage(final Consumer<PVAStructure> decoder)
+    {
+        this.decoder = decoder;
+    }
+
+    /** @param data Received data. Must not be modified by caller, i.e. typically a copy */
+    void submit(final PVAStructure data)
+    {
+        synchronized (this)
+        {
+            if (pending != null)
+                ++dropped;
+            pending = data;
+            if (busy)
+                return;
+            busy = true;
+        }
+        workers.execute(this::decodePending);
+    }
+
+    private void decodePending()
+    {
+        final PVAStructure data;
+        synchronized (this)
+        {
+            data = pending;
+            pending = null;
+        }
+        if (data != null)
+            decoder.accept(data);
+
+        // Resubmit for what arrived meanwhile,
+        // giving other PVs a chance to use the worker
+        synchronized (this)
+        {
+            if (pending == null)
+            {
+                busy = false;
+                return;
+            }
+        }
+        workers.execute(this::decodePending);
+    }
+
+    /** @return Number of updates that were dropped because decoding fell behind */
+    synchronized long getDropped()
+    {
+        return dropped;
+    }
+
+    /** Drop updates that are still pending */
+    synchronized void close()
+    {
+        pending = null;
+    }
+}
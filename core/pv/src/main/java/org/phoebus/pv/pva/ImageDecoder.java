@@ -62,6 +62,21 @@ public class ImageDecoder
         VImageType.TYPE_YUV411
     };
 
+    /** @param struct Received data
+     *  @return Is data an NTNDArray with compressed image?
+     */
+    public static boolean isCompressed(final PVAStructure struct)
+    {
+        final String type = struct.getStructureName();
+        if (type == null  ||  ! type.endsWith("NTNDArray:1.0"))
+            return false;
+        final PVAStructure codec_info = struct.get("codec");
+        if (codec_info == null)
+            return false;
+        final PVAString name = codec_info.get("name");
+        return name != null  &&  name.get() != null  &&  !name.get().isBlank();
+    }
+
     /** @param struct Structure with image
      *  @return VType for image
      *  @throws Exception on error
@@ -209,18 +224,17 @@ public class ImageDecoder
                 final PVAny parms = codec_info.get("parameters");
                 final PVAInt orig_type = parms.get();
 
-                Codec codec = null;
-                if (name.get().equalsIgnoreCase("lz4"))
-                    codec = new LZ4Codec();
-                else if (name.get().equalsIgnoreCase("jpeg"))
-                    codec = new JPEGCodec();
-                else
+                final Codec codec = Codec.forName(name.get());
+                if (codec == null)
                     logger.log(Level.WARNING, "NDArray codec '" + name.get() + "' is not implemented");
-
-                if (codec != null)
+                else
                 {
+                    // Element count includes all color planes
+                    int count = 1;
+                    for (int size : dimensions)
+                        count *= size;
                     if (value instanceof PVAByteArray)
-                        value = codec.decompress((PVAByteArray)value, orig_type.get(), width * height);
+                        value = codec.decompress((PVAByteArray)value, orig_type.get(), count);
                     else
                         logger.log(Level.WARNING, "Expected PVAByteArray for data compressed with codec '" + name.get() +
                                    "' but got " + value.getClass().getName());
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+import java.util.BitSet;
+
+import org.epics.pva.data.PVAArray;
+import org.epics.pva.data.PVAByteArray;
+import org.epics.pva.data.PVAData;
+import org.epics.pva.data.PVADoubleArray;
+import org.epics.pva.data.PVAFloatArray;
+import org.epics.pva.data.PVAInt;
+import org.epics.pva.data.PVAIntArray;
+import org.epics.pva.data.PVALongArray;
+import org.epics.pva.data.PVANumber;
+import org.epics.pva.data.PVAShortArray;
+import org.epics.pva.data.PVAString;
+import org.epics.pva.data.PVAStringArray;
+import org.epics.pva.data.PVAStructure;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.EnumDisplay;
+import org.epics.vtype.Time;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VType;
+
+/** Decoder for monitor updates of one PV
+ *
+ *  <p>The PVA client re-uses the same {@link PVAStructure}
+ *  for all updates of a monitor and indicates changed
+ *  elements in a {@link BitSet}.
+ *  This decoder keeps the {@link Alarm}, {@link Time},
+ *  {@link Display} and {@link EnumDisplay} of the previous update
+ *  and only decodes them again when their elements changed.
+ *  Typically, only the value and time stamp change.
+ *
+ *  <p>Handles NTScalar, NTScalarArray, NTEnum
+ *  and structures with a plain scalar or array 'value'.
+ *  Other data, or PV names that address a sub-field or array element,
+ *  are decoded via {@link PVAStructureHelper}.
+ *
+ *  <p>Not thread-safe, to be called for the updates of one monitor.
+ */
+@SuppressWarnings("nls")
+class IncrementalDecoder
+{
+    private enum Kind
+    {
+        /** Decode via {@link PVAStructureHelper} */
+        OTHER,
+        SCALAR,
+        ARRAY,
+        ENUM
+    }
+
+    private final PVNameHelper name_helper;
+
+    /** Structure that was analyzed */
+    private PVAStructure struct = null;
+
+    private Kind kind = Kind.OTHER;
+
+    /** Change bits that affect alarm, time, display, enum labels */
+    private final BitSet alarm_bits = new BitSet(), time_bits = new BitSet(),
+                         display_bits = new BitSet(), choices_bits = new BitSet();
+
+    private Alarm alarm;
+    private Time time;
+    private Display display;
+    private EnumDisplay enum_display;
+
+    /** @param name_helper Name of the PV */
+    IncrementalDecoder(final PVNameHelper name_helper)
+    {
+        this.name_helper = name_helper;
+    }
+
+    /** @param data Received data
+     *  @param changes Changed elements of the data
+     *  @return Decoded VType
+     *  @throws Exception on error
+     */
+    VType decode(final PVAStructure data, final BitSet changes) throws Exception
+    {
+        boolean full = changes.get(0);
+        if (data != struct)
+        {
+            analyze(data);
+            full = true;
+        }
+        if (kind == Kind.OTHER)
+            return PVAStructureHelper.getVType(data, name_helper);
+
+        if (full  ||  alarm_bits.intersects(changes))
+            alarm = Decoders.decodeAlarm(data);
+        if (full  ||  time_bits.intersects(changes))
+            time = Decoders.decodeTime(data);
+
+        if (kind == Kind.ENUM)
+        {
+            final PVAStructure value = data.get("value");
+            if (full  ||  choices_bits.intersects(changes))
+                enum_display = Decoders.decodeEnumDisplay(value.get("choices"));
+            return VEnum.of(((PVAInt) value.get("index")).get(), enum_display, alarm, time);
+        }
+
+        if (full  ||  display_bits.intersects(changes))
+            display = Decoders.decodeDisplay(data);
+        final PVAData value = data.get("value");
+        if (kind == Kind.SCALAR)
+            return Decoders.decodeScalar(value, alarm, time, display);
+        return Decoders.decodeArray((PVAArray) value, alarm, time, display);
+    }
+
+    /** Determine kind of data and change bits of its elements
+     *  @param data Newly received data structure
+     *  @throws Exception on error
+     */
+    private void analyze(final PVAStructure data) throws Exception
+    {
+        struct = data;
+        kind = determineKind(data);
+        for (BitSet bits : new BitSet[] { alarm_bits, time_bits, display_bits, choices_bits })
+        {
+            bits.clear();
+            // Bit 0 for the complete structure
+            bits.set(0);
+        }
+        if (kind == Kind.OTHER)
+            return;
+        setBits(data, data.get("alarm"), alarm_bits);
+        setBits(data, data.get("timeStamp"), time_bits);
+        setBits(data, data.get("display"), display_bits);
+        setBits(data, data.get("control"), display_bits);
+        setBits(data, data.get("valueAlarm"), display_bits);
+        if (kind == Kind.ENUM)
+        {
+            final PVAStructure value = data.get("value");
+            choices_bits.set(data.getIndex(value));
+            setBits(data, value.get("choices"), choices_bits);
+        }
+    }
+
+    private Kind determineKind(final PVAStructure data)
+    {
+        if (! name_helper.getField().equals("value")  ||  name_helper.getElementIndex().isPresent())
+            return Kind.OTHER;
+
+        String type = data.getStructureName();
+        if (type.startsWith("epics:nt/"))
+            type = type.substring(9);
+        final PVAData value = data.get("value");
+        if (type.equals("NTEnum:1.0"))
+        {
+            if (value instanceof PVAStructure  &&
+                ((PVAStructure) value).get("index") instanceof PVAInt  &&
+                ((PVAStructure) value).get("choices") instanceof PVAStringArray)
+                return Kind.ENUM;
+            return Kind.OTHER;
+        }
+        // Other NT types are handled by PVAStructureHelper,
+        // even if they happen to have a scalar or array 'value'
+        if (type.startsWith("NT")  &&
+            ! (type.equals("NTScalar:1.0")  ||  type.equals("NTScalarArray:1.0")))
+            return Kind.OTHER;
+        if (value instanceof PVANumber  ||  value instanceof PVAString)
+            return Kind.SCALAR;
+        if (value instanceof PVADoubleArray  ||  value instanceof PVAFloatArray  ||
+            value instanceof PVALongArray    ||  value instanceof PVAIntArray    ||
+            value instanceof PVAShortArray   ||  value instanceof PVAByteArray   ||
+            value instanceof PVAStringArray)
+            return Kind.ARRAY;
+        return Kind.OTHER;
+    }
+
+    /** Set change bits for an element, including all its sub-elements
+     *  @param data Top-level structure
+     *  @param element Element of the structure, may be <code>null</code>
+     *  @param bits Bits to update
+     *  @throws Exception on error
+     */
+    private static void setBits(final PVAStructure data, final PVAData element, final BitSet bits) throws Exception
+    {
+        if (element == null)
+            return;
+        final int index = data.getIndex(element);
+        bits.set(index, index + 1 + countElements(element));
+    }
+
+    /** @param element Element
+     *  @return Number of sub-elements, recursively
+     */
+    private static int countElements(final PVAData element)
+    {
+        if (! (element instanceof PVAStructure))
+            return 0;
+        int count = 0;
+        for (PVAData sub : ((PVAStructure) element).get())
+            count += 1 + countElements(sub);
+        return count;
+    }
+
+    /** @param data Data
+     *  @return <code>true</code> if data is decoded incrementally,
+     *          <code>false</code> if decoder delegates to {@link PVAStructureHelper}
+     */
+    boolean isIncremental(final PVAStructure data)
+    {
+        return determineKind(data) != Kind.OTHER;
+    }
+}
@@ -7,43 +7,116 @@
  ******************************************************************************/
 package org.phoebus.pv.pva;
 
-import java.io.ByteArrayInputStream;
-
-import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorInputStream;
-
 /** PVA NDArray codec for LZ4-compressed data
  *
  *  <p>Standard Java library only supports ZIP.
  *  Area detector provides binaries/JNI interface
  *  for LZ4 and BLOSC, but that would add a hard to maintain
  *  dependency on binaries.
- *  LZ4 is available via apache-commons-compress, making
- *  it easy to support.
+ *  LZ4 is also available via apache-commons-compress,
+ *  but its stream API adds a copy and per-byte overhead.
+ *  The LZ4 block format is simple enough to decode directly
+ *  into the output buffer.
  *
  *  @author Kay Kasemir
  */
+@SuppressWarnings("nls")
 public class LZ4Codec extends Codec
 {
     @Override
     public byte[] decompress(final byte[] data, final int decompressed_size) throws Exception
     {
-        final byte[] result = new byte[decompressed_size];
-        int expanded = 0;
+        return decompress(data, 1, null, decompressed_size);
+    }
 
+    @Override
+    protected byte[] decompress(final byte[] data, final int element_size,
+                                final byte[] buffer, final int decompressed_size) throws Exception
+    {
+        final byte[] result = buffer != null ? buffer : new byte[decompressed_size];
+        final int expanded = decode(data, 0, data.length, result, 0, decompressed_size);
+        if (expanded != decompressed_size)
+            throw new Exception("Expected " + decompressed_size + " bytes from LZ4 block, got " + expanded);
+        return result;
+    }
+
+    /** Decode LZ4 block
+     *
+     *  @param src Compressed data
+     *  @param src_pos Start of LZ4 block in 'src'
+     *  @param src_len Size of LZ4 block
+     *  @param dst Buffer for de-compressed data
+     *  @param dst_pos Where to place de-compressed data in 'dst'
+     *  @param dst_len Maximum size of de-compressed data
+     *  @return Number of de-compressed bytes
+     *  @throws Exception on error in compressed data
+     */
+    static int decode(final byte[] src, final int src_pos, final int src_len,
+                      final byte[] dst, final int dst_pos, final int dst_len) throws Exception
+    {
+        final int src_end = src_pos + src_len;
+        final int dst_end = dst_pos + dst_len;
+        int s = src_pos, d = dst_pos;
         try
-        ( final BlockLZ4CompressorInputStream in =
-            new BlockLZ4CompressorInputStream(new ByteArrayInputStream(data))
-        )
         {
-            while (expanded < decompressed_size)
+            while (s < src_end)
             {
-                final int batch = in.read(result, expanded, decompressed_size - expanded);
-                if (batch == -1)
+                // Token: 4 bits literal length, 4 bits match length
+                final int token = src[s++] & 0xFF;
+                int length = token >>> 4;
+                if (length == 15)
+                {
+                    int add;
+                    do
+                    {
+                        add = src[s++] & 0xFF;
+                        length += add;
+                    }
+                    while (add == 255);
+                }
+                if (length > dst_end - d  ||  length > src_end - s)
+                    throw new Exception("LZ4 literal exceeds block at input offset " + (s - src_pos));
+                System.arraycopy(src, s, dst, d, length);
+                s += length;
+                d += length;
+
+                // Last sequence only has literals
+                if (s >= src_end)
                     break;
-                expanded += batch;
+
+                final int offset = (src[s] & 0xFF) | (src[s+1] & 0xFF) << 8;
+                s += 2;
+                final int match = d - offset;
+                if (offset == 0  ||  match < dst_pos)
+                    throw new Exception("Invalid LZ4 match offset " + offset + " at input offset " + (s - src_pos));
+
+                length = token & 0x0F;
+                if (length == 15)
+                {
+                    int add;
+                    do
+                    {
+                        add = src[s++] & 0xFF;
+                        length += add;
+                    }
+                    while (add == 255);
+                }
+                length += 4;
+                if (length > dst_end - d)
+                    throw new Exception("LZ4 match exceeds block at input offset " + (s - src_pos));
+
+                if (offset >= length)
+                    System.arraycopy(dst, match, dst, d, length);
+                else // Overlapping match repeats the most recent 'offset' bytes
+                    for (int i=0; i<length; ++i)
+                        dst[d+i] = dst[match+i];
+                d += length;
             }
         }
-
-        return result;
+        catch (ArrayIndexOutOfBoundsException ex)
+        {
+            throw new Exception("Truncated LZ4 block", ex);
+        }
+        return d - dst_pos;
     }
 }
@@ -32,6 +32,12 @@ public class PVA_PV extends PV
     private final PVAChannel channel;
     final PVNameHelper name_helper;
 
+    /** Decoder for monitor updates */
+    private final IncrementalDecoder decoder;
+
+    /** Stage for decoding compressed images, created when first needed */
+    private volatile ImageDecodeStage decode_stage = null;
+
     /** @param name Full PV name with prefix and initializer
      *  @param base_name Base name
      *  @throws Exception on error
@@ -43,6 +49,7 @@ public class PVA_PV extends PV
         // Analyze base_name, determine channel and request
         name_helper = PVNameHelper.forName(base_name);
         logger.log(Level.FINE, () -> "PVA '" + base_name + "' -> " + name_helper);
+        decoder = new IncrementalDecoder(name_helper);
         channel = PVA_Context.getInstance().getClient().getChannel(name_helper.getChannel(), this::channelStateChanged);
     }
 
@@ -82,18 +89,60 @@ public class PVA_PV extends PV
             logger.log(Level.WARNING, "Server ends subscription for " + this);
             notifyListenersOfDisconnect();
         }
+        else if (decode_stage != null  ||
+                 (ImageDecodeStage.isEnabled()  &&  ImageDecoder.isCompressed(data)))
+        {
+            // Once a PV sent compressed images, decode all its updates
+            // in the decode stage to preserve their order.
+            // The client re-uses 'data' for the next update, so pass a copy.
+            if (decode_stage == null)
+                decode_stage = new ImageDecodeStage(this::decode);
+            decode_stage.submit(data.cloneData());
+        }
         else
-            try
-            {
-                final VType value = PVAStructureHelper.getVType(data, name_helper);
-                notifyListenersOfValue(value);
-            }
-            catch (Exception ex)
-            {
-                logger.log(Level.WARNING, "Cannot decode " + channel + " = " + data, ex);
-                notifyListenersOfValue(VString.of("Cannot decode " + data.formatType(), Alarm.noValue(), Time.now()));
-            }
+            decode(data, changes);
+    }
+
+    /** Decode monitor update and notify listeners
+     *  @param data Received data
+     *  @param changes Changed elements of the data
+     */
+    private void decode(final PVAStructure data, final BitSet changes)
+    {
+        try
+        {
+            notifyListenersOfValue(decoder.decode(data, changes));
         }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot decode " + channel + " = " + data, ex);
+            notifyListenersOfValue(VString.of("Cannot decode " + data.formatType(), Alarm.noValue(), Time.now()));
+        }
+    }
+
+    /** Decode received data and notify listeners
+     *  @param data Received data
+     */
+    private void decode(final PVAStructure data)
+    {
+        try
+        {
+            final VType value = PVAStructureHelper.getVType(data, name_helper);
+            notifyListenersOfValue(value);
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot decode " + channel + " = " + data, ex);
+            notifyListenersOfValue(VString.of("Cannot decode " + data.formatType(), Alarm.noValue(), Time.now()));
+        }
+    }
+
+    /** @return Number of image updates that were dropped because decoding fell behind */
+    public long getDroppedImages()
+    {
+        final ImageDecodeStage stage = decode_stage;
+        return stage == null ? 0 : stage.getDropped();
+    }
 
     @Override
     public Future<VType> asyncRead() throws Exception
@@ -176,6 +225,9 @@ public class PVA_PV extends PV
     @Override
     protected void close()
     {
+        final ImageDecodeStage stage = decode_stage;
+        if (stage != null)
+            stage.close();
         channel.close();
     }
 }
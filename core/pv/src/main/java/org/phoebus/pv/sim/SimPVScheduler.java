@@ -0,0 +1,355 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.sim;
+
+import static org.phoebus.pv.PV.logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+import org.phoebus.framework.jobs.NamedThreadFactory;
+
+/** Scheduler for periodic updates of {@link SimulatedPV}s
+ *
+ *  <p>Hashed timer wheel that groups PVs by their update period.
+ *  Each group occupies one slot of the wheel,
+ *  and all PVs of a group are updated in the same tick,
+ *  so thousands of PVs with the same period
+ *  cause one wakeup instead of one per PV.
+ *
+ *  <p>Large groups are split into chunks that update in parallel.
+ *  A tick waits for all chunks to complete,
+ *  so each PV is updated by at most one thread at a time.
+ *
+ *  <p>The delay between the planned and actual start of a tick
+ *  is tracked as 'jitter'.
+ *
+ *  <p>Simulated PVs use the shared instance, see {@link #getInstance()},
+ *  which is driven by a timer thread.
+ *  Tests can create an instance with their own clock and advance it tick by tick.
+ */
+@SuppressWarnings("nls")
+public class SimPVScheduler
+{
+    /** Tick period, also the shortest update period (100 Hz) */
+    static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** Number of wheel slots, covering about 5 seconds per turn */
+    static final int SLOTS = 512;
+
+    /** Minimum number of PVs updated in one parallel chunk */
+    private static final int CHUNK = 256;
+
+    private static final int threads = Runtime.getRuntime().availableProcessors();
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("SimPV"));
+
+    /** Scheduler used by all simulated PVs */
+    private static final SimPVScheduler instance = new SimPVScheduler(System::nanoTime);
+
+    /** PVs with the same update period */
+    private static class Group
+    {
+        final long period;
+        final Set<SimulatedPV> pvs = new LinkedHashSet<>();
+
+        /** Next update time */
+        long deadline;
+
+        /** Number of complete wheel turns to wait until deadline */
+        long rounds;
+
+        Group(final long period)
+        {
+            this.period = period;
+        }
+    }
+
+    /** Time source in nanoseconds */
+    private final LongSupplier clock;
+
+    private final LongAdder ticks = new LongAdder(), jitter = new LongAdder();
+    private final LongAccumulator max_jitter = new LongAccumulator(Math::max, 0);
+
+    /** Groups by period. SYNC on wheel */
+    private final Map<Long, Group> groups = new HashMap<>();
+
+    /** Groups by slot. SYNC on wheel */
+    @SuppressWarnings("unchecked")
+    private final List<Group>[] wheel = new List[SLOTS];
+
+    /** Group of each PV. SYNC on wheel */
+    private final Map<SimulatedPV, Group> pv_groups = new HashMap<>();
+
+    /** Tick counter that determines the current slot. SYNC on wheel */
+    private long tick;
+
+    /** Time of 'tick'. SYNC on wheel */
+    private long tick_time;
+
+    /** Groups due in the current tick, only used by the caller of {@link #tick(long)} */
+    private final List<Group> due = new ArrayList<>();
+
+    static
+    {
+        final Thread thread = new Thread(instance::run, "SimPVTimer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** @return Scheduler used by all simulated PVs */
+    public static SimPVScheduler getInstance()
+    {
+        return instance;
+    }
+
+    /** Create scheduler without timer thread
+     *
+     *  <p>Caller needs to invoke {@link #tick(long)}
+     *  for each tick period of the clock.
+     *
+     *  @param clock Time source in nanoseconds, {@link System#nanoTime()} for the shared instance
+     */
+    SimPVScheduler(final LongSupplier clock)
+    {
+        this.clock = clock;
+        for (int i=0; i<SLOTS; ++i)
+            wheel[i] = new ArrayList<>();
+        tick_time = clock.getAsLong();
+    }
+
+    /** @param pv PV to update periodically
+     *  @param period Update period in nanoseconds, at least one tick
+     */
+    void add(final SimulatedPV pv, final long period)
+    {
+        synchronized (wheel)
+        {
+            if (pv_groups.containsKey(pv))
+                throw new IllegalStateException(pv.getName() + " already scheduled");
+            Group group = groups.get(period);
+            if (group == null)
+            {
+                if (groups.isEmpty())
+                {   // Timer was idle, restart
+                    tick_time = clock.getAsLong();
+                    wheel.notifyAll();
+                }
+                group = new Group(period);
+                groups.put(period, group);
+                group.deadline = tick_time + period;
+                place(group);
+            }
+            group.pvs.add(pv);
+            pv_groups.put(pv, group);
+        }
+    }
+
+    /** @param pv PV to no longer update
+     *  @return <code>true</code> if PV was scheduled
+     */
+    boolean remove(final SimulatedPV pv)
+    {
+        synchronized (wheel)
+        {
+            final Group group = pv_groups.remove(pv);
+            if (group == null)
+                return false;
+            group.pvs.remove(pv);
+            // Empty group is removed on its next tick
+            return true;
+        }
+    }
+
+    /** Place group in slot for its deadline. SYNC on wheel */
+    private void place(final Group group)
+    {
+        // Round up to the tick at or after the deadline, but not before the next tick
+        final long ticks_ahead = Math.max(1, (group.deadline - tick_time + TICK_NANOS - 1) / TICK_NANOS);
+        group.rounds = (ticks_ahead - 1) / SLOTS;
+        wheel[(int) ((tick + ticks_ahead) % SLOTS)].add(group);
+    }
+
+    /** @return Planned time of the next tick */
+    long getNextTickTime()
+    {
+        synchronized (wheel)
+        {
+            return tick_time + TICK_NANOS;
+        }
+    }
+
+    /** Timer thread */
+    private void run()
+    {
+        while (true)
+        {
+            try
+            {
+                final long next;
+                synchronized (wheel)
+                {
+                    while (groups.isEmpty())
+                        wheel.wait();
+                    next = tick_time + TICK_NANOS;
+                }
+
+                long delay = next - clock.getAsLong();
+                while (delay > 0)
+                {
+                    LockSupport.parkNanos(delay);
+                    delay = next - clock.getAsLong();
+                }
+                tick(next - delay);
+            }
+            catch (Throwable ex)
+            {
+                logger.log(Level.WARNING, "Simulated PV timer error", ex);
+            }
+        }
+    }
+
+    /** Perform the next tick, updating the PVs that are due
+     *  @param now Current time, at or after {@link #getNextTickTime()}
+     *  @throws Exception on error
+     */
+    void tick(final long now) throws Exception
+    {
+        synchronized (wheel)
+        {
+            final long next = tick_time + TICK_NANOS;
+            final long late = Math.max(0, now - next);
+            ticks.increment();
+            jitter.add(late);
+            max_jitter.accumulate(late);
+
+            ++tick;
+            tick_time = next;
+            final List<Group> slot = wheel[(int) (tick % SLOTS)];
+            for (int i=slot.size()-1; i>=0; --i)
+            {
+                final Group group = slot.get(i);
+                if (group.rounds > 0)
+                    --group.rounds;
+                else
+                {
+                    slot.remove(i);
+                    due.add(group);
+                }
+            }
+        }
+        try
+        {
+            for (Group group : due)
+                update(group);
+        }
+        finally
+        {
+            due.clear();
+        }
+    }
+
+    /** Update PVs of a group and re-schedule the group */
+    private void update(final Group group) throws Exception
+    {
+        final SimulatedPV[] pvs;
+        synchronized (wheel)
+        {
+            if (group.pvs.isEmpty())
+            {
+                groups.remove(group.period);
+                return;
+            }
+            pvs = group.pvs.toArray(new SimulatedPV[group.pvs.size()]);
+            // Fixed rate, but skip updates that were missed
+            // instead of performing them in a burst
+            group.deadline += group.period;
+            if (group.deadline <= tick_time)
+                group.deadline += ((tick_time - group.deadline) / group.period + 1) * group.period;
+            place(group);
+        }
+
+        final int chunk = Math.max(CHUNK, (pvs.length + threads - 1) / threads);
+        if (pvs.length <= chunk)
+        {
+            update(pvs, 0, pvs.length);
+            return;
+        }
+        final List<Future<?>> chunks = new ArrayList<>();
+        for (int start=0; start<pvs.length; start+=chunk)
+        {
+            final int from = start, to = Math.min(start + chunk, pvs.length);
+            chunks.add(executor.submit(() -> update(pvs, from, to)));
+        }
+        for (Future<?> done : chunks)
+            done.get();
+    }
+
+    private void update(final SimulatedPV[] pvs, final int from, final int to)
+    {
+        for (int i=from; i<to; ++i)
+        {
+            try
+            {
+                pvs[i].update();
+            }
+            catch (Throwable ex)
+            {
+                logger.log(Level.WARNING, "Stopping updates for " + pvs[i].getName(), ex);
+                remove(pvs[i]);
+            }
+        }
+    }
+
+    /** @return Number of timer ticks */
+    public long getTickCount()
+    {
+        return ticks.sum();
+    }
+
+    /** @return Total delay in nanoseconds between planned and actual start of all ticks */
+    public long getTotalJitter()
+    {
+        return jitter.sum();
+    }
+
+    /** @return Average delay in nanoseconds between planned and actual start of a tick */
+    public long getAverageJitter()
+    {
+        final long count = ticks.sum();
+        return count > 0 ? jitter.sum() / count : 0;
+    }
+
+    /** @return Maximum delay in nanoseconds between planned and actual start of a tick */
+    public long getMaxJitter()
+    {
+        return max_jitter.get();
+    }
+
+    /** @return Number of PVs that are updated periodically */
+    public int getPVCount()
+    {
+        synchronized (wheel)
+        {
+            return pv_groups.size();
+        }
+    }
+}
@@ -7,9 +7,6 @@
  ******************************************************************************/
 package org.phoebus.pv.sim;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
@@ -22,17 +19,6 @@ import org.phoebus.pv.PV;
 @SuppressWarnings("nls")
 abstract public class SimulatedPV extends PV
 {
-    /** Timer for periodic updates */
-    private final static ScheduledExecutorService executor = Executors.newScheduledThreadPool(1, target ->
-    {
-        final Thread thread = new Thread(target, "SimPV");
-        thread.setDaemon(true);
-        return thread;
-    });
-
-    /** Task that was submitted for periodic updates */
-    private ScheduledFuture<?> task;
-
     /** @param name Full PV name */
     public SimulatedPV(final String name)
     {
@@ -49,16 +35,16 @@ abstract public class SimulatedPV extends PV
     {
         // Limit rate to 100 Hz
         final long milli = Math.round(Math.max(update_seconds, 0.01) * 1000);
-        task = executor.scheduleAtFixedRate(this::update, milli, milli, TimeUnit.MILLISECONDS);
+        SimPVScheduler.getInstance().add(this, TimeUnit.MILLISECONDS.toNanos(milli));
     }
 
-    /** Called by periodic timer */
+    /** Called by periodic timer, see {@link SimPVScheduler} */
     abstract protected void update();
 
     @Override
     protected void close()
     {
-        if (! task.cancel(false))
+        if (! SimPVScheduler.getInstance().remove(this))
             logger.log(Level.WARNING, "Cannot cancel updates for " + getName());
         super.close();
     }
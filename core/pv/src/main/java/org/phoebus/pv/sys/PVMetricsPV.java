@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.sys;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.epics.util.stats.Range;
+import org.epics.util.text.NumberFormats;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VStringArray;
+import org.epics.vtype.VType;
+import org.phoebus.pv.PVMetrics;
+import org.phoebus.pv.sim.SimPVScheduler;
+import org.phoebus.pv.sim.SimulatedPV;
+
+/** System PVs for the {@link PVMetrics} and the {@link SimPVScheduler}
+ *
+ *  <ul>
+ *  <li>sys://pvUpdateRate: Total updates per second of all PVs
+ *  <li>sys://pvBusiest(N): Names and update rates of the N busiest PVs
+ *  <li>sys://pvDropped: Values dropped for slow subscribers per second
+ *  <li>sys://pvCallbackTime: Average duration of subscriber callbacks in ms
+ *  <li>sys://simJitter: Average delay of simulated PV timer ticks in ms
+ *  <li>sys://simMaxJitter: Maximum delay of simulated PV timer ticks in ms
+ *  </ul>
+ *  Each accepts an optional update period in seconds as the last parameter,
+ *  defaulting to 1 second.
+ */
+@SuppressWarnings("nls")
+public class PVMetricsPV extends SimulatedPV
+{
+    private static enum Kind
+    {
+        UPDATE_RATE, BUSIEST, DROPPED, CALLBACK_TIME, JITTER, MAX_JITTER
+    }
+
+    private final Kind kind;
+    private final int count;
+    private final Display display;
+    private final PVMetrics.Sampler sampler = new PVMetrics.Sampler();
+    private long last_dropped = PVMetrics.getDroppedCount(),
+                 last_callbacks = PVMetrics.getCallbackCount(),
+                 last_callback_nanos = PVMetrics.getCallbackTime(),
+                 last_ticks = SimPVScheduler.getInstance().getTickCount(),
+                 last_jitter = SimPVScheduler.getInstance().getTotalJitter(),
+                 last_time = System.nanoTime();
+
+    /** @param name PV name
+     *  @param func Function, "pvUpdateRate", "pvBusiest", ...
+     *  @param parameters Parameters of the function
+     *  @return {@link PVMetricsPV} or <code>null</code> if function is not a metrics PV
+     *  @throws Exception on error in parameters
+     */
+    static PVMetricsPV forParameters(final String name, final String func, final List<String> parameters) throws Exception
+    {
+        final Kind kind;
+        if (func.equals("pvUpdateRate"))
+            kind = Kind.UPDATE_RATE;
+        else if (func.equals("pvBusiest"))
+            kind = Kind.BUSIEST;
+        else if (func.equals("pvDropped"))
+            kind = Kind.DROPPED;
+        else if (func.equals("pvCallbackTime"))
+            kind = Kind.CALLBACK_TIME;
+        else if (func.equals("simJitter"))
+            kind = Kind.JITTER;
+        else if (func.equals("simMaxJitter"))
+            kind = Kind.MAX_JITTER;
+        else
+            return null;
+
+        int count = 10;
+        double period = 1.0;
+        try
+        {
+            if (kind == Kind.BUSIEST)
+            {
+                if (parameters.size() > 0)
+                    count = Integer.parseInt(parameters.get(0));
+                if (parameters.size() > 1)
+                    period = Double.parseDouble(parameters.get(1));
+                if (parameters.size() > 2)
+                    throw new Exception();
+            }
+            else
+            {
+                if (parameters.size() > 0)
+                    period = Double.parseDouble(parameters.get(0));
+                if (parameters.size() > 1)
+                    throw new Exception();
+            }
+        }
+        catch (Exception ex)
+        {
+            throw new Exception("sys://" + func +
+                                (kind == Kind.BUSIEST ? " needs no parameters or (count) or (count, update_seconds)"
+                                                      : " needs no parameters or (update_seconds)"));
+        }
+        return new PVMetricsPV(name, kind, count, period);
+    }
+
+    private PVMetricsPV(final String name, final Kind kind, final int count, final double period)
+    {
+        super(name);
+        this.kind = kind;
+        this.count = count;
+        final boolean ms = kind == Kind.CALLBACK_TIME  ||  kind == Kind.JITTER  ||  kind == Kind.MAX_JITTER;
+        display = Display.of(Range.undefined(), Range.undefined(), Range.undefined(), Range.undefined(),
+                             ms ? "ms" : "Hz", NumberFormats.precisionFormat(ms ? 3 : 1));
+        start(period);
+    }
+
+    @Override
+    protected void update()
+    {
+        final VType value;
+        switch (kind)
+        {
+        case BUSIEST:
+        {
+            sampler.sample();
+            final List<String> names = new ArrayList<>(count);
+            for (PVMetrics.PVInfo info : sampler.getBusiest(count))
+                names.add(String.format("%s: %.1f Hz", info.name, info.rate));
+            value = VStringArray.of(names, Alarm.none(), Time.now());
+            break;
+        }
+        case DROPPED:
+        {
+            final long now = System.nanoTime();
+            final long dropped = PVMetrics.getDroppedCount();
+            final double rate = (dropped - last_dropped) / ((now - last_time) / 1e9);
+            last_dropped = dropped;
+            last_time = now;
+            value = VDouble.of(rate, Alarm.none(), Time.now(), display);
+            break;
+        }
+        case CALLBACK_TIME:
+        {
+            // Average of the callbacks since last update, not since start
+            final long callbacks = PVMetrics.getCallbackCount();
+            final long nanos = PVMetrics.getCallbackTime();
+            final long delta = callbacks - last_callbacks;
+            final double ms = delta > 0 ? (nanos - last_callback_nanos) / 1e6 / delta : 0.0;
+            last_callbacks = callbacks;
+            last_callback_nanos = nanos;
+            value = VDouble.of(Math.max(0.0, ms), Alarm.none(), Time.now(), display);
+            break;
+        }
+        case JITTER:
+        {
+            // Average of the ticks since last update
+            final SimPVScheduler scheduler = SimPVScheduler.getInstance();
+            final long ticks = scheduler.getTickCount();
+            final long nanos = scheduler.getTotalJitter();
+            final long delta = ticks - last_ticks;
+            final double ms = delta > 0 ? (nanos - last_jitter) / 1e6 / delta : 0.0;
+            last_ticks = ticks;
+            last_jitter = nanos;
+            value = VDouble.of(ms, Alarm.none(), Time.now(), display);
+            break;
+        }
+        case MAX_JITTER:
+            value = VDouble.of(SimPVScheduler.getInstance().getMaxJitter() / 1e6, Alarm.none(), Time.now(), display);
+            break;
+        default:
+            sampler.sample();
+            value = VDouble.of(sampler.getTotalRate(), Alarm.none(), Time.now(), display);
+        }
+        notifyListenersOfValue(value);
+    }
+}
@@ -52,6 +52,12 @@ public class SysPVFactory implements PVFactory
             return new TimePV(name);
         else if (func.equals("timeOffset"))
             return TimeOffsetPV.forParameters(name, List.of(parameters.split(",")).stream().map(String::strip).collect(Collectors.toList()));
+        final List<String> params = parameters.isBlank()
+                                  ? List.of()
+                                  : List.of(parameters.split(",")).stream().map(String::strip).collect(Collectors.toList());
+        final PV metrics = PVMetricsPV.forParameters(name, func, params);
+        if (metrics != null)
+            return metrics;
         else
             throw new Exception("Unknown system PV " + base_name);
     }
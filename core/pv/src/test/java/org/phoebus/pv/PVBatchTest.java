@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VType;
+import org.junit.Test;
+
+/** Test of {@link PVPool#getPVs} and {@link PVBatch} */
+@SuppressWarnings("nls")
+public class PVBatchTest
+{
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Test
+    public void testBatch() throws Exception
+    {
+        final List<String> names = List.of("loc://batch1(1)", "loc://batch2(2)", "sim://ramp", "bogus://x");
+        try (PVBatch batch = PVPool.getPVs(names, TIMEOUT))
+        {
+            assertThat(batch.getNames(), equalTo(names));
+            assertThat(batch.getPVs().get(0).getName(), equalTo("loc://batch1"));
+            assertThat(batch.getPVs().get(3), nullValue());
+
+            final List<VType> values = batch.whenConnected().get(10, TimeUnit.SECONDS);
+            System.out.println(values);
+            assertThat(((VDouble) values.get(0)).getValue(), equalTo(1.0));
+            assertThat(((VDouble) values.get(1)).getValue(), equalTo(2.0));
+            assertThat(values.get(2), notNullValue());
+            assertThat(values.get(3), nullValue());
+
+            try
+            {
+                batch.getValue(3).get();
+            }
+            catch (ExecutionException ex)
+            {
+                assertThat(ex.getCause().getMessage(), equalTo("bogus://x has unknown PV type 'bogus'"));
+            }
+        }
+        // PVs were released
+        for (PV pv : PVPool.getPVReferences().stream().map(ref -> ref.getEntry()).toList())
+            assertThat(pv.getName().startsWith("loc://batch"), equalTo(false));
+    }
+
+    @Test
+    public void testTimeout() throws Exception
+    {
+        // PV that never receives a value
+        final PV pv = new PV("silent");
+        final List<Exception> errors = new ArrayList<>();
+        errors.add(null);
+        final PVBatch batch = new PVBatch(List.of("silent"), List.of(pv), errors, Duration.ofMillis(200));
+        final List<VType> values = batch.whenConnected().get(10, TimeUnit.SECONDS);
+        assertThat(values.get(0), nullValue());
+        try
+        {
+            batch.getValue(0).get();
+        }
+        catch (ExecutionException ex)
+        {
+            assertThat(ex.getCause(), instanceOf(TimeoutException.class));
+        }
+    }
+
+    /** @return Milliseconds to get PVs one by one, then await each value */
+    private static long connectOneByOne(final List<String> names) throws Exception
+    {
+        final long start = System.nanoTime();
+        final List<PV> pvs = new ArrayList<>(names.size());
+        for (String name : names)
+            pvs.add(PVPool.getPV(name));
+        for (PV pv : pvs)
+            pv.onValueEvent()
+              .filter(value -> ! PV.isDisconnected(value))
+              .timeout(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+              .blockingFirst();
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        for (PV pv : pvs)
+            PVPool.releasePV(pv);
+        return millis;
+    }
+
+    /** @return Milliseconds to get PVs as a batch and await all values */
+    private static long connectBatch(final List<String> names) throws Exception
+    {
+        final long start = System.nanoTime();
+        try (PVBatch batch = PVPool.getPVs(names, TIMEOUT))
+        {
+            final List<VType> values = batch.whenConnected().get();
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertThat(values.contains(null), equalTo(false));
+            return millis;
+        }
+    }
+
+    @Test
+    public void testConnectTime() throws Exception
+    {
+        final int count = 10000;
+        for (String type : List.of("loc", "sim"))
+        {
+            final List<String> names = new ArrayList<>(count);
+            for (int i=0; i<count; ++i)
+                names.add(type.equals("loc")
+                          ? "loc://bench" + i + "(" + i + ")"
+                          : "sim://noise(0, " + i + ", 0.5)");
+            // Warm up, then measure
+            connectOneByOne(names.subList(0, 100));
+            connectBatch(names.subList(0, 100));
+            final long single = connectOneByOne(names);
+            final long batch = connectBatch(names);
+            System.out.format("%d %s:// PVs: one by one %5d ms, batch %5d ms\n", count, type, single, batch);
+        }
+    }
+}
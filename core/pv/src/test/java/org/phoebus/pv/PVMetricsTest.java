@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VStringArray;
+import org.epics.vtype.VType;
+import org.junit.Test;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/** {@link PVMetrics} tests */
+@SuppressWarnings("nls")
+public class PVMetricsTest
+{
+    @Test
+    public void testCounters() throws Exception
+    {
+        final PV busy = PVPool.getPV("loc://metrics_busy(0)");
+        final PV quiet = PVPool.getPV("loc://metrics_quiet(0)");
+        final long updates = PVMetrics.getUpdateCount();
+        final long callbacks = PVMetrics.getCallbackCount();
+        final long histogram = LongStream.of(PVMetrics.getCallbackHistogram()).sum();
+
+        final Disposable sub = busy.onValueEvent().subscribe(value -> {});
+        for (int i=1; i<=100; ++i)
+            busy.write(i);
+        quiet.write(1);
+
+        assertThat(PVMetrics.getUpdateCount() - updates, greaterThanOrEqualTo(101L));
+        // Initial value and 100 updates
+        assertThat(PVMetrics.getCallbackCount() - callbacks, greaterThanOrEqualTo(101L));
+        assertThat(LongStream.of(PVMetrics.getCallbackHistogram()).sum() - histogram, greaterThanOrEqualTo(101L));
+
+        final List<PVMetrics.PVInfo> infos = PVMetrics.getPVInfos();
+        final PVMetrics.PVInfo busy_info = infos.stream().filter(info -> info.name.equals(busy.getName())).findFirst().get();
+        final PVMetrics.PVInfo quiet_info = infos.stream().filter(info -> info.name.equals(quiet.getName())).findFirst().get();
+        assertThat(busy_info.updates, equalTo(busy.counters.updates.sum()));
+        assertThat(busy_info.callbacks, equalTo(101L));
+        assertThat(quiet_info.callbacks, equalTo(0L));
+        assertThat(infos.indexOf(busy_info) < infos.indexOf(quiet_info), equalTo(true));
+
+        // Busiest PV since the sampler was created
+        final PVMetrics.Sampler sampler = new PVMetrics.Sampler();
+        TimeUnit.MILLISECONDS.sleep(10);
+        for (int i=1; i<=50; ++i)
+            busy.write(i);
+        sampler.sample();
+        assertThat(sampler.getTotalRate(), greaterThan(0.0));
+        assertThat(sampler.getBusiest(1).get(0).name, equalTo(busy.getName()));
+
+        final String dump = PVMetrics.dump();
+        System.out.println(dump);
+        assertThat(dump, containsString(busy.getName()));
+        assertThat(dump, containsString("< 1ms"));
+
+        sub.dispose();
+        PVPool.releasePV(quiet);
+        PVPool.releasePV(busy);
+    }
+
+    @Test
+    public void testLatestDrops() throws Exception
+    {
+        final PV pv = PVPool.getPV("loc://metrics_drops(0)");
+        final long dropped = PVMetrics.getDroppedCount();
+
+        // Slow subscriber that only requests a few values at a time
+        final Disposable sub = pv.onValueEvent()
+                                 .observeOn(Schedulers.single(), false, 2)
+                                 .subscribe(value -> TimeUnit.MILLISECONDS.sleep(10));
+        for (int i=1; i<=100; ++i)
+            pv.write(i);
+
+        final long pv_dropped = pv.getDroppedValues()[0];
+        System.out.println("Dropped " + pv_dropped + " values");
+        assertThat(pv_dropped, greaterThan(50L));
+        assertThat(PVMetrics.getDroppedCount() - dropped, greaterThanOrEqualTo(pv_dropped));
+
+        sub.dispose();
+        PVPool.releasePV(pv);
+    }
+
+    @Test
+    public void testSysPVs() throws Exception
+    {
+        final PV rate = PVPool.getPV("sys://pvUpdateRate(0.1)");
+        final PV busiest = PVPool.getPV("sys://pvBusiest(3, 0.1)");
+        final BlockingQueue<VType> rates = new LinkedBlockingQueue<>(), names = new LinkedBlockingQueue<>();
+        final Disposable rate_sub = rate.onValueEvent().subscribe(rates::add);
+        final Disposable busiest_sub = busiest.onValueEvent().subscribe(names::add);
+
+        VType value = rates.poll(5, TimeUnit.SECONDS);
+        assertThat(value, instanceOf(VDouble.class));
+        value = names.poll(5, TimeUnit.SECONDS);
+        assertThat(value, instanceOf(VStringArray.class));
+        assertThat(((VStringArray) value).getData().size() <= 3, equalTo(true));
+
+        rate_sub.dispose();
+        busiest_sub.dispose();
+        PVPool.releasePV(busiest);
+        PVPool.releasePV(rate);
+    }
+}
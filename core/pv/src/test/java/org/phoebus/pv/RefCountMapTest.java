@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.phoebus.pv.RefCountMap.ReferencedEntry;
+
+/** Multithreaded stress and throughput test of the {@link RefCountMap}
+ *
+ *  <p>Compares with the previous implementation
+ *  that synchronized all access on one map.
+ */
+@SuppressWarnings("nls")
+public class RefCountMapTest
+{
+    /** Item that tracks how often it was created, used and closed */
+    private static class Item
+    {
+        static final AtomicInteger created = new AtomicInteger(), closed = new AtomicInteger();
+        private final AtomicInteger close_count = new AtomicInteger();
+
+        Item(final long creation_nanos)
+        {
+            created.incrementAndGet();
+            // Simulate creating a PV, which often waits for the network library
+            if (creation_nanos > 0)
+                LockSupport.parkNanos(creation_nanos);
+        }
+
+        boolean isClosed()
+        {
+            return close_count.get() > 0;
+        }
+
+        void close()
+        {
+            if (close_count.incrementAndGet() != 1)
+                throw new IllegalStateException("Closed more than once");
+            closed.incrementAndGet();
+        }
+    }
+
+    /** Common API of old and new implementation */
+    private interface Pool
+    {
+        Item createOrGet(String key, Supplier<Item> creator);
+        int release(String key);
+
+        /** @return Does the pool handle concurrent get and release of the same key? */
+        default boolean isSafe()
+        {
+            return true;
+        }
+    }
+
+    /** Previous implementation, synchronizing on one map
+     *
+     *  <p>Adds the reference outside of the lock,
+     *  so it is possible to get an item that is concurrently
+     *  released and closed.
+     */
+    private static class SynchronizedPool implements Pool
+    {
+        private final Map<String, Item> map = new HashMap<>();
+        private final Map<String, AtomicInteger> refs = new HashMap<>();
+
+        @Override
+        public Item createOrGet(final String key, final Supplier<Item> creator)
+        {
+            final AtomicInteger count;
+            final Item item;
+            synchronized (map)
+            {
+                Item existing = map.get(key);
+                if (existing == null)
+                {
+                    existing = creator.get();
+                    map.put(key, existing);
+                    refs.put(key, new AtomicInteger());
+                }
+                item = existing;
+                count = refs.get(key);
+            }
+            count.incrementAndGet();
+            return item;
+        }
+
+        @Override
+        public int release(final String key)
+        {
+            synchronized (map)
+            {
+                final AtomicInteger count = refs.get(key);
+                if (count == null)
+                    return 0;
+                final int remaining = count.decrementAndGet();
+                if (remaining <= 0)
+                {
+                    map.remove(key);
+                    refs.remove(key);
+                    return 0;
+                }
+                return remaining;
+            }
+        }
+
+        @Override
+        public boolean isSafe()
+        {
+            return false;
+        }
+    }
+
+    /** Current implementation */
+    private static class ConcurrentPool implements Pool
+    {
+        final RefCountMap<String, Item> map = new RefCountMap<>();
+
+        @Override
+        public Item createOrGet(final String key, final Supplier<Item> creator)
+        {
+            return map.createOrGet(key, creator).getEntry();
+        }
+
+        @Override
+        public int release(final String key)
+        {
+            return map.release(key);
+        }
+    }
+
+    /** Threads concurrently get and release items
+     *  @param pool Pool to test
+     *  @param threads Number of threads
+     *  @param keys Number of distinct keys
+     *  @param operations Get/release operations per thread
+     *  @param creation_nanos Time to create an item
+     *  @return Operations per second
+     */
+    private static double run(final Pool pool, final int threads, final int keys, final int operations,
+                              final long creation_nanos) throws Exception
+    {
+        final ExecutorService pool_threads = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> results = new ArrayList<>();
+        for (int t=0; t<threads; ++t)
+        {
+            final int seed = t;
+            results.add(pool_threads.submit(() ->
+            {
+                final Random random = new Random(seed);
+                start.await();
+                // Each thread holds up to 10 items, releasing them in random order
+                final List<String> held = new ArrayList<>();
+                final List<Item> items = new ArrayList<>();
+                for (int i=0; i<operations; ++i)
+                {
+                    if (held.size() < 10  &&  random.nextBoolean())
+                    {
+                        final String key = "pv" + random.nextInt(keys);
+                        final Item item = pool.createOrGet(key, () -> new Item(creation_nanos));
+                        if (item.isClosed()  &&  pool.isSafe())
+                            throw new IllegalStateException("Got closed item for " + key);
+                        held.add(key);
+                        items.add(item);
+                    }
+                    else if (! held.isEmpty())
+                    {
+                        final int index = random.nextInt(held.size());
+                        final String key = held.remove(index);
+                        final Item item = items.remove(index);
+                        if (pool.release(key) <= 0  &&  ! item.isClosed())
+                            item.close();
+                    }
+                }
+                for (int index=0; index<held.size(); ++index)
+                    if (pool.release(held.get(index)) <= 0  &&  ! items.get(index).isClosed())
+                        items.get(index).close();
+                return null;
+            }));
+        }
+        try
+        {
+            final long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> result : results)
+                result.get(60, TimeUnit.SECONDS);
+            final double seconds = (System.nanoTime() - begin) / 1e9;
+            return threads * operations / seconds;
+        }
+        finally
+        {
+            pool_threads.shutdownNow();
+            pool_threads.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testStress() throws Exception
+    {
+        Item.created.set(0);
+        Item.closed.set(0);
+        final ConcurrentPool pool = new ConcurrentPool();
+        // Few keys, so threads often get and release the same item at the same time
+        run(pool, 8, 20, 200000, 0);
+        System.out.println("Created " + Item.created.get() + " items, closed " + Item.closed.get());
+        assertThat(Item.closed.get(), equalTo(Item.created.get()));
+        assertThat(pool.map.getEntries().size(), equalTo(0));
+    }
+
+    @Test
+    public void testCreationDoesNotBlock() throws Exception
+    {
+        final RefCountMap<String, String> map = new RefCountMap<>();
+        final CountDownLatch creating = new CountDownLatch(1), proceed = new CountDownLatch(1);
+        final Thread slow = new Thread(() -> map.createOrGet("slow", () ->
+        {
+            creating.countDown();
+            try
+            {
+                proceed.await();
+            }
+            catch (InterruptedException ex)
+            {
+                // Ignore
+            }
+            return "Slow";
+        }));
+        slow.start();
+        creating.await();
+
+        // While 'slow' is being created, other entries are available
+        assertThat(map.createOrGet("fast", () -> "Fast").getEntry(), equalTo("Fast"));
+        assertThat(map.release("fast"), equalTo(0));
+        // .. but the one being created is not yet listed
+        assertThat(map.getEntries().size(), equalTo(0));
+
+        // Second request for 'slow' waits for it to be created
+        final Thread waiter = new Thread(() -> map.createOrGet("slow", () -> "Duplicate"));
+        waiter.start();
+        proceed.countDown();
+        slow.join();
+        waiter.join();
+        final ReferencedEntry<String> entry = map.getEntries().iterator().next();
+        assertThat(entry.getEntry(), equalTo("Slow"));
+        assertThat(entry.getReferences(), equalTo(2));
+    }
+
+    @Test
+    public void testRecursiveCreation() throws Exception
+    {
+        // Like a formula that creates the PVs that it references
+        final RefCountMap<String, String> map = new RefCountMap<>();
+        final String formula = map.createOrGet("formula", () ->
+        {
+            map.createOrGet("a", () -> "A");
+            map.createOrGet("b", () -> "B");
+            return "a + b";
+        }).getEntry();
+        assertThat(formula, equalTo("a + b"));
+        assertThat(map.getEntries().size(), equalTo(3));
+    }
+
+    @Test
+    public void testThroughput() throws Exception
+    {
+        // Many threads, each creating different PVs, with creation taking ~100us
+        final int threads = 8, keys = 20000, operations = 5000;
+        final long creation = TimeUnit.MICROSECONDS.toNanos(100);
+        final double old_rate = run(new SynchronizedPool(), threads, keys, operations, creation);
+        final double new_rate = run(new ConcurrentPool(), threads, keys, operations, creation);
+        System.out.format("Synchronized map: %10.0f ops/sec\n", old_rate);
+        System.out.format("RefCountMap     : %10.0f ops/sec (%.1fx)\n", new_rate, new_rate / old_rate);
+    }
+}
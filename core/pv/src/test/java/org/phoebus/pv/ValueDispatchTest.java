@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VType;
+import org.junit.Test;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+
+/** Asynchronous value dispatch with slow and fast subscribers */
+@SuppressWarnings("nls")
+public class ValueDispatchTest
+{
+    /** PV that allows test to send values */
+    private static class TestPV extends PV
+    {
+        TestPV()
+        {
+            super("test");
+        }
+
+        void send(final double number)
+        {
+            notifyListenersOfValue(VDouble.of(number, Alarm.none(), Time.now(), Display.none()));
+        }
+    }
+
+    private static double getNumber(final AtomicReference<VType> received)
+    {
+        final VType value = received.get();
+        return value instanceof VDouble ? ((VDouble) value).getValue() : Double.NaN;
+    }
+
+    private static void awaitNumber(final AtomicReference<VType> received, final double number) throws Exception
+    {
+        final long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (getNumber(received) != number)
+        {
+            if (System.nanoTime() > timeout)
+                throw new Exception("Expected " + number + ", got " + received.get());
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    @Test
+    public void testAsyncDispatch() throws Exception
+    {
+        final boolean orig = ValueDispatch.async_dispatch;
+        ValueDispatch.async_dispatch = true;
+        try
+        {
+            final TestPV pv = new TestPV();
+            final AtomicReference<VType> slow_value = new AtomicReference<>(), fast_value = new AtomicReference<>();
+            final Disposable slow = pv.onValueEvent().subscribe(value ->
+            {
+                TimeUnit.MILLISECONDS.sleep(100);
+                slow_value.set(value);
+            });
+            final Disposable fast = pv.onValueEvent().subscribe(fast_value::set);
+
+            // Sending values does not wait for the slow subscriber
+            final int count = 50;
+            final long start = System.nanoTime();
+            for (int i=1; i<=count; ++i)
+            {
+                pv.send(i);
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.out.println("Sent " + count + " values in " + millis + " ms");
+            assertTrue(millis < count * 100);
+
+            // Both receive the last value, slow one dropped most of the values
+            awaitNumber(fast_value, count);
+            awaitNumber(slow_value, count);
+            final long[] dropped = pv.getDroppedValues();
+            System.out.println("Dropped values: slow " + dropped[0] + ", fast " + dropped[1]);
+            assertTrue(dropped[0] > count / 2);
+            assertTrue(dropped[1] < count / 2);
+
+            slow.dispose();
+            fast.dispose();
+            assertThat(pv.getDroppedValues().length, equalTo(0));
+        }
+        finally
+        {
+            ValueDispatch.async_dispatch = orig;
+        }
+    }
+
+    @Test
+    public void testSyncDispatch() throws Exception
+    {
+        // By default, values are received in the calling thread, nothing dropped
+        final TestPV pv = new TestPV();
+        final AtomicReference<VType> value = new AtomicReference<>();
+        final Disposable sub = pv.onValueEvent().subscribe(value::set);
+        for (int i=1; i<=10; ++i)
+        {
+            pv.send(i);
+            assertThat(getNumber(value), equalTo((double) i));
+        }
+        assertThat(pv.getDroppedValues()[0], equalTo(0L));
+        sub.dispose();
+    }
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.ca;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.cosylab.epics.caj.CAJContext;
+
+/** Test of {@link JCAContext} flush coalescing
+ *
+ *  <p>Delayed flushes are collected by the test
+ *  and run when the test decides that the delay has passed.
+ */
+@SuppressWarnings("nls")
+public class JCAFlushTest
+{
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private CAJContext caj;
+    private JCAContext context;
+
+    @Before
+    public void setup() throws Exception
+    {
+        caj = new CAJContext();
+        context = new JCAContext(caj, 10, scheduled::add);
+    }
+
+    @After
+    public void cleanup() throws Exception
+    {
+        caj.destroy();
+    }
+
+    /** Run the flushes that are due */
+    private void runScheduled()
+    {
+        final List<Runnable> due = new ArrayList<>(scheduled);
+        scheduled.clear();
+        for (Runnable flush : due)
+            flush.run();
+    }
+
+    @Test
+    public void testFlushCoalescing() throws Exception
+    {
+        // A burst of requests results in one delayed flush
+        final int count = 10000;
+        for (int i=0; i<count; ++i)
+            context.flushIO();
+        assertThat(context.getFlushRequestCount(), equalTo((long) count));
+        assertThat(scheduled.size(), equalTo(1));
+        assertThat(context.getFlushCount(), equalTo(0L));
+
+        runScheduled();
+        assertThat(context.getFlushCount(), equalTo(1L));
+
+        // Single request after that flush is still flushed
+        context.flushIO();
+        assertThat(scheduled.size(), equalTo(1));
+        runScheduled();
+        assertThat(context.getFlushCount(), equalTo(2L));
+        assertThat(context.getFlushRequestCount(), equalTo((long) count + 1));
+    }
+
+    @Test
+    public void testBatch() throws Exception
+    {
+        // Nothing is flushed within batch, one flush at end
+        context.beginBatch();
+        for (int i=0; i<1000; ++i)
+            context.flushIO();
+        assertThat(scheduled.size(), equalTo(0));
+        assertThat(context.getFlushCount(), equalTo(0L));
+        context.endBatch();
+        assertThat(context.getFlushCount(), equalTo(1L));
+        assertThat(scheduled.size(), equalTo(0));
+    }
+
+    @Test
+    public void testNoDelay() throws Exception
+    {
+        // Without delay, each request is flushed right away
+        final JCAContext direct = new JCAContext(caj, 0, scheduled::add);
+        for (int i=0; i<5; ++i)
+            direct.flushIO();
+        assertThat(direct.getFlushCount(), equalTo(5L));
+        assertThat(scheduled.size(), equalTo(0));
+    }
+}
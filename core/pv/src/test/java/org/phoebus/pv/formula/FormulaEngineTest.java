@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.formula;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.phoebus.core.vtypes.VTypeHelper;
+import org.phoebus.pv.PV;
+import org.phoebus.pv.PVPool;
+import org.phoebus.pv.RefCountMap.ReferencedEntry;
+
+/** Test of the {@link FormulaEngine} */
+@SuppressWarnings("nls")
+public class FormulaEngineTest
+{
+    @Test
+    public void testSlowFormula() throws Exception
+    {
+        // One formula takes a long time to evaluate
+        final CountDownLatch slow_started = new CountDownLatch(1), slow_done = new CountDownLatch(1);
+        final FormulaEngine.Evaluation slow = new FormulaEngine.Evaluation("slow", () ->
+        {
+            slow_started.countDown();
+            try
+            {
+                TimeUnit.MILLISECONDS.sleep(500);
+            }
+            catch (InterruptedException ex)
+            {
+                // Ignore
+            }
+            slow_done.countDown();
+        });
+        final AtomicInteger fast_runs = new AtomicInteger();
+        final FormulaEngine.Evaluation fast = new FormulaEngine.Evaluation("fast", fast_runs::incrementAndGet);
+
+        slow.request();
+        slow_started.await();
+        // While 'slow' is busy, further requests are combined
+        for (int i=0; i<100; ++i)
+            slow.request();
+
+        // Other formula is evaluated meanwhile
+        fast.request();
+        final long timeout = System.currentTimeMillis() + 200;
+        while (fast_runs.get() < 1  &&  System.currentTimeMillis() < timeout)
+            TimeUnit.MILLISECONDS.sleep(1);
+        assertThat(fast_runs.get(), equalTo(1));
+        assertThat(slow_done.getCount(), equalTo(1L));
+
+        // Slow formula ran once more for all the requests that arrived while busy
+        slow_done.await();
+        TimeUnit.MILLISECONDS.sleep(700);
+        assertThat(slow.getEvaluationCount(), equalTo(2L));
+        assertThat(slow.getSkipCount(), equalTo(99L));
+        System.out.println("Slow formula latency: " + slow.getAverageLatency() / 1000000 + " ms");
+        assertTrue(slow.getAverageLatency() >= TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    private static int getReferences(final String name)
+    {
+        for (ReferencedEntry<PV> ref : PVPool.getPVReferences())
+            if (ref.getEntry().getName().equals(name))
+                return ref.getReferences();
+        return 0;
+    }
+
+    @Test
+    public void testSharedInput() throws Exception
+    {
+        final PV input = PVPool.getPV("loc://shared(1)");
+
+        // Formulas that all use the same input
+        final List<PV> formulas = new ArrayList<>();
+        for (int i=0; i<100; ++i)
+            formulas.add(PVPool.getPV("=`loc://shared(1)` * " + i));
+        // .. subscribe once to it
+        assertThat(getReferences("loc://shared"), equalTo(2));
+
+        input.write(2);
+        for (int i=0; i<formulas.size(); ++i)
+        {
+            final PV formula = formulas.get(i);
+            final long timeout = System.currentTimeMillis() + 5000;
+            while (VTypeHelper.toDouble(formula.read()) != 2.0 * i)
+            {
+                if (System.currentTimeMillis() > timeout)
+                    throw new Exception(formula.getName() + " = " + formula.read());
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+        }
+        final FormulaPV formula = (FormulaPV) formulas.get(10);
+        System.out.println(formula.getName() + ": " + formula.getEvaluationCount() + " evaluations, " +
+                           formula.getSkipCount() + " skipped, " +
+                           formula.getAverageLatency() / 1000 + " us latency");
+        System.out.println("All formulas: " + FormulaEngine.getEvaluationCount() + " evaluations, " +
+                           FormulaEngine.getSkipCount() + " skipped, " +
+                           FormulaEngine.getAverageLatency() / 1000 + " us average, " +
+                           FormulaEngine.getMaxLatency() / 1000 + " us max latency");
+
+        for (PV pv : formulas)
+            PVPool.releasePV(pv);
+        assertThat(getReferences("loc://shared"), equalTo(1));
+        PVPool.releasePV(input);
+    }
+
+    @Test
+    public void testSharedSubExpression() throws Exception
+    {
+        final PV input = PVPool.getPV("loc://wave(1, 2, 3, 4)");
+
+        // Formulas that all compute the same function of the input
+        final List<PV> formulas = new ArrayList<>();
+        for (int i=0; i<10; ++i)
+            formulas.add(PVPool.getPV("=arrayMax(`loc://wave(1, 2, 3, 4)`) + " + i));
+        assertTrue(FormulaEngine.getSharedNodeCount() >= 1);
+
+        final long reused = FormulaEngine.getSharedResultCount();
+        input.write(new double[] { 1, 7, 3 });
+        for (int i=0; i<formulas.size(); ++i)
+        {
+            final PV formula = formulas.get(i);
+            final long timeout = System.currentTimeMillis() + 5000;
+            while (VTypeHelper.toDouble(formula.read()) != 7.0 + i)
+            {
+                if (System.currentTimeMillis() > timeout)
+                    throw new Exception(formula.getName() + " = " + formula.read());
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+        }
+        // Formulas used the result computed for another one
+        System.out.println("Shared sub-expressions: " + FormulaEngine.getSharedNodeCount() +
+                           ", results used " + (FormulaEngine.getSharedResultCount() - reused) + " times");
+        assertTrue(FormulaEngine.getSharedResultCount() > reused);
+
+        for (PV pv : formulas)
+            PVPool.releasePV(pv);
+        PVPool.releasePV(input);
+    }
+}
@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.phoebus.pv.mqtt;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.epics.util.array.ArrayByte;
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.array.ArrayFloat;
+import org.epics.util.array.ArrayInteger;
+import org.epics.util.array.ArrayLong;
+import org.epics.util.array.ArrayShort;
+import org.epics.util.array.ArrayUInteger;
+import org.epics.util.array.ListInteger;
+import org.epics.util.array.ListLong;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VByte;
+import org.epics.vtype.VByteArray;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VFloat;
+import org.epics.vtype.VFloatArray;
+import org.epics.vtype.VInt;
+import org.epics.vtype.VIntArray;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VLongArray;
+import org.epics.vtype.VNumberArray;
+import org.epics.vtype.VShort;
+import org.epics.vtype.VShortArray;
+import org.epics.vtype.VString;
+import org.epics.vtype.VStringArray;
+import org.epics.vtype.VType;
+import org.epics.vtype.VUInt;
+import org.junit.Test;
+import org.phoebus.core.vtypes.VTypeHelper;
+import org.phoebus.pv.PV;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+
+/** MQTT PV tests against a local {@link TestBroker} */
+@SuppressWarnings("nls")
+public class MQTTPVTest
+{
+    private static final Time time = Time.of(Instant.ofEpochSecond(1700000000, 123456789));
+    private static final Alarm alarm = Alarm.of(AlarmSeverity.MINOR, AlarmStatus.DEVICE, "LOW");
+
+    private static VType checkBinary(final VType value) throws Exception
+    {
+        final byte[] payload = VTypeToFromBinary.toBinary(value);
+        assertThat(VTypeToFromBinary.isBinary(payload), equalTo(true));
+        final VType copy = VTypeToFromBinary.fromBinary(payload);
+        if (! (value instanceof VUInt))
+            assertThat(copy.getClass(), equalTo(value.getClass()));
+        assertThat(VTypeHelper.toString(copy), equalTo(VTypeHelper.toString(value)));
+        assertThat(Time.timeOf(copy).getTimestamp(), equalTo(time.getTimestamp()));
+        assertThat(Alarm.alarmOf(copy), equalTo(alarm));
+        return copy;
+    }
+
+    @Test
+    public void testBinary() throws Exception
+    {
+        checkBinary(VDouble.of(3.14, alarm, time, Display.none()));
+        checkBinary(VLong.of(42L, alarm, time, Display.none()));
+        checkBinary(VString.of("Hello, \u00e4\u00f6\u00fc!", alarm, time));
+        checkBinary(VDoubleArray.of(ArrayDouble.of(1, 2, 3.5), alarm, time, Display.none()));
+        checkBinary(VStringArray.of(List.of("a", "", "c"), alarm, time));
+        assertThat(VTypeToFromBinary.isBinary("3.14".getBytes()), equalTo(false));
+
+        // Numbers keep their type
+        checkBinary(VFloat.of(2.5f, alarm, time, Display.none()));
+        checkBinary(VInt.of(-7, alarm, time, Display.none()));
+        checkBinary(VShort.of((short) 300, alarm, time, Display.none()));
+        checkBinary(VByte.of((byte) -3, alarm, time, Display.none()));
+        checkBinary(VFloatArray.of(ArrayFloat.of(1.5f, -2f), alarm, time, Display.none()));
+        checkBinary(VLongArray.of(ArrayLong.of(1L << 40, -1), alarm, time, Display.none()));
+        checkBinary(VIntArray.of(ArrayInteger.of(1, -2, 3), alarm, time, Display.none()));
+        checkBinary(VShortArray.of(ArrayShort.of((short) 1, (short) -2), alarm, time, Display.none()));
+        checkBinary(VByteArray.of(ArrayByte.of((byte) 1, (byte) -2, (byte) 3), alarm, time, Display.none()));
+
+        // Unsigned numbers use a larger type to keep their value
+        VType copy = checkBinary(VUInt.of(0xFFFFFFFFL, alarm, time, Display.none()));
+        assertThat(copy, instanceOf(VLong.class));
+        assertThat(((VLong) copy).getValue(), equalTo(0xFFFFFFFFL));
+        copy = VTypeToFromBinary.fromBinary(VTypeToFromBinary.toBinary(VNumberArray.of(ArrayUInteger.of(0xFFFFFFFF), alarm, time, Display.none())));
+        assertThat(((VNumberArray) copy).getData(), instanceOf(ListLong.class));
+        assertThat(((VNumberArray) copy).getData().getLong(0), equalTo(0xFFFFFFFFL));
+    }
+
+    /** @param pv PV
+     *  @return Queue of received values
+     */
+    private static BlockingQueue<VType> subscribe(final PV pv, final List<Disposable> flows)
+    {
+        final BlockingQueue<VType> values = new LinkedBlockingQueue<>();
+        flows.add(pv.onValueEvent().subscribe(values::add));
+        return values;
+    }
+
+    /** @return Next value that's not 'disconnected' */
+    private static VType next(final BlockingQueue<VType> values) throws Exception
+    {
+        while (true)
+        {
+            final VType value = values.poll(10, TimeUnit.SECONDS);
+            if (value == null)
+                throw new Exception("Timeout");
+            if (! PV.isDisconnected(value))
+                return value;
+        }
+    }
+
+    private static void checkTextOrBinary(final boolean binary) throws Exception
+    {
+        try (TestBroker broker = new TestBroker(0))
+        {
+            final MQTT_PVConn conn = new MQTT_PVConn(broker.getURL(), binary, null, 0);
+            final List<Disposable> flows = new ArrayList<>();
+            final MQTT_PV pv = new MQTT_PV("mqtt://test/value", "test/value", conn);
+            final BlockingQueue<VType> values = subscribe(pv, flows);
+
+            pv.write(3.14);
+            VType value = next(values);
+            assertThat(value, instanceOf(VDouble.class));
+            assertThat(((VDouble) value).getValue(), equalTo(3.14));
+
+            final MQTT_PV array = new MQTT_PV("mqtt://test/array<VDoubleArray>", "test/array<VDoubleArray>", conn);
+            final BlockingQueue<VType> array_values = subscribe(array, flows);
+            array.write(new double[] { 1, 2, 3 });
+            value = next(array_values);
+            assertThat(value, instanceOf(VDoubleArray.class));
+            assertThat(((VDoubleArray) value).getData().size(), equalTo(3));
+
+            for (Disposable flow : flows)
+                flow.dispose();
+            pv.close();
+            array.close();
+        }
+    }
+
+    @Test
+    public void testText() throws Exception
+    {
+        checkTextOrBinary(false);
+    }
+
+    @Test
+    public void testBinaryPayload() throws Exception
+    {
+        checkTextOrBinary(true);
+    }
+
+    @Test
+    public void testDeclaredType() throws Exception
+    {
+        try (TestBroker broker = new TestBroker(0))
+        {
+            final MQTT_PVConn conn = new MQTT_PVConn(broker.getURL(), true, null, 0);
+            final List<Disposable> flows = new ArrayList<>();
+            final MQTT_PV plain = new MQTT_PV("mqtt://test/ints", "test/ints", conn);
+            final MQTT_PV typed = new MQTT_PV("mqtt://test/ints<VDoubleArray>", "test/ints<VDoubleArray>", conn);
+            final BlockingQueue<VType> plain_values = subscribe(plain, flows);
+            final BlockingQueue<VType> typed_values = subscribe(typed, flows);
+
+            conn.publish("test/ints", VIntArray.of(ArrayInteger.of(1, 2, 3), alarm, time, Display.none()));
+
+            // Binary value keeps its type
+            VType value = next(plain_values);
+            assertThat(value, instanceOf(VIntArray.class));
+            assertThat(((VIntArray) value).getData(), instanceOf(ListInteger.class));
+
+            // .. unless PV declares a type
+            value = next(typed_values);
+            assertThat(value, instanceOf(VDoubleArray.class));
+            assertThat(((VDoubleArray) value).getData(), equalTo(ArrayDouble.of(1, 2, 3)));
+            assertThat(Alarm.alarmOf(value), equalTo(alarm));
+            assertThat(Time.timeOf(value).getTimestamp(), equalTo(time.getTimestamp()));
+
+            for (Disposable flow : flows)
+                flow.dispose();
+            plain.close();
+            typed.close();
+        }
+    }
+
+    @Test
+    public void testBatch() throws Exception
+    {
+        try (TestBroker broker = new TestBroker(0))
+        {
+            final MQTT_PVConn conn = new MQTT_PVConn(broker.getURL(), true, "test/batch", 50);
+            final int count = 1000;
+            final List<Disposable> flows = new ArrayList<>();
+            final List<MQTT_PV> pvs = new ArrayList<>();
+            final List<BlockingQueue<VType>> values = new ArrayList<>();
+            for (int i=0; i<count; ++i)
+            {
+                final MQTT_PV pv = new MQTT_PV("mqtt://sensor/" + i, "sensor/" + i, conn);
+                pvs.add(pv);
+                values.add(subscribe(pv, flows));
+            }
+
+            final int before = broker.published.get();
+            final long start = System.nanoTime();
+            for (int i=0; i<count; ++i)
+                pvs.get(i).write(i);
+            for (int i=0; i<count; ++i)
+                assertThat(VTypeHelper.toDouble(next(values.get(i))), equalTo((double) i));
+            final long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            final int messages = broker.published.get() - before;
+            System.out.println(count + " values in " + messages + " batch messages, " + ms + " ms");
+            assertThat(messages, lessThan(count / 10));
+
+            for (Disposable flow : flows)
+                flow.dispose();
+            for (MQTT_PV pv : pvs)
+                pv.close();
+        }
+    }
+
+    @Test
+    public void testReconnect() throws Exception
+    {
+        final int port;
+        final MQTT_PVConn conn;
+        final MQTT_PV pv;
+        final List<Disposable> flows = new ArrayList<>();
+        final BlockingQueue<VType> values;
+        try (TestBroker broker = new TestBroker(0))
+        {
+            port = broker.getPort();
+            conn = new MQTT_PVConn(broker.getURL(), true, null, 0);
+            pv = new MQTT_PV("mqtt://test/reconnect", "test/reconnect", conn);
+            values = subscribe(pv, flows);
+            pv.write(1.0);
+            assertThat(VTypeHelper.toDouble(next(values)), equalTo(1.0));
+        }
+
+        // Broker closed, PV is disconnected without polling
+        VType value = values.poll(10, TimeUnit.SECONDS);
+        assertThat(PV.isDisconnected(value), equalTo(true));
+
+        // Broker restarts, client reconnects and subscribes again
+        try (TestBroker broker = new TestBroker(port))
+        {
+            final MQTT_PVConn other = new MQTT_PVConn(broker.getURL(), true, null, 0);
+            other.publish("test/reconnect", VDouble.of(2.0, Alarm.none(), Time.now(), Display.none()));
+            value = next(values);
+            assertThat(VTypeHelper.toDouble(value), equalTo(2.0));
+
+            for (Disposable flow : flows)
+                flow.dispose();
+            pv.close();
+        }
+    }
+}
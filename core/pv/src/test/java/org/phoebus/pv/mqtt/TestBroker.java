@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.phoebus.pv.mqtt;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Minimal MQTT 3.1.1 broker for tests
+ *
+ *  <p>Supports QoS 0 publish and subscribe for exact topic names,
+ *  retained messages, ping.
+ *  No wildcards, no QoS 1 or 2, no authentication.
+ */
+@SuppressWarnings("nls")
+class TestBroker implements AutoCloseable
+{
+    private final ServerSocket server;
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    private final Map<String, byte[]> retained = new ConcurrentHashMap<>();
+
+    /** Number of PUBLISH messages received from clients */
+    final AtomicInteger published = new AtomicInteger();
+
+    private class Client
+    {
+        private final Socket socket;
+        private final OutputStream out;
+        private final Set<String> topics = ConcurrentHashMap.newKeySet();
+
+        Client(final Socket socket) throws IOException
+        {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            out = socket.getOutputStream();
+        }
+
+        synchronized void send(final int type, final byte[] body) throws IOException
+        {
+            // Send complete packet at once, not byte by byte
+            final ByteArrayOutputStream packet = new ByteArrayOutputStream(body.length + 5);
+            packet.write(type);
+            int length = body.length;
+            do
+            {
+                int digit = length % 128;
+                length /= 128;
+                if (length > 0)
+                    digit |= 0x80;
+                packet.write(digit);
+            }
+            while (length > 0);
+            packet.write(body);
+            out.write(packet.toByteArray());
+            out.flush();
+        }
+
+        void publish(final String topic, final byte[] payload) throws IOException
+        {
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            writeString(body, topic);
+            body.write(payload);
+            send(0x30, body.toByteArray());
+        }
+
+        void run()
+        {
+            try
+            {
+                final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                while (true)
+                {
+                    final int header = in.read();
+                    if (header < 0)
+                        break;
+                    int length = 0, shift = 0, digit;
+                    do
+                    {
+                        digit = in.readUnsignedByte();
+                        length |= (digit & 0x7F) << shift;
+                        shift += 7;
+                    }
+                    while ((digit & 0x80) != 0);
+                    final byte[] body = new byte[length];
+                    in.readFully(body);
+                    handle(header, body);
+                }
+            }
+            catch (IOException ex)
+            {
+                // Closed
+            }
+            clients.remove(this);
+            close();
+        }
+
+        private void handle(final int header, final byte[] body) throws IOException
+        {
+            switch (header >> 4)
+            {
+            case 1: // CONNECT
+                send(0x20, new byte[] { 0, 0 });
+                break;
+            case 3: // PUBLISH
+            {
+                published.incrementAndGet();
+                final int topic_length = ((body[0] & 0xFF) << 8) | (body[1] & 0xFF);
+                final String topic = new String(body, 2, topic_length, StandardCharsets.UTF_8);
+                // QoS 0 only, so no packet identifier
+                final byte[] payload = new byte[body.length - 2 - topic_length];
+                System.arraycopy(body, 2 + topic_length, payload, 0, payload.length);
+                if ((header & 1) != 0)
+                {
+                    if (payload.length > 0)
+                        retained.put(topic, payload);
+                    else
+                        retained.remove(topic);
+                }
+                for (Client client : clients)
+                    if (client.topics.contains(topic))
+                        client.publish(topic, payload);
+                break;
+            }
+            case 8: // SUBSCRIBE
+            case 10: // UNSUBSCRIBE
+            {
+                final boolean subscribe = (header >> 4) == 8;
+                final List<String> requested = new ArrayList<>();
+                int pos = 2;
+                while (pos < body.length)
+                {
+                    final int topic_length = ((body[pos] & 0xFF) << 8) | (body[pos+1] & 0xFF);
+                    requested.add(new String(body, pos+2, topic_length, StandardCharsets.UTF_8));
+                    pos += 2 + topic_length;
+                    if (subscribe)
+                        ++pos; // Requested QoS
+                }
+                if (subscribe)
+                {   // SUBACK with QoS 0 for each topic, then retained values
+                    topics.addAll(requested);
+                    final byte[] ack = new byte[2 + requested.size()];
+                    ack[0] = body[0];
+                    ack[1] = body[1];
+                    send(0x90, ack);
+                    for (String topic : requested)
+                    {
+                        final byte[] payload = retained.get(topic);
+                        if (payload != null)
+                            publish(topic, payload);
+                    }
+                }
+                else
+                {
+                    topics.removeAll(requested);
+                    send(0xB0, new byte[] { body[0], body[1] });
+                }
+                break;
+            }
+            case 12: // PINGREQ
+                send(0xD0, new byte[0]);
+                break;
+            case 14: // DISCONNECT
+                close();
+                break;
+            default:
+                throw new IOException("Unsupported MQTT packet type " + (header >> 4));
+            }
+        }
+
+        void close()
+        {
+            try
+            {
+                socket.close();
+            }
+            catch (IOException ex)
+            {
+                // Ignore
+            }
+        }
+    }
+
+    /** @param port TCP port, 0 for any free port
+     *  @throws IOException on error
+     */
+    TestBroker(final int port) throws IOException
+    {
+        server = new ServerSocket();
+        // Allow re-start on same port
+        server.setReuseAddress(true);
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        final Thread thread = new Thread(this::accept, "TestBroker");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** @return Broker URL */
+    String getURL()
+    {
+        return "tcp://127.0.0.1:" + server.getLocalPort();
+    }
+
+    /** @return Port */
+    int getPort()
+    {
+        return server.getLocalPort();
+    }
+
+    private void accept()
+    {
+        try
+        {
+            while (true)
+            {
+                final Client client = new Client(server.accept());
+                clients.add(client);
+                final Thread thread = new Thread(client::run, "TestBrokerClient");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+        catch (IOException ex)
+        {
+            // Closed
+        }
+    }
+
+    private static void writeString(final ByteArrayOutputStream out, final String text) throws IOException
+    {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.write(bytes.length >> 8);
+        out.write(bytes.length);
+        out.write(bytes);
+    }
+
+    /** Close server and all client connections */
+    @Override
+    public void close() throws Exception
+    {
+        server.close();
+        for (Client client : clients)
+            client.close();
+    }
+}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorOutputStream;
+import org.epics.pva.data.PVAByteArray;
+import org.epics.pva.data.PVAData;
+import org.epics.pva.data.PVAShortArray;
+import org.junit.Test;
+
+/** Unit test of the NDArray {@link Codec}s
+ *
+ *  <p>Compressed test data is created with a basic LZ4 compressor,
+ *  checked against the one of apache-commons-compress,
+ *  and a straight forward bit shuffle.
+ */
+@SuppressWarnings("nls")
+public class CodecTest
+{
+    /** @return Image-like data with some noise */
+    static byte[] createData(final int size)
+    {
+        final Random random = new Random(42);
+        final byte[] data = new byte[size];
+        for (int i=0; i<size; ++i)
+            data[i] = (byte) ((i / 100) % 7 + random.nextInt(3));
+        return data;
+    }
+
+    /** LZ4 compression of apache-commons-compress, slow for large, repetitive data */
+    static byte[] compressLZ4Commons(final byte[] data) throws Exception
+    {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (BlockLZ4CompressorOutputStream out = new BlockLZ4CompressorOutputStream(buf))
+        {
+            out.write(data);
+        }
+        return buf.toByteArray();
+    }
+
+    private static void writeLength(final ByteArrayOutputStream out, int length)
+    {
+        if (length < 15)
+            return;
+        length -= 15;
+        while (length >= 255)
+        {
+            out.write(255);
+            length -= 255;
+        }
+        out.write(length);
+    }
+
+    /** Greedy LZ4 block compression */
+    static byte[] compressLZ4(final byte[] data, final int offset, final int length)
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final int[] table = new int[1 << 16];
+        Arrays.fill(table, -1);
+        final int end = offset + length;
+        int anchor = offset, pos = offset;
+        // Last match must start 12 bytes before end and leave 5 literals
+        while (pos < end - 12)
+        {
+            final int key = ((data[pos] & 0xFF) | (data[pos+1] & 0xFF) << 8 | (data[pos+2] & 0xFF) << 16 | (data[pos+3] & 0xFF) << 24) * -1640531535 >>> 16;
+            final int candidate = table[key];
+            table[key] = pos;
+            if (candidate >= 0  &&  pos - candidate < 65536  &&
+                data[candidate] == data[pos]  &&  data[candidate+1] == data[pos+1]  &&
+                data[candidate+2] == data[pos+2]  &&  data[candidate+3] == data[pos+3])
+            {
+                int match = 4;
+                while (pos + match < end - 5  &&  data[candidate + match] == data[pos + match])
+                    ++match;
+                final int literals = pos - anchor;
+                out.write(Math.min(literals, 15) << 4 | Math.min(match - 4, 15));
+                writeLength(out, literals);
+                out.write(data, anchor, literals);
+                out.write((pos - candidate) & 0xFF);
+                out.write((pos - candidate) >> 8);
+                writeLength(out, match - 4);
+                pos += match;
+                anchor = pos;
+            }
+            else
+                ++pos;
+        }
+        final int literals = end - anchor;
+        out.write(Math.min(literals, 15) << 4);
+        writeLength(out, literals);
+        out.write(data, anchor, literals);
+        return out.toByteArray();
+    }
+
+    /** Bit shuffle, one bit at a time */
+    static byte[] shuffle(final byte[] data, final int offset, final int count, final int element_size)
+    {
+        final byte[] result = new byte[count * element_size];
+        for (int b=0; b<element_size; ++b)
+            for (int bit=0; bit<8; ++bit)
+            {
+                final int row = (b*8 + bit) * count/8;
+                for (int e=0; e<count; ++e)
+                    if ((data[offset + e*element_size + b] & (1 << bit)) != 0)
+                        result[row + e/8] |= 1 << (e % 8);
+            }
+        return result;
+    }
+
+    /** Compress like bitshuffle/LZ4 */
+    static byte[] compressBSLZ4(final byte[] data, final int element_size, final boolean header) throws Exception
+    {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        final int block_size = BSLZ4Codec.getDefaultBlockSize(element_size);
+        if (header)
+        {
+            final ByteBuffer hdr = ByteBuffer.allocate(12).order(ByteOrder.BIG_ENDIAN);
+            hdr.putLong(data.length);
+            hdr.putInt(block_size * element_size);
+            buf.write(hdr.array());
+        }
+        final int elements = data.length / element_size;
+        int done = 0;
+        while (done < elements - elements % 8)
+        {
+            final int count = Math.min(block_size, elements - done - (elements - done) % 8);
+            final byte[] shuffled = shuffle(data, done * element_size, count, element_size);
+            final byte[] compressed = compressLZ4(shuffled, 0, shuffled.length);
+            buf.write(ByteBuffer.allocate(4).order(ByteOrder.BIG_ENDIAN).putInt(compressed.length).array());
+            buf.write(compressed);
+            done += count;
+        }
+        buf.write(data, done * element_size, data.length - done * element_size);
+        return buf.toByteArray();
+    }
+
+    @Test
+    public void testLZ4() throws Exception
+    {
+        final byte[] data = createData(100000);
+        byte[] compressed = compressLZ4Commons(Arrays.copyOf(data, 10000));
+        assertArrayEquals(Arrays.copyOf(data, 10000), new LZ4Codec().decompress(compressed, 10000));
+
+        compressed = compressLZ4(data, 0, data.length);
+        assertTrue(compressed.length < data.length);
+        assertArrayEquals(data, new LZ4Codec().decompress(compressed, data.length));
+
+        // Compressed data that's shorter than expected is an error
+        try
+        {
+            new LZ4Codec().decompress(compressed, data.length + 10);
+            fail("Missing bytes were not detected");
+        }
+        catch (Exception ex)
+        {
+            assertTrue(ex.getMessage().contains("Expected"));
+        }
+    }
+
+    @Test
+    public void testUnshuffle() throws Exception
+    {
+        final byte[] data = createData(16 * 4);
+        final byte[] result = new byte[data.length];
+        BSLZ4Codec.unshuffle(shuffle(data, 0, 16, 4), result, 0, 16, 4);
+        assertArrayEquals(data, result);
+    }
+
+    @Test
+    public void testBSLZ4() throws Exception
+    {
+        final Codec codec = Codec.forName("bslz4");
+        for (int element_size : new int[] { 1, 2, 4, 8 })
+            // Multiple blocks, last block smaller, and a few elements that aren't compressed
+            for (int elements : new int[] { 8, 1000, 3*BSLZ4Codec.getDefaultBlockSize(element_size) + 3*8 + 5 })
+                for (boolean header : new boolean[] { false, true })
+                {
+                    final byte[] data = createData(elements * element_size);
+                    final byte[] compressed = compressBSLZ4(data, element_size, header);
+                    // Scratch buffer may be larger than needed
+                    final byte[] result = codec.decompress(compressed, element_size, new byte[data.length + 10], data.length);
+                    assertArrayEquals(data, Arrays.copyOf(result, data.length));
+                }
+    }
+
+    @Test
+    public void testShortImage() throws Exception
+    {
+        final short[] pixels = new short[640*480];
+        for (int i=0; i<pixels.length; ++i)
+            pixels[i] = (short) (i % 1000);
+        final ByteBuffer bytes = ByteBuffer.allocate(2*pixels.length).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asShortBuffer().put(pixels);
+        final byte[] compressed = compressBSLZ4(bytes.array(), 2, false);
+
+        final PVAData value = Codec.forName("BSLZ4").decompress(new PVAByteArray("value", true, compressed), 6, pixels.length);
+        assertArrayEquals(pixels, ((PVAShortArray) value).get());
+    }
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.BitSet;
+
+import org.epics.pva.data.PVADouble;
+import org.epics.pva.data.PVADoubleArray;
+import org.epics.pva.data.PVAInt;
+import org.epics.pva.data.PVALong;
+import org.epics.pva.data.PVAString;
+import org.epics.pva.data.PVAStringArray;
+import org.epics.pva.data.PVAStructure;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VType;
+import org.junit.Test;
+import org.phoebus.core.vtypes.VTypeHelper;
+
+/** Unit test of the {@link IncrementalDecoder} */
+@SuppressWarnings("nls")
+public class IncrementalDecoderTest
+{
+    private static PVAStructure createAlarm()
+    {
+        return new PVAStructure("alarm", "alarm_t",
+                                new PVAInt("severity", 0),
+                                new PVAInt("status", 0),
+                                new PVAString("message", "NO_ALARM"));
+    }
+
+    private static PVAStructure createTime()
+    {
+        return new PVAStructure("timeStamp", "time_t",
+                                new PVALong("secondsPastEpoch", false, 1000),
+                                new PVAInt("nanoseconds", 0),
+                                new PVAInt("userTag", 0));
+    }
+
+    private static PVAStructure createNTScalar()
+    {
+        return new PVAStructure("", "epics:nt/NTScalar:1.0",
+                                new PVADouble("value", 3.14),
+                                createAlarm(),
+                                createTime(),
+                                new PVAStructure("display", "display_t",
+                                                 new PVADouble("limitLow", 0),
+                                                 new PVADouble("limitHigh", 10),
+                                                 new PVAString("description", "Test"),
+                                                 new PVAString("units", "mm"),
+                                                 new PVAInt("precision", 2)),
+                                new PVAStructure("control", "control_t",
+                                                 new PVADouble("limitLow", 0),
+                                                 new PVADouble("limitHigh", 10)));
+    }
+
+    /** @return BitSet for elements of data */
+    private static BitSet changes(final PVAStructure data, final String... paths) throws Exception
+    {
+        final BitSet changes = new BitSet();
+        for (String path : paths)
+            changes.set(data.getIndex(data.locate(path)));
+        return changes;
+    }
+
+    /** Assert that incremental decoding provides the same result as full decoding */
+    private static void assertSameAsFull(final VType value, final PVAStructure data) throws Exception
+    {
+        final VType full = PVAStructureHelper.getVType(data, PVNameHelper.forName("test"));
+        assertThat(value.getClass(), equalTo(full.getClass()));
+        assertThat(VTypeHelper.toString(value), equalTo(VTypeHelper.toString(full)));
+        assertThat(Alarm.alarmOf(value), equalTo(Alarm.alarmOf(full)));
+        assertThat(Time.timeOf(value), equalTo(Time.timeOf(full)));
+        assertThat(Display.displayOf(value), equalTo(Display.displayOf(full)));
+    }
+
+    @Test
+    public void testScalar() throws Exception
+    {
+        final IncrementalDecoder decoder = new IncrementalDecoder(PVNameHelper.forName("test"));
+        final PVAStructure data = createNTScalar();
+        assertThat(decoder.isIncremental(data), equalTo(true));
+
+        // Initial update
+        BitSet changes = new BitSet();
+        changes.set(0);
+        VType value = decoder.decode(data, changes);
+        assertThat(value, instanceOf(VDouble.class));
+        assertSameAsFull(value, data);
+        final Display display = Display.displayOf(value);
+        final Alarm alarm = Alarm.alarmOf(value);
+
+        // Value and time change, display and alarm are re-used
+        ((PVADouble) data.get("value")).set(42.0);
+        ((PVALong) data.locate("timeStamp.secondsPastEpoch")).set(1001);
+        changes = changes(data, "value", "timeStamp.secondsPastEpoch");
+        value = decoder.decode(data, changes);
+        assertSameAsFull(value, data);
+        assertThat(((VDouble) value).getValue(), equalTo(42.0));
+        assertThat(Display.displayOf(value), sameInstance(display));
+        assertThat(Alarm.alarmOf(value), sameInstance(alarm));
+
+        // Alarm changes
+        ((PVAInt) data.locate("alarm.severity")).set(2);
+        ((PVAString) data.locate("alarm.message")).set("HIHI");
+        value = decoder.decode(data, changes(data, "alarm.severity", "alarm.message"));
+        assertSameAsFull(value, data);
+        assertThat(Alarm.alarmOf(value), not(equalTo(alarm)));
+        assertThat(Display.displayOf(value), sameInstance(display));
+
+        // Display changes, including complete 'control' sub-structure
+        ((PVADouble) data.locate("display.limitHigh")).set(100.0);
+        value = decoder.decode(data, changes(data, "display.limitHigh", "control"));
+        assertSameAsFull(value, data);
+        assertThat(Display.displayOf(value).getDisplayRange().getMaximum(), equalTo(100.0));
+
+        // Different structure, for example after reconnect, is decoded completely
+        final PVAStructure other = createNTScalar();
+        value = decoder.decode(other, changes(other, "value"));
+        assertSameAsFull(value, other);
+    }
+
+    @Test
+    public void testArray() throws Exception
+    {
+        final IncrementalDecoder decoder = new IncrementalDecoder(PVNameHelper.forName("test"));
+        final double[] array = new double[] { 1, 2, 3 };
+        final PVAStructure data = new PVAStructure("", "epics:nt/NTScalarArray:1.0",
+                                                   new PVADoubleArray("value", array),
+                                                   createAlarm(),
+                                                   createTime());
+        final BitSet changes = new BitSet();
+        changes.set(0);
+        VType value = decoder.decode(data, changes);
+        assertThat(value, instanceOf(VDoubleArray.class));
+        assertSameAsFull(value, data);
+
+        ((PVADoubleArray) data.get("value")).set(new double[] { 4, 5 });
+        value = decoder.decode(data, changes(data, "value"));
+        assertSameAsFull(value, data);
+        assertThat(((VDoubleArray) value).getData().size(), equalTo(2));
+    }
+
+    @Test
+    public void testEnum() throws Exception
+    {
+        final IncrementalDecoder decoder = new IncrementalDecoder(PVNameHelper.forName("test"));
+        final PVAStructure data = new PVAStructure("", "epics:nt/NTEnum:1.0",
+                                                   new PVAStructure("value", "enum_t",
+                                                                    new PVAInt("index", 0),
+                                                                    new PVAStringArray("choices", "Off", "On")),
+                                                   createAlarm(),
+                                                   createTime());
+        BitSet changes = new BitSet();
+        changes.set(0);
+        VType value = decoder.decode(data, changes);
+        assertThat(value, instanceOf(VEnum.class));
+        assertThat(((VEnum) value).getValue(), equalTo("Off"));
+        final Object labels = ((VEnum) value).getDisplay();
+
+        ((PVAInt) data.locate("value.index")).set(1);
+        value = decoder.decode(data, changes(data, "value.index"));
+        assertThat(((VEnum) value).getValue(), equalTo("On"));
+        assertThat(((VEnum) value).getDisplay(), sameInstance(labels));
+
+        ((PVAStringArray) data.locate("value.choices")).set(new String[] { "Low", "High" });
+        value = decoder.decode(data, changes(data, "value.choices"));
+        assertThat(((VEnum) value).getValue(), equalTo("High"));
+    }
+
+    @Test
+    public void testOther() throws Exception
+    {
+        // Sub-field or element of array are decoded by PVAStructureHelper
+        final IncrementalDecoder decoder = new IncrementalDecoder(PVNameHelper.forName("test/display.limitHigh"));
+        final PVAStructure data = createNTScalar();
+        assertThat(decoder.isIncremental(data), equalTo(false));
+        final BitSet changes = new BitSet();
+        changes.set(0);
+        final VType value = decoder.decode(data, changes);
+        assertThat(VTypeHelper.toDouble(value), equalTo(10.0));
+    }
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.sim;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/** Test of the {@link SimPVScheduler}
+ *
+ *  <p>Uses a scheduler with its own clock
+ *  that the test advances tick by tick.
+ */
+@SuppressWarnings("nls")
+public class SimPVSchedulerTest
+{
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** Simulated time */
+    private long now = 0;
+
+    private final SimPVScheduler scheduler = new SimPVScheduler(() -> now);
+
+    /** PV that records when it's updated */
+    private class TestPV extends SimulatedPV
+    {
+        final List<Long> times = new ArrayList<>();
+
+        TestPV(final String name)
+        {
+            super(name);
+        }
+
+        @Override
+        protected void update()
+        {
+            times.add(now);
+        }
+    }
+
+    /** Advance clock and scheduler
+     *  @param count Number of ticks
+     *  @throws Exception on error
+     */
+    private void tick(final int count) throws Exception
+    {
+        for (int i=0; i<count; ++i)
+        {
+            now = scheduler.getNextTickTime();
+            scheduler.tick(now);
+        }
+    }
+
+    @Test
+    public void testPeriods() throws Exception
+    {
+        final TestPV fast = new TestPV("fast"), medium = new TestPV("medium"), slow = new TestPV("slow");
+        scheduler.add(fast, 10*MS);
+        scheduler.add(medium, 50*MS);
+        // Longer than one turn of the wheel
+        final long long_period = (SimPVScheduler.SLOTS + 88) * SimPVScheduler.TICK_NANOS;
+        scheduler.add(slow, long_period);
+        assertThat(scheduler.getPVCount(), equalTo(3));
+
+        final int ticks = 2 * SimPVScheduler.SLOTS;
+        tick(ticks);
+        assertThat(scheduler.getTickCount(), equalTo((long) ticks));
+
+        // Each PV is updated at multiples of its period
+        assertThat(fast.times.size(), equalTo(ticks));
+        for (int i=0; i<fast.times.size(); ++i)
+            assertThat(fast.times.get(i), equalTo((i+1) * 10*MS));
+        assertThat(medium.times.size(), equalTo(ticks / 5));
+        for (int i=0; i<medium.times.size(); ++i)
+            assertThat(medium.times.get(i), equalTo((i+1) * 50*MS));
+        assertThat(slow.times, equalTo(List.of(long_period)));
+
+        // No jitter with simulated clock
+        assertThat(scheduler.getMaxJitter(), equalTo(0L));
+
+        // Removed PV is no longer updated
+        assertThat(scheduler.remove(medium), equalTo(true));
+        assertThat(scheduler.remove(medium), equalTo(false));
+        tick(10);
+        assertThat(medium.times.size(), equalTo(ticks / 5));
+        assertThat(fast.times.size(), equalTo(ticks + 10));
+        assertThat(scheduler.getPVCount(), equalTo(2));
+    }
+
+    @Test
+    public void testOrder() throws Exception
+    {
+        // Updates of PVs that are due in the same tick happen in the order the PVs were added
+        final List<String> updates = new CopyOnWriteArrayList<>();
+        for (int i=0; i<5; ++i)
+        {
+            final String name = "pv" + i;
+            scheduler.add(new SimulatedPV(name)
+            {
+                @Override
+                protected void update()
+                {
+                    updates.add(name);
+                }
+            }, 20*MS);
+        }
+        tick(1);
+        assertThat(updates.size(), equalTo(0));
+        tick(1);
+        assertThat(updates, equalTo(List.of("pv0", "pv1", "pv2", "pv3", "pv4")));
+    }
+
+    @Test
+    public void testJitter() throws Exception
+    {
+        final TestPV pv = new TestPV("pv");
+        scheduler.add(pv, 100*MS);
+
+        // Every tick is 2 ms late, one is 6 ms late
+        for (int i=0; i<20; ++i)
+        {
+            now = scheduler.getNextTickTime() + (i == 7 ? 6*MS : 2*MS);
+            scheduler.tick(now);
+        }
+        assertThat(scheduler.getMaxJitter(), equalTo(6*MS));
+        assertThat(scheduler.getTotalJitter(), equalTo(19*2*MS + 6*MS));
+        assertThat(scheduler.getAverageJitter(), equalTo((19*2*MS + 6*MS) / 20));
+
+        // Late ticks don't shift the schedule
+        assertThat(pv.times, equalTo(List.of(100*MS + 2*MS, 200*MS + 2*MS)));
+    }
+
+    @Test
+    public void testManyPVs() throws Exception
+    {
+        // Mix of 10 Hz and 2 Hz PVs, updated in parallel chunks
+        final int count = 20000;
+        final AtomicInteger updates = new AtomicInteger();
+        for (int i=0; i<count; ++i)
+            scheduler.add(new SimulatedPV("pv" + i)
+            {
+                @Override
+                protected void update()
+                {
+                    updates.incrementAndGet();
+                }
+            }, i % 2 == 0 ? 100*MS : 500*MS);
+
+        // One simulated second: (10 + 2)/2 updates per PV
+        tick(100);
+        assertThat(updates.get(), equalTo(count * 6));
+    }
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+/** Image frames compressed like the area detector NDArray codecs */
+class CompressedFrames
+{
+    /** Bit shuffle block size in bytes */
+    private static final int BLOCK_BYTES = 8192;
+
+    /** @param width Width and height of the frame
+     *  @return Image-like 'uint16' frame with some noise, little endian
+     */
+    static byte[] createFrame(final int width)
+    {
+        final Random random = new Random(42);
+        final int pixels = width * width;
+        final ByteBuffer frame = ByteBuffer.allocate(2 * pixels).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i=0; i<pixels; ++i)
+            frame.putShort((short) ((i % width) * 16 + random.nextInt(3)));
+        return frame.array();
+    }
+
+    private static void writeLength(final ByteArrayOutputStream out, int length)
+    {
+        if (length < 15)
+            return;
+        length -= 15;
+        while (length >= 255)
+        {
+            out.write(255);
+            length -= 255;
+        }
+        out.write(length);
+    }
+
+    /** Greedy LZ4 block compression
+     *  @param data Data to compress
+     *  @return LZ4 block
+     */
+    static byte[] compressLZ4(final byte[] data)
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final int[] table = new int[1 << 16];
+        Arrays.fill(table, -1);
+        final int end = data.length;
+        int anchor = 0, pos = 0;
+        // Last match must start 12 bytes before end and leave 5 literals
+        while (pos < end - 12)
+        {
+            final int key = ((data[pos] & 0xFF) | (data[pos+1] & 0xFF) << 8 | (data[pos+2] & 0xFF) << 16 | (data[pos+3] & 0xFF) << 24) * -1640531535 >>> 16;
+            final int candidate = table[key];
+            table[key] = pos;
+            if (candidate >= 0  &&  pos - candidate < 65536  &&
+                data[candidate] == data[pos]  &&  data[candidate+1] == data[pos+1]  &&
+                data[candidate+2] == data[pos+2]  &&  data[candidate+3] == data[pos+3])
+            {
+                int match = 4;
+                while (pos + match < end - 5  &&  data[candidate + match] == data[pos + match])
+                    ++match;
+                final int literals = pos - anchor;
+                out.write(Math.min(literals, 15) << 4 | Math.min(match - 4, 15));
+                writeLength(out, literals);
+                out.write(data, anchor, literals);
+                out.write((pos - candidate) & 0xFF);
+                out.write((pos - candidate) >> 8);
+                writeLength(out, match - 4);
+                pos += match;
+                anchor = pos;
+            }
+            else
+                ++pos;
+        }
+        final int literals = end - anchor;
+        out.write(Math.min(literals, 15) << 4);
+        writeLength(out, literals);
+        out.write(data, anchor, literals);
+        return out.toByteArray();
+    }
+
+    /** Bit shuffle, one bit at a time */
+    private static byte[] shuffle(final byte[] data, final int offset, final int count, final int element_size)
+    {
+        final byte[] result = new byte[count * element_size];
+        for (int b=0; b<element_size; ++b)
+            for (int bit=0; bit<8; ++bit)
+            {
+                final int row = (b*8 + bit) * count/8;
+                for (int e=0; e<count; ++e)
+                    if ((data[offset + e*element_size + b] & (1 << bit)) != 0)
+                        result[row + e/8] |= 1 << (e % 8);
+            }
+        return result;
+    }
+
+    /** Compress like bitshuffle/LZ4, with header
+     *  @param data Data to compress
+     *  @param element_size Bytes per element
+     *  @return Header and compressed blocks
+     */
+    static byte[] compressBSLZ4(final byte[] data, final int element_size)
+    {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        final int block_size = BLOCK_BYTES / element_size;
+        final ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.BIG_ENDIAN);
+        header.putLong(data.length);
+        header.putInt(block_size * element_size);
+        buf.writeBytes(header.array());
+
+        final int elements = data.length / element_size;
+        int done = 0;
+        while (done < elements - elements % 8)
+        {
+            final int count = Math.min(block_size, elements - done - (elements - done) % 8);
+            final byte[] compressed = compressLZ4(shuffle(data, done * element_size, count, element_size));
+            buf.writeBytes(ByteBuffer.allocate(4).order(ByteOrder.BIG_ENDIAN).putInt(compressed.length).array());
+            buf.writeBytes(compressed);
+            done += count;
+        }
+        buf.write(data, done * element_size, data.length - done * element_size);
+        return buf.toByteArray();
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+import org.epics.pva.data.PVAData;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.data.PVATypeRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Type and value encoding and decoding
+ *
+ *  <p>Covers {@link PVAStructure#encodeType(ByteBuffer, BitSet)},
+ *  {@link PVATypeRegistry#decodeType(String, ByteBuffer)},
+ *  {@link PVAStructure#encode(ByteBuffer)} and
+ *  {@link PVAStructure#decode(PVATypeRegistry, ByteBuffer)}
+ *  for scalars, arrays, images and nested structures.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataBenchmark
+{
+    @Param({ "scalar", "array_1k", "array_1M", "ntndarray", "nested" })
+    public String sample;
+
+    private PVAStructure data, received;
+    private ByteBuffer type_buffer, value_buffer;
+    private ByteBuffer encoded_type, encoded_value;
+    private final PVATypeRegistry types = new PVATypeRegistry();
+
+    @Setup
+    public void setup() throws Exception
+    {
+        data = Samples.create(sample);
+        received = data.cloneData();
+
+        final byte[] type = Samples.encodeType(data);
+        type_buffer = ByteBuffer.allocate(type.length).order(Samples.ORDER);
+        encoded_type = ByteBuffer.wrap(type).order(Samples.ORDER);
+
+        final byte[] value = Samples.encodeValue(data);
+        value_buffer = ByteBuffer.allocate(value.length).order(Samples.ORDER);
+        encoded_value = ByteBuffer.wrap(value).order(Samples.ORDER);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeType() throws Exception
+    {
+        type_buffer.clear();
+        data.encodeType(type_buffer, new BitSet());
+        return type_buffer;
+    }
+
+    @Benchmark
+    public PVAData decodeType() throws Exception
+    {
+        encoded_type.rewind();
+        return types.decodeType("", encoded_type);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeValue() throws Exception
+    {
+        value_buffer.clear();
+        data.encode(value_buffer);
+        return value_buffer;
+    }
+
+    @Benchmark
+    public PVAStructure decodeValue() throws Exception
+    {
+        encoded_value.rewind();
+        received.decode(types, encoded_value);
+        return received;
+    }
+}
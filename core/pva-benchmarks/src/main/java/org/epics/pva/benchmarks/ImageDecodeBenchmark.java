@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorInputStream;
+import org.epics.pva.data.PVAByteArray;
+import org.epics.pva.data.PVAData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.phoebus.pv.pva.Codec;
+
+/** Decoding of compressed NDArray images
+ *
+ *  <p>Decodes 'uint16' frames of various sizes,
+ *  comparing the LZ4 stream decoder of apache-commons-compress
+ *  with the "lz4" and "bslz4" {@link Codec}s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageDecodeBenchmark
+{
+    /** NDArray data type code for 'uint16' */
+    private static final int UINT16 = 6;
+
+    @Param({ "256", "1024", "2048" })
+    public int width;
+
+    private int pixels;
+    private byte[] lz4;
+    private PVAByteArray lz4_value, bslz4_value;
+    private Codec lz4_codec, bslz4_codec;
+
+    @Setup
+    public void setup()
+    {
+        pixels = width * width;
+        final byte[] frame = CompressedFrames.createFrame(width);
+        lz4 = CompressedFrames.compressLZ4(frame);
+        lz4_value = new PVAByteArray("value", true, lz4);
+        bslz4_value = new PVAByteArray("value", true, CompressedFrames.compressBSLZ4(frame, 2));
+        lz4_codec = Codec.forName("lz4");
+        bslz4_codec = Codec.forName("bslz4");
+    }
+
+    @Benchmark
+    public byte[] commonsLZ4() throws Exception
+    {
+        final byte[] result = new byte[2 * pixels];
+        try (BlockLZ4CompressorInputStream in = new BlockLZ4CompressorInputStream(new ByteArrayInputStream(lz4)))
+        {
+            int expanded = 0;
+            while (expanded < result.length)
+            {
+                final int batch = in.read(result, expanded, result.length - expanded);
+                if (batch == -1)
+                    break;
+                expanded += batch;
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public PVAData lz4() throws Exception
+    {
+        return lz4_codec.decompress(lz4_value, UINT16, pixels);
+    }
+
+    @Benchmark
+    public PVAData bslz4() throws Exception
+    {
+        return bslz4_codec.decompress(bslz4_value, UINT16, pixels);
+    }
+}
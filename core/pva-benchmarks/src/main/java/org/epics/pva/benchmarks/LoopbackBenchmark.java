@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.epics.pva.client.PVAChannel;
+import org.epics.pva.client.PVAClient;
+import org.epics.pva.data.PVADoubleArray;
+import org.epics.pva.data.PVALong;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.server.PVAServer;
+import org.epics.pva.server.ServerPV;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** In-process client/server monitor
+ *
+ *  <p>A {@link PVAServer} and {@link PVAClient} in the same JVM
+ *  communicate via the loopback interface,
+ *  covering the complete stack of encoding, TCP framing,
+ *  sending, receiving and decoding.
+ *
+ *  <p>'latency' measures the time from updating the server PV
+ *  until the client receives the update.
+ *  'throughput' sends bursts of updates and waits for the last one.
+ *  When the server's monitor queue fills, it combines updates,
+ *  so not every update of a burst necessarily reaches the client.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-DEPICS_PVA_ADDR_LIST=127.0.0.1",
+                                   "-DEPICS_PVA_AUTO_ADDR_LIST=NO" })
+public class LoopbackBenchmark
+{
+    /** Number of updates sent by one 'throughput' invocation */
+    private static final int BURST = 100;
+
+    /** Array elements in each update */
+    @Param({ "1", "1000", "100000", "1000000" })
+    public int elements;
+
+    private PVAServer server;
+    private ServerPV pv;
+    private PVAClient client;
+    private PVAChannel channel;
+    private AutoCloseable subscription;
+
+    /** Update to send, with alternating arrays so every update changes the value */
+    private PVAStructure update;
+    private final double[][] arrays = new double[2][];
+
+    /** Count of the last update sent or received */
+    private long sent = 0;
+    private final AtomicLong received = new AtomicLong(-1);
+
+    @Setup
+    public void setup() throws Exception
+    {
+        arrays[0] = new double[elements];
+        arrays[1] = new double[elements];
+        update = new PVAStructure("", "bench_t",
+                                  new PVALong("count", false, 0),
+                                  new PVADoubleArray("value", arrays[0]));
+
+        server = new PVAServer();
+        pv = server.createPV("benchmark:loopback", update);
+
+        client = new PVAClient();
+        channel = client.getChannel("benchmark:loopback");
+        channel.connect().get(10, TimeUnit.SECONDS);
+        subscription = channel.subscribe("", (ch, changes, overruns, data) ->
+        {
+            final PVALong count = data.get("count");
+            received.set(count.get());
+        });
+        // Initial update
+        awaitUpdate(0);
+    }
+
+    private void send() throws Exception
+    {
+        ++sent;
+        final double[] array = arrays[(int) (sent % 2)];
+        array[0] = sent;
+        ((PVALong) update.get("count")).set(sent);
+        ((PVADoubleArray) update.get("value")).set(array);
+        pv.update(update);
+    }
+
+    private void awaitUpdate(final long count) throws Exception
+    {
+        final long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (received.get() < count)
+        {
+            if (System.nanoTime() > timeout)
+                throw new TimeoutException("No update #" + count + ", last received " + received.get());
+            Thread.onSpinWait();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long latency() throws Exception
+    {
+        send();
+        awaitUpdate(sent);
+        return sent;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BURST)
+    public long throughput() throws Exception
+    {
+        for (int i=0; i<BURST; ++i)
+            send();
+        awaitUpdate(sent);
+        return sent;
+    }
+
+    @TearDown
+    public void close() throws Exception
+    {
+        subscription.close();
+        channel.close();
+        client.close();
+        pv.close();
+        server.close();
+    }
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/** Run PVA benchmarks
+ *
+ *  <p>Accepts the usual JMH command line options,
+ *  but defaults to writing JSON results to "pva-benchmarks.json"
+ *  so that results of different releases can be compared,
+ *  for example with the JMH Visualizer.
+ *
+ *  <pre>
+ *  # All benchmarks
+ *  java -jar pva-benchmarks.jar
+ *  # Only the loopback client/server tests, specific payload
+ *  java -jar pva-benchmarks.jar Loopback -p elements=1000 -rff loopback.json
+ *  # List benchmarks
+ *  java -jar pva-benchmarks.jar -l
+ *  </pre>
+ */
+@SuppressWarnings("nls")
+public class PVABenchmarks
+{
+    /** Default result file */
+    public static final String RESULT_FILE = "pva-benchmarks.json";
+
+    public static void main(final String[] args) throws Exception
+    {
+        final CommandLineOptions cmdline = new CommandLineOptions(args);
+        if (cmdline.shouldHelp()  ||  cmdline.shouldList()  ||  cmdline.shouldListWithParams()  ||
+            cmdline.shouldListProfilers()  ||  cmdline.shouldListResultFormats())
+        {   // Let the JMH main handle these
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        final OptionsBuilder options = new OptionsBuilder();
+        options.parent(cmdline);
+        if (! cmdline.getResultFormat().hasValue())
+            options.resultFormat(ResultFormatType.JSON);
+        if (! cmdline.getResult().hasValue())
+            options.result(RESULT_FILE);
+        if (cmdline.getIncludes().isEmpty())
+            options.include(PVABenchmarks.class.getPackageName() + ".*");
+
+        final Options opts = options.build();
+        new Runner(opts).run();
+    }
+}
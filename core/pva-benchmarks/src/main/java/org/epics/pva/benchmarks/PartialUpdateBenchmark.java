@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+import org.epics.pva.data.PVABitSet;
+import org.epics.pva.data.PVADouble;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.data.PVATypeRegistry;
+import org.epics.pva.data.nt.PVATimeStamp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Bitset-driven partial updates
+ *
+ *  <p>Like a server, determines which elements changed via
+ *  {@link PVAStructure#update(PVAStructure)} and encodes the changed
+ *  bits followed by only the changed elements.
+ *  Like a client, decodes that via {@link PVABitSet#decodeBitSet(ByteBuffer)}
+ *  and {@link PVAStructure#decodeElements(BitSet, PVATypeRegistry, ByteBuffer)}.
+ *
+ *  <p>Updates alternate between two values which differ in the time stamp
+ *  and one scalar, while large arrays remain unchanged.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartialUpdateBenchmark
+{
+    @Param({ "scalar", "array_1k", "array_1M", "ntndarray", "nested" })
+    public String sample;
+
+    private PVAStructure data, received;
+    private final PVAStructure[] updates = new PVAStructure[2];
+    private int next = 0;
+    private ByteBuffer buffer, encoded;
+    private BitSet changes;
+    private final PVATypeRegistry types = new PVATypeRegistry();
+
+    @Setup
+    public void setup() throws Exception
+    {
+        data = Samples.create(sample);
+        received = data.cloneData();
+        for (int i=0; i<updates.length; ++i)
+        {
+            updates[i] = data.cloneData();
+            PVATimeStamp.set(updates[i], Instant.ofEpochSecond(1000 + i, i));
+            final PVADouble value = "nested".equals(sample)
+                                  ? updates[i].locate("motor3.position")
+                                  : updates[i].get("value") instanceof PVADouble ? updates[i].get("value") : null;
+            if (value != null)
+                value.set(i);
+        }
+
+        // Buffer for the full value, more than enough for partial updates
+        buffer = ByteBuffer.allocate(Samples.encodeValue(data).length + 1024).order(Samples.ORDER);
+
+        // Encoded partial update for the decode benchmark
+        changes = data.update(updates[0]);
+        changes = data.update(updates[1]);
+        encodeChanges();
+        buffer.flip();
+        encoded = ByteBuffer.allocate(buffer.remaining()).order(Samples.ORDER);
+        encoded.put(buffer);
+        encoded.flip();
+    }
+
+    private ByteBuffer encodeChanges() throws Exception
+    {
+        buffer.clear();
+        PVABitSet.encodeBitSet(changes, buffer);
+        for (int i = changes.nextSetBit(0);  i >= 0;  i = changes.nextSetBit(i + 1))
+            data.get(i).encode(buffer);
+        return buffer;
+    }
+
+    /** Server side: Detect changes, encode them */
+    @Benchmark
+    public ByteBuffer updateAndEncode() throws Exception
+    {
+        changes = data.update(updates[next]);
+        next = 1 - next;
+        return encodeChanges();
+    }
+
+    /** Client side: Decode changes into last known value */
+    @Benchmark
+    public PVAStructure decode() throws Exception
+    {
+        encoded.rewind();
+        final BitSet received_changes = PVABitSet.decodeBitSet(encoded);
+        received.decodeElements(received_changes, types, encoded);
+        return received;
+    }
+
+    /** Encoding and decoding of the bitset alone */
+    @Benchmark
+    public BitSet bitSet()
+    {
+        buffer.clear();
+        PVABitSet.encodeBitSet(changes, buffer);
+        buffer.flip();
+        return PVABitSet.decodeBitSet(buffer);
+    }
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.benchmarks;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.epics.pva.data.PVABool;
+import org.epics.pva.data.PVAData;
+import org.epics.pva.data.PVADouble;
+import org.epics.pva.data.PVADoubleArray;
+import org.epics.pva.data.PVAInt;
+import org.epics.pva.data.PVALong;
+import org.epics.pva.data.PVAShortArray;
+import org.epics.pva.data.PVAString;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.data.PVAStructureArray;
+import org.epics.pva.data.PVAUnion;
+import org.epics.pva.data.nt.PVATimeStamp;
+
+/** Sample data for benchmarks */
+@SuppressWarnings("nls")
+class Samples
+{
+    /** Byte order used by benchmarks */
+    static final ByteOrder ORDER = ByteOrder.nativeOrder();
+
+    private static PVAStructure alarm()
+    {
+        return new PVAStructure("alarm", "alarm_t",
+                                new PVAInt("severity", 0),
+                                new PVAInt("status", 0),
+                                new PVAString("message", "NO_ALARM"));
+    }
+
+    /** @param value Value element
+     *  @return NTScalar or NTScalarArray with alarm and time stamp
+     */
+    static PVAStructure ntScalar(final PVAData value)
+    {
+        final String type = value instanceof PVADoubleArray ? "epics:nt/NTScalarArray:1.0" : "epics:nt/NTScalar:1.0";
+        return new PVAStructure("", type, value, alarm(), new PVATimeStamp());
+    }
+
+    private static PVAStructure dimension(final int size)
+    {
+        return new PVAStructure("", "dimension_t",
+                                new PVAInt("size", size),
+                                new PVAInt("offset", 0),
+                                new PVAInt("fullSize", size),
+                                new PVAInt("binning", 1),
+                                new PVABool("reverse", false));
+    }
+
+    /** @param width Image width and height
+     *  @return NTNDArray with 16 bit pixels
+     */
+    static PVAStructure ntNDArray(final int width)
+    {
+        final short[] pixels = new short[width * width];
+        for (int i=0; i<pixels.length; ++i)
+            pixels[i] = (short) (i % width + i / width);
+        final PVAStructure attribute = new PVAStructure("", "epics:nt/NTAttribute:1.0",
+                                                        new PVAString("name", "ColorMode"),
+                                                        new PVAUnion("value", "", 0, new PVAInt("value", 0)),
+                                                        new PVAString("descriptor", "Color mode"),
+                                                        new PVAInt("sourceType", 0),
+                                                        new PVAString("source", ""));
+        return new PVAStructure("", "epics:nt/NTNDArray:1.0",
+                                new PVAUnion("value", "", 1,
+                                             new PVADoubleArray("doubleValue"),
+                                             new PVAShortArray("ushortValue", true, pixels)),
+                                new PVAStructure("codec", "codec_t",
+                                                 new PVAString("name", ""),
+                                                 new PVAUnion("parameters", "", 0, new PVAInt("value", 0))),
+                                new PVALong("compressedSize", false, 2L * pixels.length),
+                                new PVALong("uncompressedSize", false, 2L * pixels.length),
+                                new PVAStructureArray("dimension", dimension(0), dimension(width), dimension(width)),
+                                new PVAInt("uniqueId", 1),
+                                new PVATimeStamp("dataTimeStamp"),
+                                new PVAStructureArray("attribute", attribute, attribute.cloneData()),
+                                alarm(),
+                                new PVATimeStamp());
+    }
+
+    /** @return Structure with nested sub-structures and a structure array */
+    static PVAStructure nested()
+    {
+        final List<PVAData> motors = new ArrayList<>();
+        for (int m=0; m<8; ++m)
+            motors.add(new PVAStructure("motor" + m, "motor_t",
+                                        new PVADouble("position", m),
+                                        new PVADouble("setpoint", m),
+                                        new PVABool("moving", false),
+                                        new PVAStructure("limits", "limits_t",
+                                                         new PVADouble("low", -100),
+                                                         new PVADouble("high", 100)),
+                                        alarm()));
+        final PVAStructure[] samples = new PVAStructure[10];
+        for (int i=0; i<samples.length; ++i)
+            samples[i] = new PVAStructure("", "sample_t",
+                                          new PVAString("name", "sample" + i),
+                                          new PVADouble("x", i),
+                                          new PVADouble("y", -i));
+        motors.add(new PVAStructureArray("samples", samples[0], samples));
+        motors.add(new PVATimeStamp());
+        return new PVAStructure("", "beamline_t", motors);
+    }
+
+    /** @param kind "scalar", "array_1k", "array_1M", "ntndarray" or "nested"
+     *  @return Sample data
+     */
+    static PVAStructure create(final String kind)
+    {
+        switch (kind)
+        {
+        case "scalar":
+            return ntScalar(new PVADouble("value", 3.14));
+        case "array_1k":
+            return ntScalar(new PVADoubleArray("value", new double[1000]));
+        case "array_1M":
+            return ntScalar(new PVADoubleArray("value", new double[1000000]));
+        case "ntndarray":
+            return ntNDArray(1024);
+        case "nested":
+            return nested();
+        default:
+            throw new IllegalArgumentException("Unknown sample " + kind);
+        }
+    }
+
+    /** Encoder, may throw {@link BufferOverflowException} */
+    @FunctionalInterface
+    interface Encoder
+    {
+        void encode(ByteBuffer buffer) throws Exception;
+    }
+
+    /** @param encoder Encoder
+     *  @return Buffer large enough for encoded data, positioned after the data
+     *  @throws Exception on error
+     */
+    static ByteBuffer encode(final Encoder encoder) throws Exception
+    {
+        int size = 1024;
+        while (true)
+        {
+            final ByteBuffer buffer = ByteBuffer.allocate(size).order(ORDER);
+            try
+            {
+                encoder.encode(buffer);
+                return buffer;
+            }
+            catch (BufferOverflowException ex)
+            {
+                size *= 2;
+            }
+        }
+    }
+
+    /** @param data Data
+     *  @return Encoded type description
+     *  @throws Exception on error
+     */
+    static byte[] encodeType(final PVAStructure data) throws Exception
+    {
+        final ByteBuffer buffer = encode(b -> data.encodeType(b, new BitSet()));
+        buffer.flip();
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /** @param data Data
+     *  @return Encoded value
+     *  @throws Exception on error
+     */
+    static byte[] encodeValue(final PVAStructure data) throws Exception
+    {
+        final ByteBuffer buffer = encode(data::encode);
+        buffer.flip();
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.epics.pva.data.PVAString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** {@link PVAString} encoding and decoding
+ *
+ *  <p>Strings are part of every type description,
+ *  search request and many values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringBenchmark
+{
+    /** Length of string */
+    @Param({ "8", "40", "1000" })
+    public int length;
+
+    private String text;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup()
+    {
+        final StringBuilder buf = new StringBuilder();
+        for (int i=0; i<length; ++i)
+            buf.append((char) ('a' + i % 26));
+        text = buf.toString();
+        buffer = ByteBuffer.allocate(PVAString.getEncodedSize(text)).order(Samples.ORDER);
+        PVAString.encodeString(text, buffer);
+    }
+
+    @Benchmark
+    public ByteBuffer encode()
+    {
+        buffer.clear();
+        PVAString.encodeString(text, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public String decode()
+    {
+        buffer.rewind();
+        return PVAString.decodeString(buffer);
+    }
+}
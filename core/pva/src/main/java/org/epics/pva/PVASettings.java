@@ -127,6 +127,15 @@ public class PVASettings
     /** PVA server port for name searches and beacons */
     public static int EPICS_PVAS_BROADCAST_PORT = EPICS_PVA_BROADCAST_PORT;
 
+    /** Number of updates that the PVA server queues for each monitor subscription
+     *
+     *  <p>Used unless the client requests a queue size via
+     *  <code>record._options.queueSize</code>, for example when pipelining.
+     *  Once the queue is full, further updates are combined,
+     *  which the client sees as overruns.
+     */
+    public static int EPICS_PVAS_MONITOR_QUEUE_SIZE = 4;
+
     /** Multicast address used for the local re-send of IPv4 unicasts */
     public static String EPICS_PVA_MULTICAST_GROUP = "224.0.0.128";
 
@@ -139,6 +148,15 @@ public class PVASettings
     // double[8 million] plus some protocol overhead
     public static int EPICS_PVA_SEND_BUFFER_SIZE = 8001000;
 
+    /** Maximum delay in microseconds for combining queued messages into one TCP write
+     *
+     *  <p>The sender always combines messages that are already queued.
+     *  With a delay &gt; 0, it waits up to that long for more messages
+     *  before writing a partially filled batch to the socket.
+     *  Only used with the default thread-per-socket transport.
+     */
+    public static int EPICS_PVA_SEND_FLUSH_DELAY = 0;
+
     /** Initial TCP buffer size for receiving data
      *
      *  <p>Buffer grows when larger packages are received.
@@ -161,6 +179,18 @@ public class PVASettings
     /** (Initial) TCP buffer size */
     public static final int TCP_BUFFER_SIZE = 1024 * 16;
 
+    /** Number of threads that handle TCP connections via NIO selectors
+     *
+     *  <p>By default (0), each TCP connection of client or server
+     *  uses one thread to receive and one thread to send.
+     *  When set to a positive number, all TCP connections
+     *  are instead handled by that many shared selector threads,
+     *  which scales better to thousands of connections.
+     *  Since received messages are then handled on a shared thread,
+     *  for example clients must not block in their monitor listeners.
+     */
+    public static int EPICS_PVA_TCP_SELECTOR_THREADS = 0;
+
     /** Connection timeout [seconds]
      *
      * <p>When approaching this time without having received a new value,
@@ -171,6 +201,17 @@ public class PVASettings
     /** Maximum number of array elements shown when printing data */
     public static int EPICS_PVA_MAX_ARRAY_FORMATTING = 256;
 
+    /** File for caching the server address of each channel
+     *
+     *  <p>When set, the client saves the server address and GUID
+     *  of channels found via search when it is closed.
+     *  On the next start, channels listed in the file are
+     *  first created directly on the cached server,
+     *  falling back to a search if that fails.
+     *  Empty to disable the cache.
+     */
+    public static String EPICS_PVA_CHANNEL_CACHE = "";
+
     /** Range of beacon periods in seconds recognized as "fast, new" beacons
      *  that re-start searches for disconnected channels.
      *
@@ -198,6 +239,24 @@ public class PVASettings
      */
     public static int EPICS_PVA_MAX_BEACON_AGE = 300;
 
+    /** Register the metrics of TCP connections, channels and subscriptions with JMX?
+     *
+     *  <p>Metrics are always collected and can be listed via
+     *  {@link org.epics.pva.common.PVAMetrics#getAll()}.
+     *  When enabled, each component also registers an MBean,
+     *  which adds overhead to clients or servers with many channels.
+     */
+    public static boolean EPICS_PVA_METRICS_JMX = false;
+
+    /** Name of PV for serving the metrics of a PVA server
+     *
+     *  <p>When set, the server provides an NTTable PV of that name
+     *  with the metrics of all components in the JVM,
+     *  and an RPC PV "...:call" to fetch filtered metrics.
+     *  Empty to disable.
+     */
+    public static String EPICS_PVAS_METRICS_PV = "";
+
     static
     {
         EPICS_PVA_ADDR_LIST = get("EPICS_PVA_ADDR_LIST", EPICS_PVA_ADDR_LIST);
@@ -207,12 +266,18 @@ public class PVASettings
         EPICS_PVAS_INTF_ADDR_LIST = get("EPICS_PVAS_INTF_ADDR_LIST", EPICS_PVAS_INTF_ADDR_LIST).trim();
         EPICS_PVA_BROADCAST_PORT = get("EPICS_PVA_BROADCAST_PORT", EPICS_PVA_BROADCAST_PORT);
         EPICS_PVAS_BROADCAST_PORT = get("EPICS_PVAS_BROADCAST_PORT", EPICS_PVAS_BROADCAST_PORT);
+        EPICS_PVAS_MONITOR_QUEUE_SIZE = get("EPICS_PVAS_MONITOR_QUEUE_SIZE", EPICS_PVAS_MONITOR_QUEUE_SIZE);
         EPICS_PVA_CONN_TMO = get("EPICS_PVA_CONN_TMO", EPICS_PVA_CONN_TMO);
         EPICS_PVA_MAX_ARRAY_FORMATTING = get("EPICS_PVA_MAX_ARRAY_FORMATTING", EPICS_PVA_MAX_ARRAY_FORMATTING);
         EPICS_PVA_SEND_BUFFER_SIZE = get("EPICS_PVA_SEND_BUFFER_SIZE", EPICS_PVA_SEND_BUFFER_SIZE);
+        EPICS_PVA_SEND_FLUSH_DELAY = get("EPICS_PVA_SEND_FLUSH_DELAY", EPICS_PVA_SEND_FLUSH_DELAY);
+        EPICS_PVA_TCP_SELECTOR_THREADS = get("EPICS_PVA_TCP_SELECTOR_THREADS", EPICS_PVA_TCP_SELECTOR_THREADS);
+        EPICS_PVA_CHANNEL_CACHE = get("EPICS_PVA_CHANNEL_CACHE", EPICS_PVA_CHANNEL_CACHE).trim();
         EPICS_PVA_FAST_BEACON_MIN = get("EPICS_PVA_FAST_BEACON_MIN", EPICS_PVA_FAST_BEACON_MIN);
         EPICS_PVA_FAST_BEACON_MAX = get("EPICS_PVA_FAST_BEACON_MAX", EPICS_PVA_FAST_BEACON_MAX);
         EPICS_PVA_MAX_BEACON_AGE = get("EPICS_PVA_MAX_BEACON_AGE", EPICS_PVA_MAX_BEACON_AGE);
+        EPICS_PVA_METRICS_JMX = get("EPICS_PVA_METRICS_JMX", EPICS_PVA_METRICS_JMX);
+        EPICS_PVAS_METRICS_PV = get("EPICS_PVAS_METRICS_PV", EPICS_PVAS_METRICS_PV).trim();
     }
 
     /** Get setting from property, environment or default
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.client;
+
+import static org.epics.pva.PVASettings.logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import org.epics.pva.PVASettings;
+import org.epics.pva.server.Guid;
+
+/** Cache of channel names and the server that hosted them
+ *
+ *  <p>Allows the {@link PVAClient} to create channels
+ *  right away on the server that last hosted them,
+ *  without first searching.
+ *
+ *  <p>Entries are learned from search replies,
+ *  removed when a channel cannot be created on the cached server,
+ *  and invalidated when a beacon reveals a new server GUID
+ *  for a cached address.
+ *
+ *  <p>The cache is read from and saved to a file,
+ *  see {@link PVASettings#EPICS_PVA_CHANNEL_CACHE}.
+ *  Each line holds the channel name, server IP address, TCP port and GUID,
+ *  separated by tabs.
+ */
+@SuppressWarnings("nls")
+class ChannelCache
+{
+    /** Cached server info for one channel */
+    static class Entry
+    {
+        /** Server's TCP address */
+        final InetSocketAddress address;
+
+        /** Server's unique ID */
+        final Guid guid;
+
+        Entry(final InetSocketAddress address, final Guid guid)
+        {
+            this.address = address;
+            this.guid = guid;
+        }
+
+        @Override
+        public String toString()
+        {
+            return address + " " + guid;
+        }
+    }
+
+    private final Path file;
+
+    /** Cached entries by channel name */
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** Create cache, reading existing file
+     *  @param file File for the cache
+     */
+    ChannelCache(final Path file)
+    {
+        this.file = file;
+        if (! Files.exists(file))
+            return;
+        try
+        (
+            BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        )
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                final String[] items = line.split("\t");
+                if (items.length != 4)
+                {
+                    logger.log(Level.WARNING, "Ignoring invalid channel cache entry '" + line + "' in " + file);
+                    continue;
+                }
+                // Addresses are saved as IP literals, no name lookup
+                final InetSocketAddress address = new InetSocketAddress(InetAddress.getByName(items[1]), Integer.parseInt(items[2]));
+                entries.put(items[0], new Entry(address, Guid.fromText(items[3])));
+            }
+            logger.log(Level.CONFIG, "Read " + entries.size() + " entries from channel cache " + file);
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot read channel cache " + file, ex);
+            entries.clear();
+        }
+    }
+
+    /** @param name Channel name
+     *  @return Cached {@link Entry} or <code>null</code>
+     */
+    Entry get(final String name)
+    {
+        return entries.get(name);
+    }
+
+    /** @param name Channel name
+     *  @param address Server that replied to search for the channel
+     *  @param guid Server's GUID
+     */
+    void put(final String name, final InetSocketAddress address, final Guid guid)
+    {
+        // Skip names that cannot be saved
+        if (name.indexOf('\t') >= 0  ||  name.indexOf('\n') >= 0)
+            return;
+        entries.put(name, new Entry(address, guid));
+    }
+
+    /** @param name Channel name that should no longer be cached */
+    void remove(final String name)
+    {
+        if (entries.remove(name) != null)
+            logger.log(Level.FINE, () -> "Removed '" + name + "' from channel cache");
+    }
+
+    /** Remove entries for a server
+     *
+     *  @param address Server address
+     *  @param guid GUID of the server that now uses that address,
+     *              <code>null</code> to remove all entries for the address
+     *  @return Number of removed entries
+     */
+    int invalidate(final InetSocketAddress address, final Guid guid)
+    {
+        int removed = 0;
+        final Iterator<Entry> iter = entries.values().iterator();
+        while (iter.hasNext())
+        {
+            final Entry entry = iter.next();
+            if (entry.address.equals(address)  &&  (guid == null  ||  ! guid.equals(entry.guid)))
+            {
+                iter.remove();
+                ++removed;
+            }
+        }
+        if (removed > 0)
+        {
+            final int count = removed;
+            logger.log(Level.FINE, () -> "Removed " + count + " channel cache entries for " + address + (guid == null ? "" : ", now " + guid));
+        }
+        return removed;
+    }
+
+    /** @return Number of cached channels */
+    int size()
+    {
+        return entries.size();
+    }
+
+    /** Save cache to file
+     *
+     *  <p>Writes a temporary file, then replaces the cache file with it.
+     *
+     *  @throws Exception on error
+     */
+    void save() throws Exception
+    {
+        final Path parent = file.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+        final Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try
+        (
+            BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8);
+        )
+        {
+            for (Map.Entry<String, Entry> item : entries.entrySet())
+            {
+                final Entry entry = item.getValue();
+                writer.write(item.getKey());
+                writer.write('\t');
+                writer.write(entry.address.getAddress().getHostAddress());
+                writer.write('\t');
+                writer.write(Integer.toString(entry.address.getPort()));
+                writer.write('\t');
+                writer.write(entry.guid.asText());
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.log(Level.FINE, () -> "Saved " + entries.size() + " entries to channel cache " + file);
+    }
+}
@@ -404,6 +404,10 @@ class ChannelSearch
      */
     private void search(final Collection<SearchRequest.Channel> channels)
     {
+        for (SearchRequest.Channel channel : channels)
+            if (channel instanceof PVAChannel)
+                ((PVAChannel) channel).countSearch();
+
         // Search via TCP
         for (AddressInfo name_server : name_server_addresses)
         {
@@ -114,6 +114,7 @@ class ClientTCPHandler extends TCPHandler
         // Don't start the send thread, yet.
         // To prevent sending messages before the server is ready,
         // it's started when server confirms the connection.
+        startReceiver();
     }
 
     private static SocketChannel createSocket(InetSocketAddress address) throws Exception
@@ -197,11 +198,10 @@ class ClientTCPHandler extends TCPHandler
     }
 
     @Override
-    protected void send(ByteBuffer buffer) throws Exception
+    protected void onSend()
     {
         // Remember when we last sent a message to the server
         last_message_sent = System.currentTimeMillis();
-        super.send(buffer);
     }
 
     ResponseHandler getResponseHandler(final int request_id)
@@ -50,9 +50,12 @@ class CreateChannelHandler implements CommandHandler<ClientTCPHandler>
         {
             logger.log(Level.WARNING, "Failed to create channel " + channel + ": " + status);
 
-            // Reset channel to init state and search again, after delay
-            channel.setState(ClientChannelState.INIT);
-            tcp.getClient().search.register(channel, false);
+            // Server that was cached for the channel no longer has it
+            tcp.getClient().forgetCachedChannel(channel);
+
+            // Detach channel from this server and search again, after delay
+            if (channel.resetConnection())
+                tcp.getClient().search.register(channel, false);
         }
     }
 }
@@ -12,10 +12,14 @@ import static org.epics.pva.PVASettings.logger;
 import java.nio.ByteBuffer;
 import java.util.BitSet;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
 import org.epics.pva.common.PVAHeader;
+import org.epics.pva.common.PVAHistogram;
+import org.epics.pva.common.PVAMetrics;
 import org.epics.pva.common.RequestEncoder;
+import org.epics.pva.data.PVAArray;
 import org.epics.pva.data.PVABitSet;
 import org.epics.pva.data.PVAData;
 import org.epics.pva.data.PVAStatus;
@@ -55,19 +59,41 @@ class MonitorRequest implements AutoCloseable, RequestEncoder, ResponseHandler
     private final int pipeline;
     private final AtomicInteger received_updates = new AtomicInteger();
 
+    /** Decode arrays of 'data' into double-buffered storage? */
+    private final boolean double_buffered;
+
+    /** Metrics of this subscription */
+    private final PVAMetrics metrics;
+
+    /** Number of received updates */
+    private final LongAdder updates;
+
+    /** Number of updates where the server reported overruns */
+    private final LongAdder overruns;
+
+    /** Time spent decoding an update [ns] */
+    private final PVAHistogram decode_ns;
+
     /** @param channel Channel to 'monitor'
      *  @param request Request string to monitor only selected fields of PV
      *  @param pipeline Number of updates that server should pipeline, 0 to disable
+     *  @param double_buffered Decode arrays into re-used, double-buffered storage?
      *  @param listener Listener to invoke with received updates
      *  @throws Exception on error
      */
-    public MonitorRequest(final PVAChannel channel, final String request, final int pipeline, final MonitorListener listener) throws Exception
+    public MonitorRequest(final PVAChannel channel, final String request, final int pipeline,
+                          final boolean double_buffered, final MonitorListener listener) throws Exception
     {
         this.channel = channel;
         this.request = request;
         this.pipeline = pipeline;
+        this.double_buffered = double_buffered;
         this.listener = listener;
         this.request_id = channel.getClient().allocateRequestID();
+        metrics = PVAMetrics.create(PVAMetrics.SUBSCRIPTION, channel.getName() + " #" + request_id);
+        updates = metrics.counter("updates");
+        overruns = metrics.counter("overruns");
+        decode_ns = metrics.histogram("decode_ns");
         channel.getTCP().submit(this, this);
     }
 
@@ -162,6 +188,8 @@ class MonitorRequest implements AutoCloseable, RequestEncoder, ResponseHandler
                 if (type instanceof PVAStructure)
                 {
                     data = (PVAStructure)type;
+                    if (double_buffered)
+                        setDoubleBuffered(data);
                     logger.log(Level.FINER, () -> "Introspection Info: " + data.formatType());
                 }
                 else
@@ -209,6 +237,18 @@ class MonitorRequest implements AutoCloseable, RequestEncoder, ResponseHandler
         }
     }
 
+    /** @param structure Structure where all arrays are set to double-buffered decoding */
+    private static void setDoubleBuffered(final PVAStructure structure)
+    {
+        for (PVAData element : structure.get())
+        {
+            if (element instanceof PVAArray)
+                ((PVAArray) element).setDoubleBuffered(true);
+            else if (element instanceof PVAStructure)
+                setDoubleBuffered((PVAStructure) element);
+        }
+    }
+
     private void decodeValueUpdate(final ByteBuffer buffer) throws Exception
     {
         if (channel.getState() != ClientChannelState.CONNECTED)
@@ -227,18 +267,30 @@ class MonitorRequest implements AutoCloseable, RequestEncoder, ResponseHandler
         final BitSet changes = PVABitSet.decodeBitSet(buffer);
 
         // 2) Decode those elements
+        final long start = System.nanoTime();
         data.decodeElements(changes, channel.getTCP().getTypeRegistry(), buffer);
+        decode_ns.record(System.nanoTime() - start);
+        updates.increment();
 
         final BitSet overrun = PVABitSet.decodeBitSet(buffer);
         logger.log(Level.FINER, () -> "Overruns: " + overrun);
+        if (! overrun.isEmpty())
+            overruns.increment();
 
         // Notify listener of latest value
         listener.handleMonitor(channel, changes, overrun, data);
     }
 
+    /** @return Metrics of this subscription */
+    PVAMetrics getMetrics()
+    {
+        return metrics;
+    }
+
     @Override
     public void close() throws Exception
     {
+        metrics.close();
         final ClientTCPHandler tcp = channel.tcp.get();
         // If TCP connection is already closed, no need nor way to cancel the subscription
         if (tcp == null)
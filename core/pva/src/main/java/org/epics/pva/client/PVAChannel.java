@@ -15,8 +15,10 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
+import org.epics.pva.common.PVAMetrics;
 import org.epics.pva.common.SearchRequest;
 import org.epics.pva.data.PVADouble;
 import org.epics.pva.data.PVAString;
@@ -71,11 +73,24 @@ public class PVAChannel extends SearchRequest.Channel implements AutoCloseable
 
     private final CopyOnWriteArrayList<MonitorRequest> subscriptions = new CopyOnWriteArrayList<>();
 
+    /** Metrics of this channel */
+    private final PVAMetrics metrics;
+
+    /** Number of times the channel was included in a search */
+    private final LongAdder searches;
+
+    /** Number of times the channel connected */
+    private final LongAdder connects;
+
     PVAChannel(final PVAClient client, final String name, final ClientChannelListener listener)
     {
         super(CID_Provider.incrementAndGet(), name);
         this.client = client;
         this.listener = listener;
+        metrics = PVAMetrics.create(PVAMetrics.CHANNEL, name);
+        searches = metrics.counter("searches");
+        connects = metrics.counter("connects");
+        metrics.gauge("subscriptions", subscriptions::size);
     }
 
     PVAClient getClient()
@@ -97,6 +112,18 @@ public class PVAChannel extends SearchRequest.Channel implements AutoCloseable
         return sid;
     }
 
+    /** @return Metrics of this channel */
+    public PVAMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /** Called by {@link ChannelSearch} when channel is included in a search request */
+    void countSearch()
+    {
+        searches.increment();
+    }
+
     /** @return {@link ClientChannelState} */
     public ClientChannelState getState()
     {
@@ -170,6 +197,7 @@ public class PVAChannel extends SearchRequest.Channel implements AutoCloseable
         if (state.compareAndSet(ClientChannelState.FOUND, ClientChannelState.CONNECTED))
         {
             this.sid = sid;
+            connects.increment();
             logger.log(Level.FINE, () -> "Received create channel reply " + this + ", SID " + sid);
             connected.complete(true);
             synchronized (state)
@@ -270,11 +298,34 @@ public class PVAChannel extends SearchRequest.Channel implements AutoCloseable
      *  @throws Exception on error
      */
     public AutoCloseable subscribe(final String request, final int pipeline, final MonitorListener listener) throws Exception
+    {
+        return subscribe(request, pipeline, false, listener);
+    }
+
+    /** Start a subscription with optional double-buffered array decoding
+     *
+     *  <p>When double-buffered, numeric arrays in the received data
+     *  are decoded into arrays owned by the subscription, which are
+     *  re-used for subsequent updates of the same size.
+     *  Steady-state updates thus do not allocate new arrays,
+     *  but the listener must not hold on to an array value
+     *  beyond the next call to its
+     *  {@link MonitorListener#handleMonitor(PVAChannel, java.util.BitSet, java.util.BitSet, PVAStructure)}.
+     *
+     *  @param request Request, "" for all fields, or "field_a, field_b.subfield"
+     *  @param pipeline Number of updates to pipeline, 0 to disable
+     *  @param double_buffered Decode arrays into re-used buffers?
+     *  @param listener Will be invoked with channel and latest value
+     *  @return {@link AutoCloseable}, used to close the subscription
+     *  @throws Exception on error
+     *  @see org.epics.pva.data.PVAArray#setDoubleBuffered(boolean)
+     */
+    public AutoCloseable subscribe(final String request, final int pipeline, final boolean double_buffered, final MonitorListener listener) throws Exception
     {
         // MonitorRequest submits itself to TCPHandler
         // and registers as response handler,
         // so we can later retrieve it via its requestID
-        final MonitorRequest subscription = new MonitorRequest(this, request, pipeline, listener);
+        final MonitorRequest subscription = new MonitorRequest(this, request, pipeline, double_buffered, listener);
         subscriptions.add(subscription);
         return subscription;
     }
@@ -330,6 +381,8 @@ public class PVAChannel extends SearchRequest.Channel implements AutoCloseable
         if (copy != null)
             for (MonitorRequest subscription : subscriptions)
                 copy.removeResponseHandler(subscription.getRequestID());
+        for (MonitorRequest subscription : subscriptions)
+            subscription.getMetrics().close();
         subscriptions.clear();
     }
 
@@ -339,6 +392,7 @@ public class PVAChannel extends SearchRequest.Channel implements AutoCloseable
     {
         // In case channel is still being searched, stop
         client.search.unregister(getCID());
+        metrics.close();
 
         // Indicate that channel is closing
         final ClientChannelState old_state = setState(ClientChannelState.CLOSING);
@@ -10,9 +10,12 @@ package org.epics.pva.client;
 import static org.epics.pva.PVASettings.logger;
 
 import java.net.InetSocketAddress;
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
@@ -46,6 +49,9 @@ public class PVAClient implements AutoCloseable
     /** Default channel listener logs state changes */
     private static final ClientChannelListener DEFAULT_CHANNEL_LISTENER = (ch, state) ->  logger.log(Level.INFO, ch.toString());
 
+    /** Seconds to wait for a channel to be created on the cached server before searching */
+    private static final int CACHED_CONNECT_TIMEOUT = 5;
+
     private final ClientUDPHandler udp;
 
     private final BeaconTracker beacons = new BeaconTracker();
@@ -62,6 +68,12 @@ public class PVAClient implements AutoCloseable
 
     private final AtomicInteger request_ids = new AtomicInteger();
 
+    /** Cache of channel servers, <code>null</code> if not enabled */
+    private final ChannelCache cache;
+
+    /** Thread for connecting to cached servers, <code>null</code> if cache not enabled */
+    private final ScheduledExecutorService cache_connector;
+
     /** Create a new PVAClient
      *
      *  <p>The {@link PVAClient} maintain PVs and coordinates the necessary search requests.
@@ -106,6 +118,23 @@ public class PVAClient implements AutoCloseable
             });
         search = new ChannelSearch(udp, udp_search_addresses, tcp_provider, name_server_addresses);
 
+        if (PVASettings.EPICS_PVA_CHANNEL_CACHE.isEmpty())
+        {
+            cache = null;
+            cache_connector = null;
+        }
+        else
+        {
+            cache = new ChannelCache(Paths.get(PVASettings.EPICS_PVA_CHANNEL_CACHE));
+            // Connecting to a server may block, so use separate thread
+            cache_connector = Executors.newSingleThreadScheduledExecutor(run ->
+            {
+                final Thread thread = new Thread(run, "PVA Channel Cache");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
         udp.start();
         search.start();
     }
@@ -169,11 +198,85 @@ public class PVAClient implements AutoCloseable
         final PVAChannel channel = new PVAChannel(this, channel_name, listener);
         channels_by_id.putIfAbsent(channel.getCID(), channel);
 
-        // Register with search
-        search.register(channel, true);
+        // Try server that last hosted the channel, or register with search
+        final ChannelCache.Entry cached = cache == null ? null : cache.get(channel_name);
+        if (cached == null)
+            search.register(channel, true);
+        else
+            cache_connector.execute(() -> connectCached(channel, cached));
         return channel;
     }
 
+    /** Create channel on cached server
+     *
+     *  <p>Falls back to searching the channel when
+     *  the server cannot be reached, or the channel is
+     *  not created within {@link #CACHED_CONNECT_TIMEOUT}.
+     *
+     *  @param channel Channel to create
+     *  @param cached Cached server info for the channel
+     */
+    private void connectCached(final PVAChannel channel, final ChannelCache.Entry cached)
+    {
+        // Channel closed while waiting to connect?
+        if (channel.getState() != ClientChannelState.INIT)
+            return;
+
+        final ClientTCPHandler tcp = tcp_handlers.computeIfAbsent(cached.address, addr ->
+        {
+            try
+            {
+                return new ClientTCPHandler(this, addr, cached.guid);
+            }
+            catch (Exception ex)
+            {
+                logger.log(Level.FINE, "Cannot connect to cached server " + addr, ex);
+            }
+            return null;
+        });
+        if (tcp == null)
+        {   // Server is unreachable, don't try it for other channels
+            cache.invalidate(cached.address, null);
+            search.register(channel, true);
+            return;
+        }
+        if (tcp.updateGuid(cached.guid))
+            logger.log(Level.FINE, "Search-only TCP handler received GUID from cache, now " + tcp);
+        else if (! tcp.getGuid().equals(cached.guid))
+        {   // A different server now uses that address
+            cache.remove(channel.getName());
+            search.register(channel, true);
+            return;
+        }
+
+        logger.log(Level.FINE, () -> "Creating " + channel + " on cached server " + cached);
+        channel.setState(ClientChannelState.FOUND);
+        channel.registerWithServer(tcp);
+
+        cache_connector.schedule(() ->
+        {
+            if (channel.getState() == ClientChannelState.FOUND  &&  channel.tcp.get() == tcp)
+            {
+                logger.log(Level.FINE, () -> "Cached server " + cached + " did not create " + channel + ", searching");
+                forgetCachedChannel(channel);
+                if (channel.resetConnection())
+                    search.register(channel, true);
+            }
+        }, CACHED_CONNECT_TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    /** Remove channel from cache
+     *
+     *  <p>Called when channel could not be created on the cached server
+     *
+     *  @param channel Channel that should no longer be cached
+     */
+    void forgetCachedChannel(final PVAChannel channel)
+    {
+        if (cache != null)
+            cache.remove(channel.getName());
+    }
+
     /** Get channel by client ID
      *  @param cid Channel ID, using client's ID
      *  @return {@link PVAChannel}, may be <code>null</code>
@@ -214,6 +317,9 @@ public class PVAClient implements AutoCloseable
         // Does beacon suggest re-search of missing channels?
         if (beacons.check(guid, server, changes))
             search.boost();
+        // Forget cached channels when another server now uses that address
+        if (cache != null)
+            cache.invalidate(server, guid);
     }
 
     void handleSearchResponse(final int channel_id, final InetSocketAddress server, final int version, final Guid guid)
@@ -270,6 +376,8 @@ public class PVAClient implements AutoCloseable
                 logger.log(Level.FINE, "Search-only TCP handler received GUID, now " + tcp);
 
             channel.registerWithServer(tcp);
+            if (cache != null)
+                cache.put(channel.getName(), server, guid);
         }
     }
 
@@ -351,5 +459,18 @@ public class PVAClient implements AutoCloseable
             handler.close(true);
 
         udp.close();
+
+        if (cache != null)
+        {
+            cache_connector.shutdownNow();
+            try
+            {
+                cache.save();
+            }
+            catch (Exception ex)
+            {
+                logger.log(Level.WARNING, "Cannot save channel cache " + PVASettings.EPICS_PVA_CHANNEL_CACHE, ex);
+            }
+        }
     }
 }
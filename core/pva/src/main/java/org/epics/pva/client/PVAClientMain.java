@@ -17,6 +17,7 @@ import java.util.logging.Level;
 import java.util.logging.LogManager;
 
 import org.epics.pva.PVASettings;
+import org.epics.pva.common.PVAMetrics;
 import org.epics.pva.data.PVAData;
 
 /** Command line tool for PVA client
@@ -36,7 +37,7 @@ public class PVAClientMain
 
     private static void help()
     {
-        System.out.println("USAGE: pvaclient info|get|monitor|put|beacons [options] <PV name>...");
+        System.out.println("USAGE: pvaclient info|get|monitor|put|stats|beacons [options] <PV name>...");
         System.out.println();
         System.out.println("Options:");
         System.out.println("  -h             Help");
@@ -50,6 +51,7 @@ public class PVAClientMain
         System.out.println("get     <PV name>          Read PV's value");
         System.out.println("monitor <PV name>          Subscribe to PV's value changes");
         System.out.println("put     <PV name> <value>  Write value to PV");
+        System.out.println("stats   <PV name>          Subscribe to PV for wait time, then display client metrics");
         System.out.println("beacons                    Display received beacons");
     }
 
@@ -183,6 +185,47 @@ public class PVAClientMain
         }
     }
 
+    /** Subscribe to PVs for the wait time, then print metrics
+     *  @param names PV names
+     *  @throws Exception on error
+     */
+    private static void stats(final List<String> names) throws Exception
+    {
+        try (final PVAClient pva = new PVAClient())
+        {
+            final MonitorListener listener = (ch, changes, overruns, data) -> {};
+            final List<AutoCloseable> subscriptions = new ArrayList<>();
+            for (String name : names)
+                pva.getChannel(name, (ch, state) ->
+                {
+                    if (state == ClientChannelState.CONNECTED)
+                    {
+                        try
+                        {
+                            synchronized (subscriptions)
+                            {
+                                subscriptions.add(ch.subscribe(request, listener));
+                            }
+                        }
+                        catch (Exception ex)
+                        {
+                            System.err.println("Cannot subscribe to '" + ch.getName() + "'");
+                            ex.printStackTrace(System.err);
+                        }
+                    }
+                });
+
+            TimeUnit.MILLISECONDS.sleep(Math.round(seconds*1000));
+            System.out.print(PVAMetrics.formatAll());
+
+            synchronized (subscriptions)
+            {
+                for (AutoCloseable subscription : subscriptions)
+                    subscription.close();
+            }
+        }
+    }
+
     /** Get value for each PV on the list, then close PV
      *  @param name PV name
      *  @param value Desired value
@@ -322,6 +365,8 @@ public class PVAClientMain
             get(names);
         else if (command.equals("monitor") && names.size() > 0)
             monitor(names);
+        else if (command.equals("stats") && names.size() > 0)
+            stats(names);
         else if (command.equals("put") && names.size() == 2)
         {
             // By default, write to the 'value' element data structure
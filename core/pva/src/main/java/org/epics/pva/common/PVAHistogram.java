@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.common;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Histogram of non-negative values
+ *
+ *  <p>Values are counted in power-of-two buckets,
+ *  so percentiles are reported as the upper limit of the bucket
+ *  that holds them, i.e. within a factor of 2.
+ *  Recording a value is lock-free, updating a striped
+ *  count and sum as well as one bucket.
+ */
+@SuppressWarnings("nls")
+public class PVAHistogram
+{
+    /** Bucket i counts values below 2^i */
+    private static final int BUCKETS = 48;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /** @param value Value to add to histogram, negative values are counted as 0 */
+    public void record(final long value)
+    {
+        final long safe = Math.max(0, value);
+        buckets.incrementAndGet(Math.min(BUCKETS-1, 64 - Long.numberOfLeadingZeros(safe)));
+        count.increment();
+        sum.add(safe);
+        max.accumulate(safe);
+    }
+
+    /** @return Number of recorded values */
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    /** @return Average of recorded values, 0 if none */
+    public double getMean()
+    {
+        final long n = count.sum();
+        return n > 0 ? (double) sum.sum() / n : 0.0;
+    }
+
+    /** @return Largest recorded value */
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /** @param fraction Fraction 0..1 of values, for example 0.99 for the 99th percentile
+     *  @return Upper limit of values for that percentile
+     */
+    public long getPercentile(final double fraction)
+    {
+        long total = 0;
+        for (int i=0; i<BUCKETS; ++i)
+            total += buckets.get(i);
+        final long threshold = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i=0; i<BUCKETS; ++i)
+        {
+            seen += buckets.get(i);
+            if (seen >= threshold  &&  seen > 0)
+                return Math.min(1L << i, getMax());
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "count " + getCount() + ", mean " + getMean() + ", p50 " + getPercentile(0.5) +
+               ", p99 " + getPercentile(0.99) + ", max " + getMax();
+    }
+}
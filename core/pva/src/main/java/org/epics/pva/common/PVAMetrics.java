@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.common;
+
+import static org.epics.pva.PVASettings.logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+
+import org.epics.pva.PVASettings;
+
+/** Metrics of one PVA component
+ *
+ *  <p>Each TCP connection, client channel, server PV
+ *  and subscription has a group of metrics:
+ *  Counters, gauges that are read on demand, and histograms.
+ *
+ *  <p>Counters and histograms use striped {@link LongAdder}s,
+ *  so components can update them from any thread at low cost.
+ *  Reading them is more expensive and meant for occasional
+ *  inspection via {@link #getSnapshot()}, JMX
+ *  or the metrics PVs of a server.
+ *
+ *  <p>Active metrics are listed in a registry,
+ *  see {@link #getAll()}.
+ *  When {@link PVASettings#EPICS_PVA_METRICS_JMX} is enabled,
+ *  they are also registered as MBeans
+ *  "org.epics.pva:type=..,name=..,id=..".
+ */
+@SuppressWarnings("nls")
+public class PVAMetrics implements DynamicMBean, AutoCloseable
+{
+    /** Metric types */
+    public static final String TCP = "TCP",
+                               CHANNEL = "Channel",
+                               SUBSCRIPTION = "Subscription",
+                               SERVER_PV = "ServerPV",
+                               SERVER_SUBSCRIPTION = "ServerSubscription";
+
+    /** Source of unique IDs */
+    private static final AtomicLong IDs = new AtomicLong();
+
+    /** All active metrics by ID */
+    private static final Map<Long, PVAMetrics> registry = new ConcurrentHashMap<>();
+
+    private final long id = IDs.incrementAndGet();
+    private final String type, name;
+
+    // Map content is only added when creating the component's metrics,
+    // then read by any thread
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, PVAHistogram> histograms = new ConcurrentHashMap<>();
+
+    private volatile ObjectName jmx_name = null;
+
+    /** Create and register metrics
+     *
+     *  @param type Type of component, for example {@link #TCP}
+     *  @param name Name of component, for example channel name
+     *  @return {@link PVAMetrics} that need to be closed when the component is closed
+     */
+    public static PVAMetrics create(final String type, final String name)
+    {
+        final PVAMetrics metrics = new PVAMetrics(type, name);
+        registry.put(metrics.id, metrics);
+        if (PVASettings.EPICS_PVA_METRICS_JMX)
+        {
+            try
+            {
+                final ObjectName jmx_name = new ObjectName("org.epics.pva:type=" + type +
+                                                           ",name=" + ObjectName.quote(name) +
+                                                           ",id=" + metrics.id);
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, jmx_name);
+                metrics.jmx_name = jmx_name;
+            }
+            catch (Exception ex)
+            {
+                logger.log(Level.WARNING, "Cannot register JMX metrics for " + type + " " + name, ex);
+            }
+        }
+        return metrics;
+    }
+
+    /** @return All active metrics, in order of creation */
+    public static List<PVAMetrics> getAll()
+    {
+        final List<PVAMetrics> all = new ArrayList<>(registry.values());
+        all.sort((a, b) -> Long.compare(a.id, b.id));
+        return all;
+    }
+
+    private PVAMetrics(final String type, final String name)
+    {
+        this.type = type;
+        this.name = name;
+    }
+
+    /** @return Type of component */
+    public String getType()
+    {
+        return type;
+    }
+
+    /** @return Name of component */
+    public String getName()
+    {
+        return name;
+    }
+
+    /** @param counter Counter name
+     *  @return Counter, created when first requested
+     */
+    public LongAdder counter(final String counter)
+    {
+        return counters.computeIfAbsent(counter, c -> new LongAdder());
+    }
+
+    /** @param gauge Gauge name
+     *  @param supplier Supplies current value of gauge
+     */
+    public void gauge(final String gauge, final LongSupplier supplier)
+    {
+        gauges.put(gauge, supplier);
+    }
+
+    /** @param histogram Histogram name
+     *  @return Histogram, created when first requested
+     */
+    public PVAHistogram histogram(final String histogram)
+    {
+        return histograms.computeIfAbsent(histogram, h -> new PVAHistogram());
+    }
+
+    /** Get current values
+     *
+     *  <p>Histograms are listed as "name.count", "name.mean",
+     *  "name.p50", "name.p99" and "name.max".
+     *
+     *  @return Metric names and values, sorted by name
+     */
+    public Map<String, Number> getSnapshot()
+    {
+        final Map<String, Number> values = new LinkedHashMap<>();
+        for (String counter : sorted(counters.keySet()))
+            values.put(counter, counters.get(counter).sum());
+        for (String gauge : sorted(gauges.keySet()))
+        {
+            try
+            {
+                values.put(gauge, gauges.get(gauge).getAsLong());
+            }
+            catch (Exception ex)
+            {
+                // Component may be closing, skip
+            }
+        }
+        for (String histogram : sorted(histograms.keySet()))
+        {
+            final PVAHistogram hist = histograms.get(histogram);
+            values.put(histogram + ".count", hist.getCount());
+            values.put(histogram + ".mean", hist.getMean());
+            values.put(histogram + ".p50", hist.getPercentile(0.5));
+            values.put(histogram + ".p99", hist.getPercentile(0.99));
+            values.put(histogram + ".max", hist.getMax());
+        }
+        return values;
+    }
+
+    private static List<String> sorted(final Collection<String> names)
+    {
+        final List<String> result = new ArrayList<>(names);
+        Collections.sort(result);
+        return result;
+    }
+
+    /** @return Formatted metrics of all active components */
+    public static String formatAll()
+    {
+        final StringBuilder buf = new StringBuilder();
+        for (PVAMetrics metrics : getAll())
+            buf.append(metrics.format());
+        return buf.toString();
+    }
+
+    /** @return Formatted metrics */
+    public String format()
+    {
+        final StringBuilder buf = new StringBuilder();
+        buf.append(type).append(" ").append(name).append("\n");
+        for (Map.Entry<String, Number> entry : getSnapshot().entrySet())
+            buf.append(String.format("  %-30s %s\n", entry.getKey(), entry.getValue()));
+        return buf.toString();
+    }
+
+    /** Remove from registry and JMX */
+    @Override
+    public void close()
+    {
+        registry.remove(id);
+        final ObjectName safe = jmx_name;
+        if (safe != null)
+        {
+            jmx_name = null;
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(safe);
+            }
+            catch (Exception ex)
+            {
+                logger.log(Level.FINE, "Cannot unregister JMX metrics " + safe, ex);
+            }
+        }
+    }
+
+    // DynamicMBean, read-only attributes from snapshot
+    @Override
+    public Object getAttribute(final String attribute) throws AttributeNotFoundException
+    {
+        final Number value = getSnapshot().get(attribute);
+        if (value == null)
+            throw new AttributeNotFoundException(attribute);
+        return value;
+    }
+
+    @Override
+    public void setAttribute(final Attribute attribute)
+    {
+        throw new UnsupportedOperationException("PVA metrics are read-only");
+    }
+
+    @Override
+    public AttributeList getAttributes(final String[] attributes)
+    {
+        final Map<String, Number> values = getSnapshot();
+        final AttributeList result = new AttributeList();
+        for (String attribute : attributes)
+        {
+            final Number value = values.get(attribute);
+            if (value != null)
+                result.add(new Attribute(attribute, value));
+        }
+        return result;
+    }
+
+    @Override
+    public AttributeList setAttributes(final AttributeList attributes)
+    {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(final String action, final Object[] params, final String[] signature)
+    {
+        throw new UnsupportedOperationException("PVA metrics have no operations");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo()
+    {
+        final Map<String, Number> values = getSnapshot();
+        final MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[values.size()];
+        int i = 0;
+        for (Map.Entry<String, Number> entry : values.entrySet())
+            attributes[i++] = new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(),
+                                                     entry.getKey(), true, false, false);
+        return new MBeanInfo(PVAMetrics.class.getName(), type + " " + name, attributes, null, null, null);
+    }
+
+    @Override
+    public String toString()
+    {
+        return type + " " + name + " " + getSnapshot();
+    }
+}
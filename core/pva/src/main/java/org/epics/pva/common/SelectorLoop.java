@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.common;
+
+import static org.epics.pva.PVASettings.logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import org.epics.pva.PVASettings;
+
+/** NIO selector loop for {@link TCPHandler}s
+ *
+ *  <p>Handles reading and writing of many TCP sockets
+ *  on one thread, as an alternative to one receive
+ *  and one send thread per socket.
+ *  A fixed number of loops is shared by all TCP connections
+ *  of the client and server,
+ *  see {@link PVASettings#EPICS_PVA_TCP_SELECTOR_THREADS}.
+ *
+ *  <p>Received messages are decoded and dispatched to the
+ *  command handlers on the loop thread,
+ *  so handlers must not block.
+ */
+@SuppressWarnings("nls")
+class SelectorLoop
+{
+    /** Shared loops, created on first use */
+    private static SelectorLoop[] loops = null;
+
+    /** Index of loop to use for the next socket */
+    private static final AtomicInteger next = new AtomicInteger();
+
+    private final Selector selector;
+
+    private final Thread thread;
+
+    /** Tasks to run on the loop thread */
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    /** @return Selector loop to use for another socket */
+    static synchronized SelectorLoop get()
+    {
+        if (loops == null)
+        {
+            final SelectorLoop[] new_loops = new SelectorLoop[Math.max(1, PVASettings.EPICS_PVA_TCP_SELECTOR_THREADS)];
+            for (int i=0; i<new_loops.length; ++i)
+                new_loops[i] = new SelectorLoop(i+1);
+            loops = new_loops;
+        }
+        // Distribute sockets round-robin
+        return loops[Math.floorMod(next.getAndIncrement(), loops.length)];
+    }
+
+    private SelectorLoop(final int index)
+    {
+        try
+        {
+            selector = Selector.open();
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException("Cannot create selector", ex);
+        }
+        thread = new Thread(this::run, "TCP selector " + index);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** @return Is the calling thread the one of this loop? */
+    boolean isLoopThread()
+    {
+        return Thread.currentThread() == thread;
+    }
+
+    /** @param task Task to execute on the loop thread */
+    void execute(final Runnable task)
+    {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /** Register socket for reading
+     *
+     *  <p>Registration happens on the loop thread,
+     *  the key is passed to {@link TCPHandler#setSelectionKey(SelectionKey)}.
+     *
+     *  @param socket Socket
+     *  @param tcp {@link TCPHandler} that will handle the socket's I/O
+     *  @throws Exception on error
+     */
+    void register(final SocketChannel socket, final TCPHandler tcp) throws Exception
+    {
+        socket.configureBlocking(false);
+        execute(() ->
+        {
+            try
+            {
+                tcp.setSelectionKey(socket.register(selector, SelectionKey.OP_READ, tcp));
+            }
+            catch (Exception ex)
+            {
+                logger.log(Level.WARNING, thread.getName() + " cannot register " + tcp, ex);
+                tcp.handleSelectorError(ex);
+            }
+        });
+    }
+
+    private void run()
+    {
+        logger.log(Level.FINER, thread.getName() + " started");
+        while (true)
+        {
+            try
+            {
+                selector.select();
+
+                Runnable task;
+                while ((task = tasks.poll()) != null)
+                    try
+                    {
+                        task.run();
+                    }
+                    catch (Throwable ex)
+                    {
+                        logger.log(Level.WARNING, thread.getName() + " task error", ex);
+                    }
+
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext())
+                {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    final TCPHandler tcp = (TCPHandler) key.attachment();
+                    try
+                    {
+                        if (key.isValid()  &&  key.isReadable())
+                            tcp.handleReadable();
+                        if (key.isValid()  &&  key.isWritable())
+                            tcp.handleWritable();
+                    }
+                    catch (CancelledKeyException ex)
+                    {
+                        // Socket was closed while handling it, ignore
+                    }
+                }
+            }
+            catch (Throwable ex)
+            {
+                logger.log(Level.WARNING, thread.getName() + " error", ex);
+            }
+        }
+    }
+}
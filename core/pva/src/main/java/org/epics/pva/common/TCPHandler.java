@@ -13,13 +13,17 @@ import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
 import org.epics.pva.PVASettings;
@@ -35,6 +39,12 @@ import org.epics.pva.data.PVAString;
  *
  *  <p>Maintains send queue.
  *
+ *  <p>By default, each handler uses one thread to receive
+ *  and one thread to send.
+ *  When {@link PVASettings#EPICS_PVA_TCP_SELECTOR_THREADS} is configured,
+ *  the socket is instead handled by a {@link SelectorLoop}
+ *  that is shared with other TCP connections.
+ *
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
@@ -98,12 +108,60 @@ abstract public class TCPHandler
     });
 
     /** Thread that runs {@link TCPHandler#receiver()} */
-    private final Future<Void> receive_thread;
+    private volatile Future<Void> receive_thread;
 
     /** Thread that runs {@link TCPHandler#sender()} */
     private volatile Future<Void> send_thread;
 
-    /** Start receiving messages
+    /** Selector loop that handles the socket,
+     *  <code>null</code> when using receive and send threads
+     */
+    private final SelectorLoop selector_loop =
+        PVASettings.EPICS_PVA_TCP_SELECTOR_THREADS > 0 ? SelectorLoop.get() : null;
+
+    /** Registration of socket with the selector_loop */
+    private volatile SelectionKey selection_key = null;
+
+    /** Is a write scheduled on the selector loop, or waiting for the socket? */
+    private final AtomicBoolean write_scheduled = new AtomicBoolean();
+
+    /** Buffer with data that has not been written, only used on selector loop */
+    private ByteBuffer send_pending = null;
+
+    /** Buffer used to combine several small messages into one write */
+    private final ByteBuffer batch_buffer = ByteBuffer.allocate(PVASettings.TCP_BUFFER_SIZE);
+
+    /** Does send_buffer hold an encoded message that did not fit into the batch_buffer? */
+    private boolean encoded_pending = false;
+
+    /** Has END_REQUEST been taken off the queue? */
+    private boolean end_requested = false;
+
+    /** Metrics of this connection */
+    protected final PVAMetrics metrics;
+
+    /** Number of writes, i.e. flushes of the sender */
+    private final LongAdder send_flushes;
+
+    /** Number of messages sent */
+    private final LongAdder sent_messages;
+
+    /** Number of bytes sent */
+    private final LongAdder sent_bytes;
+
+    /** Number of messages received */
+    private final LongAdder received_messages;
+
+    /** Number of bytes received */
+    private final LongAdder received_bytes;
+
+    /** Time spent encoding a queued message [ns] */
+    private final PVAHistogram encode_ns;
+
+    /** Has the selector loop stopped receiving for this socket? */
+    private final AtomicBoolean receiver_exited = new AtomicBoolean();
+
+    /** Create handler for socket
      *
      *  <p>Will accept messages to be sent,
      *  but will only start sending them when the
@@ -111,21 +169,51 @@ abstract public class TCPHandler
      *
      *  @param socket Socket to read/write
      *  @param client_mode Is this the client, expecting to receive messages from server?
+     *  @throws Exception on error
+     *  @see #startReceiver()
      *  @see #startSender()
      */
-    public TCPHandler(final SocketChannel socket, final boolean client_mode)
+    public TCPHandler(final SocketChannel socket, final boolean client_mode) throws Exception
     {
         this.socket = socket;
         this.client_mode = client_mode;
 
+        metrics = PVAMetrics.create(PVAMetrics.TCP, String.valueOf(socket.getRemoteAddress()));
+        send_flushes = metrics.counter("send_flushes");
+        sent_messages = metrics.counter("sent_messages");
+        sent_bytes = metrics.counter("sent_bytes");
+        received_messages = metrics.counter("received_messages");
+        received_bytes = metrics.counter("received_bytes");
+        encode_ns = metrics.histogram("encode_ns");
+        metrics.gauge("send_queue", send_items::size);
+
         // Receive buffer byte order is set based on header flag of each received message.
         // Send buffer of server and client starts out with native byte order.
         // For server, it stays that way.
         // For client, order is updated during connection validation (PVAHeader.CTRL_SET_BYTE_ORDER)
         send_buffer.order(ByteOrder.nativeOrder());
+    }
 
-        // Start receiving data
-        receive_thread = thread_pool.submit(this::receiver);
+    /** Start receiving messages
+     *
+     *  <p>Must be called once by derived class
+     *  when it is ready to handle received messages,
+     *  typically at the end of its constructor.
+     *
+     *  @throws Exception on error
+     */
+    protected void startReceiver() throws Exception
+    {
+        if (receive_thread != null)
+            throw new Exception("Receiver already running");
+        if (selector_loop == null)
+            receive_thread = thread_pool.submit(this::receiver);
+        else
+        {
+            receive_buffer.clear();
+            receive_thread = new CompletableFuture<>();
+            selector_loop.register(socket, this);
+        }
     }
 
     /** Start send thread
@@ -137,10 +225,17 @@ abstract public class TCPHandler
      */
     protected void startSender() throws Exception
     {
-        if (send_thread == null)
+        if (send_thread != null)
+            throw new Exception("Send thread already running");
+        if (selector_loop == null)
             send_thread = thread_pool.submit(this::sender);
         else
-            throw new Exception("Send thread already running");
+        {   // Selector loop needs the socket registration from startReceiver()
+            if (receive_thread == null)
+                throw new Exception("Receiver must be started before sender");
+            send_thread = new CompletableFuture<>();
+            scheduleWrite();
+        }
     }
 
     /** @return Remote address of this end of the TCP socket */
@@ -163,11 +258,138 @@ abstract public class TCPHandler
     public boolean submit(final RequestEncoder item)
     {
         if (send_items.offer(item))
+        {
+            if (selector_loop != null)
+                scheduleWrite();
             return true;
+        }
         logger.log(Level.WARNING, this + " send queue full");
         return false;
     }
 
+    /** @return Number of times the sender wrote queued messages to the socket */
+    public long getSendFlushes()
+    {
+        return send_flushes.sum();
+    }
+
+    /** @return Number of queued messages that have been sent */
+    public long getSentMessages()
+    {
+        return sent_messages.sum();
+    }
+
+    /** @return Number of bytes sent for queued messages */
+    public long getSentBytes()
+    {
+        return sent_bytes.sum();
+    }
+
+    /** @return Metrics of this connection */
+    public PVAMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /** Encode item into send_buffer
+     *  @param item Item to encode
+     *  @return <code>true</code> if send_buffer is ready to be sent
+     */
+    private boolean encode(final RequestEncoder item)
+    {
+        send_buffer.clear();
+        try
+        {
+            final long start = System.nanoTime();
+            item.encodeRequest(server_version, send_buffer);
+            encode_ns.record(System.nanoTime() - start);
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, this + " request encoding error", ex);
+            return false;
+        }
+        send_buffer.flip();
+        return true;
+    }
+
+    /** Assemble queued items into the next buffer to send
+     *
+     *  <p>Encodes queued items and combines them in the batch buffer
+     *  until the queue is empty or the next message does not fit.
+     *  A message that is too large for the batch buffer is sent by itself.
+     *  Messages are sent in the order in which they were queued.
+     *
+     *  @param item First item to send, <code>null</code> to take it from the queue
+     *  @param may_wait May wait up to EPICS_PVA_SEND_FLUSH_DELAY for more items?
+     *  @return Buffer to send or <code>null</code>
+     *  @throws InterruptedException if interrupted while waiting
+     */
+    private ByteBuffer assemble(RequestEncoder item, final boolean may_wait) throws InterruptedException
+    {
+        if (encoded_pending)
+        {   // Send message left over from last batch
+            encoded_pending = false;
+            return countFlush(send_buffer, 1);
+        }
+        if (end_requested)
+            return null;
+
+        final long flush_time = System.nanoTime() + PVASettings.EPICS_PVA_SEND_FLUSH_DELAY * 1000L;
+        batch_buffer.clear();
+        int messages = 0;
+        if (item == null)
+            item = send_items.poll();
+        while (item != null)
+        {
+            if (item == END_REQUEST)
+            {
+                end_requested = true;
+                break;
+            }
+            if (encode(item))
+            {
+                if (send_buffer.remaining() <= batch_buffer.remaining())
+                {
+                    batch_buffer.put(send_buffer);
+                    ++messages;
+                }
+                else if (messages == 0)
+                    return countFlush(send_buffer, 1);
+                else
+                {   // Send batch, then this message
+                    encoded_pending = true;
+                    break;
+                }
+            }
+            item = send_items.poll();
+            // Await more items unless that would delay what's already in the batch for too long
+            if (item == null  &&  may_wait  &&  messages > 0)
+            {
+                final long delay = flush_time - System.nanoTime();
+                if (delay > 0)
+                    item = send_items.poll(delay, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (messages <= 0)
+            return null;
+        batch_buffer.flip();
+        return countFlush(batch_buffer, messages);
+    }
+
+    /** Update send statistics
+     *  @param buffer Buffer that's about to be sent
+     *  @param messages Number of messages in buffer
+     *  @return buffer
+     */
+    private ByteBuffer countFlush(final ByteBuffer buffer, final int messages)
+    {
+        send_flushes.increment();
+        sent_messages.add(messages);
+        sent_bytes.add(buffer.remaining());
+        return buffer;
+    }
+
     /** Send {@link RequestEncoder} entries off queue */
     private Void sender()
     {
@@ -175,23 +397,12 @@ abstract public class TCPHandler
         {
             Thread.currentThread().setName("TCP sender from " + socket.getLocalAddress() + " to " + socket.getRemoteAddress());
             logger.log(Level.FINER, Thread.currentThread().getName() + " started");
-            while (true)
+            while (! end_requested)
             {
-                send_buffer.clear();
-                final RequestEncoder to_send = send_items.take();
-                if (to_send == END_REQUEST)
-                    break;
-                try
-                {
-                    to_send.encodeRequest(server_version, send_buffer);
-                }
-                catch (Exception ex)
-                {
-                    logger.log(Level.WARNING, Thread.currentThread().getName() + " request encoding error", ex);
-                    continue;
-                }
-                send_buffer.flip();
-                send(send_buffer);
+                // Wait for next item unless there's a message left over from last batch
+                final ByteBuffer buffer = assemble(encoded_pending ? null : send_items.take(), true);
+                if (buffer != null)
+                    send(buffer);
             }
         }
         catch (Exception ex)
@@ -202,18 +413,54 @@ abstract public class TCPHandler
         return null;
     }
 
+    /** Invoked whenever a message is about to be sent
+     *
+     *  <p>Derived class may override,
+     *  for example to track activity
+     */
+    protected void onSend()
+    {
+        // NOP
+    }
+
     /** Send message
      *
      *  <p>Must only be called by outside code before
      *  the sender has been started
      *
+     *  <p>In selector mode, data that the socket cannot accept right away
+     *  is written once the socket is writable, without waiting for it.
+     *
      *  @param buffer Buffer to send
      *  @throws Exception on error
      */
     protected void send(final ByteBuffer buffer) throws Exception
     {
+        onSend();
         logger.log(Level.FINER, () -> Thread.currentThread().getName() + " sends:\n" + Hexdump.toHexdump(buffer));
 
+        if (selector_loop != null)
+        {   // Caller may re-use the buffer, keep a copy until it's written
+            final ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+            copy.put(buffer);
+            copy.flip();
+            if (selector_loop.isLoopThread())
+                sendOnSelectorLoop(copy);
+            else
+                selector_loop.execute(() ->
+                {
+                    try
+                    {
+                        sendOnSelectorLoop(copy);
+                    }
+                    catch (Exception ex)
+                    {
+                        handleSelectorError(ex);
+                    }
+                });
+            return;
+        }
+
         // Original AbstractCodec.send() mentions
         // Microsoft KB article KB823764:
         // Limiting buffer size increases performance.
@@ -251,6 +498,35 @@ abstract public class TCPHandler
         }
     }
 
+    /** Send message in selector mode
+     *
+     *  <p>Writes what the socket accepts without waiting.
+     *  The rest is written by {@link #handleWritable()}
+     *  once the socket is writable, so the selector loop
+     *  can meanwhile handle other sockets.
+     *
+     *  @param buffer Buffer to send
+     *  @throws Exception on error
+     */
+    private void sendOnSelectorLoop(final ByteBuffer buffer) throws Exception
+    {
+        if (send_pending != null)
+        {   // Append to data that still waits for the socket
+            final ByteBuffer combined = ByteBuffer.allocate(send_pending.remaining() + buffer.remaining());
+            combined.put(send_pending);
+            combined.put(buffer);
+            combined.flip();
+            send_pending = combined;
+            return;
+        }
+        socket.write(buffer);
+        if (! buffer.hasRemaining())
+            return;
+        logger.log(Level.FINER, () -> this + " send buffer full after " + buffer.position() + " of " + buffer.limit() + " bytes");
+        send_pending = buffer;
+        selection_key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
     /** Receiver */
     private Void receiver()
     {
@@ -281,35 +557,7 @@ abstract public class TCPHandler
                     message_size = PVAHeader.checkMessageAndGetSize(receive_buffer, client_mode);
                 }
                 // .. then decode
-                receive_buffer.flip();
-                logger.log(Level.FINER, () -> Thread.currentThread().getName() + " received:\n" + Hexdump.toHexdump(receive_buffer));
-
-                // While buffer may contain more data,
-                // limit it to the end of this message to prevent
-                // message handler from reading beyond message boundary.
-                final int actual_limit = receive_buffer.limit();
-                receive_buffer.limit(message_size);
-                try
-                {
-                    handleMessage(receive_buffer);
-                }
-                catch (Exception ex)
-                {
-                    // Once we fail to decode and handle a message,
-                    // it is likely that the server/client protocol gets
-                    // out of step and never recovers.
-                    // Still, log error and keep reading in case
-                    // the issue is limited to just this one message.
-                    logger.log(Level.WARNING, Thread.currentThread().getName() + " message error. Protocol might be broken from here on.", ex);
-                }
-
-                receive_buffer.limit(actual_limit);
-                // No matter if message handler read the complete message,
-                // position at end of handled message
-                receive_buffer.position(message_size);
-
-                // Shift rest to start of buffer and handle next message
-                receive_buffer.compact();
+                handleReceivedMessage(message_size);
             }
         }
         catch (Exception ex)
@@ -325,6 +573,182 @@ abstract public class TCPHandler
         return null;
     }
 
+    /** Handle one complete message in receive buffer
+     *
+     *  @param message_size Size of the message
+     */
+    private void handleReceivedMessage(final int message_size)
+    {
+        receive_buffer.flip();
+        logger.log(Level.FINER, () -> Thread.currentThread().getName() + " received:\n" + Hexdump.toHexdump(receive_buffer));
+
+        // While buffer may contain more data,
+        // limit it to the end of this message to prevent
+        // message handler from reading beyond message boundary.
+        final int actual_limit = receive_buffer.limit();
+        receive_buffer.limit(message_size);
+        received_messages.increment();
+        received_bytes.add(message_size);
+        try
+        {
+            handleMessage(receive_buffer);
+        }
+        catch (Exception ex)
+        {
+            // Once we fail to decode and handle a message,
+            // it is likely that the server/client protocol gets
+            // out of step and never recovers.
+            // Still, log error and keep reading in case
+            // the issue is limited to just this one message.
+            logger.log(Level.WARNING, Thread.currentThread().getName() + " message error. Protocol might be broken from here on.", ex);
+        }
+
+        receive_buffer.limit(actual_limit);
+        // No matter if message handler read the complete message,
+        // position at end of handled message
+        receive_buffer.position(message_size);
+
+        // Shift rest to start of buffer and handle next message
+        receive_buffer.compact();
+    }
+
+    /** @param key Registration of socket with selector loop */
+    void setSelectionKey(final SelectionKey key)
+    {
+        selection_key = key;
+    }
+
+    /** Called by selector loop when socket has data to read */
+    void handleReadable()
+    {
+        try
+        {
+            final int read = socket.read(receive_buffer);
+            if (read < 0)
+            {
+                logger.log(Level.FINER, () -> this + ": socket closed");
+                selectorReceiverExited();
+                return;
+            }
+            logger.log(Level.FINER, () -> this + ": " + read + " bytes");
+
+            // Handle all complete messages
+            int message_size = PVAHeader.checkMessageAndGetSize(receive_buffer, client_mode);
+            while (receive_buffer.position() >= message_size)
+            {
+                handleReceivedMessage(message_size);
+                message_size = PVAHeader.checkMessageAndGetSize(receive_buffer, client_mode);
+            }
+            // Assert that the next message will fit
+            receive_buffer = assertBufferSize(receive_buffer, message_size);
+        }
+        catch (Exception ex)
+        {
+            handleSelectorError(ex);
+        }
+    }
+
+    /** Schedule writing queued items on the selector loop */
+    private void scheduleWrite()
+    {
+        if (send_thread != null  &&  write_scheduled.compareAndSet(false, true))
+            selector_loop.execute(this::handleWritable);
+    }
+
+    /** Called by selector loop to write queued items
+     *
+     *  <p>Writes until the queue is empty,
+     *  or the socket cannot accept more data,
+     *  in which case the selector loop will call again
+     *  once the socket is writable.
+     */
+    void handleWritable()
+    {
+        try
+        {
+            while (true)
+            {
+                if (send_pending == null)
+                {   // Sender not started, socket became writable for a direct send()
+                    if (send_thread == null)
+                        break;
+                    final ByteBuffer buffer = assemble(null, false);
+                    if (buffer == null)
+                    {
+                        if (end_requested)
+                        {   // Leave write_scheduled set since nothing more will be sent
+                            ((CompletableFuture<Void>) send_thread).complete(null);
+                            break;
+                        }
+                        // Allow scheduling the next write,
+                        // then check for items submitted in the meantime
+                        write_scheduled.set(false);
+                        if (send_items.isEmpty()  ||  ! write_scheduled.compareAndSet(false, true))
+                            break;
+                        continue;
+                    }
+                    onSend();
+                    logger.log(Level.FINER, () -> this + " sends:\n" + Hexdump.toHexdump(buffer));
+                    send_pending = buffer;
+                }
+                socket.write(send_pending);
+                if (send_pending.hasRemaining())
+                {   // Wait for selector loop to call again when socket is writable
+                    selection_key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                send_pending = null;
+            }
+            if ((selection_key.interestOps() & SelectionKey.OP_WRITE) != 0)
+                selection_key.interestOps(SelectionKey.OP_READ);
+        }
+        catch (Exception ex)
+        {
+            if (send_thread == null)
+            {   // Error in direct send()
+                handleSelectorError(ex);
+                return;
+            }
+            // Like the send thread, stop sending
+            write_scheduled.set(true);
+            ((CompletableFuture<Void>) send_thread).complete(null);
+            if (running)
+                logger.log(Level.WARNING, this + " stops sending because of error", ex);
+        }
+    }
+
+    /** Handle error in selector mode
+     *
+     *  <p>Like the receive thread, stop receiving
+     *
+     *  @param ex Error
+     */
+    void handleSelectorError(final Exception ex)
+    {
+        if (running)
+            logger.log(Level.WARNING, this + " stops receiving because of error", ex);
+        selectorReceiverExited();
+    }
+
+    /** Stop receiving in selector mode, similar to the exit of the receive thread */
+    private void selectorReceiverExited()
+    {
+        if (! receiver_exited.compareAndSet(false, true))
+            return;
+        final SelectionKey key = selection_key;
+        if (key != null)
+            key.cancel();
+        try
+        {
+            onReceiverExited(running);
+        }
+        finally
+        {
+            ((CompletableFuture<Void>) receive_thread).complete(null);
+            logger.log(Level.FINER, () -> this + " done receiving.");
+        }
+    }
+
     /** Invoked when the receiver thread exits because socket has been closed.
      *
      *  <p>Derived class may override to perform cleanup
@@ -546,7 +970,9 @@ abstract public class TCPHandler
         submit(END_REQUEST);
         try
         {
-            if (send_thread != null  &&  wait)
+            // Selector loop cannot wait for itself to send
+            if (send_thread != null  &&  wait  &&
+                (selector_loop == null  ||  !selector_loop.isLoopThread()))
                 send_thread.get(5, TimeUnit.SECONDS);
         }
         catch (Exception ex)
@@ -558,13 +984,16 @@ abstract public class TCPHandler
         {
             running = false;
             socket.close();
-            if (wait)
+            if (selector_loop != null)
+                selectorReceiverExited();
+            if (wait  &&  receive_thread != null)
                 receive_thread.get(5, TimeUnit.SECONDS);
         }
         catch (Exception ex)
         {
             logger.log(Level.WARNING, "Cannot stop receive thread", ex);
         }
+        metrics.close();
         logger.log(Level.FINE, () -> this + " closed  ============================");
     }
 
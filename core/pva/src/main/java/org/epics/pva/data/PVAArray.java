@@ -12,4 +12,24 @@ package org.epics.pva.data;
  */
 public interface PVAArray
 {
+    /** Configure double-buffered decoding
+     *
+     *  <p>By default, each decoded value is a new array,
+     *  so callers may hold on to the result of <code>get()</code>.
+     *
+     *  <p>When double-buffered, the array keeps the previous value
+     *  as a spare and decodes the next value of the same size into it,
+     *  so steady-state updates do not allocate.
+     *  An array obtained via <code>get()</code> then remains valid
+     *  until the update after the next one has been decoded.
+     *
+     *  <p>Only supported by arrays of numeric primitives,
+     *  ignored by others.
+     *
+     *  @param double_buffered Decode into re-used arrays?
+     */
+    public default void setDoubleBuffered(final boolean double_buffered)
+    {
+        // NOP
+    }
 }
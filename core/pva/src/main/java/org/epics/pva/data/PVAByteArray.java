@@ -23,6 +23,12 @@ public class PVAByteArray extends PVAData implements PVAArray
     private final boolean unsigned;
     private volatile byte[] value;
 
+    /** Decode into spare array and swap? */
+    private boolean double_buffered = false;
+
+    /** Previous value, re-used for next decode when double-buffered */
+    private byte[] spare = null;
+
     /** Construct variable-size array
      *  @param name Data item name
      *  @param unsigned Unsigned data?
@@ -110,12 +116,25 @@ public class PVAByteArray extends PVAData implements PVAArray
             buffer.put((byte) 0b00101000);
     }
 
+    @Override
+    public void setDoubleBuffered(final boolean double_buffered)
+    {
+        this.double_buffered = double_buffered;
+        if (! double_buffered)
+            spare = null;
+    }
+
     @Override
     public void decode(final PVATypeRegistry types, final ByteBuffer buffer) throws Exception
     {
         final int size = PVASize.decodeSize(buffer);
-        final byte[] new_value = new byte[size];
+        // When double-buffered, try to re-use the spare array
+        byte[] new_value = spare;
+        if (new_value == null  ||  new_value.length != size)
+            new_value = new byte[size];
         buffer.get(new_value);
+        if (double_buffered)
+            spare = value;
         value = new_value;
     }
 
@@ -124,8 +143,7 @@ public class PVAByteArray extends PVAData implements PVAArray
     {
         final byte[] copy = value;
         PVASize.encodeSize(copy.length, buffer);
-        for (int i=0; i<copy.length; ++i)
-            buffer.put(copy[i]);
+        buffer.put(copy);
     }
 
     @Override
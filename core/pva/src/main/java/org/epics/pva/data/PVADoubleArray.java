@@ -22,6 +22,12 @@ public class PVADoubleArray extends PVAData implements PVAArray
 {
     private volatile double[] value;
 
+    /** Decode into spare array and swap? */
+    private boolean double_buffered = false;
+
+    /** Previous value, re-used for next decode when double-buffered */
+    private double[] spare = null;
+
     /** Construct variable-size array
      *  @param name Data item name
      *  @param value Initial value
@@ -94,13 +100,26 @@ public class PVADoubleArray extends PVAData implements PVAArray
         buffer.put((byte) 0b01001011);
     }
 
+    @Override
+    public void setDoubleBuffered(final boolean double_buffered)
+    {
+        this.double_buffered = double_buffered;
+        if (! double_buffered)
+            spare = null;
+    }
+
     @Override
     public void decode(final PVATypeRegistry types, final ByteBuffer buffer) throws Exception
     {
         final int size = PVASize.decodeSize(buffer);
-        final double[] new_value = new double[size];
-        for (int i=0; i<size; ++i)
-            new_value[i] = buffer.getDouble();
+        // When double-buffered, try to re-use the spare array
+        double[] new_value = spare;
+        if (new_value == null  ||  new_value.length != size)
+            new_value = new double[size];
+        buffer.asDoubleBuffer().get(new_value);
+        buffer.position(buffer.position() + size * Double.BYTES);
+        if (double_buffered)
+            spare = value;
         value = new_value;
     }
 
@@ -109,8 +128,8 @@ public class PVADoubleArray extends PVAData implements PVAArray
     {
         final double[] copy = value;
         PVASize.encodeSize(copy.length, buffer);
-        for (int i=0; i<copy.length; ++i)
-            buffer.putDouble(copy[i]);
+        buffer.asDoubleBuffer().put(copy);
+        buffer.position(buffer.position() + copy.length * Double.BYTES);
     }
 
     @Override
@@ -22,6 +22,12 @@ public class PVAFloatArray extends PVAData implements PVAArray
 {
     private volatile float[] value;
 
+    /** Decode into spare array and swap? */
+    private boolean double_buffered = false;
+
+    /** Previous value, re-used for next decode when double-buffered */
+    private float[] spare = null;
+
     /** Construct variable-size array
      *  @param name Data item name
      *  @param value Initial value
@@ -95,13 +101,26 @@ public class PVAFloatArray extends PVAData implements PVAArray
         buffer.put((byte) 0b01001010);
     }
 
+    @Override
+    public void setDoubleBuffered(final boolean double_buffered)
+    {
+        this.double_buffered = double_buffered;
+        if (! double_buffered)
+            spare = null;
+    }
+
     @Override
     public void decode(final PVATypeRegistry types, final ByteBuffer buffer) throws Exception
     {
         final int size = PVASize.decodeSize(buffer);
-        final float[] new_value = new float[size];
-        for (int i=0; i<size; ++i)
-            new_value[i] = buffer.getFloat();
+        // When double-buffered, try to re-use the spare array
+        float[] new_value = spare;
+        if (new_value == null  ||  new_value.length != size)
+            new_value = new float[size];
+        buffer.asFloatBuffer().get(new_value);
+        buffer.position(buffer.position() + size * Float.BYTES);
+        if (double_buffered)
+            spare = value;
         value = new_value;
     }
 
@@ -110,8 +129,8 @@ public class PVAFloatArray extends PVAData implements PVAArray
     {
         final float[] copy = value;
         PVASize.encodeSize(copy.length, buffer);
-        for (int i=0; i<copy.length; ++i)
-            buffer.putFloat(copy[i]);
+        buffer.asFloatBuffer().put(copy);
+        buffer.position(buffer.position() + copy.length * Float.BYTES);
     }
 
     @Override
@@ -23,6 +23,12 @@ public class PVAIntArray extends PVAData implements PVAArray
     private final boolean unsigned;
     private volatile int[] value;
 
+    /** Decode into spare array and swap? */
+    private boolean double_buffered = false;
+
+    /** Previous value, re-used for next decode when double-buffered */
+    private int[] spare = null;
+
     /** Construct variable-size array
      *  @param name Data item name
      *  @param unsigned Unsigned data?
@@ -107,13 +113,26 @@ public class PVAIntArray extends PVAData implements PVAArray
             buffer.put((byte) 0b00101010);
     }
 
+    @Override
+    public void setDoubleBuffered(final boolean double_buffered)
+    {
+        this.double_buffered = double_buffered;
+        if (! double_buffered)
+            spare = null;
+    }
+
     @Override
     public void decode(final PVATypeRegistry types, final ByteBuffer buffer) throws Exception
     {
         final int size = PVASize.decodeSize(buffer);
-        final int[] new_value = new int[size];
-        for (int i=0; i<size; ++i)
-            new_value[i] = buffer.getInt();
+        // When double-buffered, try to re-use the spare array
+        int[] new_value = spare;
+        if (new_value == null  ||  new_value.length != size)
+            new_value = new int[size];
+        buffer.asIntBuffer().get(new_value);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        if (double_buffered)
+            spare = value;
         value = new_value;
     }
 
@@ -122,8 +141,8 @@ public class PVAIntArray extends PVAData implements PVAArray
     {
         final int[] copy = value;
         PVASize.encodeSize(copy.length, buffer);
-        for (int i=0; i<copy.length; ++i)
-            buffer.putInt(copy[i]);
+        buffer.asIntBuffer().put(copy);
+        buffer.position(buffer.position() + copy.length * Integer.BYTES);
     }
 
     @Override
@@ -23,6 +23,12 @@ public class PVALongArray extends PVAData implements PVAArray
     private final boolean unsigned;
     private volatile long[] value;
 
+    /** Decode into spare array and swap? */
+    private boolean double_buffered = false;
+
+    /** Previous value, re-used for next decode when double-buffered */
+    private long[] spare = null;
+
     /** Construct variable-size array
      *  @param name Data item name
      *  @param unsigned Unsigned data?
@@ -107,13 +113,26 @@ public class PVALongArray extends PVAData implements PVAArray
             buffer.put((byte) 0b00101011);
     }
 
+    @Override
+    public void setDoubleBuffered(final boolean double_buffered)
+    {
+        this.double_buffered = double_buffered;
+        if (! double_buffered)
+            spare = null;
+    }
+
     @Override
     public void decode(final PVATypeRegistry types, final ByteBuffer buffer) throws Exception
     {
         final int size = PVASize.decodeSize(buffer);
-        final long[] new_value = new long[size];
-        for (int i=0; i<size; ++i)
-            new_value[i] = buffer.getLong();
+        // When double-buffered, try to re-use the spare array
+        long[] new_value = spare;
+        if (new_value == null  ||  new_value.length != size)
+            new_value = new long[size];
+        buffer.asLongBuffer().get(new_value);
+        buffer.position(buffer.position() + size * Long.BYTES);
+        if (double_buffered)
+            spare = value;
         value = new_value;
     }
 
@@ -122,8 +141,8 @@ public class PVALongArray extends PVAData implements PVAArray
     {
         final long[] copy = value;
         PVASize.encodeSize(copy.length, buffer);
-        for (int i=0; i<copy.length; ++i)
-            buffer.putLong(copy[i]);
+        buffer.asLongBuffer().put(copy);
+        buffer.position(buffer.position() + copy.length * Long.BYTES);
     }
 
     @Override
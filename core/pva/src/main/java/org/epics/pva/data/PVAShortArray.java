@@ -23,6 +23,12 @@ public class PVAShortArray extends PVAData implements PVAArray
     private final boolean unsigned;
     private volatile short[] value;
 
+    /** Decode into spare array and swap? */
+    private boolean double_buffered = false;
+
+    /** Previous value, re-used for next decode when double-buffered */
+    private short[] spare = null;
+
     /** Construct variable-size array
      *  @param name Data item name
      *  @param unsigned Data signed/unsigned type
@@ -107,19 +113,26 @@ public class PVAShortArray extends PVAData implements PVAArray
             buffer.put((byte) 0b00101001);
     }
 
+    @Override
+    public void setDoubleBuffered(final boolean double_buffered)
+    {
+        this.double_buffered = double_buffered;
+        if (! double_buffered)
+            spare = null;
+    }
+
     @Override
     public void decode(final PVATypeRegistry types, final ByteBuffer buffer) throws Exception
     {
         final int size = PVASize.decodeSize(buffer);
-        // Try to re-use existing array
-        final short[] new_value = new short[size];
-        // Considered using
-        //   buffer.asShortBuffer().get(new_value);
-        // but debugger shows that it ends up in the same loop:
-        //   for (..) short_array[i] = buffer.get()
-        // Profiler shows that it's overall slower.
-        for (int i=0; i<size; ++i)
-            new_value[i] = buffer.getShort();
+        // When double-buffered, try to re-use the spare array
+        short[] new_value = spare;
+        if (new_value == null  ||  new_value.length != size)
+            new_value = new short[size];
+        buffer.asShortBuffer().get(new_value);
+        buffer.position(buffer.position() + size * Short.BYTES);
+        if (double_buffered)
+            spare = value;
         value = new_value;
     }
 
@@ -128,8 +141,8 @@ public class PVAShortArray extends PVAData implements PVAArray
     {
         final short[] copy = value;
         PVASize.encodeSize(copy.length, buffer);
-        for (int i=0; i<copy.length; ++i)
-            buffer.putShort(copy[i]);
+        buffer.asShortBuffer().put(copy);
+        buffer.position(buffer.position() + copy.length * Short.BYTES);
     }
 
     @Override
@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.proxy;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.epics.pva.data.PVABoolArray;
+import org.epics.pva.data.PVAByteArray;
+import org.epics.pva.data.PVAData;
+import org.epics.pva.data.PVADoubleArray;
+import org.epics.pva.data.PVAFloatArray;
+import org.epics.pva.data.PVAIntArray;
+import org.epics.pva.data.PVALongArray;
+import org.epics.pva.data.PVANumber;
+import org.epics.pva.data.PVAShortArray;
+import org.epics.pva.data.PVAString;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.data.PVAStructureArray;
+import org.epics.pva.data.PVAUnion;
+
+/** Decimate arrays to limit the amount of forwarded data
+ *
+ *  <p>Numeric arrays with more than the maximum number of elements
+ *  are reduced by only keeping every N'th element.
+ *
+ *  <p>For NTNDArray images, the same step is applied to each
+ *  dimension that's large enough, keeping for example the
+ *  color planes of an RGB image.
+ *  The dimension sizes and binning as well as the image size
+ *  are updated to describe the decimated image.
+ *  Compressed images are passed on as received.
+ *
+ *  <p>Remembers the most recent decimation pattern,
+ *  so not thread-safe.
+ *  Meant to be used by one proxied channel.
+ */
+@SuppressWarnings("nls")
+class ArrayDecimator
+{
+    /** Smaller image dimensions are not decimated */
+    static final int MIN_DIMENSION = 16;
+
+    private final int max_elements;
+
+    /** Array sizes and steps for which 'index' was computed */
+    private int[] last_sizes = new int[0], last_steps = new int[0];
+
+    /** Indices of the array elements to keep */
+    private int[] index;
+
+    /** @param max_elements Maximum number of array elements to forward */
+    ArrayDecimator(final int max_elements)
+    {
+        if (max_elements < 1)
+            throw new IllegalArgumentException("Invalid array limit " + max_elements);
+        this.max_elements = max_elements;
+    }
+
+    /** Decimate data
+     *
+     *  @param data Received data, will not be modified
+     *  @return Decimated copy of the data,
+     *          or the original data if there's nothing to decimate
+     *  @throws Exception on error
+     */
+    PVAStructure decimate(final PVAStructure data) throws Exception
+    {
+        if (! needsDecimation(data))
+            return data;
+        return decimateStructure(data);
+    }
+
+    /** @param data Structure
+     *  @return Does structure contain numeric arrays that are too large?
+     */
+    private boolean needsDecimation(final PVAStructure data)
+    {
+        if (isImage(data))
+        {
+            final PVAData value = getImageValue(data);
+            return value != null  &&  length(value) > max_elements;
+        }
+        for (PVAData element : data.get())
+            if (element instanceof PVAStructure)
+            {
+                if (needsDecimation((PVAStructure) element))
+                    return true;
+            }
+            else if (length(element) > max_elements)
+                return true;
+        return false;
+    }
+
+    /** @param data Structure to decimate
+     *  @return Copy of the structure with decimated arrays,
+     *          which are created from the original arrays instead of copying them
+     *  @throws Exception on error
+     */
+    private PVAStructure decimateStructure(final PVAStructure data) throws Exception
+    {
+        if (isImage(data))
+            return decimateImage(data);
+        final List<PVAData> copy = new ArrayList<>(data.get().size());
+        for (PVAData element : data.get())
+            if (element instanceof PVAStructure)
+            {
+                final PVAStructure struct = (PVAStructure) element;
+                copy.add(needsDecimation(struct) ? decimateStructure(struct) : struct.cloneData());
+            }
+            else
+            {
+                final int length = length(element);
+                if (length > max_elements)
+                {
+                    final int step = (length + max_elements - 1) / max_elements;
+                    final PVAData array = element.cloneType(element.getName());
+                    array.setValue(decimateArray(element, new int[] { length }, new int[] { step }));
+                    copy.add(array);
+                }
+                else
+                    copy.add(element.cloneData());
+            }
+        return copyOf(data, copy);
+    }
+
+    /** @param data Structure
+     *  @param elements Elements for the copy
+     *  @return Structure of same name and type with the given elements
+     */
+    private static PVAStructure copyOf(final PVAStructure data, final List<PVAData> elements)
+    {
+        final PVAStructure copy = new PVAStructure(data.getName(), data.getStructureName(), elements);
+        copy.setTypeID(data.getTypeID());
+        return copy;
+    }
+
+    /** @param data Structure
+     *  @return Is structure an NTNDArray?
+     */
+    private static boolean isImage(final PVAStructure data)
+    {
+        final String type = data.getStructureName();
+        return type != null  &&  type.startsWith("epics:nt/NTNDArray:");
+    }
+
+    /** @param image NTNDArray
+     *  @return Pixel array of uncompressed image, or <code>null</code>
+     */
+    private static PVAData getImageValue(final PVAStructure image)
+    {
+        final PVAStructure codec = image.get("codec");
+        if (codec != null)
+        {
+            final PVAString name = codec.get("name");
+            if (name != null  &&  name.get() != null  &&  ! name.get().isEmpty())
+                return null;
+        }
+        final PVAData value = image.get("value");
+        if (value instanceof PVAUnion)
+            return ((PVAUnion) value).get();
+        return null;
+    }
+
+    /** @param image NTNDArray to decimate
+     *  @return Copy of the image with decimated pixel array
+     *  @throws Exception on error
+     */
+    private PVAStructure decimateImage(final PVAStructure image) throws Exception
+    {
+        final PVAData value = getImageValue(image);
+        final PVAStructureArray dimension = image.get("dimension");
+        if (value == null  ||  dimension == null)
+            return image.cloneData();
+        final PVAStructure[] dims = dimension.get();
+        final int[] sizes = new int[dims.length];
+        long total = 1;
+        int largest = 1;
+        for (int i=0; i<dims.length; ++i)
+        {
+            sizes[i] = ((PVANumber) dims[i].get("size")).getNumber().intValue();
+            total *= sizes[i];
+            if (sizes[i] >= MIN_DIMENSION)
+                largest = Math.max(largest, sizes[i]);
+        }
+        // Cannot decimate when dimensions don't describe the pixel array
+        final int length = length(value);
+        if (total != length  ||  largest < MIN_DIMENSION)
+            return image.cloneData();
+
+        // Find smallest step that reduces the image enough
+        final int[] steps = new int[sizes.length];
+        for (int step=2; step<=largest; ++step)
+        {
+            long kept = 1;
+            for (int i=0; i<sizes.length; ++i)
+            {
+                steps[i] = sizes[i] >= MIN_DIMENSION ? step : 1;
+                kept *= (sizes[i] + steps[i] - 1) / steps[i];
+            }
+            if (kept <= max_elements)
+                break;
+        }
+        final Object pixels = decimateArray(value, sizes, steps);
+        final int kept = Array.getLength(pixels);
+
+        // Copy all but the pixel array, where the union only holds the decimated pixels
+        final List<PVAData> elements = new ArrayList<>(image.get().size());
+        for (PVAData element : image.get())
+        {
+            if (element instanceof PVAUnion  &&  element.getName().equals("value"))
+            {
+                final PVAUnion union = (PVAUnion) element;
+                final List<PVAData> options = new ArrayList<>(union.getOptions().size());
+                for (PVAData option : union.getOptions())
+                    options.add(option.cloneType(option.getName()));
+                final PVAUnion copy = new PVAUnion(union.getName(), union.getUnionName(), -1, options);
+                copy.setTypeID(union.getTypeID());
+                copy.set(union.getSelector(), pixels);
+                elements.add(copy);
+            }
+            else
+                elements.add(element.cloneData());
+        }
+        final PVAStructure copy = copyOf(image, elements);
+
+        // Describe the decimated image
+        final PVAStructure[] copy_dims = ((PVAStructureArray) copy.get("dimension")).get();
+        for (int i=0; i<copy_dims.length; ++i)
+        {
+            if (steps[i] <= 1)
+                continue;
+            copy_dims[i].get("size").setValue((sizes[i] + steps[i] - 1) / steps[i]);
+            final PVANumber binning = copy_dims[i].get("binning");
+            if (binning != null)
+                binning.setValue(Math.max(1, binning.getNumber().intValue()) * steps[i]);
+        }
+        for (String size : new String[] { "compressedSize", "uncompressedSize" })
+        {
+            final PVANumber bytes = copy.get(size);
+            if (bytes != null)
+                bytes.setValue(bytes.getNumber().longValue() / length * kept);
+        }
+        return copy;
+    }
+
+    /** @param array Numeric array
+     *  @return Array length, -1 if not a numeric array
+     */
+    private static int length(final PVAData array)
+    {
+        if (array instanceof PVADoubleArray)
+            return ((PVADoubleArray) array).get().length;
+        if (array instanceof PVAFloatArray)
+            return ((PVAFloatArray) array).get().length;
+        if (array instanceof PVALongArray)
+            return ((PVALongArray) array).get().length;
+        if (array instanceof PVAIntArray)
+            return ((PVAIntArray) array).get().length;
+        if (array instanceof PVAShortArray)
+            return ((PVAShortArray) array).get().length;
+        if (array instanceof PVAByteArray)
+            return ((PVAByteArray) array).get().length;
+        if (array instanceof PVABoolArray)
+            return ((PVABoolArray) array).get().length;
+        return -1;
+    }
+
+    /** @param array Numeric array to decimate, will not be modified
+     *  @param sizes Size of each array dimension, fastest changing first
+     *  @param steps Step for each dimension
+     *  @return Kept elements, primitive array of the same type
+     */
+    private Object decimateArray(final PVAData array, final int[] sizes, final int[] steps)
+    {
+        final int[] index = getIndex(sizes, steps);
+        final int n = index.length;
+        if (array instanceof PVADoubleArray)
+        {
+            final double[] orig = ((PVADoubleArray) array).get();
+            final double[] kept = new double[n];
+            for (int i=0; i<n; ++i)
+                kept[i] = orig[index[i]];
+            return kept;
+        }
+        else if (array instanceof PVAFloatArray)
+        {
+            final float[] orig = ((PVAFloatArray) array).get();
+            final float[] kept = new float[n];
+            for (int i=0; i<n; ++i)
+                kept[i] = orig[index[i]];
+            return kept;
+        }
+        else if (array instanceof PVALongArray)
+        {
+            final long[] orig = ((PVALongArray) array).get();
+            final long[] kept = new long[n];
+            for (int i=0; i<n; ++i)
+                kept[i] = orig[index[i]];
+            return kept;
+        }
+        else if (array instanceof PVAIntArray)
+        {
+            final int[] orig = ((PVAIntArray) array).get();
+            final int[] kept = new int[n];
+            for (int i=0; i<n; ++i)
+                kept[i] = orig[index[i]];
+            return kept;
+        }
+        else if (array instanceof PVAShortArray)
+        {
+            final short[] orig = ((PVAShortArray) array).get();
+            final short[] kept = new short[n];
+            for (int i=0; i<n; ++i)
+                kept[i] = orig[index[i]];
+            return kept;
+        }
+        else if (array instanceof PVAByteArray)
+        {
+            final byte[] orig = ((PVAByteArray) array).get();
+            final byte[] kept = new byte[n];
+            for (int i=0; i<n; ++i)
+                kept[i] = orig[index[i]];
+            return kept;
+        }
+        else if (array instanceof PVABoolArray)
+        {
+            final boolean[] orig = ((PVABoolArray) array).get();
+            final boolean[] kept = new boolean[n];
+            for (int i=0; i<n; ++i)
+                kept[i] = orig[index[i]];
+            return kept;
+        }
+        throw new IllegalArgumentException("Cannot decimate " + array.getName());
+    }
+
+    /** @param sizes Size of each array dimension, fastest changing first
+     *  @param steps Step for each dimension
+     *  @return Indices of the array elements to keep
+     */
+    private int[] getIndex(final int[] sizes, final int[] steps)
+    {
+        if (Arrays.equals(sizes, last_sizes)  &&  Arrays.equals(steps, last_steps))
+            return index;
+
+        final int dims = sizes.length;
+        final int[] kept = new int[dims];
+        final int[] stride = new int[dims];
+        int count = 1, elements = 1;
+        for (int d=0; d<dims; ++d)
+        {
+            kept[d] = (sizes[d] + steps[d] - 1) / steps[d];
+            count *= kept[d];
+            // Offset between kept elements along this dimension
+            stride[d] = elements * steps[d];
+            elements *= sizes[d];
+        }
+
+        final int[] result = new int[count];
+        final int[] pos = new int[dims];
+        for (int i=0; i<count; ++i)
+        {
+            int offset = 0;
+            for (int d=0; d<dims; ++d)
+                offset += pos[d] * stride[d];
+            result[i] = offset;
+            // Advance to next position, fastest changing dimension first
+            for (int d=0; d<dims; ++d)
+            {
+                if (++pos[d] < kept[d])
+                    break;
+                pos[d] = 0;
+            }
+        }
+
+        last_sizes = sizes.clone();
+        last_steps = steps.clone();
+        index = result;
+        return result;
+    }
+}
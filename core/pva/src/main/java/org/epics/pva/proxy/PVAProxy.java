@@ -10,12 +10,14 @@ package org.epics.pva.proxy;
 import java.net.InetSocketAddress;
 import java.time.Instant;
 import java.util.BitSet;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
@@ -25,7 +27,10 @@ import org.epics.pva.PVASettings;
 import org.epics.pva.client.ClientChannelState;
 import org.epics.pva.client.PVAChannel;
 import org.epics.pva.client.PVAClient;
+import org.epics.pva.data.PVAData;
+import org.epics.pva.data.PVADouble;
 import org.epics.pva.data.PVAInt;
+import org.epics.pva.data.PVALong;
 import org.epics.pva.data.PVAStructure;
 import org.epics.pva.data.nt.PVATimeStamp;
 import org.epics.pva.server.PVAServer;
@@ -39,8 +44,17 @@ import org.epics.pva.server.ServerPV;
  *  <li>EPICS_PVA_ADDR_LIST, EPICS_PVA_BROADCAST_PORT - Where proxy searches for PVs
  *  <li>EPICS_PVAS_BROADCAST_PORT, EPICS_PVA_SERVER_PORT - Where proxy makes those PVs available
  *  <li>PREFIX - Prefix for internal PVs
+ *  <li>MAX_RATE - Maximum updates per second forwarded for each PV, 0 for no limit.
+ *      When updates arrive faster, only the most recent value is forwarded.
+ *  <li>MAX_ARRAY - Maximum number of array elements forwarded, 0 for no limit.
+ *      Larger arrays and NTNDArray images are decimated.
  *  </ul>
  *
+ *  <p>The proxy keeps one subscription to each upstream PV
+ *  and serves any number of downstream clients from it.
+ *  Each update is encoded once for all downstream subscriptions,
+ *  which are then sent in parallel by the respective TCP connections.
+ *
  *  <p>For a 'local' test and to debug, assert that IOC, proxy and client each use unique ports.
  *
  *  <p>Run  `softIocPVA -m N='' -d demo.db`
@@ -68,6 +82,12 @@ import org.epics.pva.server.ServerPV;
  *
  *  <ul>
  *  <li>$(PREFIX)count - Number of proxied PVs
+ *  <li>$(PREFIX)subscriptions - Number of downstream subscriptions to proxied PVs
+ *  <li>$(PREFIX)received - Updates per second received from upstream PVs
+ *  <li>$(PREFIX)forwarded - Updates per second forwarded to downstream clients
+ *  <li>$(PREFIX)throttled - Updates per second dropped because of MAX_RATE
+ *  <li>$(PREFIX)decimated - Updates per second with decimated arrays
+ *  <li>$(PREFIX)overruns - Updates that downstream clients missed because they were too slow
  *  <li>$(PREFIX)QUIT - Reading this will stop the proxy
  *  </ul>
  *
@@ -86,6 +106,12 @@ public class PVAProxy
 
     private String prefix = "";
 
+    /** Minimum period between forwarded updates of a PV in nanoseconds, 0 for no limit */
+    private long min_period = 0;
+
+    /** Maximum number of forwarded array elements, 0 for no limit */
+    private int max_array = 0;
+
     private PVAServer server;
     private PVAClient client;
 
@@ -95,17 +121,60 @@ public class PVAProxy
     /** Executor for background jobs */
     private final ExecutorService executor = Executors.newCachedThreadPool();
 
-    /** Timer for checking timeouts etc. */
-    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    /** Timer for checking timeouts, publishing rate-limited updates etc. */
+    private final ScheduledExecutorService timer = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+
+    /** Statistics */
+    private final LongAdder received = new LongAdder(),
+                            forwarded = new LongAdder(),
+                            throttled = new LongAdder(),
+                            decimated = new LongAdder();
+
+    /** Internal PV with numeric value and time stamp */
+    private class InfoPV
+    {
+        private final PVATimeStamp time = new PVATimeStamp();
+        private final PVAStructure data;
+        private final ServerPV pv;
+
+        /** @param name Name of the PV without prefix
+         *  @param value 'value' element
+         */
+        InfoPV(final String name, final PVAData value)
+        {
+            data = new PVAStructure(name, "", value, time);
+            pv = server.createPV(prefix + name, data);
+        }
+
+        String getName()
+        {
+            return pv.getName();
+        }
 
-    /** Timestamp of 'count' PV */
-    private PVATimeStamp count_time = new PVATimeStamp();
-    /** Value of 'count' PV */
-    private PVAStructure count_value = new PVAStructure("count", "",
-                                                        new PVAInt("value", 0),
-                                                        count_time);
-    /** 'count' PV */
-    private ServerPV count_channel;
+        synchronized void update(final Number value)
+        {
+            try
+            {
+                data.get("value").setValue(value);
+                time.set(Instant.now());
+                pv.update(data);
+            }
+            catch (Exception ex)
+            {
+                logger.log(Level.WARNING, "Cannot update " + pv, ex);
+            }
+        }
+    }
+
+    /** Names of internal PVs */
+    private final Set<String> info_names = ConcurrentHashMap.newKeySet();
+
+    /** Internal PVs */
+    private volatile InfoPV count;
+    private InfoPV subscriptions, received_rate, forwarded_rate, throttled_rate, decimated_rate, overruns;
+
+    /** Time of last statistics update, System.nanoTime */
+    private long last_stats = System.nanoTime();
 
     /** Handler for one proxied PV */
     private class ProxyChannel implements AutoCloseable
@@ -116,6 +185,15 @@ public class PVAProxy
         private volatile ServerPV server_pv;
         private volatile AutoCloseable subscription  = null;
 
+        /** Decimator or <code>null</code> */
+        private final ArrayDecimator decimator = max_array > 0 ? new ArrayDecimator(max_array) : null;
+
+        /** Earliest time for publishing the next update, System.nanoTime */
+        private long next_publish = 0;
+
+        /** Most recent update that waits for 'next_publish', or <code>null</code> */
+        private PVAStructure pending = null;
+
         ProxyChannel(final String name)
         {
             logger.log(Level.INFO, () -> "++++ New Server Proxy " + name);
@@ -184,29 +262,96 @@ public class PVAProxy
                 logger.log(Level.FINER, "Value update for " + name + " = " + data);
             else
                 logger.log(Level.FINE, () -> "Value update for " + name);
+            received.increment();
+
+            // 'value' is either the client's 'data' or our own decimated copy
+            PVAStructure value = data;
+            if (decimator != null)
+            {
+                try
+                {
+                    value = decimator.decimate(data);
+                    if (value != data)
+                        decimated.increment();
+                }
+                catch (Exception ex)
+                {
+                    logger.log(Level.WARNING, "Cannot decimate update for " + name, ex);
+                }
+            }
 
             if (server_pv == null)
             {
-                server_pv = server.createPV(channel.getName(), data);
+                synchronized (this)
+                {
+                    next_publish = System.nanoTime() + min_period;
+                }
+                server_pv = server.createPV(channel.getName(), value);
                 logger.log(Level.INFO, () -> "Now serving " + server_pv);
+                return;
             }
-            else
+
+            if (min_period <= 0)
             {
-                // TODO Periodically check how many clients the ServerPV has, close if unused for a while
-                if (! server_pv.isSubscribed())
-                    System.out.println("****** UNUSED Proxy " + channel.getName());
+                publish(value);
+                return;
+            }
 
-                try
+            synchronized (this)
+            {
+                final long now = System.nanoTime();
+                if (pending == null  &&  now - next_publish >= 0)
                 {
-                    server_pv.update(data);
+                    next_publish = now + min_period;
+                    publish(value);
                 }
-                catch (Exception ex)
+                else
                 {
-                    logger.log(Level.WARNING, "Cannot publish update to " + server_pv, ex);
+                    // Hold on to most recent value until it may be published.
+                    // The client will update 'data' with the next received value,
+                    // so need a copy.
+                    if (pending == null)
+                        timer.schedule(this::publishPending, next_publish - now, TimeUnit.NANOSECONDS);
+                    else
+                        throttled.increment();
+                    pending = value == data ? data.cloneData() : value;
                 }
             }
         }
 
+        /** Publish update that was held back by rate limit */
+        private synchronized void publishPending()
+        {
+            if (pending == null)
+                return;
+            next_publish = System.nanoTime() + min_period;
+            final PVAStructure value = pending;
+            pending = null;
+            publish(value);
+        }
+
+        /** @param value Value to send to downstream clients */
+        private void publish(final PVAStructure value)
+        {
+            final ServerPV pv = server_pv;
+            if (pv == null)
+                return;
+
+            // TODO Periodically check how many clients the ServerPV has, close if unused for a while
+            if (! pv.isSubscribed())
+                logger.log(Level.FINE, () -> "Unused proxy " + name);
+
+            try
+            {
+                pv.update(value);
+                forwarded.increment();
+            }
+            catch (Exception ex)
+            {
+                logger.log(Level.WARNING, "Cannot publish update to " + pv, ex);
+            }
+        }
+
         @Override
         public void close()
         {
@@ -227,6 +372,10 @@ public class PVAProxy
                 client_pv.close();
                 client_pv = null;
             }
+            synchronized (this)
+            {
+                pending = null;
+            }
             if (server_pv != null)
             {
                 server_pv.close();
@@ -247,6 +396,10 @@ public class PVAProxy
     public PVAProxy()
     {
         prefix = PVASettings.get("PREFIX", prefix);
+        final double max_rate = Double.parseDouble(PVASettings.get("MAX_RATE", "0"));
+        if (max_rate > 0)
+            min_period = Math.round(1e9 / max_rate);
+        max_array = Math.max(0, PVASettings.get("MAX_ARRAY", max_array));
     }
 
     /** @param seq Client's search sequence
@@ -268,7 +421,7 @@ public class PVAProxy
         }
 
         // Unless it's an internal PV, setup proxy
-        if (!count_channel.getName().equals(name))
+        if (! info_names.contains(name))
             proxies.computeIfAbsent(name, ProxyChannel::new);
 
         // Proceed with default search handler
@@ -277,16 +430,47 @@ public class PVAProxy
 
     private void updateChannelCount()
     {
-        try
-        {
-            count_value.get("value").setValue(proxies.size());
-            count_time.set(Instant.now());
-            count_channel.update(count_value);
-        }
-        catch (Exception ex)
+        // Proxies may be created by searches before the internal PVs
+        if (count != null)
+            count.update(proxies.size());
+    }
+
+    /** Periodically update the statistics PVs */
+    private void updateStatistics()
+    {
+        final long now = System.nanoTime();
+        final double seconds = (now - last_stats) / 1e9;
+        last_stats = now;
+
+        int subscription_count = 0;
+        long overrun_count = 0;
+        for (ProxyChannel proxy : proxies.values())
         {
-            logger.log(Level.WARNING, "Cannot update channel count", ex);
+            final ServerPV pv = proxy.server_pv;
+            if (pv != null)
+            {
+                subscription_count += pv.getSubscriptionCount();
+                overrun_count += pv.getOverruns();
+            }
         }
+        subscriptions.update(subscription_count);
+        overruns.update(overrun_count);
+        received_rate.update(received.sumThenReset() / seconds);
+        forwarded_rate.update(forwarded.sumThenReset() / seconds);
+        throttled_rate.update(throttled.sumThenReset() / seconds);
+        decimated_rate.update(decimated.sumThenReset() / seconds);
+    }
+
+    /** @param name Name of new internal PV
+     *  @param value Its 'value' element
+     *  @return {@link InfoPV}
+     */
+    private InfoPV createInfoPV(final String name, final PVAData value)
+    {
+        final InfoPV info = new InfoPV(name, value);
+        info_names.add(info.getName());
+        System.out.println(info.getName());
+        return info;
     }
 
     private void run() throws Exception
@@ -306,10 +490,21 @@ public class PVAProxy
         System.out.println("EPICS_PVA_SERVER_PORT=" + PVASettings.EPICS_PVA_SERVER_PORT);
         server = new PVAServer(this::handleSearchRequest);
 
+        System.out.println("");
+        System.out.println("Proxy config:");
+        System.out.println("MAX_RATE=" + (min_period > 0 ? 1e9 / min_period : 0));
+        System.out.println("MAX_ARRAY=" + max_array);
+
         System.out.println("");
         System.out.println("Info PVs:");
-        count_channel = server.createPV(prefix + "count", count_value);
-        System.out.println(count_channel.getName());
+        count = createInfoPV("count", new PVAInt("value", 0));
+        subscriptions = createInfoPV("subscriptions", new PVAInt("value", 0));
+        received_rate = createInfoPV("received", new PVADouble("value", 0.0));
+        forwarded_rate = createInfoPV("forwarded", new PVADouble("value", 0.0));
+        throttled_rate = createInfoPV("throttled", new PVADouble("value", 0.0));
+        decimated_rate = createInfoPV("decimated", new PVADouble("value", 0.0));
+        overruns = createInfoPV("overruns", new PVALong("value", false, 0));
+        timer.scheduleAtFixedRate(this::updateStatistics, 1, 1, TimeUnit.SECONDS);
 
         try
         {
@@ -41,7 +41,10 @@ class CreateChannelHandler implements CommandHandler<ServerTCPHandler>
             final String name = PVAString.decodeString(buffer);
             final ServerPV pv = tcp.getServer().getPV(name);
             if (pv == null)
+            {
                 logger.log(Level.WARNING, () ->  "Channel create request for unknown PV '" + name + "'");
+                sendChannelError(tcp, name, cid);
+            }
             else
             {
                 logger.log(Level.FINE, () ->  "Channel create request '" + name + "', cid " + cid);
@@ -68,4 +71,30 @@ class CreateChannelHandler implements CommandHandler<ServerTCPHandler>
             PVAStatus.StatusOK.encode(buffer);
         });
     }
+
+    /** Tell client that channel does not exist,
+     *  for example because client tried a server
+     *  that used to host the channel
+     */
+    private void sendChannelError(final ServerTCPHandler tcp, final String name, int cid) throws Exception
+    {
+        tcp.submit((version, buffer) ->
+        {
+            logger.log(Level.FINE, () ->  "Reject channel creation '" + name + "' [CID " + cid + "]");
+            PVAHeader.encodeMessageHeader(buffer,
+                    PVAHeader.FLAG_SERVER,
+                    PVAHeader.CMD_CREATE_CHANNEL, 0);
+            final int payload_start = buffer.position();
+
+            // int cid
+            buffer.putInt(cid);
+            // int sid, not used
+            buffer.putInt(-1);
+            // status
+            final PVAStatus error = new PVAStatus(PVAStatus.Type.ERROR, "Unknown channel '" + name + "'", "");
+            error.encode(buffer);
+
+            buffer.putInt(PVAHeader.HEADER_OFFSET_PAYLOAD_SIZE, buffer.position() - payload_start);
+        });
+    }
 }
@@ -34,6 +34,8 @@ class DestroyRequestHandler implements CommandHandler<ServerTCPHandler>
         final int req = buffer.getInt();
         logger.log(Level.FINE, "Received request destroy command for SID " + sid + " request " + req);
 
+        tcp.forgetMonitorOptions(req);
+
         // Locate monitor subscription
         final ServerPV pv = tcp.getServer().getPV(sid);
         if (pv != null)
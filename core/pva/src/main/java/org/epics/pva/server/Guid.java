@@ -52,6 +52,21 @@ public class Guid
         System.arraycopy(value, 0, guid, 0, guid.length);
     }
 
+    /** Parse Guid from text
+     *  @param text GUID as "FE1A.." type text, see {@link #asText()}
+     *  @return Guid
+     *  @throws IllegalArgumentException if text is not a valid Guid
+     */
+    public static Guid fromText(final String text)
+    {
+        final byte[] value = new byte[12];
+        if (text.length() != 2*value.length)
+            throw new IllegalArgumentException("Need " + 2*value.length + " hex digits, got '" + text + "'");
+        for (int i=0; i<value.length; ++i)
+            value[i] = (byte) Integer.parseInt(text.substring(2*i, 2*i+2), 16);
+        return new Guid(value);
+    }
+
     /** @param buffer Buffer into which to encode Guid */
     public void encode(final ByteBuffer buffer)
     {
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.server;
+
+import static org.epics.pva.PVASettings.logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.epics.pva.common.PVAMetrics;
+import org.epics.pva.data.PVADoubleArray;
+import org.epics.pva.data.PVAString;
+import org.epics.pva.data.PVAStringArray;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.data.nt.PVATimeStamp;
+
+/** Serve {@link PVAMetrics} as PVs
+ *
+ *  <p>Provides an NTTable PV with columns type, name, metric, value
+ *  for all metrics in the JVM, updated periodically,
+ *  so it can be read via 'pvget' or 'pvmonitor'.
+ *
+ *  <p>A "...:call" RPC PV returns the same table,
+ *  optionally limited to metrics where the type and/or name
+ *  contain the "type" and "name" strings passed as parameters:
+ *  <pre>
+ *  pvcall NAME:call type=TCP
+ *  </pre>
+ */
+@SuppressWarnings("nls")
+class MetricsService implements RPCService, AutoCloseable
+{
+    /** Update period of the table PV in seconds */
+    private static final int PERIOD = 2;
+
+    private final ServerPV table_pv, rpc_pv;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(run ->
+    {
+        final Thread thread = new Thread(run, "PVA Metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** @param server Server that serves the metrics
+     *  @param name Name of table PV
+     */
+    MetricsService(final PVAServer server, final String name)
+    {
+        table_pv = server.createPV(name, createTable(name, "", ""));
+        rpc_pv = server.createPV(name + ":call", this);
+        timer.scheduleWithFixedDelay(this::update, PERIOD, PERIOD, TimeUnit.SECONDS);
+        logger.log(Level.CONFIG, "Serving PVA metrics as '" + name + "'");
+    }
+
+    /** @param name Structure name
+     *  @param type Type filter, "" for all
+     *  @param filter Name filter, "" for all
+     *  @return NTTable with metrics
+     */
+    static PVAStructure createTable(final String name, final String type, final String filter)
+    {
+        final List<String> types = new ArrayList<>(), names = new ArrayList<>(), metrics = new ArrayList<>();
+        final List<Double> values = new ArrayList<>();
+        for (PVAMetrics group : PVAMetrics.getAll())
+        {
+            if (! group.getType().contains(type)  ||  ! group.getName().contains(filter))
+                continue;
+            for (Map.Entry<String, Number> entry : group.getSnapshot().entrySet())
+            {
+                types.add(group.getType());
+                names.add(group.getName());
+                metrics.add(entry.getKey());
+                values.add(entry.getValue().doubleValue());
+            }
+        }
+        final double[] value = new double[values.size()];
+        for (int i=0; i<value.length; ++i)
+            value[i] = values.get(i);
+
+        return new PVAStructure(name, "epics:nt/NTTable:1.0",
+                                new PVAStringArray("labels", "type", "name", "metric", "value"),
+                                new PVAStructure("value", "",
+                                                 new PVAStringArray("type", types.toArray(new String[types.size()])),
+                                                 new PVAStringArray("name", names.toArray(new String[names.size()])),
+                                                 new PVAStringArray("metric", metrics.toArray(new String[metrics.size()])),
+                                                 new PVADoubleArray("value", value)),
+                                new PVATimeStamp(Instant.now()));
+    }
+
+    private void update()
+    {
+        try
+        {
+            table_pv.update(createTable(table_pv.getName(), "", ""));
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot update metrics PV " + table_pv, ex);
+        }
+    }
+
+    /** @param parameters Optional "type" and "name" filters */
+    @Override
+    public PVAStructure call(final PVAStructure parameters) throws Exception
+    {
+        return createTable("", getFilter(parameters, "type"), getFilter(parameters, "name"));
+    }
+
+    private static String getFilter(final PVAStructure parameters, final String name)
+    {
+        final PVAString filter = parameters.get(name);
+        return filter == null  ||  filter.get() == null ? "" : filter.get();
+    }
+
+    @Override
+    public void close()
+    {
+        timer.shutdownNow();
+        rpc_pv.close();
+        table_pv.close();
+    }
+}
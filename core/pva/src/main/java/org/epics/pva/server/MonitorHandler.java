@@ -12,9 +12,13 @@ import static org.epics.pva.PVASettings.logger;
 import java.nio.ByteBuffer;
 import java.util.logging.Level;
 
+import org.epics.pva.PVASettings;
 import org.epics.pva.common.CommandHandler;
 import org.epics.pva.common.PVAHeader;
 import org.epics.pva.data.PVAData;
+import org.epics.pva.data.PVANumber;
+import org.epics.pva.data.PVAString;
+import org.epics.pva.data.PVAStructure;
 
 /** Handle client's MONITOR command
  *  @author Kay Kasemir
@@ -50,19 +54,44 @@ class MonitorHandler implements CommandHandler<ServerTCPHandler>
             return;
         }
 
-        if (subcmd == PVAHeader.CMD_SUB_INIT)
+        if ((byte) (subcmd & ~PVAHeader.CMD_SUB_PIPELINE) == PVAHeader.CMD_SUB_INIT)
         {
             // FieldDesc pvRequestIF
             // PVField pvRequest
             final PVAData requested_type = tcp.getClientTypes().decodeType("", buffer);
             logger.log(Level.FINE, () -> "Received MONITOR INIT request for " + pv + " as\n" + requested_type.formatType());
+            int queue_size = PVASettings.EPICS_PVAS_MONITOR_QUEUE_SIZE;
+            int pipeline = 0;
+            if (requested_type instanceof PVAStructure)
+            {
+                final PVAStructure request = (PVAStructure) requested_type;
+                request.decode(tcp.getClientTypes(), buffer);
+                queue_size = getQueueSize(request, queue_size);
+            }
+            // With pipeline flag, int nfree
+            if ((subcmd & PVAHeader.CMD_SUB_PIPELINE) != 0)
+            {
+                pipeline = buffer.getInt();
+                if (pipeline <= 0)
+                    logger.log(Level.WARNING, "MONITOR INIT for " + pv + " requests pipeline of " + pipeline);
+            }
+            final MonitorSubscription.Options options = new MonitorSubscription.Options(queue_size, pipeline);
+            logger.log(Level.FINE, () -> "MONITOR for " + pv + " uses " + options);
+            tcp.setMonitorOptions(req, options);
             GetHandler.sendDataInitReply(tcp, PVAHeader.CMD_MONITOR, req, pv, requested_type);
         }
         else if (subcmd == PVAHeader.CMD_SUB_START)
         {
             logger.log(Level.FINE, () -> "Received MONITOR START for " + pv);
             // Register monitor to PV can keep sending updates as data changes
-            pv.registerSubscription(new MonitorSubscription(req, pv, tcp));
+            pv.registerSubscription(new MonitorSubscription(req, pv, tcp, tcp.getMonitorOptions(req)));
+        }
+        else if (subcmd == PVAHeader.CMD_SUB_PIPELINE)
+        {
+            // int nfree
+            final int count = buffer.getInt();
+            logger.log(Level.FINE, () -> "Received MONITOR pipeline ack of " + count + " for " + pv);
+            pv.acknowledgeSubscription(tcp, req, count);
         }
         else if (subcmd == PVAHeader.CMD_SUB_STOP  ||
                  subcmd == PVAHeader.CMD_SUB_DESTROY)
@@ -70,10 +99,34 @@ class MonitorHandler implements CommandHandler<ServerTCPHandler>
             logger.log(Level.FINE, () -> "Received MONITOR STOP/DESTROY for  " + pv);
             // Stop/cancel/remove subscription
             pv.unregisterSubscription(tcp, req);
+            if (subcmd == PVAHeader.CMD_SUB_DESTROY)
+                tcp.forgetMonitorOptions(req);
         }
         else
         {
             logger.log(Level.WARNING, () -> "Ignoring MONITOR request for " + pv + ", subcommand 0x" + Integer.toHexString(Byte.toUnsignedInt(subcmd)));
         }
     }
+
+    /** @param request Monitor request
+     *  @param default_size Default queue size
+     *  @return Queue size from 'record._options.queueSize' or default
+     */
+    private static int getQueueSize(final PVAStructure request, final int default_size)
+    {
+        try
+        {
+            final PVAData size = request.locate("record._options.queueSize");
+            // Some clients send the option as a string
+            if (size instanceof PVANumber)
+                return ((PVANumber) size).getNumber().intValue();
+            if (size instanceof PVAString)
+                return Integer.parseInt(((PVAString) size).get().trim());
+        }
+        catch (Exception ex)
+        {
+            // Option not set, or not a number
+        }
+        return default_size;
+    }
 }
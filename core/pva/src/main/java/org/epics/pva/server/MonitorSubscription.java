@@ -10,25 +10,68 @@ package org.epics.pva.server;
 import static org.epics.pva.PVASettings.logger;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.BitSet;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
+import org.epics.pva.PVASettings;
 import org.epics.pva.common.PVAHeader;
+import org.epics.pva.common.PVAMetrics;
 import org.epics.pva.data.PVABitSet;
-import org.epics.pva.data.PVAData;
-import org.epics.pva.data.PVAStructure;
 
 /** One client's subscription to "monitor" a PV
  *
- *  <p>Maintains the most recent value sent to client,
- *  sends changes to that client as the value is updated.
+ *  <p>Queues updates of the PV that are yet to be sent to the client.
+ *  Each queued {@link MonitorUpdate} was encoded once by the PV
+ *  for all subscriptions and is sent as is.
+ *
+ *  <p>When updates arrive faster than the client's TCP connection can send them
+ *  and the queue is full, changes are combined.
+ *  The combined changes are sent after the queued updates,
+ *  encoding the current value of the PV for this subscription,
+ *  with the client seeing overruns.
+ *
+ *  <p>For a 'pipelined' subscription, updates are only sent
+ *  while the client has acknowledged room for them.
  *
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
 class MonitorSubscription
 {
+    /** Queue options requested by client for a subscription */
+    static class Options
+    {
+        /** Maximum number of queued updates */
+        final int queue_size;
+
+        /** Initial number of updates client can receive, 0 for no flow control */
+        final int pipeline;
+
+        /** @param queue_size Maximum number of queued updates
+         *  @param pipeline Initial number of updates client can receive, 0 for no flow control
+         */
+        Options(final int queue_size, final int pipeline)
+        {
+            this.queue_size = Math.max(1, queue_size);
+            this.pipeline = pipeline;
+        }
+
+        /** @return Default options for client that didn't request anything specific */
+        static Options getDefault()
+        {
+            return new Options(PVASettings.EPICS_PVAS_MONITOR_QUEUE_SIZE, 0);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "queue size " + queue_size + (pipeline > 0 ? ", pipeline " + pipeline : "");
+        }
+    }
+
     /** ID of monitor request sent by client */
     private final int req;
 
@@ -41,40 +84,78 @@ class MonitorSubscription
     // Clients subscribe at different times,
     // and their TCP connection might be able to handle updates
     // at different rates, so each subscription maintains
-    // the per-client state of the data, changes and overruns.
+    // the per-client state of queued updates, changes and overruns.
+
+    /** Maximum number of updates in queue, including the combined changes */
+    private final int queue_size;
+
+    /** Number of updates that the client can receive, -1 without flow control
+     *  SYNC on this
+     */
+    private int credit;
 
-    /** Most recent value, to be sent to clients.
-     *  SYNC on data
+    /** Updates to be sent to the client
+     *  SYNC on this
      */
-    private final PVAStructure data;
+    private final ArrayDeque<MonitorUpdate> queue = new ArrayDeque<>();
 
-    /** Most recent changes, yet to be sent to clients
-     *  SYNC on data
+    /** Have updates been combined into changes and overrun,
+     *  to be sent after the queued updates?
+     *  SYNC on this
      */
-    private volatile BitSet changes = new BitSet();
+    private boolean combined = false;
+
+    /** Combined changes, yet to be sent to clients
+     *  SYNC on this
+     */
+    private final BitSet changes = new BitSet();
 
     /** Overruns, u.e. updates received between successful transmissions to client
-     *  SYNC on data
+     *  SYNC on this
      */
     private final BitSet overrun = new BitSet();
 
     /** Is an update pending to be sent out?
      *
      *  <p>Used to prevent scheduling more updates that TCP connection can handle.
-     *  Changes from multiple updates are combined, potentially triggering overrun.
      */
-    private final AtomicBoolean pending = new AtomicBoolean(true);
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    /** Metrics of this subscription */
+    private final PVAMetrics metrics;
 
-    MonitorSubscription(final int req, final ServerPV pv, final ServerTCPHandler tcp)
+    /** Number of updates sent to the client */
+    private final LongAdder sent;
+
+    /** Number of updates that were combined because the queue was full */
+    private final LongAdder overruns;
+
+    MonitorSubscription(final int req, final ServerPV pv, final ServerTCPHandler tcp, final Options options)
     {
         this.req = req;
         this.pv = pv;
         this.tcp = tcp;
-        data = pv.getData();
+        queue_size = options.queue_size;
+        credit = options.pipeline > 0 ? options.pipeline : -1;
+
+        metrics = PVAMetrics.create(PVAMetrics.SERVER_SUBSCRIPTION, pv.getName() + " " + tcp.getRemoteAddress() + " #" + req);
+        sent = metrics.counter("sent");
+        overruns = metrics.counter("overruns");
+        metrics.gauge("queue", () ->
+        {
+            synchronized (this)
+            {
+                return queue.size() + (combined ? 1 : 0);
+            }
+        });
 
         // Initial update: Send all the data
-        changes.set(0);
-        tcp.submit(this::encodeMonitor);
+        synchronized (this)
+        {
+            changes.set(0);
+            combined = true;
+        }
+        submitNext();
     }
 
     boolean isFor(final ServerTCPHandler tcp, final int req)
@@ -82,34 +163,83 @@ class MonitorSubscription
         return this.tcp == tcp  &&  (req == -1 || this.req == req);
     }
 
-    void update(final PVAStructure new_data) throws Exception
+    void update(final MonitorUpdate update)
     {
-        synchronized (data)
+        synchronized (this)
         {
-            final BitSet old_changes = changes;
-
-            // Update data, see what's new
-            changes = data.update(new_data);
+            // Queue update unless queue is full
+            // or already holds combined changes which must remain last
+            if (! combined  &&  queue.size() < queue_size)
+                queue.add(update);
+            else
+            {
+                if (! combined)
+                {   // Combine with most recent queued update
+                    changes.or(queue.removeLast().getChanges());
+                    combined = true;
+                }
+                // Accumulate overrun:
+                // See what had changed before, and now changed again
+                final BitSet again = (BitSet) changes.clone();
+                again.and(update.getChanges());
+                overrun.or(again);
+                changes.or(update.getChanges());
+                pv.countOverrun();
+                overruns.increment();
+                logger.log(Level.FINER, () -> "Combining update for full queue of " + this);
+            }
+        }
+        submitNext();
+    }
 
-            // Accumulate overrun:
-            // See what had changed before, and now changed again
-            old_changes.and(changes);
-            overrun.or(old_changes);
+    /** Handle pipeline acknowledgement
+     *  @param count Number of additional updates that client can receive
+     */
+    void acknowledge(final int count)
+    {
+        synchronized (this)
+        {
+            if (credit < 0)
+            {
+                logger.log(Level.WARNING, "Ignoring pipeline ack for " + this + " which was not pipelined");
+                return;
+            }
+            credit += count;
         }
+        submitNext();
+    }
 
-        // Only submit when there's not already one pending, waiting to be sent out
+    /** Submit next update to TCP connection
+     *  unless one is already pending, nothing is queued,
+     *  or the client has no room
+     */
+    private void submitNext()
+    {
+        synchronized (this)
+        {
+            if (credit == 0  ||  (queue.isEmpty()  &&  ! combined))
+                return;
+        }
         if (pending.compareAndSet(false, true))
             tcp.submit(this::encodeMonitor);
-        else
-            logger.log(Level.WARNING, "Skipping already submitted " + this);
     }
 
     private void encodeMonitor(final byte version, final ByteBuffer buffer) throws Exception
     {
-        pending.set(false);
-
-        logger.log(Level.FINE, () -> "Sending MONITOR value for " + pv + ": changes " + changes + ", overrun " + overrun);
+        try
+        {
+            encodeUpdate(buffer);
+        }
+        finally
+        {
+            // Allow submitting the next update, which might be queued already
+            pending.set(false);
+            submitNext();
+        }
+    }
 
+    private void encodeUpdate(final ByteBuffer buffer) throws Exception
+    {
         PVAHeader.encodeMessageHeader(buffer, PVAHeader.FLAG_SERVER, PVAHeader.CMD_MONITOR, 0);
         final int payload_start = buffer.position();
 
@@ -117,36 +247,45 @@ class MonitorSubscription
         // Subcommand 0 = value update
         buffer.put((byte)0);
 
-        synchronized (data)
+        synchronized (this)
         {
-            // Encode what changed
-            PVABitSet.encodeBitSet(changes, buffer);
-            // Encode the changed data
-            for (int index = changes.nextSetBit(0);
-                    index >= 0;
-                    index = changes.nextSetBit(index + 1))
+            final MonitorUpdate update = queue.poll();
+            if (update != null)
             {
-                // final version of index to allow use in logging lambdas
-                final int i = index;
-                final PVAData element = data.get(i);
-                logger.log(Level.FINER, () -> "Encode data for indexed element " + i + ": " + element);
-                element.encode(buffer);
-
-                // Javadoc for nextSetBit() suggests checking for MAX_VALUE
-                // to avoid index + 1 overflow and thus starting over with first bit
-                if (i == Integer.MAX_VALUE)
-                    break;
+                logger.log(Level.FINE, () -> "Sending MONITOR value for " + pv + ": changes " + update.getChanges());
+                // Encode queued changes and data.
+                // Fall back to encoding current data
+                // in the unlikely case that byte order differs.
+                if (! update.encode(buffer))
+                    pv.encodeChanges(update.getChanges(), buffer);
+                PVABitSet.encodeBitSet(new BitSet(), buffer);
             }
-            changes.clear();
+            else
+            {
+                logger.log(Level.FINE, () -> "Sending MONITOR value for " + pv + ": changes " + changes + ", overrun " + overrun);
+                // Encode what changed and the current data
+                pv.encodeChanges(changes, buffer);
+                changes.clear();
+                combined = false;
 
-            PVABitSet.encodeBitSet(overrun, buffer);
-            overrun.clear();
+                PVABitSet.encodeBitSet(overrun, buffer);
+                overrun.clear();
+            }
+            if (credit > 0)
+                --credit;
         }
+        sent.increment();
 
         final int payload_end = buffer.position();
         buffer.putInt(PVAHeader.HEADER_OFFSET_PAYLOAD_SIZE, payload_end - payload_start);
     }
 
+    /** @return Metrics of this subscription */
+    PVAMetrics getMetrics()
+    {
+        return metrics;
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.server;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
+
+/** One update of a {@link ServerPV}, encoded once for all subscriptions
+ *
+ *  <p>Holds the 'changed' bit set followed by the changed data elements,
+ *  i.e. the part of a MONITOR message that is the same for all clients.
+ *  Subscriptions that have no other pending changes copy this payload
+ *  instead of encoding the data again.
+ *
+ *  <p>Immutable
+ */
+class MonitorUpdate
+{
+    /** Byte order used for the encoded payload */
+    static final ByteOrder ORDER = ByteOrder.nativeOrder();
+
+    private final BitSet changes;
+
+    private final byte[] payload;
+
+    /** @param changes Elements that changed
+     *  @param payload Encoded changes and data elements
+     */
+    MonitorUpdate(final BitSet changes, final byte[] payload)
+    {
+        this.changes = changes;
+        this.payload = payload;
+    }
+
+    /** @return Elements that changed. Caller must not modify */
+    BitSet getChanges()
+    {
+        return changes;
+    }
+
+    /** @return Size of encoded payload */
+    int getSize()
+    {
+        return payload.length;
+    }
+
+    /** @param buffer Buffer into which to copy the encoded changes and data
+     *  @return <code>true</code> if payload was copied,
+     *          <code>false</code> if buffer uses a different byte order
+     */
+    boolean encode(final ByteBuffer buffer)
+    {
+        if (buffer.order() != ORDER)
+            return false;
+        buffer.put(payload);
+        return true;
+    }
+}
@@ -16,6 +16,7 @@ import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 
+import org.epics.pva.PVASettings;
 import org.epics.pva.data.PVAStructure;
 
 /** PVA Server
@@ -60,6 +61,9 @@ public class PVAServer implements AutoCloseable
     /** Handlers for the TCP connections clients established to this server */
     private final KeySetView<ServerTCPHandler, Boolean> tcp_handlers = ConcurrentHashMap.newKeySet();
 
+    /** Optional PVs that serve metrics, see {@link PVASettings#EPICS_PVAS_METRICS_PV} */
+    private final MetricsService metrics_service;
+
     /** Create PVA Server
      *  @throws Exception on error
      */
@@ -86,6 +90,9 @@ public class PVAServer implements AutoCloseable
         custom_search_handler = search_handler;
         udp = new ServerUDPHandler(this);
         tcp = new ServerTCPListener(this);
+        metrics_service = PVASettings.EPICS_PVAS_METRICS_PV.isEmpty()
+                        ? null
+                        : new MetricsService(this, PVASettings.EPICS_PVAS_METRICS_PV);
     }
 
     /** @return TCP address and port where server is accepting clients */
@@ -251,6 +258,9 @@ public class PVAServer implements AutoCloseable
     @Override
     public void close()
     {
+        if (metrics_service != null)
+            metrics_service.close();
+
         // Stop listening to searches
         udp.close();
 
@@ -9,14 +9,23 @@ package org.epics.pva.server;
 
 import static org.epics.pva.PVASettings.logger;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentHashMap.KeySetView;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
+import org.epics.pva.PVASettings;
 import org.epics.pva.common.PVAHeader;
+import org.epics.pva.common.PVAHistogram;
+import org.epics.pva.common.PVAMetrics;
+import org.epics.pva.data.PVABitSet;
+import org.epics.pva.data.PVAData;
 import org.epics.pva.data.PVAString;
 import org.epics.pva.data.PVAStructure;
 
@@ -83,6 +92,23 @@ public class ServerPV implements AutoCloseable
     /** All the 'monitor' subscriptions to this PV */
     private final KeySetView<MonitorSubscription, Boolean> subscriptions = ConcurrentHashMap.newKeySet();
 
+    /** Metrics of this PV */
+    private final PVAMetrics metrics;
+
+    /** Number of updates */
+    private final LongAdder updates;
+
+    /** Number of updates that were combined because a subscription's queue was full */
+    private final LongAdder overruns;
+
+    /** Time spent encoding an update for subscriptions [ns] */
+    private final PVAHistogram encode_ns;
+
+    /** Buffer for encoding a {@link MonitorUpdate}, grows as needed
+     *  SYNC on data
+     */
+    private ByteBuffer update_buffer = null;
+
     /** Create a PV for serving data
      *  @param name PV name
      *  @param data Initial value
@@ -96,6 +122,11 @@ public class ServerPV implements AutoCloseable
         this.data = data.cloneData();
         rpc = DEFAULT_RPC_SERVICE;
         this.write_handler = write_handler;
+        metrics = PVAMetrics.create(PVAMetrics.SERVER_PV, name);
+        updates = metrics.counter("updates");
+        overruns = metrics.counter("overruns");
+        encode_ns = metrics.histogram("encode_ns");
+        metrics.gauge("subscriptions", subscriptions::size);
     }
 
     /** Create PV for handling RPC calls
@@ -110,6 +141,11 @@ public class ServerPV implements AutoCloseable
         this.data = RPC_SERVICE_VALUE;
         this.rpc = rpc;
         write_handler = READONLY_WRITE_HANDLER;
+        metrics = PVAMetrics.create(PVAMetrics.SERVER_PV, name);
+        updates = metrics.counter("updates");
+        overruns = metrics.counter("overruns");
+        encode_ns = metrics.histogram("encode_ns");
+        metrics.gauge("subscriptions", subscriptions::size);
     }
 
 
@@ -174,10 +210,58 @@ public class ServerPV implements AutoCloseable
             {
                 logger.log(Level.FINER, () -> "Remove " + subscription);
                 subscriptions.remove(subscription);
+                subscription.getMetrics().close();
                 break;
             }
     }
 
+    /** Handle client's pipeline acknowledgement
+     *  @param tcp TCP connection to client
+     *  @param req Monitor request
+     *  @param count Number of additional updates that client can receive
+     */
+    void acknowledgeSubscription(final ServerTCPHandler tcp, final int req, final int count)
+    {
+        for (MonitorSubscription subscription : subscriptions)
+            if (subscription.isFor(tcp, req))
+            {
+                subscription.acknowledge(count);
+                return;
+            }
+        logger.log(Level.FINE, () -> "Pipeline ack for unknown subscription " + req + " of " + this);
+    }
+
+    /** Called by subscription that combined an update with earlier ones */
+    void countOverrun()
+    {
+        overruns.increment();
+    }
+
+    /** Get number of overruns
+     *
+     *  <p>Counts updates that were not sent to a client by themselves
+     *  but combined with other updates because the client's
+     *  monitor queue was full.
+     *
+     *  @return Number of overruns for all subscriptions to this PV
+     */
+    public long getOverruns()
+    {
+        return overruns.sum();
+    }
+
+    /** @return Metrics of this PV */
+    public PVAMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /** @return Number of client subscriptions */
+    public int getSubscriptionCount()
+    {
+        return subscriptions.size();
+    }
+
     /** @return Does the PV have client subscriptions? */
     public boolean isSubscribed()
     {
@@ -197,13 +281,80 @@ public class ServerPV implements AutoCloseable
     public void update(final PVAStructure new_data) throws Exception
     {
         // Update data
+        final MonitorUpdate update;
         synchronized (data)
         {
-            data.update(new_data);
+            final BitSet changes = data.update(new_data);
+            updates.increment();
+            // Encode changes once for all subscriptions
+            if (subscriptions.isEmpty())
+                update = null;
+            else
+            {
+                final long start = System.nanoTime();
+                update = encodeUpdate(changes);
+                encode_ns.record(System.nanoTime() - start);
+            }
         }
         // Update subscriptions
-        for (MonitorSubscription subscription : subscriptions)
-            subscription.update(new_data);
+        if (update != null)
+            for (MonitorSubscription subscription : subscriptions)
+                subscription.update(update);
+    }
+
+    /** @param changes Elements that changed
+     *  @return {@link MonitorUpdate} with encoded changes
+     *  @throws Exception on error
+     */
+    MonitorUpdate encodeUpdate(final BitSet changes) throws Exception
+    {
+        if (update_buffer == null)
+            update_buffer = ByteBuffer.allocate(PVASettings.TCP_BUFFER_SIZE).order(MonitorUpdate.ORDER);
+        while (true)
+        {
+            update_buffer.clear();
+            try
+            {
+                encodeChanges(changes, update_buffer);
+                break;
+            }
+            catch (BufferOverflowException ex)
+            {
+                update_buffer = ByteBuffer.allocate(update_buffer.capacity() * 2).order(MonitorUpdate.ORDER);
+            }
+        }
+        return new MonitorUpdate(changes, Arrays.copyOf(update_buffer.array(), update_buffer.position()));
+    }
+
+    /** Encode changed elements of current value
+     *
+     *  @param changes Elements to encode
+     *  @param buffer Buffer into which to encode the 'changed' bit set and the data elements
+     *  @throws Exception on error
+     */
+    void encodeChanges(final BitSet changes, final ByteBuffer buffer) throws Exception
+    {
+        synchronized (data)
+        {
+            // Encode what changed
+            PVABitSet.encodeBitSet(changes, buffer);
+            // Encode the changed data
+            for (int index = changes.nextSetBit(0);
+                    index >= 0;
+                    index = changes.nextSetBit(index + 1))
+            {
+                // final version of index to allow use in logging lambdas
+                final int i = index;
+                final PVAData element = data.get(i);
+                logger.log(Level.FINER, () -> "Encode data for indexed element " + i + ": " + element);
+                element.encode(buffer);
+
+                // Javadoc for nextSetBit() suggests checking for MAX_VALUE
+                // to avoid index + 1 overflow and thus starting over with first bit
+                if (i == Integer.MAX_VALUE)
+                    break;
+            }
+        }
     }
 
     /** Get current value (thread-safe copy)
@@ -260,6 +411,9 @@ public class ServerPV implements AutoCloseable
         }
 
         server.deletePV(this);
+        for (MonitorSubscription subscription : subscriptions)
+            subscription.getMetrics().close();
+        metrics.close();
     }
 
     @Override
@@ -12,6 +12,7 @@ import static org.epics.pva.PVASettings.logger;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 import org.epics.pva.common.CommandHandlers;
@@ -53,11 +54,15 @@ class ServerTCPHandler extends TCPHandler
     /** Auth info, e.g. client user info and his/her permissions */
     private volatile ServerAuth auth = ServerAuth.Anonymous;
 
+    /** Options of monitor requests by request ID, received in INIT and used when subscription starts */
+    private final ConcurrentHashMap<Integer, MonitorSubscription.Options> monitor_options = new ConcurrentHashMap<>();
+
     public ServerTCPHandler(final PVAServer server, final SocketChannel client) throws Exception
     {
         super(client, false);
         this.server = server;
         server.register(this);
+        startReceiver();
         startSender();
 
         // Initialize TCP connection by setting byte order..
@@ -118,6 +123,29 @@ class ServerTCPHandler extends TCPHandler
         return auth;
     }
 
+    /** @param req Monitor request ID
+     *  @param options Options requested in monitor INIT
+     */
+    void setMonitorOptions(final int req, final MonitorSubscription.Options options)
+    {
+        monitor_options.put(req, options);
+    }
+
+    /** @param req Monitor request ID
+     *  @return Options requested in monitor INIT, or default options
+     */
+    MonitorSubscription.Options getMonitorOptions(final int req)
+    {
+        final MonitorSubscription.Options options = monitor_options.get(req);
+        return options == null ? MonitorSubscription.Options.getDefault() : options;
+    }
+
+    /** @param req Monitor request ID that's no longer used */
+    void forgetMonitorOptions(final int req)
+    {
+        monitor_options.remove(req);
+    }
+
     @Override
     protected void onReceiverExited(final boolean running)
     {
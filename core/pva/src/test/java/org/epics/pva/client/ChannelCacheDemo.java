@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.client;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import org.epics.pva.PVASettings;
+import org.epics.pva.data.PVAInt;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.server.PVAServer;
+
+/** Benchmark: Reconnect many channels with and without channel cache
+ *
+ *  <p>Runs a server with many PVs,
+ *  then connects a client to all of them
+ *  a) via search,
+ *  b) via search while populating the cache,
+ *  c) via the cache.
+ *
+ *  <pre>
+ *  java ... ChannelCacheDemo 10000
+ *  </pre>
+ */
+@SuppressWarnings("nls")
+public class ChannelCacheDemo
+{
+    private static final ClientChannelListener QUIET = (ch, state) -> {};
+
+    /** @return Seconds to connect all channels */
+    private static double connect(final int count) throws Exception
+    {
+        final long start = System.nanoTime();
+        final PVAClient client = new PVAClient();
+        final List<PVAChannel> channels = new ArrayList<>(count);
+        final List<CompletableFuture<Boolean>> connected = new ArrayList<>(count);
+        for (int i=0; i<count; ++i)
+        {
+            final PVAChannel channel = client.getChannel("cache" + i, QUIET);
+            channels.add(channel);
+            connected.add(channel.connect());
+        }
+        CompletableFuture.allOf(connected.toArray(new CompletableFuture[count])).get(5, TimeUnit.MINUTES);
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        for (PVAChannel channel : channels)
+            channel.close();
+        client.close();
+        return seconds;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+
+        // Search only on localhost
+        System.setProperty("EPICS_PVA_AUTO_ADDR_LIST", "NO");
+        System.setProperty("EPICS_PVA_ADDR_LIST", "127.0.0.1");
+
+        LogManager.getLogManager().readConfiguration(PVASettings.class.getResourceAsStream("/pva_logging.properties"));
+        final Logger root = Logger.getLogger("");
+        root.setLevel(Level.WARNING);
+        for (Handler handler : root.getHandlers())
+            handler.setLevel(root.getLevel());
+
+        final PVAServer server = new PVAServer();
+        for (int i=0; i<count; ++i)
+            server.createPV("cache" + i, new PVAStructure("demo", "demo_t", new PVAInt("value", i)));
+
+        final Path file = Files.createTempFile("channel_cache", ".txt");
+        Files.delete(file);
+        try
+        {
+            PVASettings.EPICS_PVA_CHANNEL_CACHE = "";
+            System.out.format("Search             : %6.2f seconds for %d channels\n", connect(count), count);
+
+            PVASettings.EPICS_PVA_CHANNEL_CACHE = file.toString();
+            System.out.format("Search, fill cache : %6.2f seconds for %d channels\n", connect(count), count);
+            System.out.format("Cache              : %6.2f seconds for %d channels\n", connect(count), count);
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+        server.close();
+    }
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.epics.pva.server.Guid;
+import org.junit.Test;
+
+/** Unit test of the {@link ChannelCache} */
+@SuppressWarnings("nls")
+public class ChannelCacheTest
+{
+    @Test
+    public void testSaveLoad() throws Exception
+    {
+        final Path file = Files.createTempFile("channel_cache", ".txt");
+        try
+        {
+            final InetSocketAddress ipv4 = new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 5075);
+            final InetSocketAddress ipv6 = new InetSocketAddress(InetAddress.getByName("::1"), 5076);
+            final Guid guid4 = new Guid(), guid6 = new Guid();
+
+            ChannelCache cache = new ChannelCache(file);
+            assertEquals(0, cache.size());
+            cache.put("a", ipv4, guid4);
+            cache.put("b", ipv4, guid4);
+            cache.put("c", ipv6, guid6);
+            cache.put("tab\tname", ipv6, guid6);
+            cache.save();
+
+            cache = new ChannelCache(file);
+            assertEquals(3, cache.size());
+            assertEquals(ipv4, cache.get("a").address);
+            assertEquals(guid4, cache.get("a").guid);
+            assertEquals(ipv6, cache.get("c").address);
+            assertEquals(guid6, cache.get("c").guid);
+
+            // Same server, nothing to invalidate
+            assertEquals(0, cache.invalidate(ipv4, guid4));
+            // New server on same address
+            assertEquals(2, cache.invalidate(ipv4, new Guid()));
+            assertNull(cache.get("a"));
+            assertEquals(1, cache.size());
+            // Server unreachable
+            assertEquals(1, cache.invalidate(ipv6, null));
+            assertEquals(0, cache.size());
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testGuidText()
+    {
+        final Guid guid = new Guid();
+        assertEquals(guid, Guid.fromText(guid.asText()));
+    }
+}
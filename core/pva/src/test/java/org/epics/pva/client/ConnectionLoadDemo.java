@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.client;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import org.epics.pva.PVASettings;
+import org.epics.pva.data.PVALong;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.server.Guid;
+import org.epics.pva.server.PVAServer;
+import org.epics.pva.server.ServerPV;
+
+/** Load test: Many loopback TCP connections
+ *
+ *  <p>Runs a server and opens one TCP connection with
+ *  one monitored channel per simulated client,
+ *  then reports threads, heap use and monitor latency.
+ *
+ *  <p>Compare the default thread-per-socket mode
+ *  <pre>
+ *  java ... ConnectionLoadDemo 2000
+ *  </pre>
+ *  with selector mode
+ *  <pre>
+ *  java -DEPICS_PVA_TCP_SELECTOR_THREADS=2 ... ConnectionLoadDemo 2000
+ *  </pre>
+ */
+@SuppressWarnings("nls")
+public class ConnectionLoadDemo
+{
+    public static void main(String[] args) throws Exception
+    {
+        final int connections = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        final long period_ms = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        final int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        // Connections are created 'manually', no need for UDP search.
+        // Each connection has its own send buffer, reduce from the multi-MB default.
+        System.setProperty("EPICS_PVA_AUTO_ADDR_LIST", "NO");
+        System.setProperty("EPICS_PVA_ADDR_LIST", "");
+        if (System.getProperty("EPICS_PVA_SEND_BUFFER_SIZE") == null)
+            System.setProperty("EPICS_PVA_SEND_BUFFER_SIZE", "65536");
+
+        LogManager.getLogManager().readConfiguration(PVASettings.class.getResourceAsStream("/pva_logging.properties"));
+        final Logger root = Logger.getLogger("");
+        root.setLevel(Level.WARNING);
+        for (Handler handler : root.getHandlers())
+            handler.setLevel(root.getLevel());
+
+        System.out.println("Selector threads: " + PVASettings.EPICS_PVA_TCP_SELECTOR_THREADS);
+        final int base_threads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        // Server with one PV that holds the nano time of its last update
+        final PVAServer server = new PVAServer();
+        final PVALong value = new PVALong("value", false, System.nanoTime());
+        final PVAStructure data = new PVAStructure("demo", "demo_t", value);
+        final ServerPV pv = server.createPV("load", data);
+        final InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getTCPAddress().getPort());
+
+        // Each simulated client uses its own TCP connection.
+        // Bypass search and connect the channel as if server had replied.
+        final PVAClient client = new PVAClient();
+        final List<ClientTCPHandler> tcps = new ArrayList<>();
+        final List<PVAChannel> channels = new ArrayList<>();
+        final List<CompletableFuture<Boolean>> connected = new ArrayList<>();
+        final long start = System.nanoTime();
+        for (int i=0; i<connections; ++i)
+        {
+            final ClientTCPHandler tcp = new ClientTCPHandler(client, address, Guid.EMPTY);
+            tcps.add(tcp);
+            final PVAChannel channel = client.getChannel("load");
+            channel.setState(ClientChannelState.FOUND);
+            channel.registerWithServer(tcp);
+            channels.add(channel);
+            connected.add(channel.connect());
+        }
+        CompletableFuture.allOf(connected.toArray(new CompletableFuture[connected.size()])).get(60, TimeUnit.SECONDS);
+        System.out.format("Connected %d channels in %.1f seconds\n", connections, (System.nanoTime() - start)/1e9);
+
+        final LongAdder updates = new LongAdder();
+        final LongAdder total_latency = new LongAdder();
+        final AtomicLong max_latency = new AtomicLong();
+        final MonitorListener listener = (ch, changes, overruns, received) ->
+        {
+            if (received == null)
+                return;
+            final long latency = System.nanoTime() - ((PVALong) received.get("value")).get();
+            updates.increment();
+            total_latency.add(latency);
+            max_latency.accumulateAndGet(latency, Math::max);
+        };
+        for (PVAChannel channel : channels)
+            channel.subscribe("", listener);
+
+        // Let subscriptions start, then reset statistics and measure
+        final long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds + 2);
+        boolean measuring = false;
+        while (System.currentTimeMillis() < end)
+        {
+            TimeUnit.MILLISECONDS.sleep(period_ms);
+            value.set(System.nanoTime());
+            pv.update(data);
+            if (! measuring  &&  end - System.currentTimeMillis() < TimeUnit.SECONDS.toMillis(seconds))
+            {
+                updates.reset();
+                total_latency.reset();
+                max_latency.set(0);
+                measuring = true;
+            }
+        }
+
+        System.gc();
+        final Runtime runtime = Runtime.getRuntime();
+        final long count = Math.max(1, updates.sum());
+        System.out.format("Threads     : %d (%d before starting server and client)\n",
+                          ManagementFactory.getThreadMXBean().getThreadCount(), base_threads);
+        System.out.format("Heap used   : %.1f MB\n", (runtime.totalMemory() - runtime.freeMemory()) / 1024.0 / 1024.0);
+        System.out.format("Updates     : %d in %d seconds\n", updates.sum(), seconds);
+        System.out.format("Latency avg : %.3f ms\n", total_latency.sum() / 1e6 / count);
+        System.out.format("Latency max : %.3f ms\n", max_latency.get() / 1e6);
+
+        // Client waits for channels to close, then close the TCP connections
+        for (PVAChannel channel : channels)
+            channel.close();
+        client.close();
+        for (ClientTCPHandler tcp : tcps)
+            tcp.close(false);
+        server.close();
+    }
+}
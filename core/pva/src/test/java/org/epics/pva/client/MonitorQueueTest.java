@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.epics.pva.PVASettings;
+import org.epics.pva.data.PVAInt;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.server.Guid;
+import org.epics.pva.server.PVAServer;
+import org.epics.pva.server.ServerPV;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Test of the server's per-subscription monitor queue
+ *
+ *  <p>Client connects to server via loopback,
+ *  bypassing the UDP search.
+ */
+@SuppressWarnings("nls")
+public class MonitorQueueTest
+{
+    private static final int UPDATES = 50;
+
+    private static boolean orig_auto_addr_list;
+    private static String orig_addr_list;
+    private static PVAServer server;
+    private static PVAClient client;
+
+    @BeforeClass
+    public static void setup() throws Exception
+    {
+        // No searches, channels are connected 'manually'
+        orig_auto_addr_list = PVASettings.EPICS_PVA_AUTO_ADDR_LIST;
+        orig_addr_list = PVASettings.EPICS_PVA_ADDR_LIST;
+        PVASettings.EPICS_PVA_AUTO_ADDR_LIST = false;
+        PVASettings.EPICS_PVA_ADDR_LIST = "";
+        server = new PVAServer();
+        client = new PVAClient();
+    }
+
+    @AfterClass
+    public static void shutdown()
+    {
+        client.close();
+        server.close();
+        PVASettings.EPICS_PVA_AUTO_ADDR_LIST = orig_auto_addr_list;
+        PVASettings.EPICS_PVA_ADDR_LIST = orig_addr_list;
+    }
+
+    /** @param name PV name
+     *  @return Channel connected to server PV of that name
+     */
+    private PVAChannel connect(final String name) throws Exception
+    {
+        final InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getTCPAddress().getPort());
+        final PVAChannel channel = client.getChannel(name);
+        channel.setState(ClientChannelState.FOUND);
+        channel.registerWithServer(new ClientTCPHandler(client, address, Guid.EMPTY));
+        channel.connect().get(5, TimeUnit.SECONDS);
+        return channel;
+    }
+
+    @Test
+    public void testPipeline() throws Exception
+    {
+        final PVAInt value = new PVAInt("value", 0);
+        final PVAStructure data = new PVAStructure("demo", "demo_t", value);
+        final ServerPV pv = server.createPV("pipelined", data);
+        final PVAChannel channel = connect("pipelined");
+
+        // Pipeline, i.e. server side queue, is large enough to hold all updates
+        final List<Integer> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        final AutoCloseable subscription = channel.subscribe("", 2*UPDATES, (ch, changes, overruns, update) ->
+        {
+            final int number = ((PVAInt) update.get("value")).get();
+            received.add(number);
+            if (number == UPDATES)
+                done.countDown();
+        });
+        // Await initial value, then send updates as fast as possible
+        while (received.isEmpty())
+            TimeUnit.MILLISECONDS.sleep(10);
+        for (int i=1; i<=UPDATES; ++i)
+        {
+            value.set(i);
+            pv.update(data);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        // Received every update, in order
+        assertEquals(UPDATES + 1, received.size());
+        for (int i=0; i<=UPDATES; ++i)
+            assertEquals(i, received.get(i).intValue());
+        assertEquals(0, pv.getOverruns());
+
+        subscription.close();
+        channel.close();
+    }
+
+    @Test
+    public void testSlowClient() throws Exception
+    {
+        final PVAInt value = new PVAInt("value", 0);
+        final PVAStructure data = new PVAStructure("demo", "demo_t", value);
+        final ServerPV pv = server.createPV("slow", data);
+        final PVAChannel channel = connect("slow");
+
+        // Client is stuck handling the first update
+        final List<Integer> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch stuck = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final AutoCloseable subscription = channel.subscribe("", 4, (ch, changes, overruns, update) ->
+        {
+            final int number = ((PVAInt) update.get("value")).get();
+            received.add(number);
+            try
+            {
+                stuck.await();
+            }
+            catch (InterruptedException ex)
+            {
+                // Ignore
+            }
+            if (number == UPDATES)
+                done.countDown();
+        });
+        while (received.isEmpty())
+            TimeUnit.MILLISECONDS.sleep(10);
+        for (int i=1; i<=UPDATES; ++i)
+        {
+            value.set(i);
+            pv.update(data);
+        }
+
+        // Server had to combine updates, but client still receives the most recent value
+        assertTrue(pv.getOverruns() > 0);
+        stuck.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(received.size() < UPDATES);
+        for (int i=1; i<received.size(); ++i)
+            assertTrue(received.get(i-1) < received.get(i));
+
+        subscription.close();
+        channel.close();
+    }
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/** Unit test of {@link PVAMetrics} and {@link PVAHistogram} */
+@SuppressWarnings("nls")
+public class PVAMetricsTest
+{
+    @Test
+    public void testHistogram()
+    {
+        final PVAHistogram hist = new PVAHistogram();
+        assertEquals(0L, hist.getCount());
+        assertEquals(0L, hist.getPercentile(0.99));
+
+        for (int i=1; i<=1000; ++i)
+            hist.record(i);
+        assertEquals(1000L, hist.getCount());
+        assertEquals(500.5, hist.getMean(), 0.0);
+        assertEquals(1000L, hist.getMax());
+
+        // Percentiles are within a factor of 2
+        final long p50 = hist.getPercentile(0.5);
+        assertTrue(p50 >= 500  &&  p50 <= 1000);
+        assertEquals(1000L, hist.getPercentile(0.99));
+        System.out.println(hist);
+    }
+
+    @Test
+    public void testRegistry()
+    {
+        final AtomicLong queue = new AtomicLong(3);
+        final PVAMetrics metrics = PVAMetrics.create(PVAMetrics.TCP, "test");
+        metrics.counter("sent").add(42);
+        metrics.gauge("queue", queue::get);
+        metrics.histogram("encode_ns").record(100);
+
+        assertTrue(PVAMetrics.getAll().contains(metrics));
+        Map<String, Number> values = metrics.getSnapshot();
+        assertEquals(42L, values.get("sent").longValue());
+        assertEquals(3L, values.get("queue").longValue());
+        assertEquals(1L, values.get("encode_ns.count").longValue());
+        assertEquals(100L, values.get("encode_ns.max").longValue());
+
+        queue.set(7);
+        values = metrics.getSnapshot();
+        assertEquals(7L, values.get("queue").longValue());
+        System.out.print(metrics.format());
+
+        metrics.close();
+        assertFalse(PVAMetrics.getAll().contains(metrics));
+    }
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.epics.pva.PVASettings;
+import org.junit.Test;
+
+/** Unit test of the TCPHandler's batched and direct sending */
+@SuppressWarnings("nls")
+public class SendBatchTest
+{
+    /** Submit messages, check that they're received in order */
+    private void checkBatching(final int selector_threads) throws Exception
+    {
+        final int orig_selector_threads = PVASettings.EPICS_PVA_TCP_SELECTOR_THREADS;
+        PVASettings.EPICS_PVA_TCP_SELECTOR_THREADS = selector_threads;
+        try
+        (
+            ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            SocketChannel client = SocketChannel.open(server.getLocalAddress());
+            SocketChannel peer = server.accept();
+        )
+        {
+            final TCPHandler tcp = new TCPHandler(client, true) {};
+
+            // Queue small messages, including one that is too large for a batch,
+            // before starting the sender
+            final int count = 100, large = 50;
+            final int large_size = 2 * PVASettings.TCP_BUFFER_SIZE;
+            for (int i=0; i<count; ++i)
+            {
+                final int index = i;
+                final int size = i == large ? large_size : 4;
+                tcp.submit((version, buffer) ->
+                {
+                    PVAHeader.encodeMessageHeader(buffer, PVAHeader.FLAG_NONE, PVAHeader.CMD_ECHO, size);
+                    buffer.putInt(index);
+                    buffer.position(buffer.position() + size - 4);
+                });
+            }
+            tcp.startReceiver();
+            tcp.startSender();
+
+            final ByteBuffer received = ByteBuffer.allocate((count-1) * (PVAHeader.HEADER_SIZE + 4) + PVAHeader.HEADER_SIZE + large_size);
+            while (received.hasRemaining())
+                peer.read(received);
+            received.flip();
+            // Sender uses native byte order
+            received.order(ByteOrder.nativeOrder());
+            for (int i=0; i<count; ++i)
+            {
+                final int size = received.getInt(received.position() + PVAHeader.HEADER_OFFSET_PAYLOAD_SIZE);
+                received.position(received.position() + PVAHeader.HEADER_SIZE);
+                assertEquals(i, received.getInt());
+                received.position(received.position() + size - 4);
+            }
+
+            assertEquals(count, tcp.getSentMessages());
+            assertEquals(received.limit(), tcp.getSentBytes());
+            // Batch before large message, large message, batch after
+            System.out.println(tcp.getSendFlushes() + " flushes for " + tcp.getSentMessages() + " messages");
+            assertTrue(tcp.getSendFlushes() <= 3);
+
+            tcp.close(true);
+        }
+        finally
+        {
+            PVASettings.EPICS_PVA_TCP_SELECTOR_THREADS = orig_selector_threads;
+        }
+    }
+
+    @Test
+    public void testThreadSender() throws Exception
+    {
+        checkBatching(0);
+    }
+
+    @Test
+    public void testSelectorSender() throws Exception
+    {
+        checkBatching(1);
+    }
+
+    /** Direct send() from the selector loop must not block it */
+    @Test
+    public void testSelectorDirectSend() throws Exception
+    {
+        final int orig_selector_threads = PVASettings.EPICS_PVA_TCP_SELECTOR_THREADS;
+        PVASettings.EPICS_PVA_TCP_SELECTOR_THREADS = 1;
+        try
+        (
+            ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            SocketChannel client = SocketChannel.open(server.getLocalAddress());
+            SocketChannel peer = server.accept();
+        )
+        {
+            // More than the socket accepts while the peer does not read
+            final int size = 16 * 1024 * 1024;
+            final ByteBuffer large = ByteBuffer.allocate(PVAHeader.HEADER_SIZE + size);
+            large.order(ByteOrder.nativeOrder());
+            PVAHeader.encodeMessageHeader(large, PVAHeader.FLAG_NONE, PVAHeader.CMD_ECHO, size);
+            for (int i=0; i<size; ++i)
+                large.put((byte) i);
+            large.flip();
+
+            final CountDownLatch echos = new CountDownLatch(2);
+            final TCPHandler tcp = new TCPHandler(client, true)
+            {
+                @Override
+                protected void handleApplicationMessage(final byte command, final ByteBuffer buffer) throws Exception
+                {
+                    if (command != PVAHeader.CMD_ECHO)
+                        super.handleApplicationMessage(command, buffer);
+                    // Reply to first message directly, like the client's connection validation
+                    else if (echos.getCount() == 2)
+                        send(large);
+                    echos.countDown();
+                }
+            };
+            tcp.startReceiver();
+
+            // Second message is handled while the reply to the first one waits for the socket
+            final ByteBuffer echo = ByteBuffer.allocate(PVAHeader.HEADER_SIZE);
+            echo.order(ByteOrder.nativeOrder());
+            for (int i=0; i<2; ++i)
+            {
+                PVAHeader.encodeMessageHeader(echo, PVAHeader.FLAG_SERVER, PVAHeader.CMD_ECHO, 0);
+                echo.flip();
+                while (echo.hasRemaining())
+                    peer.write(echo);
+            }
+            assertTrue(echos.await(10, TimeUnit.SECONDS));
+
+            // Queued message follows the direct send once the sender is started
+            tcp.submit((version, buffer) ->
+            {
+                PVAHeader.encodeMessageHeader(buffer, PVAHeader.FLAG_NONE, PVAHeader.CMD_ECHO, 4);
+                buffer.putInt(42);
+            });
+            tcp.startSender();
+
+            final ByteBuffer received = ByteBuffer.allocate(PVAHeader.HEADER_SIZE + size + PVAHeader.HEADER_SIZE + 4);
+            while (received.hasRemaining())
+                peer.read(received);
+            received.flip();
+            received.order(ByteOrder.nativeOrder());
+            assertEquals(size, received.getInt(PVAHeader.HEADER_OFFSET_PAYLOAD_SIZE));
+            received.position(PVAHeader.HEADER_SIZE);
+            for (int i=0; i<size; ++i)
+                assertEquals((byte) i, received.get());
+            assertEquals(4, received.getInt(received.position() + PVAHeader.HEADER_OFFSET_PAYLOAD_SIZE));
+            assertEquals(42, received.getInt(received.position() + PVAHeader.HEADER_SIZE));
+
+            tcp.close(true);
+        }
+        finally
+        {
+            PVASettings.EPICS_PVA_TCP_SELECTOR_THREADS = orig_selector_threads;
+        }
+    }
+}
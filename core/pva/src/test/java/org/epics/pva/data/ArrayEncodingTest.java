@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.data;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+/** Test bulk encoding and (double-buffered) decoding of arrays */
+@SuppressWarnings("nls")
+public class ArrayEncodingTest
+{
+    private static final ByteOrder[] ORDERS = { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN };
+
+    /** Encode data, then decode into target
+     *  @return Buffer, fully read
+     */
+    private ByteBuffer roundtrip(final PVAData data, final PVAData target, final ByteOrder order) throws Exception
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(1000);
+        buffer.order(order);
+        // Start at odd offset to check that views don't assume alignment
+        buffer.put((byte) 42);
+        data.encode(buffer);
+        buffer.flip();
+        assertThat(buffer.get(), equalTo((byte) 42));
+        target.decode(null, buffer);
+        assertThat(buffer.remaining(), equalTo(0));
+        return buffer;
+    }
+
+    @Test
+    public void testRoundtrip() throws Exception
+    {
+        for (ByteOrder order : ORDERS)
+        {
+            final PVADoubleArray doubles = new PVADoubleArray("x");
+            roundtrip(new PVADoubleArray("x", 1.0, -2.5, Double.NaN, 3e100), doubles, order);
+            assertArrayEquals(new double[] { 1.0, -2.5, Double.NaN, 3e100 }, doubles.get(), 0.0);
+
+            final PVAFloatArray floats = new PVAFloatArray("x");
+            roundtrip(new PVAFloatArray("x", 1.0f, -2.5f), floats, order);
+            assertArrayEquals(new float[] { 1.0f, -2.5f }, floats.get(), 0.0f);
+
+            final PVALongArray longs = new PVALongArray("x", false);
+            roundtrip(new PVALongArray("x", false, 1L, -2L, Long.MAX_VALUE), longs, order);
+            assertArrayEquals(new long[] { 1L, -2L, Long.MAX_VALUE }, longs.get());
+
+            final PVAIntArray ints = new PVAIntArray("x", false);
+            roundtrip(new PVAIntArray("x", false, 1, -2, Integer.MIN_VALUE), ints, order);
+            assertArrayEquals(new int[] { 1, -2, Integer.MIN_VALUE }, ints.get());
+
+            final PVAShortArray shorts = new PVAShortArray("x", false);
+            roundtrip(new PVAShortArray("x", false, (short)1, (short)-2), shorts, order);
+            assertArrayEquals(new short[] { 1, -2 }, shorts.get());
+
+            final PVAByteArray bytes = new PVAByteArray("x", false);
+            roundtrip(new PVAByteArray("x", false, (byte)1, (byte)-2), bytes, order);
+            assertArrayEquals(new byte[] { 1, -2 }, bytes.get());
+
+            final PVADoubleArray empty = new PVADoubleArray("x", 1.0);
+            roundtrip(new PVADoubleArray("x"), empty, order);
+            assertThat(empty.get().length, equalTo(0));
+        }
+    }
+
+    @Test
+    public void testDefaultAllocates() throws Exception
+    {
+        final PVADoubleArray data = new PVADoubleArray("x");
+        roundtrip(new PVADoubleArray("x", 1, 2, 3), data, ByteOrder.BIG_ENDIAN);
+        final double[] first = data.get();
+        roundtrip(new PVADoubleArray("x", 4, 5, 6), data, ByteOrder.BIG_ENDIAN);
+        roundtrip(new PVADoubleArray("x", 7, 8, 9), data, ByteOrder.BIG_ENDIAN);
+        // Original array must not change
+        assertArrayEquals(new double[] { 1, 2, 3 }, first, 0.0);
+        assertThat(data.get(), not(sameInstance(first)));
+    }
+
+    @Test
+    public void testDoubleBuffered() throws Exception
+    {
+        final PVAIntArray data = new PVAIntArray("x", false);
+        data.setDoubleBuffered(true);
+
+        roundtrip(new PVAIntArray("x", false, 1, 2, 3), data, ByteOrder.LITTLE_ENDIAN);
+        final int[] first = data.get();
+        roundtrip(new PVAIntArray("x", false, 4, 5, 6), data, ByteOrder.LITTLE_ENDIAN);
+        final int[] second = data.get();
+        assertThat(second, not(sameInstance(first)));
+        // Previous value remains valid for one more update
+        assertArrayEquals(new int[] { 1, 2, 3 }, first);
+
+        // Next update of same size re-uses the first array
+        roundtrip(new PVAIntArray("x", false, 7, 8, 9), data, ByteOrder.LITTLE_ENDIAN);
+        assertThat(data.get(), sameInstance(first));
+        assertArrayEquals(new int[] { 7, 8, 9 }, data.get());
+        assertArrayEquals(new int[] { 4, 5, 6 }, second);
+
+        // Different size requires new array
+        roundtrip(new PVAIntArray("x", false, 10, 11), data, ByteOrder.LITTLE_ENDIAN);
+        assertThat(data.get(), not(sameInstance(second)));
+        assertArrayEquals(new int[] { 10, 11 }, data.get());
+    }
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.proxy;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.epics.pva.data.PVABool;
+import org.epics.pva.data.PVADoubleArray;
+import org.epics.pva.data.PVAInt;
+import org.epics.pva.data.PVALong;
+import org.epics.pva.data.PVAShortArray;
+import org.epics.pva.data.PVAString;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.data.PVAStructureArray;
+import org.epics.pva.data.PVAUnion;
+import org.junit.Test;
+
+/** Unit test of the {@link ArrayDecimator} */
+@SuppressWarnings("nls")
+public class ArrayDecimatorTest
+{
+    @Test
+    public void testArray() throws Exception
+    {
+        final double[] array = new double[10];
+        for (int i=0; i<array.length; ++i)
+            array[i] = i;
+        final PVAStructure data = new PVAStructure("", "demo_t", new PVADoubleArray("value", array));
+
+        // Small enough, passed on as is
+        assertSame(data, new ArrayDecimator(10).decimate(data));
+
+        // Every 3rd element
+        final PVAStructure decimated = new ArrayDecimator(4).decimate(data);
+        assertArrayEquals(new double[] { 0, 3, 6, 9 }, ((PVADoubleArray) decimated.get("value")).get(), 0.0);
+        // Original is unchanged
+        assertEquals(10, ((PVADoubleArray) data.get("value")).get().length);
+    }
+
+    private static PVAStructure dimension(final int size)
+    {
+        return new PVAStructure("", "dimension_t",
+                                new PVAInt("size", size),
+                                new PVAInt("offset", 0),
+                                new PVAInt("fullSize", size),
+                                new PVAInt("binning", 1),
+                                new PVABool("reverse", false));
+    }
+
+    private static PVAStructure image(final String codec, final short[] pixels, final int... sizes)
+    {
+        final PVAStructure[] dims = new PVAStructure[sizes.length];
+        for (int i=0; i<sizes.length; ++i)
+            dims[i] = dimension(sizes[i]);
+        return new PVAStructure("", "epics:nt/NTNDArray:1.0",
+                                new PVAUnion("value", "", 1,
+                                             new PVADoubleArray("doubleValue"),
+                                             new PVAShortArray("shortValue", false, pixels)),
+                                new PVAStructure("codec", "codec_t",
+                                                 new PVAString("name", codec)),
+                                new PVALong("compressedSize", false, 2 * pixels.length),
+                                new PVALong("uncompressedSize", false, 2 * pixels.length),
+                                new PVAStructureArray("dimension", dims[0], dims));
+    }
+
+    @Test
+    public void testImage() throws Exception
+    {
+        // RGB image 3 x 40 x 20, pixel value encodes position
+        final short[] pixels = new short[3*40*20];
+        int i = 0;
+        for (int y=0; y<20; ++y)
+            for (int x=0; x<40; ++x)
+                for (int c=0; c<3; ++c)
+                    pixels[i++] = (short) (y*1000 + x*10 + c);
+        final PVAStructure data = image("", pixels, 3, 40, 20);
+
+        final PVAStructure decimated = new ArrayDecimator(3*40*20/4).decimate(data);
+
+        // Kept all colors, every 2nd column and row
+        final PVAStructure[] dims = ((PVAStructureArray) decimated.get("dimension")).get();
+        assertEquals(3, ((PVAInt) dims[0].get("size")).get());
+        assertEquals(1, ((PVAInt) dims[0].get("binning")).get());
+        assertEquals(20, ((PVAInt) dims[1].get("size")).get());
+        assertEquals(2, ((PVAInt) dims[1].get("binning")).get());
+        assertEquals(10, ((PVAInt) dims[2].get("size")).get());
+        assertEquals(2, ((PVAInt) dims[2].get("binning")).get());
+
+        final short[] kept = ((PVAShortArray) ((PVAUnion) decimated.get("value")).get()).get();
+        assertEquals(3*20*10, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(2, kept[2]);
+        assertEquals(20, kept[3]);
+        assertEquals(2000, kept[3*20]);
+        assertEquals(18*1000 + 38*10 + 2, kept[kept.length-1]);
+        assertEquals(2L * kept.length, ((PVALong) decimated.get("uncompressedSize")).get());
+
+        // Original is unchanged
+        assertEquals(40, ((PVAInt) ((PVAStructureArray) data.get("dimension")).get()[1].get("size")).get());
+        assertSame(pixels, ((PVAShortArray) ((PVAUnion) data.get("value")).get()).get());
+        assertEquals(2L * pixels.length, ((PVALong) data.get("uncompressedSize")).get());
+    }
+
+    @Test
+    public void testCompressedImage() throws Exception
+    {
+        final PVAStructure data = image("lz4", new short[100*100], 100, 100);
+        assertSame(data, new ArrayDecimator(100).decimate(data));
+    }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.epics.pva.PVASettings;
+import org.epics.pva.data.PVABitSet;
+import org.epics.pva.data.PVADoubleArray;
+import org.epics.pva.data.PVALong;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.data.PVATypeRegistry;
+import org.junit.Test;
+
+/** Unit test of the {@link MonitorUpdate} that's shared by all subscriptions */
+@SuppressWarnings("nls")
+public class MonitorUpdateTest
+{
+    @Test
+    public void testSharedEncoding() throws Exception
+    {
+        // Array is larger than the initial update buffer
+        final PVAStructure data = new PVAStructure("demo", "demo_t",
+                                                   new PVALong("count", false, 1),
+                                                   new PVADoubleArray("array", new double[PVASettings.TCP_BUFFER_SIZE]));
+        final ServerPV pv = new ServerPV(null, "demo", data, ServerPV.READONLY_WRITE_HANDLER);
+
+        // Change all elements
+        final PVAStructure new_data = data.cloneData();
+        ((PVALong) new_data.get("count")).set(2);
+        final double[] array = new double[PVASettings.TCP_BUFFER_SIZE];
+        Arrays.fill(array, 3.14);
+        ((PVADoubleArray) new_data.get("array")).set(array);
+        final BitSet changes = pv.getData().update(new_data);
+        pv.update(new_data);
+        // Complete structure changed
+        assertEquals(1, changes.cardinality());
+        assertTrue(changes.get(0));
+
+        // Shared update matches what one subscription would encode
+        final MonitorUpdate update = pv.encodeUpdate(changes);
+        final ByteBuffer shared = ByteBuffer.allocate(update.getSize()).order(MonitorUpdate.ORDER);
+        assertTrue(update.encode(shared));
+
+        final ByteBuffer single = ByteBuffer.allocate(update.getSize()).order(MonitorUpdate.ORDER);
+        pv.encodeChanges(changes, single);
+        assertArrayEquals(single.array(), shared.array());
+
+        // Decode into copy of original data
+        shared.flip();
+        final PVAStructure received = data.cloneData();
+        final BitSet received_changes = PVABitSet.decodeBitSet(shared);
+        assertEquals(changes, received_changes);
+        received.decodeElements(received_changes, new PVATypeRegistry(), shared);
+        assertFalse(shared.hasRemaining());
+        assertEquals(2, ((PVALong) received.get("count")).get());
+        assertArrayEquals(array, ((PVADoubleArray) received.get("array")).get(), 0.0);
+
+        // Cannot copy into buffer of other byte order
+        final ByteOrder other = MonitorUpdate.ORDER == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        assertFalse(update.encode(ByteBuffer.allocate(update.getSize()).order(other)));
+    }
+}
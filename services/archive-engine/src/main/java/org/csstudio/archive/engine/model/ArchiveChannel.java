@@ -134,7 +134,9 @@ abstract public class ArchiveChannel
         this.name = name;
         this.enablement = enablement;
         this.last_archived_value = last_archived_value;
-        this.buffer = new SampleBuffer(name, retention, buffer_capacity);
+        this.buffer = Preferences.packed_sample_buffer
+                    ? new PackedSampleBuffer(name, retention, buffer_capacity)
+                    : new SampleBuffer(name, retention, buffer_capacity);
         if (last_archived_value == null)
             logger.log(Level.INFO, "No known last value for {0}", name);
     }
@@ -369,7 +371,7 @@ abstract public class ArchiveChannel
 
         // Did we recover from write errors?
         if (need_write_error_sample &&
-            SampleBuffer.isInErrorState() == false)
+            buffer.hasWriteError() == false)
         {
             need_write_error_sample = false;
             logger.log(Level.FINE, "Wrote error sample for {0}", getName());
@@ -464,7 +466,7 @@ abstract public class ArchiveChannel
         // else ...
         last_archived_value = value;
         buffer.add(value);
-        if (SampleBuffer.isInErrorState())
+        if (buffer.hasWriteError())
             need_write_error_sample = true;
         return true;
     }
@@ -9,16 +9,21 @@ package org.csstudio.archive.engine.model;
 
 import static org.csstudio.archive.Engine.logger;
 
+import java.io.File;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 
 import org.csstudio.archive.Preferences;
 import org.csstudio.archive.engine.scanner.ScanThread;
 import org.csstudio.archive.engine.scanner.Scanner;
+import org.csstudio.archive.engine.spool.Spool;
 import org.csstudio.archive.writer.rdb.TimestampHelper;
 import org.epics.vtype.Alarm;
 import org.epics.vtype.Time;
@@ -41,7 +46,8 @@ public class EngineModel
     private String name = "Archive Engine";  //$NON-NLS-1$
 
     /** Thread that writes to the <code>archive</code> */
-    final private WriteThread writer;
+    /** Write threads, each handling a partition of the channels */
+    final private List<WriteThread> writers = new ArrayList<>();
 
     /** All the channels.
      *  <p>
@@ -91,7 +97,12 @@ public class EngineModel
     /** Construct model that writes to archive */
     public EngineModel()
     {
-        writer = new WriteThread();
+        final int count = Math.max(1, Preferences.write_threads);
+        if (count == 1)
+            writers.add(new WriteThread());
+        else
+            for (int i=1; i<=count; ++i)
+                writers.add(new WriteThread("WriteThread " + i));
     }
 
     /** @return Name (description) */
@@ -263,7 +274,7 @@ public class EngineModel
             channels.add(channel);
             channel_by_name.put(channel.getName(), channel);
         }
-        writer.addChannel(channel);
+        writers.get(getPartition(channel.getName())).addChannel(channel);
 
         // Connect new or old channel to group
         channel.addGroup(group);
@@ -272,12 +283,70 @@ public class EngineModel
         return channel;
     }
 
+    /** @param name Channel name
+     *  @return Index of write thread for the channel
+     */
+    private int getPartition(final String name)
+    {
+        // Stable partition by name keeps all samples of a channel in one thread
+        return Math.floorMod(name.hashCode(), writers.size());
+    }
+
+    /** @param partition Index of write thread
+     *  @return Spool directory for the write thread
+     */
+    private File getSpoolDirectory(final int partition)
+    {
+        // Name depends on the number of partitions,
+        // so directories of a different arrangement are recognized
+        return new File(Preferences.spool_directory, "Partition " + (partition + 1) + " of " + writers.size());
+    }
+
+    /** Create spool for each write thread
+     *
+     *  <p>Samples left in other spool directories,
+     *  for example because the number of write threads changed,
+     *  are first moved into the spool of their channel's write thread.
+     *  This keeps the samples of each channel in one spool, in order.
+     *
+     *  @throws Exception on error
+     */
+    private void openSpools() throws Exception
+    {
+        final Set<File> directories = new HashSet<>();
+        for (int i=0; i<writers.size(); ++i)
+            directories.add(getSpoolDirectory(i));
+        final File[] others = new File(Preferences.spool_directory).listFiles(file -> file.isDirectory()  &&  ! directories.contains(file));
+        if (others != null  &&  others.length > 0)
+        {   // Quota is checked once the samples have been moved
+            final List<Spool> spools = new ArrayList<>();
+            for (int i=0; i<writers.size(); ++i)
+                spools.add(new Spool(getSpoolDirectory(i), Long.MAX_VALUE));
+            for (File directory : others)
+            {
+                final Spool other = new Spool(directory, Long.MAX_VALUE);
+                final long count = other.transfer(name -> spools.get(getPartition(name)));
+                other.close();
+                logger.log(Level.INFO, "Moved " + count + " samples from spool " + directory);
+                if (! directory.delete())
+                    logger.log(Level.WARNING, "Cannot delete spool directory " + directory);
+            }
+            for (Spool spool : spools)
+                spool.close();
+        }
+        for (int i=0; i<writers.size(); ++i)
+            writers.get(i).setSpool(new Spool(getSpoolDirectory(i), Preferences.spool_quota * 1024L * 1024L));
+    }
+
     /** Start processing all channels and writing to archive. */
     public void start() throws Exception
     {
         start_time = Instant.now();
         state = State.RUNNING;
-        writer.start(Preferences.write_period, Preferences.batch_size);
+        if (! Preferences.spool_directory.isEmpty())
+            openSpools();
+        for (WriteThread writer : writers)
+            writer.start(Preferences.write_period, Preferences.batch_size);
         for (ArchiveGroup group : groups)
         {
             group.start();
@@ -290,22 +359,45 @@ public class EngineModel
         scan_thread.start();
     }
 
-    /** @return Timestamp of end of last write run */
+    /** @return Write threads */
+    public List<WriteThread> getWriteThreads()
+    {
+        return Collections.unmodifiableList(writers);
+    }
+
+    /** @return Timestamp of end of last write run,
+     *          oldest of all write threads, <code>null</code> if one never wrote
+     */
     public Instant getLastWriteTime()
     {
-        return writer.getLastWriteTime();
+        Instant oldest = null;
+        for (WriteThread writer : writers)
+        {
+            final Instant time = writer.getLastWriteTime();
+            if (time == null)
+                return null;
+            if (oldest == null  ||  time.isBefore(oldest))
+                oldest = time;
+        }
+        return oldest;
     }
 
-    /** @return Average number of values per write run */
+    /** @return Average number of values per write run, sum of all write threads */
     public double getWriteCount()
     {
-        return writer.getWriteCount();
+        double count = 0;
+        for (WriteThread writer : writers)
+            count += writer.getWriteCount();
+        return count;
     }
 
-    /** @return  Average duration of write run in seconds */
+    /** @return  Average duration of write run in seconds, longest of all write threads */
     public double getWriteDuration()
     {
-        return writer.getWriteDuration();
+        double duration = 0;
+        for (WriteThread writer : writers)
+            duration = Math.max(duration, writer.getWriteDuration());
+        return duration;
     }
 
     /** @see Scanner#getIdlePercentage() */
@@ -344,7 +436,8 @@ public class EngineModel
     /** Reset engine statistics */
     public void reset()
     {
-        writer.reset();
+        for (WriteThread writer : writers)
+            writer.reset();
         scanner.reset();
         synchronized (this)
         {
@@ -368,7 +461,24 @@ public class EngineModel
             group.stop();
         // Flush all values out
         logger.info("Stopping writer");
-        writer.shutdown();
+        // Shut down all write threads, even if one fails its final write
+        Exception error = null;
+        for (WriteThread writer : writers)
+        {
+            try
+            {
+                writer.shutdown();
+            }
+            catch (Exception ex)
+            {
+                if (error == null)
+                    error = ex;
+                else
+                    error.addSuppressed(ex);
+            }
+        }
+        if (error != null)
+            throw error;
         // Update state
         state = State.IDLE;
         start_time = null;
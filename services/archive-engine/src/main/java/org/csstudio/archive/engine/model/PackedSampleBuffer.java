@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VByte;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VFloat;
+import org.epics.vtype.VInt;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VNumber;
+import org.epics.vtype.VShort;
+import org.epics.vtype.VType;
+
+/** Sample buffer that packs scalar numeric samples into primitive arrays
+ *
+ *  <p>Time stamp, value, alarm severity and status of
+ *  {@link VDouble}, {@link VFloat}, {@link VLong}, {@link VInt},
+ *  {@link VShort} and {@link VByte} samples
+ *  are stored in arrays, and the {@link VType} is re-created
+ *  when the write thread removes the sample.
+ *  The received {@link VType} objects can thus be garbage collected
+ *  right away instead of being held until the next write.
+ *  {@link Display}, alarm message and time stamp user tag
+ *  are kept in a {@link Meta} object that is shared by consecutive samples.
+ *  Other samples, for example strings, arrays or
+ *  the 'disconnected' info samples, are kept as they are.
+ *
+ *  <p>The write thread removes samples without locking.
+ *  Adding samples is synchronized because besides the thread that
+ *  receives values, enabling or disabling a group may also add samples,
+ *  but adding and removing do not block each other.
+ *  When the buffer is full, adding a sample drops the oldest one.
+ *  The write thread detects that via the <code>head</code>
+ *  and ignores what it read from that slot.
+ */
+@SuppressWarnings("nls")
+class PackedSampleBuffer extends SampleBuffer
+{
+    /** Types of samples, lowest 3 bits of the code */
+    private static final int OBJECT = 0, DOUBLE = 1, FLOAT = 2, LONG = 3, INT = 4, SHORT = 5, BYTE = 6;
+
+    /** Code bits for type, severity, status */
+    private static final int TYPE_MASK = 0x7, SEVERITY_SHIFT = 3, STATUS_SHIFT = 6, ORDINAL_MASK = 0x7;
+
+    /** Time stamps are packed as epoch nanoseconds, about +-292 years */
+    private static final long MAX_SECONDS = Long.MAX_VALUE / 1_000_000_000L - 1;
+
+    private static final AlarmSeverity[] severity_values = AlarmSeverity.values();
+    private static final AlarmStatus[] status_values = AlarmStatus.values();
+
+    /** Data that rarely changes from one sample to the next */
+    private static class Meta
+    {
+        final Display display;
+        final String message;
+        final Integer tag;
+
+        Meta(final Display display, final String message, final Integer tag)
+        {
+            this.display = display;
+            this.message = message;
+            this.tag = tag;
+        }
+
+        boolean matches(final Display display, final String message, final Integer tag)
+        {
+            return this.display == display  &&
+                   this.message.equals(message)  &&
+                   Objects.equals(this.tag, tag);
+        }
+    }
+
+    private final int capacity;
+
+    /** Type, severity and status of each slot */
+    private final short[] codes;
+
+    /** Time stamp in epoch nanoseconds and value of each slot, interleaved */
+    private final long[] data;
+
+    /** {@link Meta} of packed sample, or the {@link VType} */
+    private final Object[] refs;
+
+    /** Index of next sample to remove, only incremented */
+    private final AtomicLong head = new AtomicLong();
+
+    /** Index of next sample to add, only incremented */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Meta data of last packed sample, used by 'add' */
+    private Meta last_meta = null;
+
+    /** Last alarm re-created by the write thread */
+    private Alarm last_alarm = null;
+
+    /** Create sample buffer of given capacity
+     *  @param retention Sample retention policy (for archive); may be null if default/not supported
+     */
+    PackedSampleBuffer(final String channel_name, final String retention, final int capacity)
+    {
+        super(channel_name, retention);
+        this.capacity = capacity;
+        codes = new short[capacity];
+        data = new long[2*capacity];
+        refs = new Object[capacity];
+    }
+
+    @Override
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    @Override
+    public int getQueueSize()
+    {
+        final long h = head.get();
+        return (int) Math.max(0, Math.min(capacity, tail.get() - h));
+    }
+
+    /** @param value Value
+     *  @return Type used to pack the value, {@link #OBJECT} if it cannot be packed
+     */
+    private static int getType(final VType value)
+    {
+        if (! (value instanceof VNumber))
+            return OBJECT;
+        final Time time = ((VNumber) value).getTime();
+        // Time stamp must be valid and fit into epoch nanoseconds
+        if (! time.isValid()  ||
+            Math.abs(time.getTimestamp().getEpochSecond()) >= MAX_SECONDS)
+            return OBJECT;
+        if (value instanceof VDouble)
+            return DOUBLE;
+        if (value instanceof VFloat)
+            return FLOAT;
+        if (value instanceof VLong)
+            return LONG;
+        if (value instanceof VInt)
+            return INT;
+        if (value instanceof VShort)
+            return SHORT;
+        if (value instanceof VByte)
+            return BYTE;
+        return OBJECT;
+    }
+
+    @Override
+    void add(final VType value)
+    {
+        final int type = getType(value);
+        synchronized (this)
+        {
+            final long t = tail.get();
+            final long h = head.get();
+            // When full, drop oldest sample unless write thread just removed it
+            trackOverruns(t - h >= capacity  &&  head.compareAndSet(h, h+1));
+
+            final int i = (int) (t % capacity);
+            if (type == OBJECT)
+            {
+                codes[i] = OBJECT;
+                refs[i] = value;
+            }
+            else
+            {
+                final VNumber number = (VNumber) value;
+                final Time time = number.getTime();
+                final Alarm alarm = number.getAlarm();
+                codes[i] = (short) (type |
+                                    alarm.getSeverity().ordinal() << SEVERITY_SHIFT |
+                                    alarm.getStatus().ordinal() << STATUS_SHIFT);
+                final Instant stamp = time.getTimestamp();
+                data[2*i] = stamp.getEpochSecond() * 1_000_000_000L + stamp.getNano();
+                if (type == DOUBLE  ||  type == FLOAT)
+                    data[2*i+1] = Double.doubleToRawLongBits(number.getValue().doubleValue());
+                else
+                    data[2*i+1] = number.getValue().longValue();
+                Meta meta = last_meta;
+                if (meta == null  ||  ! meta.matches(number.getDisplay(), alarm.getName(), time.getUserTag()))
+                    last_meta = meta = new Meta(number.getDisplay(), alarm.getName(), time.getUserTag());
+                refs[i] = meta;
+            }
+            // Publish the sample
+            tail.set(t + 1);
+        }
+    }
+
+    @Override
+    VType remove()
+    {
+        while (true)
+        {
+            final long h = head.get();
+            if (h >= tail.get())
+                return null;
+            final int i = (int) (h % capacity);
+            final VType value = unpack(i);
+            // If 'add' dropped this sample while we read it, try the next one
+            if (head.compareAndSet(h, h+1))
+                return value;
+        }
+    }
+
+    /** @param i Slot index
+     *  @return Sample re-created from the slot,
+     *          may be invalid if slot is being overwritten
+     */
+    private VType unpack(final int i)
+    {
+        final int code = codes[i];
+        final Object ref = refs[i];
+        final int type = code & TYPE_MASK;
+        // A slot that's being overwritten may hold mismatched code and reference,
+        // sample will then be ignored because 'head' changed
+        if (type == OBJECT  ||  ! (ref instanceof Meta))
+            return ref instanceof VType ? (VType) ref : null;
+        final Meta meta = (Meta) ref;
+
+        final long nanos = data[2*i];
+        final Instant stamp = Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+        final Time time = Time.of(stamp, meta.tag, true);
+
+        final AlarmSeverity severity = severity_values[Math.min(code >> SEVERITY_SHIFT & ORDINAL_MASK, severity_values.length-1)];
+        final AlarmStatus status = status_values[Math.min(code >> STATUS_SHIFT & ORDINAL_MASK, status_values.length-1)];
+        Alarm alarm = last_alarm;
+        if (alarm == null  ||  alarm.getSeverity() != severity  ||  alarm.getStatus() != status  ||
+            ! alarm.getName().equals(meta.message))
+            last_alarm = alarm = Alarm.of(severity, status, meta.message);
+
+        final long value = data[2*i+1];
+        switch (type)
+        {
+        case DOUBLE:
+            return VDouble.of(Double.longBitsToDouble(value), alarm, time, meta.display);
+        case FLOAT:
+            return VFloat.of((float) Double.longBitsToDouble(value), alarm, time, meta.display);
+        case LONG:
+            return VLong.of(value, alarm, time, meta.display);
+        case INT:
+            return VInt.of((int) value, alarm, time, meta.display);
+        case SHORT:
+            return VShort.of((short) value, alarm, time, meta.display);
+        default:
+            return VByte.of((byte) value, alarm, time, meta.display);
+        }
+    }
+}
@@ -7,6 +7,8 @@
  ******************************************************************************/
 package org.csstudio.archive.engine.model;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 import org.csstudio.archive.Preferences;
@@ -20,6 +22,10 @@ import org.phoebus.framework.util.RingBuffer;
  *  thread removes them.
  *  When the queue size is reached, older samples get dropped.
  *
+ *  <p>This implementation keeps the {@link VType} samples
+ *  in a synchronized ring buffer.
+ *  {@link PackedSampleBuffer} is an alternative for scalar numeric channels.
+ *
  *  @author Kay Kasemir
  */
 public class SampleBuffer
@@ -35,7 +41,9 @@ public class SampleBuffer
      */
     final private String retention;
 
-    /** The actual samples in a thread-save queue. */
+    /** The actual samples in a thread-save queue,
+     *  <code>null</code> when a derived class stores the samples
+     */
     final private RingBuffer<VType> samples;
 
     /** Statistics */
@@ -47,10 +55,15 @@ public class SampleBuffer
     /** Logger for overrun messages */
     final private static ThrottledLogger overrun_msg = new ThrottledLogger(Level.WARNING, Preferences.log_overrun);
 
-    /** Is the buffer in an error state because of RDB write errors?
-     *  Note that this is global for all buffers, not per instance!
+    /** Write threads that are in an error state because of write errors,
+     *  or because their spool cannot take more samples.
+     *  The error state is per write thread, i.e. per partition of the channels:
+     *  Each buffer checks the thread that writes its samples.
      */
-    private static volatile boolean error = false;
+    private static final Set<WriteThread> errors = ConcurrentHashMap.newKeySet();
+
+    /** Write thread that removes samples from this buffer, or <code>null</code> */
+    private volatile WriteThread write_thread = null;
 
     /** Create sample buffer of given capacity
      * @deprecated Use {@link #SampleBuffer(String,String,int)} instead*/
@@ -69,6 +82,16 @@ public class SampleBuffer
         samples = new RingBuffer<>(capacity);
     }
 
+    /** Constructor for derived class that stores the samples
+     *  @param retention Sample retention policy (for archive); may be null if default/not supported
+     */
+    SampleBuffer(final String channel_name, String retention)
+    {
+        this.channel_name = channel_name;
+        this.retention = retention;
+        samples = null;
+    }
+
     /** @return channel name of this buffer */
     String getChannelName()
     {
@@ -99,40 +122,68 @@ public class SampleBuffer
         }
     }
 
-    /** @return <code>true</code> if currently experiencing write errors */
+    /** @return <code>true</code> if any write thread is currently experiencing write errors */
     public static boolean isInErrorState()
     {
-        return error;
+        return ! errors.isEmpty();
+    }
+
+    /** @return <code>true</code> if the write thread for this buffer is currently experiencing write errors */
+    boolean hasWriteError()
+    {
+        final WriteThread thread = write_thread;
+        return thread != null  &&  errors.contains(thread);
     }
 
-    /** Set the error state. */
-    static void setErrorState(final boolean error)
+    /** Set the error state.
+     *  @param thread Write thread
+     *  @param error Is the thread experiencing write errors?
+     */
+    static void setErrorState(final WriteThread thread, final boolean error)
+    {
+        if (error)
+            errors.add(thread);
+        else
+            errors.remove(thread);
+    }
+
+    /** @param thread Write thread that removes samples from this buffer */
+    void setWriteThread(final WriteThread thread)
     {
-        SampleBuffer.error = error;
+        write_thread = thread;
     }
 
     /** Add a sample to the queue, maybe dropping older samples */
-    @SuppressWarnings("nls")
     void add(final VType value)
     {
         synchronized (samples)
         {
-            if (samples.isFull())
-            {   // Note start of overruns, then drop older sample
-                if (start_of_overruns == null)
-                    start_of_overruns = Integer.valueOf(stats.getOverruns());
-                stats.addOverrun();
-            }
-            else if (start_of_overruns != null)
-            {   // Ending a string of overruns. Maybe log it.
-                final int overruns = stats.getOverruns() - start_of_overruns;
-                overrun_msg.log(channel_name + ": " + overruns + " overruns");
-                start_of_overruns = null;
-            }
+            trackOverruns(samples.isFull());
             samples.add(value);
         }
     }
 
+    /** Update overrun statistics, log end of a string of overruns.
+     *  Must be called by the thread that adds samples, with the buffer locked.
+     *  @param overrun Is an older sample dropped to add the next one?
+     */
+    @SuppressWarnings("nls")
+    void trackOverruns(final boolean overrun)
+    {
+        if (overrun)
+        {   // Note start of overruns, then drop older sample
+            if (start_of_overruns == null)
+                start_of_overruns = Integer.valueOf(stats.getOverruns());
+            stats.addOverrun();
+        }
+        else if (start_of_overruns != null)
+        {   // Ending a string of overruns. Maybe log it.
+            final int overruns = stats.getOverruns() - start_of_overruns;
+            overrun_msg.log(channel_name + ": " + overruns + " overruns");
+            start_of_overruns = null;
+        }
+    }
+
     /** @return latest sample in queue or <code>null</code> if empty */
     VType remove()
     {
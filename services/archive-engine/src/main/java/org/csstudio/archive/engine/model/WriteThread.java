@@ -13,6 +13,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.logging.Level;
 
+import org.csstudio.archive.engine.spool.Spool;
 import org.csstudio.archive.writer.ArchiveWriter;
 import org.csstudio.archive.writer.ArchiveWriterFactory;
 import org.csstudio.archive.writer.WriteChannel;
@@ -21,6 +22,9 @@ import org.epics.vtype.VType;
 /** Thread that writes values from multiple <code>SampleBuffer</code>s
  *  to an <code>RDBArchiveServer</code>.
  *  <p>
+ *  The engine may use several write threads, each writing
+ *  a partition of the channels via its own {@link ArchiveWriter}.
+ *  <p>
  *  When there are write errors, it sets the sample buffer error state
  *  and tries to reconnect to the database and write again until successful.
  *  Since the Oracle batch mechanism doesn't tell us what exactly failed
@@ -28,6 +32,12 @@ import org.epics.vtype.VType;
  *  be lost.
  *  The channels that add samples to the sample buffer supposedly notice
  *  the error condition and add a special indicator once we recover.
+ *  <p>
+ *  With a {@link Spool}, samples are first moved from the sample buffers
+ *  into the spool, even while the archive is unavailable,
+ *  and then written from the spool to the archive.
+ *  The sample buffer error state then only indicates that samples
+ *  could not be spooled, for example because the disk quota was reached.
  *
  *  @author Kay Kasemir
  */
@@ -36,9 +46,21 @@ public class WriteThread implements Runnable
     /** Minimum write period [seconds] */
     private static final double MIN_WRITE_PERIOD = 5.0;
 
+    /** Name of this thread */
+    private final String name;
+
     /** Server to which this thread writes. */
     private ArchiveWriter writer;
 
+    /** Spool for samples, or <code>null</code> to write directly */
+    private Spool spool = null;
+
+    /** Sample removed from its buffer that the spool did not accept,
+     *  with its channel name and retention, or <code>null</code>
+     */
+    private VType unspooled = null;
+    private String unspooled_name, unspooled_retention;
+
     /** All the sample buffers this thread writes. */
     final private ArrayList<SampleBuffer> buffers =
         new ArrayList<>();
@@ -66,9 +88,44 @@ public class WriteThread implements Runnable
     /** Average duration of write run */
     private Average write_time = new Average();
 
+    /** Average number of values written per second */
+    private Average write_rate = new Average();
+
+    /** Start of previous write run, nanoseconds, or 0 */
+    private long last_run_start = 0;
+
+    /** Did last write run fail? */
+    private volatile boolean error = false;
+
     /** Thread the executes this.run() */
     private Thread thread;
 
+    /** Create write thread */
+    public WriteThread()
+    {
+        this("WriteThread");
+    }
+
+    /** Create write thread
+     *  @param name Name of the thread
+     */
+    public WriteThread(final String name)
+    {
+        this.name = name;
+    }
+
+    /** @return Name of the thread */
+    public String getName()
+    {
+        return name;
+    }
+
+    /** @return Number of channels written by this thread */
+    public int getChannelCount()
+    {
+        return buffers.size();
+    }
+
     /** Add a channel's buffer that this thread reads */
     public void addChannel(final ArchiveChannel channel)
     {
@@ -78,9 +135,23 @@ public class WriteThread implements Runnable
     /** Add a sample buffer that this thread reads */
     void addSampleBuffer(final SampleBuffer buffer)
     {
+        buffer.setWriteThread(this);
         buffers.add(buffer);
     }
 
+    /** @param spool Spool for samples, must be set before starting the thread */
+    void setSpool(final Spool spool)
+    {
+        this.spool = spool;
+    }
+
+    /** @return Disk space used by spool in bytes, or -1 when not spooling */
+    public long getSpoolUsage()
+    {
+        final Spool copy = spool;
+        return copy == null ? -1 : copy.getDiskUsage();
+    }
+
     /** Start the write thread.
      *  @param write_period Period between writes in seconds
      *  @param batch_size Number of values to batch
@@ -96,7 +167,7 @@ public class WriteThread implements Runnable
         }
         millisec_delay = (int)(1000.0 * write_period);
         this.batch_size = batch_size;
-        thread = new Thread(this, "WriteThread");
+        thread = new Thread(this, name);
         thread.start();
     }
 
@@ -105,6 +176,7 @@ public class WriteThread implements Runnable
     {
         write_count.reset();
         write_time.reset();
+        write_rate.reset();
     }
 
     /** Ask the write thread to stop ASAP. */
@@ -135,6 +207,18 @@ public class WriteThread implements Runnable
         return write_time.get();
     }
 
+    /** @return Average number of values written per second */
+    public double getWriteRate()
+    {
+        return write_rate.get();
+    }
+
+    /** @return <code>true</code> if last write run failed */
+    public boolean isInErrorState()
+    {
+        return error;
+    }
+
     /** 'Main loop' of the write thread.
      *  <p>
      *  Writes all values out, then waits.
@@ -152,12 +236,16 @@ public class WriteThread implements Runnable
     @SuppressWarnings("nls")
     public void run()
     {
-        logger.info("WriteThread starts");
+        logger.info(name + " starts");
         boolean write_error = false;
+        boolean spool_error = false;
         do_run = true;
         while (do_run)
         {
             long delay;
+            // Move samples into spool, even while the archive is unavailable
+            if (spool != null)
+                spool_error = ! spool();
             try
             {
                 // If there was an error before...
@@ -175,15 +263,26 @@ public class WriteThread implements Runnable
                 if (writer == null)
                     writer = ArchiveWriterFactory.getArchiveWriter();
                 final long start = System.currentTimeMillis();
+                final long run_start = System.nanoTime();
                 // In case of a network problem, we can hang in here
                 // for a long time...
-                final long written = write();
+                final long written = spool != null
+                    ? spool.replay(writer, batch_size, run_start + millisec_delay * 1000000L)
+                    : write();
                 final long milli = System.currentTimeMillis() - start;
                 last_write_stamp = Instant.now();
                 write_count.update(written);
                 write_time.update(milli / 1000.0);
+                // Rate over the time since the previous run, including its delay
+                if (last_run_start != 0)
+                    write_rate.update(written / ((System.nanoTime() - last_run_start) / 1e9));
+                last_run_start = run_start;
                 // How much of the scheduled delay is left after write()?
                 delay = millisec_delay - milli;
+                // Catch up with spooled samples, returning to spool new samples
+                // at least once per write period
+                if (spool != null  &&  spool.hasBacklog())
+                    delay = 0;
             }
             catch (Exception ex)
             {   // Error in write() or the preceding reconnect()...
@@ -192,7 +291,8 @@ public class WriteThread implements Runnable
                 delay = millisec_delay;
                 write_error = true;
             }
-            SampleBuffer.setErrorState(write_error);
+            error = write_error;
+            SampleBuffer.setErrorState(this, spool != null ? spool_error : write_error);
             // See if there's any time left to wait,
             // or if we already used all that time in the last 'write'
             if (delay > 0)
@@ -210,7 +310,7 @@ public class WriteThread implements Runnable
                 }
             }
         }
-        logger.info("WriteThread exists");
+        logger.info(name + " exits");
     }
 
     /** Stop the write thread, performing a final write. */
@@ -224,7 +324,16 @@ public class WriteThread implements Runnable
         // Errors in this last write are passed up.
         try
         {
-            write();
+            if (spool != null)
+            {   // Samples that aren't written in one write period remain in the spool for the next start
+                spool();
+                spool.sync();
+                if (writer == null)
+                    writer = ArchiveWriterFactory.getArchiveWriter();
+                spool.replay(writer, batch_size, System.nanoTime() + millisec_delay * 1000000L);
+            }
+            else
+                write();
         }
         finally
         {
@@ -233,6 +342,53 @@ public class WriteThread implements Runnable
                 writer.close();
                 writer = null;
             }
+            if (spool != null)
+                spool.close();
+        }
+    }
+
+    /** Move samples from all sample buffers into the spool
+     *  @return <code>true</code> if all samples were spooled,
+     *          <code>false</code> if samples were left in the buffers or lost
+     */
+    @SuppressWarnings("nls")
+    private boolean spool()
+    {
+        try
+        {
+            // Sample that the spool rejected last time goes first
+            if (unspooled != null)
+            {
+                if (! spool.append(unspooled_name, unspooled_retention, unspooled))
+                    return false;
+                unspooled = null;
+            }
+            for (SampleBuffer buffer : buffers)
+            {
+                buffer.updateStats();
+                final String name = buffer.getChannelName();
+                final String retention = buffer.getArchiveDataRetention();
+                while (spool.hasSpace())
+                {
+                    final VType sample = buffer.remove();
+                    if (sample == null)
+                        break;
+                    // Keep sample to try again if the spool doesn't take it
+                    unspooled = sample;
+                    unspooled_name = name;
+                    unspooled_retention = retention;
+                    if (! spool.append(name, retention, sample))
+                        return false;
+                    unspooled = null;
+                }
+            }
+            spool.sync();
+            return spool.hasSpace();
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, name + " cannot spool samples", ex);
+            return false;
         }
     }
 
@@ -21,6 +21,7 @@ import org.csstudio.archive.Preferences;
 import org.csstudio.archive.engine.model.ArchiveGroup;
 import org.csstudio.archive.engine.model.EngineModel;
 import org.csstudio.archive.engine.model.SampleBuffer;
+import org.csstudio.archive.engine.model.WriteThread;
 import org.csstudio.archive.writer.rdb.TimestampHelper;
 import org.phoebus.util.time.SecondsParser;
 import org.phoebus.util.time.TimeDuration;
@@ -105,6 +106,23 @@ public class MainServlet extends HttpServlet
             jg.writeNumberField("Max Memory", max_mem);
             jg.writeNumberField("Percentage Memory", perc_mem);
 
+            jg.writeArrayFieldStart(Messages.HTTP_WriteThreads);
+            for (WriteThread writer : model.getWriteThreads())
+            {
+                final Instant last = writer.getLastWriteTime();
+                jg.writeStartObject();
+                jg.writeStringField(Messages.HTTP_WriteThread, writer.getName());
+                jg.writeNumberField(Messages.HTTP_ChannelCount, writer.getChannelCount());
+                jg.writeStringField(Messages.HTTP_WriteState, writer.isInErrorState() ? Messages.HTTP_WriteError : "OK");
+                jg.writeStringField(Messages.HTTP_LastWriteTime, last == null ? "Never" : TimestampHelper.format(last));
+                jg.writeNumberField(Messages.HTTP_WriteCount, writer.getWriteCount());
+                jg.writeNumberField(Messages.HTTP_WriteDuration, writer.getWriteDuration());
+                jg.writeNumberField(Messages.HTTP_WriteRate, writer.getWriteRate());
+                jg.writeNumberField(Messages.HTTP_Spool, writer.getSpoolUsage());
+                jg.writeEndObject();
+            }
+            jg.writeEndArray();
+
             json.close();
         }
         else
@@ -149,6 +167,29 @@ public class MainServlet extends HttpServlet
                          used_mem / max_mem * 100.0 : 0.0;
             html.tableLine("Memory", String.format("%.1f MB of %.1f MB used (%.1f %%)", used_mem, max_mem, perc_mem));
 
+            html.closeTable();
+
+            html.openTable(1, Messages.HTTP_WriteThread,
+                              Messages.HTTP_ChannelCount,
+                              Messages.HTTP_WriteState,
+                              Messages.HTTP_LastWriteTime,
+                              Messages.HTTP_WriteCount,
+                              Messages.HTTP_WriteDuration,
+                              Messages.HTTP_WriteRate,
+                              Messages.HTTP_Spool);
+            for (WriteThread writer : model.getWriteThreads())
+            {
+                final Instant last = writer.getLastWriteTime();
+                final long spool = writer.getSpoolUsage();
+                html.tableLine(writer.getName(),
+                               Integer.toString(writer.getChannelCount()),
+                               writer.isInErrorState() ? HTMLWriter.makeRedText(Messages.HTTP_WriteError) : "OK",
+                               last == null ? "Never" : TimestampHelper.format(last),
+                               (int) writer.getWriteCount() + " samples",
+                               String.format("%.1f sec", writer.getWriteDuration()),
+                               String.format("%.1f samples/sec", writer.getWriteRate()),
+                               spool < 0 ? "-" : String.format("%.1f MB", spool / 1024.0 / 1024.0));
+            }
             html.closeTable();
             html.close();
         }
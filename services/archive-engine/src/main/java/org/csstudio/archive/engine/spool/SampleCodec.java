@@ -0,0 +1,578 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.spool;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.epics.util.array.ArrayByte;
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.array.ArrayFloat;
+import org.epics.util.array.ArrayInteger;
+import org.epics.util.array.ArrayLong;
+import org.epics.util.array.ArrayShort;
+import org.epics.util.array.ListByte;
+import org.epics.util.array.ListDouble;
+import org.epics.util.array.ListFloat;
+import org.epics.util.array.ListInteger;
+import org.epics.util.array.ListNumber;
+import org.epics.util.array.ListShort;
+import org.epics.util.array.ListUByte;
+import org.epics.util.array.ListUShort;
+import org.epics.util.stats.Range;
+import org.epics.util.text.NumberFormats;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.EnumDisplay;
+import org.epics.vtype.Time;
+import org.epics.vtype.VByte;
+import org.epics.vtype.VByteArray;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VFloat;
+import org.epics.vtype.VInt;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VNumber;
+import org.epics.vtype.VNumberArray;
+import org.epics.vtype.VShort;
+import org.epics.vtype.VString;
+import org.epics.vtype.VStringArray;
+import org.epics.vtype.VType;
+
+/** Encoding of samples in {@link SpoolSegment} records
+ *
+ *  <p>Keeps what the archive writer uses:
+ *  Time stamp, alarm, value, numeric display info or enum labels.
+ *  Channel names, display info and labels are written once per segment
+ *  and then referenced by channel index.
+ *  Other value types are kept as their text representation.
+ */
+class SampleCodec
+{
+    /** Record types */
+    private static final byte DEFINE = 1, DISPLAY = 2, LABELS = 3, SAMPLE = 4;
+
+    /** Sample value types */
+    private static final byte DOUBLE = 1, FLOAT = 2, LONG = 3, INT = 4, SHORT = 5, BYTE = 6,
+                              ENUM = 7, STRING = 8, DOUBLE_ARRAY = 9, BYTE_ARRAY = 10, STRING_ARRAY = 11,
+                              FLOAT_ARRAY = 12, LONG_ARRAY = 13, INT_ARRAY = 14, SHORT_ARRAY = 15;
+
+    private static final AlarmSeverity[] severities = AlarmSeverity.values();
+    private static final AlarmStatus[] stati = AlarmStatus.values();
+
+    /** @param sample Sample
+     *  @return Upper estimate for the size of the records needed for the sample
+     */
+    static int estimateSize(final VType sample)
+    {
+        // Channel name, display info, time and alarm
+        int size = 4096;
+        if (sample instanceof VEnum)
+            for (String label : ((VEnum) sample).getDisplay().getChoices())
+                size += 4 + 4 * label.length();
+        if (sample instanceof VString)
+            size += 4 * ((VString) sample).getValue().length();
+        else if (sample instanceof VByteArray)
+            size += ((VByteArray) sample).getData().size();
+        else if (sample instanceof VNumberArray)
+            size += 8 * ((VNumberArray) sample).getData().size();
+        else if (sample instanceof VStringArray)
+        {
+            for (String text : ((VStringArray) sample).getData())
+                size += 4 + 4 * text.length();
+        }
+        else if (! (sample instanceof VNumber))
+            size += 4 * sample.toString().length();
+        return size;
+    }
+
+    /** Encodes samples into a segment */
+    static class Encoder
+    {
+        private ByteBuffer scratch = ByteBuffer.allocate(1024);
+
+        /** Index of each channel in the segment */
+        private final Map<String, Integer> channels = new HashMap<>();
+
+        /** Display, or enum labels, last written for each channel index */
+        private final List<Object> meta = new ArrayList<>();
+
+        /** Start encoding into a new or reset segment */
+        void reset()
+        {
+            channels.clear();
+            meta.clear();
+        }
+
+        /** @param segment Segment
+         *  @param name Channel name
+         *  @param retention Retention, may be <code>null</code>
+         *  @param sample Sample
+         *  @return <code>true</code> if sample was added,
+         *          <code>false</code> if segment is full
+         */
+        boolean append(final SpoolSegment segment, final String name, final String retention, final VType sample)
+        {
+            Integer index = channels.get(name);
+            if (index == null)
+            {
+                index = channels.size();
+                start(DEFINE, index);
+                putString(name);
+                putString(retention);
+                if (! append(segment))
+                    return false;
+                channels.put(name, index);
+                meta.add(null);
+            }
+
+            // Check enum first, Display.displayOf() also returns a Display for enums
+            if (sample instanceof VEnum)
+            {
+                final List<String> labels = ((VEnum) sample).getDisplay().getChoices();
+                if (! labels.equals(meta.get(index)))
+                {
+                    start(LABELS, index);
+                    putStrings(labels);
+                    if (! append(segment))
+                        return false;
+                    meta.set(index, labels);
+                }
+            }
+            else
+            {
+                final Display display = Display.displayOf(sample);
+                final Object last = meta.get(index);
+                if (display != null  &&  display != last  &&  ! display.equals(last))
+                {
+                    start(DISPLAY, index);
+                    putDisplay(display);
+                    if (! append(segment))
+                        return false;
+                    meta.set(index, display);
+                }
+            }
+
+            start(SAMPLE, index);
+            putSample(sample);
+            return append(segment);
+        }
+
+        private boolean append(final SpoolSegment segment)
+        {
+            scratch.flip();
+            return segment.append(scratch);
+        }
+
+        private void start(final byte type, final int index)
+        {
+            scratch.clear();
+            scratch.put(type);
+            scratch.putInt(index);
+        }
+
+        private void ensure(final int needed)
+        {
+            if (scratch.remaining() < needed)
+            {
+                final ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * scratch.capacity(), scratch.position() + needed));
+                scratch.flip();
+                larger.put(scratch);
+                scratch = larger;
+            }
+        }
+
+        private void putString(final String text)
+        {
+            if (text == null)
+            {
+                ensure(4);
+                scratch.putInt(-1);
+                return;
+            }
+            final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            scratch.putInt(bytes.length);
+            scratch.put(bytes);
+        }
+
+        private void putStrings(final List<String> texts)
+        {
+            ensure(4);
+            scratch.putInt(texts.size());
+            for (String text : texts)
+                putString(text);
+        }
+
+        private void putRange(final Range range)
+        {
+            scratch.putDouble(range.getMinimum());
+            scratch.putDouble(range.getMaximum());
+        }
+
+        private void putDisplay(final Display display)
+        {
+            ensure(4*16 + 4);
+            putRange(display.getDisplayRange());
+            putRange(display.getWarningRange());
+            putRange(display.getAlarmRange());
+            putRange(display.getControlRange());
+            final NumberFormat format = display.getFormat();
+            // Precision, or -1 for the default format
+            if (format == null  ||  format.equals(Display.defaultNumberFormat()))
+                scratch.putInt(-1);
+            else
+                scratch.putInt(format.getMinimumFractionDigits());
+            putString(display.getUnit());
+        }
+
+        private void putSample(final VType sample)
+        {
+            // Resolve invalid time stamp now, not when writing the spooled sample
+            final Time time = Time.timeOf(sample);
+            final Instant stamp = time != null  &&  time.isValid() ? time.getTimestamp() : Instant.now();
+            final Alarm alarm = Alarm.alarmOf(sample);
+            ensure(8 + 4 + 2);
+            scratch.putLong(stamp.getEpochSecond());
+            scratch.putInt(stamp.getNano());
+            scratch.put((byte) (alarm == null ? AlarmSeverity.NONE : alarm.getSeverity()).ordinal());
+            scratch.put((byte) (alarm == null ? AlarmStatus.NONE : alarm.getStatus()).ordinal());
+            putString(alarm == null ? "" : alarm.getName());
+
+            ensure(1 + 8);
+            if (sample instanceof VDouble)
+            {
+                scratch.put(DOUBLE);
+                scratch.putDouble(((VDouble) sample).getValue());
+            }
+            else if (sample instanceof VFloat)
+            {
+                scratch.put(FLOAT);
+                scratch.putDouble(((VFloat) sample).getValue());
+            }
+            else if (sample instanceof VLong)
+            {
+                scratch.put(LONG);
+                scratch.putLong(((VLong) sample).getValue());
+            }
+            else if (sample instanceof VInt)
+            {
+                scratch.put(INT);
+                scratch.putLong(((VInt) sample).getValue());
+            }
+            else if (sample instanceof VShort)
+            {
+                scratch.put(SHORT);
+                scratch.putLong(((VShort) sample).getValue());
+            }
+            else if (sample instanceof VByte)
+            {
+                scratch.put(BYTE);
+                scratch.putLong(((VByte) sample).getValue());
+            }
+            else if (sample instanceof VNumber)
+            {   // Other number, as double or long like the archive writer
+                final Number number = ((VNumber) sample).getValue();
+                if (number instanceof Double  ||  number instanceof Float)
+                {
+                    scratch.put(DOUBLE);
+                    scratch.putDouble(number.doubleValue());
+                }
+                else
+                {
+                    scratch.put(LONG);
+                    scratch.putLong(number.longValue());
+                }
+            }
+            else if (sample instanceof VEnum)
+            {
+                scratch.put(ENUM);
+                scratch.putInt(((VEnum) sample).getIndex());
+            }
+            else if (sample instanceof VString)
+            {
+                scratch.put(STRING);
+                putString(((VString) sample).getValue());
+            }
+            else if (sample instanceof VByteArray)
+            {
+                final ListByte data = ((VByteArray) sample).getData();
+                final int size = data.size();
+                scratch.put(BYTE_ARRAY);
+                ensure(4 + size);
+                scratch.putInt(size);
+                for (int i=0; i<size; ++i)
+                    scratch.put(data.getByte(i));
+            }
+            else if (sample instanceof VNumberArray)
+                putArray(((VNumberArray) sample).getData());
+            else if (sample instanceof VStringArray)
+            {
+                scratch.put(STRING_ARRAY);
+                putStrings(((VStringArray) sample).getData());
+            }
+            else
+            {
+                scratch.put(STRING);
+                putString(sample.toString());
+            }
+        }
+
+        private void putArray(final ListNumber data)
+        {
+            final int size = data.size();
+            // Unsigned elements use the next larger type, read via getLong() to keep their value
+            if (data instanceof ListDouble)
+            {
+                scratch.put(DOUBLE_ARRAY);
+                ensure(4 + 8*size);
+                scratch.putInt(size);
+                for (int i=0; i<size; ++i)
+                    scratch.putDouble(data.getDouble(i));
+            }
+            else if (data instanceof ListFloat)
+            {
+                scratch.put(FLOAT_ARRAY);
+                ensure(4 + 4*size);
+                scratch.putInt(size);
+                for (int i=0; i<size; ++i)
+                    scratch.putFloat(data.getFloat(i));
+            }
+            else if (data instanceof ListInteger  ||  data instanceof ListUShort)
+            {
+                scratch.put(INT_ARRAY);
+                ensure(4 + 4*size);
+                scratch.putInt(size);
+                for (int i=0; i<size; ++i)
+                    scratch.putInt((int) data.getLong(i));
+            }
+            else if (data instanceof ListShort  ||  data instanceof ListUByte)
+            {
+                scratch.put(SHORT_ARRAY);
+                ensure(4 + 2*size);
+                scratch.putInt(size);
+                for (int i=0; i<size; ++i)
+                    scratch.putShort((short) data.getLong(i));
+            }
+            else
+            {
+                scratch.put(LONG_ARRAY);
+                ensure(4 + 8*size);
+                scratch.putInt(size);
+                for (int i=0; i<size; ++i)
+                    scratch.putLong(data.getLong(i));
+            }
+        }
+    }
+
+    /** Decodes samples from a segment */
+    static class Decoder
+    {
+        /** Channel names, retentions, display info or enum labels by channel index */
+        private final List<String> names = new ArrayList<>(), retentions = new ArrayList<>();
+        private final List<Display> displays = new ArrayList<>();
+        private final List<EnumDisplay> labels = new ArrayList<>();
+
+        /** Channel index of last decoded sample */
+        private int channel;
+
+        /** @return Number of channels defined so far */
+        int getChannelCount()
+        {
+            return names.size();
+        }
+
+        /** @param index Channel index
+         *  @return Channel name
+         */
+        String getName(final int index)
+        {
+            return names.get(index);
+        }
+
+        /** @param index Channel index
+         *  @return Channel retention, may be <code>null</code>
+         */
+        String getRetention(final int index)
+        {
+            return retentions.get(index);
+        }
+
+        /** @return Channel index of last decoded sample */
+        int getChannel()
+        {
+            return channel;
+        }
+
+        /** @param record Payload of a record
+         *  @param skip_sample Only decode meta data, skip samples?
+         *  @return Sample, or <code>null</code> for meta data or skipped sample
+         *  @throws Exception on error
+         */
+        VType decode(final ByteBuffer record, final boolean skip_sample) throws Exception
+        {
+            final byte type = record.get();
+            final int index = record.getInt();
+            switch (type)
+            {
+            case DEFINE:
+                if (index != names.size())
+                    throw new Exception("Expected channel definition " + names.size() + ", got " + index);
+                // Read complete definition before adding it
+                final String name = getString(record), retention = getString(record);
+                names.add(name);
+                retentions.add(retention);
+                displays.add(Display.none());
+                labels.add(EnumDisplay.of());
+                return null;
+            case DISPLAY:
+                checkIndex(index);
+                displays.set(index, getDisplay(record));
+                return null;
+            case LABELS:
+                checkIndex(index);
+                labels.set(index, EnumDisplay.of(getStrings(record)));
+                return null;
+            case SAMPLE:
+                checkIndex(index);
+                if (skip_sample)
+                    return null;
+                channel = index;
+                return getSample(record, displays.get(index), labels.get(index));
+            default:
+                throw new Exception("Unknown record type " + type);
+            }
+        }
+
+        private void checkIndex(final int index) throws Exception
+        {
+            if (index < 0  ||  index >= names.size())
+                throw new Exception("Undefined channel index " + index);
+        }
+
+        private static String getString(final ByteBuffer record)
+        {
+            final int length = record.getInt();
+            if (length < 0)
+                return null;
+            final byte[] bytes = new byte[length];
+            record.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static List<String> getStrings(final ByteBuffer record)
+        {
+            final int size = record.getInt();
+            final List<String> texts = new ArrayList<>(size);
+            for (int i=0; i<size; ++i)
+                texts.add(getString(record));
+            return texts;
+        }
+
+        private static Range getRange(final ByteBuffer record)
+        {
+            final double min = record.getDouble(), max = record.getDouble();
+            if (Double.isNaN(min)  &&  Double.isNaN(max))
+                return Range.undefined();
+            return Range.of(min, max);
+        }
+
+        private static Display getDisplay(final ByteBuffer record)
+        {
+            final Range display = getRange(record);
+            final Range warning = getRange(record);
+            final Range alarm = getRange(record);
+            final Range control = getRange(record);
+            final int precision = record.getInt();
+            final NumberFormat format = precision < 0 ? Display.defaultNumberFormat() : NumberFormats.precisionFormat(precision);
+            return Display.of(display, alarm, warning, control, getString(record), format);
+        }
+
+        private static VType getSample(final ByteBuffer record, final Display display, final EnumDisplay labels)
+        {
+            final long seconds = record.getLong();
+            final int nanos = record.getInt();
+            final Time time = Time.of(Instant.ofEpochSecond(seconds, nanos));
+            final AlarmSeverity severity = severities[Math.min(record.get(), severities.length-1)];
+            final AlarmStatus status = stati[Math.min(record.get(), stati.length-1)];
+            final Alarm alarm = Alarm.of(severity, status, getString(record));
+
+            final byte type = record.get();
+            switch (type)
+            {
+            case DOUBLE:
+                return VDouble.of(record.getDouble(), alarm, time, display);
+            case FLOAT:
+                return VFloat.of((float) record.getDouble(), alarm, time, display);
+            case LONG:
+                return VLong.of(record.getLong(), alarm, time, display);
+            case INT:
+                return VInt.of((int) record.getLong(), alarm, time, display);
+            case SHORT:
+                return VShort.of((short) record.getLong(), alarm, time, display);
+            case BYTE:
+                return VByte.of((byte) record.getLong(), alarm, time, display);
+            case ENUM:
+                return VEnum.of(record.getInt(), labels, alarm, time);
+            case BYTE_ARRAY:
+            {
+                final byte[] data = new byte[record.getInt()];
+                record.get(data);
+                return VByteArray.of(ArrayByte.of(data), alarm, time, display);
+            }
+            case DOUBLE_ARRAY:
+            {
+                final double[] data = new double[record.getInt()];
+                record.asDoubleBuffer().get(data);
+                record.position(record.position() + 8*data.length);
+                return VNumberArray.of(ArrayDouble.of(data), alarm, time, display);
+            }
+            case FLOAT_ARRAY:
+            {
+                final float[] data = new float[record.getInt()];
+                record.asFloatBuffer().get(data);
+                record.position(record.position() + 4*data.length);
+                return VNumberArray.of(ArrayFloat.of(data), alarm, time, display);
+            }
+            case LONG_ARRAY:
+            {
+                final long[] data = new long[record.getInt()];
+                record.asLongBuffer().get(data);
+                record.position(record.position() + 8*data.length);
+                return VNumberArray.of(ArrayLong.of(data), alarm, time, display);
+            }
+            case INT_ARRAY:
+            {
+                final int[] data = new int[record.getInt()];
+                record.asIntBuffer().get(data);
+                record.position(record.position() + 4*data.length);
+                return VNumberArray.of(ArrayInteger.of(data), alarm, time, display);
+            }
+            case SHORT_ARRAY:
+            {
+                final short[] data = new short[record.getInt()];
+                record.asShortBuffer().get(data);
+                record.position(record.position() + 2*data.length);
+                return VNumberArray.of(ArrayShort.of(data), alarm, time, display);
+            }
+            case STRING_ARRAY:
+                return VStringArray.of(getStrings(record), alarm, time);
+            default:
+                return VString.of(getString(record), alarm, time);
+            }
+        }
+    }
+}
@@ -0,0 +1,515 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.spool;
+
+import static org.csstudio.archive.Engine.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+import org.csstudio.archive.writer.ArchiveWriter;
+import org.csstudio.archive.writer.WriteChannel;
+import org.epics.vtype.VType;
+
+/** Write-ahead spool for samples
+ *
+ *  <p>Samples are appended to memory-mapped segment files in a directory,
+ *  and later replayed to an {@link ArchiveWriter}.
+ *  While the archive is unavailable, samples accumulate in the spool
+ *  up to a disk quota, and are written once the archive is back.
+ *  After each successful flush of the archive writer,
+ *  the position of the remaining samples is recorded in the segment,
+ *  so samples spooled before a restart of the engine are written on the next start.
+ *  A crash between writing samples to the archive and recording the position
+ *  can result in those samples being written again.
+ *
+ *  <p>When the archive writer fails, replay stops and later resumes
+ *  at the last recorded position.
+ *  A record that cannot be decoded, or a sample for a channel that
+ *  the archive doesn't know, is logged and skipped.
+ *
+ *  <p>Not thread-safe, to be called by one write thread.
+ */
+@SuppressWarnings("nls")
+public class Spool
+{
+    /** Default size of a segment */
+    static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final String SUFFIX = ".spool";
+
+    /** Space in append segment that's considered enough for more samples */
+    private static final int MIN_SPACE = 64 * 1024;
+
+    private final File directory;
+    private final long quota;
+    private final int segment_size;
+
+    private final SampleCodec.Encoder encoder = new SampleCodec.Encoder();
+
+    /** Segments that hold samples to replay, oldest first, may include 'append_segment' */
+    private final Deque<File> pending = new ArrayDeque<>();
+
+    /** Total size of segment files */
+    private volatile long disk_usage = 0;
+
+    /** Sequence number of the last segment */
+    private long sequence = 0;
+
+    /** Segment for appending samples */
+    private SpoolSegment append_segment = null;
+
+    /** Segment that's being replayed, may be the 'append_segment' */
+    private SpoolSegment read_segment = null;
+    private SampleCodec.Decoder decoder;
+    private int read_pos;
+
+    /** Writer and its channels for the channel indices of the 'read_segment' */
+    private ArchiveWriter channel_writer = null;
+    private final List<WriteChannel> channels = new ArrayList<>();
+
+    /** Indices of channels that the writer doesn't know */
+    private final BitSet unknown_channels = new BitSet();
+
+    /** Did last 'append' fail because the quota was reached? */
+    private boolean full = false;
+
+    /** Open spool
+     *  @param directory Directory for segment files, created if necessary
+     *  @param quota Maximum disk usage in bytes
+     *  @throws IOException on error
+     */
+    public Spool(final File directory, final long quota) throws IOException
+    {
+        this(directory, quota, SEGMENT_SIZE);
+    }
+
+    /** Open spool
+     *  @param directory Directory for segment files, created if necessary
+     *  @param quota Maximum disk usage in bytes
+     *  @param segment_size Size of segment files
+     *  @throws IOException on error
+     */
+    Spool(final File directory, final long quota, final int segment_size) throws IOException
+    {
+        this.directory = directory;
+        this.quota = quota;
+        this.segment_size = segment_size;
+        if (! directory.isDirectory()  &&  ! directory.mkdirs())
+            throw new IOException("Cannot create spool directory " + directory);
+
+        // Segments left from previous run
+        final File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        Arrays.sort(files);
+        for (File file : files)
+        {
+            try
+            {
+                sequence = Math.max(sequence, Long.parseLong(file.getName().substring(0, file.getName().length() - SUFFIX.length())));
+            }
+            catch (NumberFormatException ex)
+            {
+                logger.log(Level.WARNING, "Ignoring spool file " + file);
+                continue;
+            }
+            pending.add(file);
+            disk_usage += file.length();
+        }
+        if (! pending.isEmpty())
+            logger.log(Level.INFO, "Spool " + directory + " has " + pending.size() + " segments to replay");
+    }
+
+    /** @return Disk space used by the spool in bytes */
+    public long getDiskUsage()
+    {
+        return disk_usage;
+    }
+
+    /** @return Does the spool hold samples that have not been written? */
+    public boolean hasBacklog()
+    {
+        if (pending.isEmpty())
+            return false;
+        // Older segments, possibly from previous run?
+        if (pending.size() > 1  ||  append_segment == null)
+            return true;
+        // Only the append segment: Is it fully replayed?
+        if (read_segment == append_segment)
+            return read_pos < append_segment.getWritePosition();
+        return append_segment.getWritePosition() > SpoolSegment.HEADER_SIZE;
+    }
+
+    /** @return <code>true</code> if there is room for more samples */
+    public boolean hasSpace()
+    {
+        if (append_segment != null  &&
+            append_segment.getSize() - append_segment.getWritePosition() > MIN_SPACE)
+            return true;
+        return disk_usage + segment_size <= quota;
+    }
+
+    /** @return <code>true</code> if the last sample could not be added because the quota was reached */
+    public boolean isFull()
+    {
+        return full;
+    }
+
+    /** Add sample to spool
+     *  @param name Channel name
+     *  @param retention Retention, may be <code>null</code>
+     *  @param sample Sample
+     *  @return <code>true</code> if sample was added,
+     *          <code>false</code> if the disk quota was reached
+     *  @throws IOException on error
+     */
+    public boolean append(final String name, final String retention, final VType sample) throws IOException
+    {
+        if (append_segment != null  &&  encoder.append(append_segment, name, retention, sample))
+        {
+            full = false;
+            return true;
+        }
+        // Start next segment, large enough for the sample
+        final SpoolSegment previous = append_segment;
+        final int size = Math.max(segment_size, 2 * estimateSize(sample));
+        if (disk_usage + size > quota)
+        {
+            if (! full)
+                logger.log(Level.WARNING, String.format("Spool %s reached quota of %.1f MB", directory, quota / 1024.0 / 1024.0));
+            full = true;
+            return false;
+        }
+        final File file = new File(directory, String.format("%012d%s", ++sequence, SUFFIX));
+        append_segment = SpoolSegment.create(file, size);
+        pending.add(file);
+        disk_usage += size;
+        encoder.reset();
+        if (previous != null)
+            previous.force();
+        if (! encoder.append(append_segment, name, retention, sample))
+            throw new IOException("Cannot add sample for " + name + " to new spool segment");
+        full = false;
+        return true;
+    }
+
+    private static int estimateSize(final VType sample)
+    {
+        // Header, records for channel, display or labels and sample, end marker
+        return SpoolSegment.HEADER_SIZE + 3 * SpoolSegment.RECORD_OVERHEAD + SampleCodec.estimateSize(sample) + 4;
+    }
+
+    /** Write appended samples to disk */
+    public void sync()
+    {
+        if (append_segment != null)
+            append_segment.force();
+    }
+
+    /** Write spooled samples to archive
+     *
+     *  <p>Adds samples to the writer, flushing every <code>batch_size</code> samples.
+     *  Stops when all samples have been written, or a flush completes after the deadline.
+     *
+     *  @param writer {@link ArchiveWriter}
+     *  @param batch_size Number of samples to write before flushing
+     *  @param deadline {@link System#nanoTime()} after which to stop
+     *  @return Number of samples written
+     *  @throws Exception on error from writer
+     */
+    public long replay(final ArchiveWriter writer, final int batch_size, final long deadline) throws Exception
+    {
+        if (writer != channel_writer)
+        {   // Channels of previous writer can't be used
+            clearChannels();
+            channel_writer = writer;
+        }
+
+        long total = 0;
+        int count = 0;
+        try
+        {
+            while (true)
+            {
+                if (read_segment == null  &&  ! openNextSegment())
+                    break;
+                final ByteBuffer record = read_segment.read(read_pos);
+                if (record == null)
+                {   // End of segment that's also used to append?
+                    if (read_segment == append_segment)
+                        break;
+                    // Completely replayed an older segment
+                    writer.flush();
+                    total += count;
+                    count = 0;
+                    deleteReadSegment();
+                    continue;
+                }
+                final int next = read_pos + SpoolSegment.RECORD_OVERHEAD + record.remaining();
+                final VType sample;
+                try
+                {
+                    sample = decoder.decode(record, read_pos < read_segment.getCommitted());
+                }
+                catch (Exception ex)
+                {   // Log unless skipped before
+                    if (read_pos >= read_segment.getCommitted())
+                        logger.log(Level.WARNING, "Skipping spool record at offset " + read_pos + " of " + read_segment.getFile(), ex);
+                    skip(next, count);
+                    continue;
+                }
+                if (sample == null)
+                {
+                    read_pos = next;
+                    continue;
+                }
+                final WriteChannel channel = getChannel(writer, decoder.getChannel());
+                if (channel == null)
+                {
+                    skip(next, count);
+                    continue;
+                }
+                read_pos = next;
+                writer.addSample(channel, sample);
+                if (++count >= batch_size)
+                {
+                    writer.flush();
+                    read_segment.setCommitted(read_pos);
+                    total += count;
+                    count = 0;
+                    if (System.nanoTime() - deadline > 0)
+                        break;
+                }
+            }
+            if (count > 0)
+            {
+                writer.flush();
+                total += count;
+                read_segment.setCommitted(read_pos);
+            }
+        }
+        catch (Exception ex)
+        {   // Writer failed: Decode segment again, replaying samples from last committed position
+            if (read_segment != null)
+            {
+                decoder = new SampleCodec.Decoder();
+                read_pos = SpoolSegment.HEADER_SIZE;
+            }
+            throw ex;
+        }
+
+        // When all samples have been written, re-use the append segment
+        if (read_segment != null  &&  read_segment == append_segment  &&
+            read_pos >= append_segment.getWritePosition())
+        {
+            append_segment.reset();
+            encoder.reset();
+            read_segment = null;
+        }
+        else if (read_segment != null)
+            read_segment.force();
+        return total;
+    }
+
+    /** @param next Offset of the record after the one to skip
+     *  @param unflushed Number of samples added to the writer but not flushed
+     */
+    private void skip(final int next, final int unflushed)
+    {
+        read_pos = next;
+        // Record the skip now, or with the next flush of the pending samples
+        if (unflushed == 0  &&  read_pos > read_segment.getCommitted())
+            read_segment.setCommitted(read_pos);
+    }
+
+    /** @param writer {@link ArchiveWriter}
+     *  @param index Channel index
+     *  @return {@link WriteChannel}, or <code>null</code> if the writer doesn't know the channel
+     *  @throws Exception on error from writer
+     */
+    /** {@link ArchiveWriter} that appends samples to other spools */
+    private static class TransferWriter implements ArchiveWriter
+    {
+        private static class Channel implements WriteChannel
+        {
+            final String name, retention;
+
+            Channel(final String name, final String retention)
+            {
+                this.name = name;
+                this.retention = retention;
+            }
+
+            @Override
+            public String getName()
+            {
+                return name;
+            }
+        }
+
+        private final Function<String, Spool> targets;
+        private final Set<Spool> used = new LinkedHashSet<>();
+
+        TransferWriter(final Function<String, Spool> targets)
+        {
+            this.targets = targets;
+        }
+
+        @Override
+        public WriteChannel getChannel(final String name) throws Exception
+        {
+            return new Channel(name, null);
+        }
+
+        @Override
+        public WriteChannel getChannel(final String name, final String retention) throws Exception
+        {
+            return new Channel(name, retention);
+        }
+
+        @Override
+        public void addSample(final WriteChannel channel, final VType sample) throws Exception
+        {
+            final Channel target_channel = (Channel) channel;
+            final Spool target = targets.apply(target_channel.name);
+            if (! target.append(target_channel.name, target_channel.retention, sample))
+                throw new IOException("Spool " + target.directory + " reached its quota");
+            used.add(target);
+        }
+
+        @Override
+        public void flush() throws Exception
+        {
+            // Samples must be on disk before they're removed from the source spool
+            for (Spool target : used)
+                target.sync();
+        }
+
+        @Override
+        public void close()
+        {
+            // NOP
+        }
+    }
+
+    /** Move all samples into other spools
+     *
+     *  <p>Used when samples need to be arranged into different spools,
+     *  for example because the number of write threads changed.
+     *  Samples are appended to the other spools in their original order.
+     *
+     *  @param targets Provides the spool for a channel name
+     *  @return Number of samples moved
+     *  @throws Exception on error, including a target spool that reached its quota
+     */
+    public long transfer(final Function<String, Spool> targets) throws Exception
+    {
+        final ArchiveWriter writer = new TransferWriter(targets);
+        long total = 0;
+        while (hasBacklog())
+            total += replay(writer, 1000, System.nanoTime() + 10_000_000_000L);
+        return total;
+    }
+
+    private WriteChannel getChannel(final ArchiveWriter writer, final int index) throws Exception
+    {
+        if (unknown_channels.get(index))
+            return null;
+        while (channels.size() <= index)
+            channels.add(null);
+        WriteChannel channel = channels.get(index);
+        if (channel == null)
+        {
+            try
+            {
+                channel = writer.getChannel(decoder.getName(index), decoder.getRetention(index));
+            }
+            catch (IOException | SQLException ex)
+            {   // Archive not accessible, try again later
+                throw ex;
+            }
+            catch (Exception ex)
+            {   // For example a channel that has been removed from the archive
+                logger.log(Level.WARNING, "Skipping spooled samples of channel " + decoder.getName(index) + " in " + read_segment.getFile(), ex);
+                unknown_channels.set(index);
+                return null;
+            }
+            channels.set(index, channel);
+        }
+        return channel;
+    }
+
+    private void clearChannels()
+    {
+        channels.clear();
+        unknown_channels.clear();
+    }
+
+    /** @return <code>true</code> if there is a read_segment */
+    private boolean openNextSegment()
+    {
+        while (! pending.isEmpty())
+        {
+            final File file = pending.getFirst();
+            if (append_segment != null  &&  file.equals(append_segment.getFile()))
+                read_segment = append_segment;
+            else
+            {
+                try
+                {
+                    read_segment = SpoolSegment.open(file);
+                }
+                catch (IOException ex)
+                {
+                    logger.log(Level.WARNING, "Cannot read spool segment " + file, ex);
+                    pending.removeFirst();
+                    disk_usage -= file.length();
+                    if (! file.delete())
+                        logger.log(Level.WARNING, "Cannot delete spool segment " + file);
+                    continue;
+                }
+            }
+            decoder = new SampleCodec.Decoder();
+            clearChannels();
+            read_pos = SpoolSegment.HEADER_SIZE;
+            return true;
+        }
+        return false;
+    }
+
+    private void deleteReadSegment()
+    {
+        final File file = pending.removeFirst();
+        disk_usage -= read_segment.getSize();
+        read_segment = null;
+        decoder = null;
+        clearChannels();
+        // On Linux, a file can be deleted while still mapped
+        if (! file.delete())
+            logger.log(Level.WARNING, "Cannot delete spool segment " + file);
+    }
+
+    /** Write appended samples to disk, release segments */
+    public void close()
+    {
+        sync();
+        append_segment = null;
+        read_segment = null;
+    }
+}
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.spool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/** Memory-mapped segment file of the {@link Spool}
+ *
+ *  <p>Header:
+ *  <pre>
+ *  int  MAGIC
+ *  int  generation
+ *  long committed, offset of first record that has not been written to the archive
+ *  </pre>
+ *  followed by records
+ *  <pre>
+ *  int  length of payload, 0 for end of data
+ *  int  CRC32 of generation and payload
+ *  byte payload[length]
+ *  </pre>
+ *
+ *  <p>A record that was only partially written when the
+ *  process crashed fails the checksum and ends the data.
+ *  When all records have been written to the archive,
+ *  the segment can be reset for re-use by incrementing the generation,
+ *  which invalidates the checksums of the old records.
+ */
+@SuppressWarnings("nls")
+class SpoolSegment
+{
+    private static final int MAGIC = 0x53504C31; // "SPL1"
+    private static final int GENERATION = 4, COMMITTED = 8;
+
+    /** Size of the header, offset of the first record */
+    static final int HEADER_SIZE = 16;
+
+    /** Size of a record's length and checksum */
+    static final int RECORD_OVERHEAD = 8;
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private int generation;
+
+    /** Offset for next record to append */
+    private int write_pos;
+
+    /** Create new segment file
+     *  @param file File to create
+     *  @param size Size of the segment in bytes
+     *  @throws IOException on error
+     */
+    static SpoolSegment create(final File file, final int size) throws IOException
+    {
+        final SpoolSegment segment = new SpoolSegment(file, size, StandardOpenOption.CREATE_NEW);
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putInt(GENERATION, 0);
+        segment.buffer.putLong(COMMITTED, HEADER_SIZE);
+        segment.buffer.putInt(HEADER_SIZE, 0);
+        return segment;
+    }
+
+    /** Open existing segment file
+     *  @param file File to open
+     *  @throws IOException on error, including invalid file
+     */
+    static SpoolSegment open(final File file) throws IOException
+    {
+        final long size = file.length();
+        if (size < HEADER_SIZE + RECORD_OVERHEAD  ||  size > Integer.MAX_VALUE)
+            throw new IOException("Invalid spool file size " + size + " for " + file);
+        final SpoolSegment segment = new SpoolSegment(file, (int) size);
+        if (segment.buffer.getInt(0) != MAGIC)
+            throw new IOException("Invalid spool file " + file);
+        segment.generation = segment.buffer.getInt(GENERATION);
+        final long committed = segment.buffer.getLong(COMMITTED);
+        if (committed < HEADER_SIZE  ||  committed > size)
+            throw new IOException("Invalid spool file offset " + committed + " in " + file);
+        // Locate end of valid records
+        int pos = HEADER_SIZE;
+        while (segment.read(pos) != null)
+            pos += RECORD_OVERHEAD + segment.buffer.getInt(pos);
+        segment.write_pos = pos;
+        return segment;
+    }
+
+    private SpoolSegment(final File file, final int size, final StandardOpenOption... options) throws IOException
+    {
+        this.file = file;
+        try
+        (
+            FileChannel channel = FileChannel.open(file.toPath(), withReadWrite(options))
+        )
+        {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        write_pos = HEADER_SIZE;
+    }
+
+    private static StandardOpenOption[] withReadWrite(final StandardOpenOption... options)
+    {
+        final StandardOpenOption[] result = new StandardOpenOption[options.length + 2];
+        result[0] = StandardOpenOption.READ;
+        result[1] = StandardOpenOption.WRITE;
+        System.arraycopy(options, 0, result, 2, options.length);
+        return result;
+    }
+
+    /** @return Segment file */
+    File getFile()
+    {
+        return file;
+    }
+
+    /** @return Size of the segment in bytes */
+    int getSize()
+    {
+        return buffer.capacity();
+    }
+
+    /** @return Offset after the last record */
+    int getWritePosition()
+    {
+        return write_pos;
+    }
+
+    /** @return Offset of first record that has not been written to the archive */
+    int getCommitted()
+    {
+        return (int) buffer.getLong(COMMITTED);
+    }
+
+    /** @param offset Offset of first record that has not been written to the archive */
+    void setCommitted(final int offset)
+    {
+        buffer.putLong(COMMITTED, offset);
+    }
+
+    private int checksum(final ByteBuffer payload)
+    {
+        crc.reset();
+        crc.update(generation >>> 24);
+        crc.update(generation >>> 16);
+        crc.update(generation >>> 8);
+        crc.update(generation);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /** @param payload Payload of the record, position to limit
+     *  @return <code>true</code> if record was appended,
+     *          <code>false</code> if it doesn't fit
+     */
+    boolean append(final ByteBuffer payload)
+    {
+        final int length = payload.remaining();
+        // Leave room for the end marker
+        if (write_pos + RECORD_OVERHEAD + length + 4 > buffer.capacity())
+            return false;
+        final int checksum = checksum(payload.duplicate());
+        // Write the end marker, then the record,
+        // and finally its length to publish it
+        final int end = write_pos + RECORD_OVERHEAD + length;
+        buffer.putInt(end, 0);
+        buffer.putInt(write_pos + 4, checksum);
+        final ByteBuffer data = buffer.duplicate();
+        data.position(write_pos + RECORD_OVERHEAD);
+        data.put(payload);
+        buffer.putInt(write_pos, length);
+        write_pos = end;
+        return true;
+    }
+
+    /** @param pos Offset of a record
+     *  @return Payload of the record or <code>null</code> at end of data
+     */
+    ByteBuffer read(final int pos)
+    {
+        if (pos + RECORD_OVERHEAD > buffer.capacity())
+            return null;
+        final int length = buffer.getInt(pos);
+        if (length <= 0  ||  pos + RECORD_OVERHEAD + length > buffer.capacity())
+            return null;
+        final ByteBuffer payload = buffer.duplicate();
+        payload.limit(pos + RECORD_OVERHEAD + length);
+        payload.position(pos + RECORD_OVERHEAD);
+        if (checksum(payload.duplicate()) != buffer.getInt(pos + 4))
+            return null;
+        return payload.slice();
+    }
+
+    /** Discard all records, prepare to append from the start */
+    void reset()
+    {
+        ++generation;
+        buffer.putInt(GENERATION, generation);
+        buffer.putLong(COMMITTED, HEADER_SIZE);
+        buffer.putInt(HEADER_SIZE, 0);
+        write_pos = HEADER_SIZE;
+    }
+
+    /** Write changes to disk */
+    void force()
+    {
+        buffer.force();
+    }
+}
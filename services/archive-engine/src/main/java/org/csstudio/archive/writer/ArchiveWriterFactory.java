@@ -7,7 +7,10 @@
  ******************************************************************************/
 package org.csstudio.archive.writer;
 
+import java.io.File;
+
 import org.csstudio.archive.Preferences;
+import org.csstudio.archive.writer.columnar.ColumnarArchiveWriter;
 import org.csstudio.archive.writer.rdb.RDBArchiveWriter;
 
 /** Factory for obtaining an {@link ArchiveWriter}
@@ -21,7 +24,9 @@ public class ArchiveWriterFactory
      */
     public static ArchiveWriter getArchiveWriter() throws Exception
     {
-        // XXX Use SPI when there's more than one implementation.
+        // XXX Use SPI when there are more implementations.
+        if (! Preferences.columnar_directory.isEmpty())
+            return new ColumnarArchiveWriter(new File(Preferences.columnar_directory));
         return new RDBArchiveWriter(Preferences.url, Preferences.user, Preferences.password, Preferences.schema, Preferences.use_array_blob);
     }
 }
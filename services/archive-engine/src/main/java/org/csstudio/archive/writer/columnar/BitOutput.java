@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.columnar;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/** Stream of bits, most significant bit first
+ *
+ *  <p>Also provides the delta-of-delta and XOR encodings
+ *  used for the time stamp and value columns.
+ */
+class BitOutput
+{
+    private byte[] data = new byte[256];
+
+    /** Number of bits written */
+    private long bits = 0;
+
+    /** Previous value and delta for {@link #writeDeltaOfDelta(long)} */
+    private long previous_value = 0, previous_delta = 0;
+
+    /** Previous value and window of meaningful bits for {@link #writeXOR(double)} */
+    private long previous_bits = 0;
+    private int previous_leading = -1, previous_trailing = 0;
+
+    /** @param bit Bit to write */
+    void writeBit(final boolean bit)
+    {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /** @param value Value to write
+     *  @param count Number of low bits of the value to write, 1..64
+     */
+    void writeBits(final long value, int count)
+    {
+        final int needed = (int) ((bits + count + 7) / 8);
+        if (needed > data.length)
+            data = Arrays.copyOf(data, Math.max(needed, 2 * data.length));
+        while (count > 0)
+        {
+            final int index = (int) (bits / 8);
+            final int free = 8 - (int) (bits % 8);
+            final int chunk = Math.min(free, count);
+            final int part = (int) (value >>> (count - chunk)) & ((1 << chunk) - 1);
+            data[index] |= part << (free - chunk);
+            bits += chunk;
+            count -= chunk;
+        }
+    }
+
+    /** Write difference between this and the previous delta
+     *
+     *  <pre>
+     *  0                         : Same delta as before
+     *  10   + 14 bit             : Delta of delta within signed 14 bit range
+     *  110  + 24 bit             : .. 24 bit
+     *  1110 + 32 bit             : .. 32 bit
+     *  1111 + 64 bit             : Any other
+     *  </pre>
+     *
+     *  Initial value and delta are zero.
+     *
+     *  @param value Next value of a sequence
+     */
+    void writeDeltaOfDelta(final long value)
+    {
+        final long delta = value - previous_value;
+        final long dod = delta - previous_delta;
+        previous_value = value;
+        previous_delta = delta;
+        if (dod == 0)
+            writeBits(0b0, 1);
+        else if (fits(dod, 14))
+        {
+            writeBits(0b10, 2);
+            writeBits(dod, 14);
+        }
+        else if (fits(dod, 24))
+        {
+            writeBits(0b110, 3);
+            writeBits(dod, 24);
+        }
+        else if (fits(dod, 32))
+        {
+            writeBits(0b1110, 4);
+            writeBits(dod, 32);
+        }
+        else
+        {
+            writeBits(0b1111, 4);
+            writeBits(dod, 64);
+        }
+    }
+
+    private static boolean fits(final long value, final int bits)
+    {
+        final long limit = 1L << (bits - 1);
+        return value >= -limit  &&  value < limit;
+    }
+
+    /** Write XOR of this and the previous value
+     *
+     *  <pre>
+     *  0                                   : Same value as before
+     *  10 + meaningful bits                : XOR within the previous leading/trailing zero window
+     *  11 + 5 bit leading zeros
+     *     + 6 bit meaningful bit count - 1
+     *     + meaningful bits                : XOR with new window
+     *  </pre>
+     *
+     *  Initial value is zero.
+     *
+     *  @param value Next value of a sequence
+     */
+    void writeXOR(final double value)
+    {
+        final long value_bits = Double.doubleToRawLongBits(value);
+        final long xor = value_bits ^ previous_bits;
+        previous_bits = value_bits;
+        if (xor == 0)
+        {
+            writeBits(0b0, 1);
+            return;
+        }
+        // Leading zero count is limited to what fits in 5 bits
+        final int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        final int trailing = Long.numberOfTrailingZeros(xor);
+        if (previous_leading >= 0  &&  leading >= previous_leading  &&  trailing >= previous_trailing)
+        {
+            writeBits(0b10, 2);
+            writeBits(xor >>> previous_trailing, 64 - previous_leading - previous_trailing);
+        }
+        else
+        {
+            final int meaningful = 64 - leading - trailing;
+            writeBits(0b11, 2);
+            writeBits(leading, 5);
+            writeBits(meaningful - 1, 6);
+            writeBits(xor >>> trailing, meaningful);
+            previous_leading = leading;
+            previous_trailing = trailing;
+        }
+    }
+
+    /** @return Number of bytes written, last one padded with zero bits */
+    int size()
+    {
+        return (int) ((bits + 7) / 8);
+    }
+
+    /** @param out Stream to which to write the bytes */
+    void writeTo(final ByteArrayOutputStream out)
+    {
+        out.write(data, 0, size());
+    }
+}
@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.columnar;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+import org.epics.util.array.ListNumber;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.VBoolean;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VFloat;
+import org.epics.vtype.VNumber;
+import org.epics.vtype.VNumberArray;
+import org.epics.vtype.VString;
+import org.epics.vtype.VStringArray;
+import org.epics.vtype.VType;
+
+/** Collects samples of one value type and day into a block
+ *
+ *  @see ColumnarFormat
+ */
+@SuppressWarnings("nls")
+class BlockEncoder
+{
+    private final byte type;
+    private final long day;
+    private int count = 0;
+    private long first_time, last_time;
+
+    private final BitOutput times = new BitOutput();
+
+    /** Completed alarm runs */
+    private final ByteArrayOutputStream alarms = new ByteArrayOutputStream();
+    private int alarm_runs = 0;
+
+    /** Current alarm run */
+    private AlarmSeverity severity;
+    private AlarmStatus status;
+    private String message;
+    private int run_length = 0;
+
+    /** Numeric values or array elements */
+    private final BitOutput values = new BitOutput();
+
+    /** Text values or array element counts */
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    /** @param sample Sample
+     *  @return Value type used to store the sample
+     */
+    static byte getType(final VType sample)
+    {
+        if (sample instanceof VEnum)
+            return ColumnarFormat.ENUM;
+        if (sample instanceof VDouble  ||  sample instanceof VFloat)
+            return ColumnarFormat.DOUBLE;
+        if (sample instanceof VNumber  ||  sample instanceof VBoolean)
+            return ColumnarFormat.LONG;
+        if (sample instanceof VNumberArray)
+            return ColumnarFormat.DOUBLE_ARRAY;
+        return ColumnarFormat.TEXT;
+    }
+
+    /** @param type Value type
+     *  @param day Day of samples
+     */
+    BlockEncoder(final byte type, final long day)
+    {
+        this.type = type;
+        this.day = day;
+    }
+
+    /** @return Number of samples */
+    int getCount()
+    {
+        return count;
+    }
+
+    /** @return Day of samples */
+    long getDay()
+    {
+        return day;
+    }
+
+    /** @param sample Sample to add
+     *  @param time Time stamp of sample, epoch nanoseconds
+     *  @return <code>true</code> if added,
+     *          <code>false</code> if sample doesn't fit this block
+     */
+    boolean add(final VType sample, final long time)
+    {
+        if (count >= ColumnarFormat.MAX_BLOCK_SAMPLES  ||
+            ColumnarFormat.getDay(time) != day  ||
+            getType(sample) != type)
+            return false;
+        if (count == 0)
+            first_time = time;
+        last_time = time;
+        times.writeDeltaOfDelta(time);
+        addAlarm(Alarm.alarmOf(sample));
+        switch (type)
+        {
+        case ColumnarFormat.DOUBLE:
+            values.writeXOR(((VNumber) sample).getValue().doubleValue());
+            break;
+        case ColumnarFormat.LONG:
+            if (sample instanceof VBoolean)
+                values.writeDeltaOfDelta(((VBoolean) sample).getValue() ? 1 : 0);
+            else
+                values.writeDeltaOfDelta(((VNumber) sample).getValue().longValue());
+            break;
+        case ColumnarFormat.ENUM:
+            values.writeDeltaOfDelta(((VEnum) sample).getIndex());
+            break;
+        case ColumnarFormat.DOUBLE_ARRAY:
+        {
+            final ListNumber data = ((VNumberArray) sample).getData();
+            writeVarInt(bytes, data.size());
+            for (int i=0; i<data.size(); ++i)
+                values.writeXOR(data.getDouble(i));
+            break;
+        }
+        default:
+            writeString(bytes, getText(sample));
+        }
+        ++count;
+        return true;
+    }
+
+    private static String getText(final VType sample)
+    {
+        if (sample instanceof VString)
+            return ((VString) sample).getValue();
+        if (sample instanceof VStringArray)
+            return String.join(", ", ((VStringArray) sample).getData());
+        return Objects.toString(sample);
+    }
+
+    private void addAlarm(Alarm alarm)
+    {
+        if (alarm == null)
+            alarm = Alarm.none();
+        if (run_length > 0  &&
+            alarm.getSeverity() == severity  &&
+            alarm.getStatus() == status  &&
+            Objects.equals(alarm.getName(), message))
+        {
+            ++run_length;
+            return;
+        }
+        endAlarmRun();
+        severity = alarm.getSeverity();
+        status = alarm.getStatus();
+        message = alarm.getName();
+        run_length = 1;
+    }
+
+    private void endAlarmRun()
+    {
+        if (run_length <= 0)
+            return;
+        writeVarInt(alarms, run_length);
+        alarms.write(severity.ordinal());
+        alarms.write(status.ordinal());
+        writeString(alarms, Objects.toString(message, ""));
+        ++alarm_runs;
+        run_length = 0;
+    }
+
+    /** @param offset Offset of the block in the data file
+     *  @param size Size of the encoded block
+     *  @return Index entry for the block
+     */
+    ByteBuffer createIndexEntry(final long offset, final int size)
+    {
+        final ByteBuffer entry = ByteBuffer.allocate(ColumnarFormat.INDEX_ENTRY_SIZE);
+        entry.putLong(first_time);
+        entry.putLong(last_time);
+        entry.putLong(offset);
+        entry.putInt(count);
+        entry.putInt(size);
+        entry.flip();
+        return entry;
+    }
+
+    /** @return Encoded block */
+    ByteBuffer encode()
+    {
+        endAlarmRun();
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream(times.size() + alarms.size() + values.size() + bytes.size() + 20);
+        writeVarInt(payload, times.size());
+        times.writeTo(payload);
+
+        final ByteArrayOutputStream runs = new ByteArrayOutputStream(alarms.size() + 5);
+        writeVarInt(runs, alarm_runs);
+        runs.writeBytes(alarms.toByteArray());
+        writeVarInt(payload, runs.size());
+        payload.writeBytes(runs.toByteArray());
+
+        switch (type)
+        {
+        case ColumnarFormat.TEXT:
+            payload.writeBytes(bytes.toByteArray());
+            break;
+        case ColumnarFormat.DOUBLE_ARRAY:
+            writeVarInt(payload, bytes.size());
+            payload.writeBytes(bytes.toByteArray());
+            values.writeTo(payload);
+            break;
+        default:
+            values.writeTo(payload);
+        }
+
+        final ByteBuffer block = ByteBuffer.allocate(ColumnarFormat.BLOCK_HEADER_SIZE + payload.size());
+        block.putInt(ColumnarFormat.BLOCK_MAGIC);
+        block.putInt(payload.size());
+        block.putInt(0);
+        block.putInt(count);
+        block.put(type);
+        block.putLong(first_time);
+        block.putLong(last_time);
+        block.put(payload.toByteArray());
+
+        final CRC32 crc = new CRC32();
+        crc.update(block.array(), ColumnarFormat.BLOCK_CHECKSUM_START, block.capacity() - ColumnarFormat.BLOCK_CHECKSUM_START);
+        block.putInt(8, (int) crc.getValue());
+        block.flip();
+        return block;
+    }
+
+    static void writeVarInt(final ByteArrayOutputStream out, int value)
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeString(final ByteArrayOutputStream out, final String text)
+    {
+        final byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, utf8.length);
+        out.write(utf8, 0, utf8.length);
+    }
+}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.columnar;
+
+import static org.csstudio.archive.Engine.logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.NumberFormat;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+
+import org.csstudio.archive.writer.ArchiveWriter;
+import org.csstudio.archive.writer.WriteChannel;
+import org.csstudio.archive.writer.rdb.MetaDataHelper;
+import org.epics.util.stats.Range;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VType;
+
+/** {@link ArchiveWriter} for a directory of columnar chunk files
+ *
+ *  <p>Samples of each channel are written to files per day,
+ *  compressed in blocks of one value type.
+ *  Compared to a row per sample in an RDB,
+ *  this reduces the cost of archiving channels with high update rates.
+ *
+ *  <p>Samples are kept in memory until <code>flush()</code>,
+ *  which appends one block per channel and value type.
+ *  Samples that cannot be written, for example because the disk is full,
+ *  are kept for the next <code>flush()</code>.
+ *  When the writer is closed with such samples,
+ *  they are passed on to the next writer that uses the same channel.
+ *
+ *  @see ColumnarFormat
+ */
+@SuppressWarnings("nls")
+public class ColumnarArchiveWriter implements ArchiveWriter
+{
+    /** Channels with samples that could not be written when their writer was closed,
+     *  by channel directory
+     */
+    private static final Map<File, ColumnarWriteChannel> unwritten = new HashMap<>();
+
+    private final File directory;
+
+    private final Map<String, ColumnarWriteChannel> channels = new HashMap<>();
+
+    /** Channels with samples to write */
+    private final List<ColumnarWriteChannel> pending = new ArrayList<>();
+
+    /** Initialize
+     *  @param directory Archive directory, created if necessary
+     *  @throws Exception on error
+     */
+    public ColumnarArchiveWriter(final File directory) throws Exception
+    {
+        this.directory = directory;
+        if (! directory.isDirectory()  &&  ! directory.mkdirs())
+            throw new IOException("Cannot create archive directory " + directory);
+    }
+
+    @Override
+    public WriteChannel getChannel(final String name) throws Exception
+    {
+        ColumnarWriteChannel channel = channels.get(name);
+        if (channel == null)
+        {
+            final File dir = new File(directory, ColumnarFormat.getDirectoryName(name)).getAbsoluteFile();
+            synchronized (unwritten)
+            {
+                channel = unwritten.remove(dir);
+            }
+            if (channel != null)
+                pending.add(channel);
+            else
+                channel = new ColumnarWriteChannel(name, dir);
+            channels.put(name, channel);
+        }
+        return channel;
+    }
+
+    @Override
+    public void addSample(final WriteChannel channel, final VType sample) throws Exception
+    {
+        final ColumnarWriteChannel col_channel = (ColumnarWriteChannel) channel;
+        writeMetaData(col_channel, sample);
+        if (col_channel.add(sample, ColumnarFormat.toNanos(getTimestamp(sample))))
+            pending.add(col_channel);
+    }
+
+    private static Instant getTimestamp(final VType value)
+    {
+        final Time time = Time.timeOf(value);
+        if (time != null  &&  time.isValid())
+            return time.getTimestamp();
+        return Instant.now();
+    }
+
+    /** Write meta data if it was never written or has changed
+     *  @param channel Channel for which to write the meta data
+     *  @param sample Sample that may have meta data to write
+     */
+    private void writeMetaData(final ColumnarWriteChannel channel, final VType sample) throws Exception
+    {
+        // Like the RDB writer, keep meta data for strings
+        // which may be special values like "disconnected"
+        final Properties meta = new Properties();
+        if (sample instanceof VEnum)
+        {
+            final List<String> labels = ((VEnum)sample).getDisplay().getChoices();
+            if (MetaDataHelper.equals(labels, channel.getMetadata()))
+                return;
+            meta.setProperty("labels", Integer.toString(labels.size()));
+            for (int i=0; i<labels.size(); ++i)
+                meta.setProperty("label." + i, labels.get(i));
+            writeMetaData(channel, meta);
+            channel.setMetaData(labels);
+        }
+        else
+        {
+            final Display display = Display.displayOf(sample);
+            if (display == null  ||  MetaDataHelper.equals(display, channel.getMetadata()))
+                return;
+            meta.setProperty("units", display.getUnit());
+            final NumberFormat format = display.getFormat();
+            meta.setProperty("precision", Integer.toString(format == null ? 0 : format.getMinimumFractionDigits()));
+            setRange(meta, "display", display.getDisplayRange());
+            setRange(meta, "warning", display.getWarningRange());
+            setRange(meta, "alarm", display.getAlarmRange());
+            setRange(meta, "control", display.getControlRange());
+            writeMetaData(channel, meta);
+            channel.setMetaData(display);
+        }
+    }
+
+    private static void setRange(final Properties meta, final String name, final Range range)
+    {
+        meta.setProperty(name + "_low", Double.toString(range.getMinimum()));
+        meta.setProperty(name + "_high", Double.toString(range.getMaximum()));
+    }
+
+    private static void writeMetaData(final ColumnarWriteChannel channel, final Properties meta) throws IOException
+    {
+        final File dir = channel.getDirectory();
+        if (! dir.isDirectory()  &&  ! dir.mkdirs())
+            throw new IOException("Cannot create " + dir);
+        // Replace file in one step for readers
+        final File tmp = new File(dir, ColumnarFormat.META + ".tmp");
+        try
+        (
+            OutputStream out = new FileOutputStream(tmp)
+        )
+        {
+            meta.store(out, channel.getName());
+        }
+        Files.move(tmp.toPath(), new File(dir, ColumnarFormat.META).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void flush() throws Exception
+    {
+        IOException error = null;
+        final Iterator<ColumnarWriteChannel> iter = pending.iterator();
+        while (iter.hasNext())
+        {
+            final ColumnarWriteChannel channel = iter.next();
+            try
+            {
+                channel.write();
+                iter.remove();
+            }
+            catch (IOException ex)
+            {   // Keep channel in 'pending' to write its samples on the next flush
+                logger.log(Level.WARNING, "Cannot write samples for " + channel.getName(), ex);
+                if (error == null)
+                    error = ex;
+            }
+        }
+        if (error != null)
+            throw error;
+    }
+
+    @Override
+    public void close()
+    {
+        if (! pending.isEmpty())
+        {
+            logger.log(Level.WARNING, "Keeping samples of " + pending.size() + " channels for next writer of " + directory);
+            synchronized (unwritten)
+            {
+                for (ColumnarWriteChannel channel : pending)
+                    unwritten.put(channel.getDirectory(), channel);
+            }
+        }
+        channels.clear();
+        pending.clear();
+    }
+}
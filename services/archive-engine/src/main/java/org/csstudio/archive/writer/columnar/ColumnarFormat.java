@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.columnar;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/** File layout of the columnar archive
+ *
+ *  <p>The archive directory holds one sub-directory per channel,
+ *  named after the URL-encoded channel name.
+ *  A channel directory contains
+ *  <ul>
+ *  <li><code>meta.properties</code>: Display information or enum labels of the channel
+ *  <li><code>YYYYMMDD.data</code>: Blocks of samples for one UTC day
+ *  <li><code>YYYYMMDD.index</code>: Sparse index of the blocks in the data file
+ *  </ul>
+ *
+ *  <p>Each block holds samples of one value type in columns.
+ *  All numbers are big-endian.
+ *  <pre>
+ *  int  BLOCK_MAGIC
+ *  int  length of payload
+ *  int  CRC32 of the following header fields and payload
+ *  int  sample count
+ *  byte value type
+ *  long time of first sample, epoch nanoseconds
+ *  long time of last sample
+ *  payload:
+ *    varint length, time stamps as bits, delta-of-delta of each time stamp
+ *    varint length, alarms as varint run count,
+ *                   each run with varint length, byte severity, byte status, varint length and UTF-8 message
+ *    values, depending on the type
+ *      DOUBLE:       bits, XOR of each value with the previous one
+ *      LONG, ENUM:   bits, delta-of-delta of each value
+ *      TEXT:         varint length and UTF-8 text for each value
+ *      DOUBLE_ARRAY: varint length, varint element count for each value,
+ *                    followed by bits, XOR of all elements in sequence
+ *  </pre>
+ *  The bit encodings are described in {@link BitOutput},
+ *  each column starts from a value and delta of zero.
+ *
+ *  <p>The index has one entry per block:
+ *  <pre>
+ *  long time of first sample
+ *  long time of last sample
+ *  long offset of block in data file
+ *  int  sample count
+ *  int  total size of block
+ *  </pre>
+ *
+ *  <p>Blocks are appended to the data file before their index entry is added.
+ *  Blocks without index entry after a crash are removed when
+ *  the writer opens the data file again.
+ *  Readers check the CRC of each block.
+ *
+ *  <p>The archive reader of the data browser decodes this format
+ *  and must be kept in sync.
+ */
+@SuppressWarnings("nls")
+class ColumnarFormat
+{
+    static final int BLOCK_MAGIC = 0x43424B31; // "CBK1"
+
+    /** Size of block header */
+    static final int BLOCK_HEADER_SIZE = 33;
+
+    /** Offset of the checksummed part of the block header */
+    static final int BLOCK_CHECKSUM_START = 12;
+
+    /** Size of an index entry */
+    static final int INDEX_ENTRY_SIZE = 32;
+
+    /** Value types */
+    static final byte DOUBLE = 1, LONG = 2, ENUM = 3, TEXT = 4, DOUBLE_ARRAY = 5;
+
+    /** Maximum number of samples in a block */
+    static final int MAX_BLOCK_SAMPLES = 8192;
+
+    static final String META = "meta.properties";
+    static final String DATA = ".data";
+    static final String INDEX = ".index";
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long NANOS_PER_DAY = 24 * 60 * 60 * NANOS_PER_SECOND;
+
+    /** @param time Time stamp
+     *  @return Nanoseconds since epoch
+     */
+    static long toNanos(final Instant time)
+    {
+        return time.getEpochSecond() * NANOS_PER_SECOND + time.getNano();
+    }
+
+    /** @param nanos Nanoseconds since epoch
+     *  @return Day number since epoch
+     */
+    static long getDay(final long nanos)
+    {
+        return Math.floorDiv(nanos, NANOS_PER_DAY);
+    }
+
+    /** @param day Day number since epoch
+     *  @return Base name of data and index file
+     */
+    static String getFileName(final long day)
+    {
+        return DAY.format(Instant.ofEpochSecond(day * 24 * 60 * 60));
+    }
+
+    /** @param name Channel name
+     *  @return Name of channel directory
+     */
+    static String getDirectoryName(final String name)
+    {
+        final String encoded = URLEncoder.encode(name, StandardCharsets.UTF_8);
+        // Avoid "." and ".."
+        if (encoded.startsWith("."))
+            return "%2E" + encoded.substring(1);
+        return encoded;
+    }
+}
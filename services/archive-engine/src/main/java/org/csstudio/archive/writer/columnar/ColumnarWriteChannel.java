@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.columnar;
+
+import static org.csstudio.archive.Engine.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.csstudio.archive.writer.WriteChannel;
+import org.epics.vtype.VType;
+
+/** Channel of the {@link ColumnarArchiveWriter}
+ *
+ *  <p>Holds samples in {@link BlockEncoder}s until they are written.
+ */
+@SuppressWarnings("nls")
+class ColumnarWriteChannel implements WriteChannel
+{
+    private final String name;
+    private final File directory;
+
+    /** Meta data that was last written, or <code>null</code> */
+    private Object meta = null;
+
+    /** Blocks to write */
+    private final List<BlockEncoder> pending = new ArrayList<>();
+
+    /** Day for which the data file has been checked */
+    private long checked_day = Long.MIN_VALUE;
+
+    /** @param name Channel name
+     *  @param directory Channel directory
+     */
+    ColumnarWriteChannel(final String name, final File directory)
+    {
+        this.name = name;
+        this.directory = directory;
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    /** @return Channel directory */
+    File getDirectory()
+    {
+        return directory;
+    }
+
+    /** @return Meta data that was last written, or <code>null</code> */
+    Object getMetadata()
+    {
+        return meta;
+    }
+
+    /** @param meta Meta data that was written */
+    void setMetaData(final Object meta)
+    {
+        this.meta = meta;
+    }
+
+    /** @param sample Sample to add
+     *  @param time Time stamp of sample, epoch nanoseconds
+     *  @return <code>true</code> if this is the first pending sample
+     */
+    boolean add(final VType sample, final long time)
+    {
+        final boolean first = pending.isEmpty();
+        if (first  ||  ! pending.get(pending.size() - 1).add(sample, time))
+        {
+            final BlockEncoder block = new BlockEncoder(BlockEncoder.getType(sample), ColumnarFormat.getDay(time));
+            block.add(sample, time);
+            pending.add(block);
+        }
+        return first;
+    }
+
+    /** Write pending samples
+     *
+     *  <p>Blocks are removed once they have been written.
+     *  On error, the remaining blocks are kept to try again.
+     *
+     *  @throws IOException on error
+     */
+    void write() throws IOException
+    {
+        if (! directory.isDirectory()  &&  ! directory.mkdirs())
+            throw new IOException("Cannot create " + directory);
+        while (! pending.isEmpty())
+        {
+            try
+            {
+                append(pending.get(0));
+            }
+            catch (IOException ex)
+            {   // Check the file again in case the block was partially written
+                checked_day = Long.MIN_VALUE;
+                throw ex;
+            }
+            pending.remove(0);
+        }
+    }
+
+    private void append(final BlockEncoder block) throws IOException
+    {
+        final String base = ColumnarFormat.getFileName(block.getDay());
+        final Path data_path = new File(directory, base + ColumnarFormat.DATA).toPath();
+        final Path index_path = new File(directory, base + ColumnarFormat.INDEX).toPath();
+        try
+        (
+            FileChannel data = FileChannel.open(data_path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileChannel index = FileChannel.open(index_path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        )
+        {
+            if (block.getDay() != checked_day)
+            {
+                recover(data_path, data, index);
+                checked_day = block.getDay();
+            }
+            final long offset = data.size();
+            final ByteBuffer buffer = block.encode();
+            final int size = buffer.remaining();
+            write(data, buffer, offset);
+            write(index, block.createIndexEntry(offset, size), index.size());
+        }
+    }
+
+    /** Remove blocks without index entry and index entries without block
+     *  left by a crash while appending
+     */
+    private void recover(final Path path, final FileChannel data, final FileChannel index) throws IOException
+    {
+        long entries = index.size() / ColumnarFormat.INDEX_ENTRY_SIZE;
+        long end = 0;
+        final ByteBuffer entry = ByteBuffer.allocate(ColumnarFormat.INDEX_ENTRY_SIZE);
+        while (entries > 0)
+        {
+            entry.clear();
+            index.read(entry, (entries - 1) * ColumnarFormat.INDEX_ENTRY_SIZE);
+            end = entry.getLong(16) + entry.getInt(28);
+            if (end <= data.size())
+                break;
+            --entries;
+            end = 0;
+        }
+        if (index.size() > entries * ColumnarFormat.INDEX_ENTRY_SIZE)
+        {
+            logger.log(Level.WARNING, "Removing incomplete index entries of " + path);
+            index.truncate(entries * ColumnarFormat.INDEX_ENTRY_SIZE);
+        }
+        if (data.size() > end)
+        {
+            logger.log(Level.WARNING, "Removing " + (data.size() - end) + " bytes of unindexed data from " + path);
+            data.truncate(end);
+        }
+    }
+
+    private static void write(final FileChannel file, final ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+            position += file.write(buffer, position);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ColumnarWriteChannel '" + name + "'";
+    }
+}
@@ -0,0 +1,487 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/** {@link PGCopyPreparedStatement} that uses the binary COPY format
+ *
+ *  <p>Each batched row is encoded into a byte buffer
+ *  in the PostgreSQL binary COPY format, converting the values
+ *  to the binary representation of the column type.
+ *  Numbers and time stamps are thus never formatted as text.
+ *  The buffer is re-used from batch to batch, and
+ *  'executeBatch' streams it to the server in chunks.
+ *
+ *  <p>The COPY is only started when executing the batch
+ *  because while it's active, no other statement can
+ *  use the connection, and the archive writer
+ *  reads channel information while adding samples.
+ *
+ *  <p>Supports columns of type boolean, smallint, integer,
+ *  bigint, real, double precision, text, varchar, char, bytea,
+ *  timestamp and timestamp with time zone.
+ */
+@SuppressWarnings("nls")
+public class PGBinaryCopyPreparedStatement extends PGCopyPreparedStatement
+{
+    /** Column types */
+    private static final int BOOL = 0, INT2 = 1, INT4 = 2, INT8 = 3, FLOAT4 = 4, FLOAT8 = 5, TEXT = 6, BYTEA = 7, TIMESTAMP = 8, TIMESTAMPTZ = 9;
+
+    private static final Map<String, Integer> types = new HashMap<>();
+
+    static
+    {
+        types.put("bool", BOOL);
+        types.put("int2", INT2);
+        types.put("int4", INT4);
+        types.put("int8", INT8);
+        types.put("float4", FLOAT4);
+        types.put("float8", FLOAT8);
+        types.put("text", TEXT);
+        types.put("varchar", TEXT);
+        types.put("bpchar", TEXT);
+        types.put("bytea", BYTEA);
+        types.put("timestamp", TIMESTAMP);
+        types.put("timestamptz", TIMESTAMPTZ);
+    }
+
+    /** Kinds of parameter values */
+    private static final byte NULL = 0, LONG = 1, DOUBLE = 2, OBJECT = 3;
+
+    /** Header: Signature, flags, header extension length */
+    private static final byte[] HEADER =
+    {
+        'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0,
+        0, 0, 0, 0,
+        0, 0, 0, 0
+    };
+
+    /** Trailer: Field count of -1 */
+    private static final byte[] TRAILER = { (byte) 0xFF, (byte) 0xFF };
+
+    /** PostgreSQL epoch 2000-01-01 00:00:00 in Java epoch seconds */
+    private static final long PG_EPOCH_SECONDS = 946684800L;
+
+    /** Initial size of the batch buffer, and maximum size of chunks sent to the server */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /** Batch buffer larger than this is released after executing the batch */
+    private static final int MAX_RETAINED_SIZE = 16 * CHUNK_SIZE;
+
+    private final String copySql;
+
+    /** Type of each column, in parameter order */
+    private final int[] columnTypes;
+
+    /** Kind of each parameter value */
+    private final byte[] kinds;
+
+    /** Parameter values by kind */
+    private final long[] longs;
+    private final double[] doubles;
+    private final Object[] objects;
+
+    /** Encoded rows */
+    private byte[] batch = new byte[CHUNK_SIZE];
+    private int length = 0;
+    private int rows = 0;
+
+    /** @param connection Connection to PostgreSQL
+     *  @param insertSqlQuery "INSERT INTO table (column, ...) VALUES (?, ...)"
+     *  @throws SQLException on error, including unsupported column types
+     */
+    public PGBinaryCopyPreparedStatement(final Connection connection, final String insertSqlQuery) throws SQLException
+    {
+        super(connection, insertSqlQuery);
+
+        final Map<String, String> typeNames = new HashMap<>();
+        try (ResultSet columns = connection.getMetaData().getColumns(connection.getCatalog(), null, getTableName(), null))
+        {
+            while (columns.next())
+                typeNames.put(columns.getString("COLUMN_NAME"), columns.getString("TYPE_NAME"));
+        }
+
+        final String[] columnNames = getColumnNames();
+        columnTypes = new int[columnNames.length];
+        for (int i=0; i<columnNames.length; ++i)
+        {
+            final String typeName = typeNames.get(columnNames[i]);
+            final Integer type = typeName == null ? null : types.get(typeName);
+            if (type == null)
+                throw new SQLException("Binary COPY does not support type " + typeName + " of column " + columnNames[i] + " in table " + getTableName());
+            columnTypes[i] = type;
+        }
+        copySql = "COPY " + getTableName() + " (" + String.join(", ", columnNames) + ") FROM STDIN WITH (FORMAT binary)";
+
+        kinds = new byte[columnNames.length];
+        longs = new long[columnNames.length];
+        doubles = new double[columnNames.length];
+        objects = new Object[columnNames.length];
+    }
+
+    /** @return Number of rows in the current batch */
+    int getBatchRows()
+    {
+        return rows;
+    }
+
+    /** @return Size of the current batch in bytes */
+    int getBatchSize()
+    {
+        return length;
+    }
+
+    private void setLongValue(final int parameterIndex, final long x)
+    {
+        kinds[parameterIndex-1] = LONG;
+        longs[parameterIndex-1] = x;
+    }
+
+    private void setDoubleValue(final int parameterIndex, final double x)
+    {
+        kinds[parameterIndex-1] = DOUBLE;
+        doubles[parameterIndex-1] = x;
+    }
+
+    private void setObjectValue(final int parameterIndex, final Object x)
+    {
+        kinds[parameterIndex-1] = x == null ? NULL : OBJECT;
+        objects[parameterIndex-1] = x;
+    }
+
+    @Override
+    public void setNull(final int parameterIndex, final int sqlType) throws SQLException
+    {
+        setObjectValue(parameterIndex, null);
+    }
+
+    @Override
+    public void setNull(final int parameterIndex, final int sqlType, final String typeName) throws SQLException
+    {
+        setObjectValue(parameterIndex, null);
+    }
+
+    @Override
+    public void setBoolean(final int parameterIndex, final boolean x) throws SQLException
+    {
+        setLongValue(parameterIndex, x ? 1 : 0);
+    }
+
+    @Override
+    public void setShort(final int parameterIndex, final short x) throws SQLException
+    {
+        setLongValue(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(final int parameterIndex, final int x) throws SQLException
+    {
+        setLongValue(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(final int parameterIndex, final long x) throws SQLException
+    {
+        setLongValue(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloat(final int parameterIndex, final float x) throws SQLException
+    {
+        setDoubleValue(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(final int parameterIndex, final double x) throws SQLException
+    {
+        setDoubleValue(parameterIndex, x);
+    }
+
+    @Override
+    public void setBigDecimal(final int parameterIndex, final BigDecimal x) throws SQLException
+    {
+        setObjectValue(parameterIndex, x);
+    }
+
+    @Override
+    public void setString(final int parameterIndex, final String x) throws SQLException
+    {
+        setObjectValue(parameterIndex, x);
+    }
+
+    @Override
+    public void setNString(final int parameterIndex, final String value) throws SQLException
+    {
+        setObjectValue(parameterIndex, value);
+    }
+
+    @Override
+    public void setBytes(final int parameterIndex, final byte[] x) throws SQLException
+    {
+        setObjectValue(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(final int parameterIndex, final Timestamp x) throws SQLException
+    {
+        setObjectValue(parameterIndex, x);
+    }
+
+    @Override
+    public void clearParameters() throws SQLException
+    {
+        Arrays.fill(kinds, NULL);
+        Arrays.fill(objects, null);
+    }
+
+    @Override
+    public void addBatch() throws SQLException
+    {
+        final int start = length;
+        try
+        {
+            putShort(columnTypes.length);
+            for (int i=0; i<columnTypes.length; ++i)
+                putField(i);
+        }
+        catch (SQLException ex)
+        {   // Drop partial row
+            length = start;
+            throw ex;
+        }
+        finally
+        {
+            clearParameters();
+        }
+        ++rows;
+    }
+
+    @Override
+    public void clearBatch() throws SQLException
+    {
+        length = 0;
+        rows = 0;
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException
+    {
+        if (rows <= 0)
+            return new int[] { 0 };
+        try
+        {
+            final CopyIn copy = ((PGConnection) getConnection()).getCopyAPI().copyIn(copySql);
+            try
+            {
+                copy.writeToCopy(HEADER, 0, HEADER.length);
+                for (int offset = 0; offset < length; offset += CHUNK_SIZE)
+                    copy.writeToCopy(batch, offset, Math.min(CHUNK_SIZE, length - offset));
+                copy.writeToCopy(TRAILER, 0, TRAILER.length);
+                return new int[] { (int) copy.endCopy() };
+            }
+            finally
+            {
+                if (copy.isActive())
+                    copy.cancelCopy();
+            }
+        }
+        finally
+        {
+            clearBatch();
+            if (batch.length > MAX_RETAINED_SIZE)
+                batch = new byte[CHUNK_SIZE];
+        }
+    }
+
+    @Override
+    public void close() throws SQLException
+    {
+        super.close();
+        batch = null;
+    }
+
+    /** Encode parameter as field of column type
+     *  @param i Parameter index, 0-based
+     *  @throws SQLException if value cannot be converted to column type
+     */
+    private void putField(final int i) throws SQLException
+    {
+        if (kinds[i] == NULL)
+        {
+            putInt(-1);
+            return;
+        }
+        switch (columnTypes[i])
+        {
+        case BOOL:
+            putInt(1);
+            ensureCapacity(1);
+            batch[length++] = (byte) (getLong(i) != 0 ? 1 : 0);
+            break;
+        case INT2:
+            putInt(2);
+            putShort((int) getLong(i));
+            break;
+        case INT4:
+            putInt(4);
+            putInt((int) getLong(i));
+            break;
+        case INT8:
+            putInt(8);
+            putLong(getLong(i));
+            break;
+        case FLOAT4:
+            putInt(4);
+            putInt(Float.floatToIntBits((float) getDouble(i)));
+            break;
+        case FLOAT8:
+            putInt(8);
+            putLong(Double.doubleToLongBits(getDouble(i)));
+            break;
+        case BYTEA:
+            if (objects[i] instanceof byte[])
+            {
+                putBytes((byte[]) objects[i]);
+                break;
+            }
+            throw new SQLException("Cannot write " + getValueDescription(i) + " to bytea column " + getColumnNames()[i]);
+        case TIMESTAMP:
+        case TIMESTAMPTZ:
+            if (objects[i] instanceof Timestamp)
+            {
+                final Timestamp stamp = (Timestamp) objects[i];
+                // 'timestamp' holds the local time, like Timestamp.toString() in the text format
+                final long seconds = columnTypes[i] == TIMESTAMP
+                                   ? stamp.toLocalDateTime().toEpochSecond(ZoneOffset.UTC)
+                                   : Math.floorDiv(stamp.getTime(), 1000L);
+                putInt(8);
+                // Server only keeps microseconds and rounds text input
+                putLong((seconds - PG_EPOCH_SECONDS) * 1_000_000L + (stamp.getNanos() + 500) / 1000);
+                break;
+            }
+            throw new SQLException("Cannot write " + getValueDescription(i) + " to timestamp column " + getColumnNames()[i]);
+        default:
+            putBytes(getText(i).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private long getLong(final int i) throws SQLException
+    {
+        if (kinds[i] == LONG)
+            return longs[i];
+        if (kinds[i] == DOUBLE)
+            return (long) doubles[i];
+        if (objects[i] instanceof Number)
+            return ((Number) objects[i]).longValue();
+        if (objects[i] instanceof String)
+        {
+            try
+            {
+                return Long.parseLong(((String) objects[i]).trim());
+            }
+            catch (NumberFormatException ex)
+            {
+                // Report below
+            }
+        }
+        throw new SQLException("Cannot write " + getValueDescription(i) + " to integer column " + getColumnNames()[i]);
+    }
+
+    private double getDouble(final int i) throws SQLException
+    {
+        if (kinds[i] == DOUBLE)
+            return doubles[i];
+        if (kinds[i] == LONG)
+            return longs[i];
+        if (objects[i] instanceof Number)
+            return ((Number) objects[i]).doubleValue();
+        if (objects[i] instanceof String)
+        {
+            try
+            {
+                return Double.parseDouble(((String) objects[i]).trim());
+            }
+            catch (NumberFormatException ex)
+            {
+                // Report below
+            }
+        }
+        throw new SQLException("Cannot write " + getValueDescription(i) + " to floating point column " + getColumnNames()[i]);
+    }
+
+    private String getText(final int i) throws SQLException
+    {
+        if (kinds[i] == LONG)
+            return Long.toString(longs[i]);
+        if (kinds[i] == DOUBLE)
+            return Double.toString(doubles[i]);
+        if (objects[i] instanceof BigDecimal)
+            return ((BigDecimal) objects[i]).toPlainString();
+        if (objects[i] instanceof byte[])
+            throw new SQLException("Cannot write bytes to text column " + getColumnNames()[i]);
+        return objects[i].toString();
+    }
+
+    private String getValueDescription(final int i)
+    {
+        if (kinds[i] == LONG)
+            return "integer " + longs[i];
+        if (kinds[i] == DOUBLE)
+            return "number " + doubles[i];
+        return objects[i].getClass().getSimpleName() + " '" + objects[i] + "'";
+    }
+
+    private void ensureCapacity(final int needed)
+    {
+        if (length + needed > batch.length)
+            batch = Arrays.copyOf(batch, Math.max(2 * batch.length, length + needed));
+    }
+
+    private void putShort(final int value)
+    {
+        ensureCapacity(2);
+        batch[length++] = (byte) (value >> 8);
+        batch[length++] = (byte) value;
+    }
+
+    private void putInt(final int value)
+    {
+        ensureCapacity(4);
+        batch[length++] = (byte) (value >> 24);
+        batch[length++] = (byte) (value >> 16);
+        batch[length++] = (byte) (value >> 8);
+        batch[length++] = (byte) value;
+    }
+
+    private void putLong(final long value)
+    {
+        putInt((int) (value >> 32));
+        putInt((int) value);
+    }
+
+    private void putBytes(final byte[] bytes)
+    {
+        putInt(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, batch, length, bytes.length);
+        length += bytes.length;
+    }
+}
@@ -47,6 +47,8 @@ public class PGCopyPreparedStatement implements PreparedStatement {
 
     private String tableName;
 
+    private String[] columnNames;
+
     public PGCopyPreparedStatement(Connection connection, String insertSqlQuery)
             throws SQLException {
         this.connection = connection;
@@ -78,8 +80,10 @@ public class PGCopyPreparedStatement implements PreparedStatement {
         // database order
         columnOrderMapping = new int[columnsArrays.length + 1];
         columnOrderMapping[0] = -1;
+        columnNames = new String[columnsArrays.length];
         for (int i = 0; i < columnsArrays.length; i++) {
             String columnName = columnsArrays[i].trim();
+            columnNames[i] = columnName;
             Integer postgresColumnOrder = postgresColumnOrderMap
                     .get(columnName);
             if (postgresColumnOrder == null) {
@@ -90,6 +94,16 @@ public class PGCopyPreparedStatement implements PreparedStatement {
         }
     }
 
+    /** @return Name of the table, including schema prefix */
+    String getTableName() {
+        return tableName;
+    }
+
+    /** @return Names of the columns in the order of the insert parameters */
+    String[] getColumnNames() {
+        return columnNames;
+    }
+
     @Override
     public void addBatch() throws SQLException {
         for (int i = 0; i < rowValues.length; i++) {
@@ -130,7 +130,7 @@ public class RDBArchiveWriter implements ArchiveWriter
 
     /** Create a new prepared statement. For PostgreSQL connections, this method
      *  create a PGCopyPreparedStatement to improve insert speed using COPY
-     *  instead of INSERT.
+     *  instead of INSERT, in binary format if so configured.
      *
      *  @param sqlQuery
      *  @return
@@ -143,7 +143,7 @@ public class RDBArchiveWriter implements ArchiveWriter
     {
         final PreparedStatement statement;
         if (dialect == Dialect.PostgreSQL  &&  Preferences.use_postgres_copy)
-            statement = new PGCopyPreparedStatement(connection, sqlQuery);
+            statement = createPGCopyPreparedStatement(sqlQuery);
         else
             statement = connection.prepareStatement(sqlQuery);
         if (Preferences.timeout_secs > 0)
@@ -151,6 +151,26 @@ public class RDBArchiveWriter implements ArchiveWriter
         return statement;
     }
 
+    /** @param sqlQuery Insert statement
+     *  @return Binary or text COPY statement
+     *  @throws SQLException on error
+     */
+    private PreparedStatement createPGCopyPreparedStatement(final String sqlQuery) throws SQLException
+    {
+        if (Preferences.use_postgres_binary_copy)
+        {
+            try
+            {
+                return new PGBinaryCopyPreparedStatement(connection, sqlQuery);
+            }
+            catch (SQLException ex)
+            {
+                logger.log(Level.WARNING, "Cannot use binary COPY, falling back to text", ex);
+            }
+        }
+        return new PGCopyPreparedStatement(connection, sqlQuery);
+    }
+
     @Override
     public WriteChannel getChannel(final String name) throws Exception
     {
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.time.Instant;
+
+import org.epics.util.stats.Range;
+import org.epics.util.text.NumberFormats;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VFloat;
+import org.epics.vtype.VInt;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VString;
+import org.epics.vtype.VType;
+import org.junit.Test;
+
+/** {@link PackedSampleBuffer} tests */
+@SuppressWarnings("nls")
+public class PackedSampleBufferTest
+{
+    private static final Display display = Display.of(Range.of(0, 10), Range.of(1, 9), Range.of(2, 8), Range.of(0, 10), "a.u.", NumberFormats.precisionFormat(2));
+    private static final Alarm alarm = Alarm.of(AlarmSeverity.MINOR, AlarmStatus.DEVICE, "LOW");
+
+    @Test
+    public void testPacking() throws Exception
+    {
+        final SampleBuffer buffer = new PackedSampleBuffer("test", null, 10);
+        final Time time = Time.of(Instant.ofEpochSecond(1700000000, 123456789));
+        final VType[] samples =
+        {
+            VDouble.of(3.14, alarm, time, display),
+            VFloat.of(2.5f, Alarm.none(), time, display),
+            VLong.of(1L << 40, alarm, Time.of(time.getTimestamp(), 42, true), display),
+            VInt.of(-7, alarm, time, display),
+            VString.of("Disconnected", Alarm.disconnected(), time),
+            VDouble.of(1.0, alarm, Time.of(Instant.ofEpochSecond(-10, 5)), Display.none())
+        };
+        for (VType sample : samples)
+            buffer.add(sample);
+        assertThat(buffer.getQueueSize(), equalTo(samples.length));
+
+        for (VType sample : samples)
+        {
+            final VType copy = buffer.remove();
+            assertThat(copy.getClass(), equalTo(sample.getClass()));
+            assertThat(copy.toString(), equalTo(sample.toString()));
+            if (sample instanceof VString)
+                assertThat(copy, sameInstance(sample));
+        }
+        assertThat(buffer.remove(), nullValue());
+        assertThat(buffer.getQueueSize(), equalTo(0));
+    }
+
+    @Test
+    public void testOverrun() throws Exception
+    {
+        final SampleBuffer buffer = new PackedSampleBuffer("test", null, 5);
+        for (int i=0; i<8; ++i)
+            buffer.add(VDouble.of(i, alarm, Time.of(Instant.ofEpochSecond(i)), display));
+        assertThat(buffer.getQueueSize(), equalTo(5));
+        assertThat(buffer.getBufferStats().getOverruns(), equalTo(3));
+        // Oldest samples were dropped
+        for (int i=3; i<8; ++i)
+            assertThat(((VDouble) buffer.remove()).getValue(), equalTo((double) i));
+        assertThat(buffer.remove(), nullValue());
+    }
+
+    @Test
+    public void testConcurrentAddRemove() throws Exception
+    {
+        final SampleBuffer buffer = new PackedSampleBuffer("test", null, 100);
+        final int count = 1_000_000;
+        final Thread producer = new Thread(() ->
+        {
+            for (int i=1; i<=count; ++i)
+                buffer.add(VDouble.of(i, alarm, Time.of(Instant.ofEpochSecond(i)), display));
+        });
+        producer.start();
+
+        // Values arrive in order, some may be dropped, the last one is received
+        double last = 0;
+        while (last < count)
+        {
+            final VType sample = buffer.remove();
+            if (sample == null)
+            {
+                Thread.yield();
+                continue;
+            }
+            final double value = ((VDouble) sample).getValue();
+            assertThat(value > last, equalTo(true));
+            assertThat(Time.timeOf(sample).getTimestamp().getEpochSecond(), equalTo((long) value));
+            last = value;
+        }
+        producer.join();
+        System.out.println("Overruns: " + buffer.getBufferStats().getOverruns());
+    }
+}
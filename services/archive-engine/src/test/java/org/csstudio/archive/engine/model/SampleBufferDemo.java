@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+
+import org.epics.util.stats.Range;
+import org.epics.util.text.NumberFormats;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.junit.Test;
+
+/** Heap usage and throughput of sample buffers
+ *
+ *  <p>Synthetic load of 100k channels at 1 Hz,
+ *  buffering one 30 second write period.
+ *  Compares the {@link SampleBuffer} with the {@link PackedSampleBuffer}.
+ */
+@SuppressWarnings("nls")
+public class SampleBufferDemo
+{
+    private static final int CHANNELS = 100_000, CAPACITY = 60, SAMPLES = 30;
+
+    private static final Display display = Display.of(Range.of(0, 10), Range.of(1, 9), Range.of(2, 8), Range.of(0, 10), "a.u.", NumberFormats.precisionFormat(2));
+
+    private static long usedHeap()
+    {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i=0; i<3; ++i)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** @return Total garbage collection time in milliseconds */
+    private static long gcMillis()
+    {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            millis += gc.getCollectionTime();
+        return millis;
+    }
+
+    private static void run(final boolean packed)
+    {
+        final long base = usedHeap();
+        final SampleBuffer[] buffers = new SampleBuffer[CHANNELS];
+        for (int c=0; c<CHANNELS; ++c)
+            buffers[c] = packed ? new PackedSampleBuffer("ch" + c, null, CAPACITY)
+                                : new SampleBuffer("ch" + c, null, CAPACITY);
+        final long empty = usedHeap();
+
+        final long gc = gcMillis();
+        long start = System.nanoTime();
+        final long epoch = Instant.now().getEpochSecond();
+        for (int s=0; s<SAMPLES; ++s)
+            for (int c=0; c<CHANNELS; ++c)
+            {   // Like a PV, create new time stamp for each sample
+                final Time time = Time.of(Instant.ofEpochSecond(epoch + s, c));
+                buffers[c].add(VDouble.of(c + s * 0.1, Alarm.none(), time, display));
+            }
+        final double add_secs = (System.nanoTime() - start) / 1e9;
+        final long add_gc = gcMillis() - gc;
+        final long full = usedHeap();
+
+        start = System.nanoTime();
+        long count = 0;
+        for (SampleBuffer buffer : buffers)
+            while (buffer.remove() != null)
+                ++count;
+        final double remove_secs = (System.nanoTime() - start) / 1e9;
+
+        System.out.format("%-6s: Buffers %5.1f MB, samples %6.1f MB, add %4.1f M/s with %4d ms GC, remove %4.1f M/s (%d samples)\n",
+                          packed ? "Packed" : "VType", (empty - base) / 1e6, (full - empty) / 1e6,
+                          count / add_secs / 1e6, add_gc, count / remove_secs / 1e6, count);
+    }
+
+    @Test
+    public void demoHeapAndThroughput()
+    {
+        for (int i=0; i<2; ++i)
+        {
+            run(false);
+            run(true);
+        }
+    }
+}
@@ -0,0 +1,438 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.spool;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.csstudio.archive.writer.ArchiveWriter;
+import org.csstudio.archive.writer.WriteChannel;
+import org.epics.util.array.ArrayByte;
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.array.ArrayFloat;
+import org.epics.util.array.ArrayInteger;
+import org.epics.util.array.ArrayLong;
+import org.epics.util.array.ArrayShort;
+import org.epics.util.stats.Range;
+import org.epics.util.text.NumberFormats;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.EnumDisplay;
+import org.epics.vtype.Time;
+import org.epics.vtype.VByteArray;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VFloatArray;
+import org.epics.vtype.VInt;
+import org.epics.vtype.VIntArray;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VLongArray;
+import org.epics.vtype.VShortArray;
+import org.epics.vtype.VString;
+import org.epics.vtype.VStringArray;
+import org.epics.vtype.VType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** {@link Spool} tests */
+@SuppressWarnings("nls")
+public class SpoolTest
+{
+    private static final Display display = Display.of(Range.of(0, 10), Range.of(1, 9), Range.of(2, 8), Range.of(0, 10), "a.u.", NumberFormats.precisionFormat(2));
+    private static final Alarm alarm = Alarm.of(AlarmSeverity.MINOR, AlarmStatus.DEVICE, "LOW");
+
+    /** Writer that remembers flushed samples, can be told to fail */
+    private static class TestWriter implements ArchiveWriter
+    {
+        final List<String> written = new ArrayList<>();
+        final List<VType> samples = new ArrayList<>();
+        private final List<String> batch = new ArrayList<>();
+        private final List<VType> batch_samples = new ArrayList<>();
+        /** Number of flushes that succeed, -1 for all */
+        int good_flushes = -1;
+
+        @Override
+        public WriteChannel getChannel(final String name) throws Exception
+        {
+            return () -> name;
+        }
+
+        @Override
+        public void addSample(final WriteChannel channel, final VType sample) throws Exception
+        {
+            batch.add(channel.getName() + " " + ((VDouble) sample).getValue());
+            batch_samples.add(sample);
+        }
+
+        @Override
+        public void flush() throws Exception
+        {
+            if (good_flushes == 0)
+            {
+                batch.clear();
+                batch_samples.clear();
+                throw new Exception("Archive is offline");
+            }
+            if (good_flushes > 0)
+                --good_flushes;
+            written.addAll(batch);
+            samples.addAll(batch_samples);
+            batch.clear();
+            batch_samples.clear();
+        }
+
+        @Override
+        public void close()
+        {
+            // NOP
+        }
+    }
+
+    private File directory;
+
+    @Before
+    public void setup() throws Exception
+    {
+        directory = Files.createTempDirectory("spool").toFile();
+    }
+
+    @After
+    public void cleanup()
+    {
+        for (File file : directory.listFiles())
+            file.delete();
+        directory.delete();
+    }
+
+    private static VDouble sample(final int i)
+    {
+        return VDouble.of(i, alarm, Time.of(Instant.ofEpochSecond(1700000000 + i, i)), display);
+    }
+
+    private static List<String> expected(final int start, final int end)
+    {
+        final List<String> expected = new ArrayList<>();
+        for (int i=start; i<end; ++i)
+            expected.add("ch" + (i % 10) + " " + (double) i);
+        return expected;
+    }
+
+    @Test
+    public void testTypes() throws Exception
+    {
+        final Time time = Time.of(Instant.ofEpochSecond(1700000000, 123456789));
+        final VType[] samples =
+        {
+            VDouble.of(3.14, alarm, time, display),
+            VLong.of(1L << 40, alarm, time, display),
+            VInt.of(-7, Alarm.none(), time, Display.none()),
+            VEnum.of(1, EnumDisplay.of("Off", "On"), alarm, time),
+            VString.of("Hello, Spool", Alarm.disconnected(), time),
+            VDoubleArray.of(ArrayDouble.of(1.0, 2.0, 3.0), alarm, time, display),
+            VFloatArray.of(ArrayFloat.of(1.5f, -2.0f), alarm, time, display),
+            VLongArray.of(ArrayLong.of(1L << 40, -1L), alarm, time, display),
+            VIntArray.of(ArrayInteger.of(1, -2, 3), alarm, time, display),
+            VShortArray.of(ArrayShort.of((short) 7, (short) -8), alarm, time, display),
+            VByteArray.of(ArrayByte.of(new byte[] { 'H', 'i' }), alarm, time, display),
+            VStringArray.of(Arrays.asList("a", "b"), alarm, time),
+        };
+
+        final List<VType> replayed = new ArrayList<>();
+        final ArchiveWriter writer = new TestWriter()
+        {
+            @Override
+            public void addSample(final WriteChannel channel, final VType sample) throws Exception
+            {
+                assertThat(channel.getName(), equalTo("test"));
+                replayed.add(sample);
+            }
+        };
+
+        final Spool spool = new Spool(directory, 100 * 1024 * 1024, 1024 * 1024);
+        for (VType sample : samples)
+            assertThat(spool.append("test", null, sample), equalTo(true));
+        assertThat(spool.hasBacklog(), equalTo(true));
+        assertThat(spool.replay(writer, 100, System.nanoTime() + 10_000_000_000L), equalTo((long) samples.length));
+        assertThat(spool.hasBacklog(), equalTo(false));
+
+        for (int i=0; i<samples.length; ++i)
+        {
+            System.out.println(replayed.get(i));
+            assertThat(VType.typeOf(replayed.get(i)), equalTo(VType.typeOf(samples[i])));
+            assertThat(replayed.get(i).toString(), equalTo(samples[i].toString()));
+            assertThat(Display.displayOf(replayed.get(i)), equalTo(Display.displayOf(samples[i])));
+        }
+        spool.close();
+    }
+
+    @Test
+    public void testOutage() throws Exception
+    {
+        final Spool spool = new Spool(directory, 100 * 1024 * 1024, 256 * 1024);
+        for (int i=0; i<20000; ++i)
+            spool.append("ch" + (i % 10), null, sample(i));
+        spool.sync();
+        // Spans several segments
+        assertThat(directory.listFiles().length > 2, equalTo(true));
+
+        // Archive fails after writing 3 batches
+        final TestWriter writer = new TestWriter();
+        writer.good_flushes = 3;
+        try
+        {
+            spool.replay(writer, 1000, System.nanoTime() + 10_000_000_000L);
+            throw new Exception("Replay didn't fail");
+        }
+        catch (Exception ex)
+        {
+            assertThat(ex.getMessage(), equalTo("Archive is offline"));
+        }
+        assertThat(writer.written, equalTo(expected(0, 3000)));
+
+        // More samples arrive while archive is offline
+        for (int i=20000; i<25000; ++i)
+            spool.append("ch" + (i % 10), null, sample(i));
+
+        // Archive is back: Nothing lost, nothing duplicated
+        writer.good_flushes = -1;
+        spool.replay(writer, 1000, System.nanoTime() + 10_000_000_000L);
+        assertThat(writer.written, equalTo(expected(0, 25000)));
+        assertThat(writer.samples.get(24999).toString(), equalTo(sample(24999).toString()));
+        assertThat(spool.hasBacklog(), equalTo(false));
+        // Only the append segment remains
+        assertThat(directory.listFiles().length, equalTo(1));
+        spool.close();
+    }
+
+    @Test
+    public void testRestart() throws Exception
+    {
+        Spool spool = new Spool(directory, 100 * 1024 * 1024, 256 * 1024);
+        for (int i=0; i<10000; ++i)
+            spool.append("ch" + (i % 10), null, sample(i));
+
+        // Write some, then 'crash' without closing
+        final TestWriter writer = new TestWriter();
+        writer.good_flushes = 4;
+        try
+        {
+            spool.replay(writer, 1000, System.nanoTime() + 10_000_000_000L);
+        }
+        catch (Exception ex)
+        {
+            // Expected
+        }
+        assertThat(writer.written, equalTo(expected(0, 4000)));
+        spool.sync();
+
+        // Corrupt last record
+        final File[] files = directory.listFiles();
+        Arrays.sort(files);
+        final File last = files[files.length-1];
+        final SpoolSegment segment = SpoolSegment.open(last);
+        try
+        (
+            RandomAccessFile file = new RandomAccessFile(last, "rw")
+        )
+        {
+            file.seek(segment.getWritePosition() - 10);
+            file.write(0xFF ^ file.read());
+        }
+
+        // Restart continues after what was written, last sample is lost
+        spool = new Spool(directory, 100 * 1024 * 1024, 256 * 1024);
+        assertThat(spool.hasBacklog(), equalTo(true));
+        writer.good_flushes = -1;
+        spool.replay(writer, 1000, System.nanoTime() + 10_000_000_000L);
+        assertThat(writer.written, equalTo(expected(0, 9999)));
+        assertThat(spool.hasBacklog(), equalTo(false));
+        assertThat(directory.listFiles().length, equalTo(0));
+        spool.close();
+    }
+
+    @Test
+    public void testBadRecords() throws Exception
+    {
+        Spool spool = new Spool(directory, 100 * 1024 * 1024, 256 * 1024);
+        for (int i=0; i<10; ++i)
+            spool.append("ch" + (i % 10), null, sample(i));
+        spool.close();
+
+        // Add unknown record type and sample for undefined channel
+        final File file = directory.listFiles()[0];
+        SpoolSegment segment = SpoolSegment.open(file);
+        assertThat(segment.append(ByteBuffer.wrap(new byte[] { 99, 0, 0, 0, 0 })), equalTo(true));
+        assertThat(segment.append(ByteBuffer.wrap(new byte[] { 4, 0, 0, 0, 42 })), equalTo(true));
+        segment.force();
+
+        // Write the good samples, deadline stops before the bad records
+        spool = new Spool(directory, 100 * 1024 * 1024, 256 * 1024);
+        final TestWriter writer = new TestWriter();
+        assertThat(spool.replay(writer, 10, System.nanoTime()), equalTo(10L));
+        assertThat(writer.written, equalTo(expected(0, 10)));
+
+        // Bad records are skipped, and that is recorded even though the archive then fails
+        writer.good_flushes = 0;
+        try
+        {
+            spool.replay(writer, 10, System.nanoTime() + 10_000_000_000L);
+            throw new Exception("Replay didn't fail");
+        }
+        catch (Exception ex)
+        {
+            assertThat(ex.getMessage(), equalTo("Archive is offline"));
+        }
+        segment = SpoolSegment.open(file);
+        assertThat(segment.getCommitted(), equalTo(segment.getWritePosition()));
+
+        // Nothing written twice
+        writer.good_flushes = -1;
+        assertThat(spool.replay(writer, 10, System.nanoTime() + 10_000_000_000L), equalTo(0L));
+        assertThat(writer.written, equalTo(expected(0, 10)));
+        assertThat(spool.hasBacklog(), equalTo(false));
+        assertThat(directory.listFiles().length, equalTo(0));
+        spool.close();
+    }
+
+    @Test
+    public void testUnknownChannel() throws Exception
+    {
+        final Spool spool = new Spool(directory, 100 * 1024 * 1024, 256 * 1024);
+        for (int i=0; i<100; ++i)
+            spool.append("ch" + (i % 10), null, sample(i));
+
+        // Archive that can't be reached
+        final TestWriter offline = new TestWriter()
+        {
+            @Override
+            public WriteChannel getChannel(final String name) throws Exception
+            {
+                if (name.equals("ch3"))
+                    throw new IOException("Archive is offline");
+                return super.getChannel(name);
+            }
+        };
+        try
+        {
+            spool.replay(offline, 10, System.nanoTime() + 10_000_000_000L);
+            throw new Exception("Replay didn't fail");
+        }
+        catch (IOException ex)
+        {
+            assertThat(ex.getMessage(), equalTo("Archive is offline"));
+        }
+        assertThat(offline.written, equalTo(expected(0, 0)));
+
+        // Archive that doesn't know a channel
+        final TestWriter writer = new TestWriter()
+        {
+            @Override
+            public WriteChannel getChannel(final String name) throws Exception
+            {
+                if (name.equals("ch3"))
+                    throw new Exception("Unknown channel " + name);
+                return super.getChannel(name);
+            }
+        };
+        assertThat(spool.replay(writer, 10, System.nanoTime() + 10_000_000_000L), equalTo(90L));
+        final List<String> expected = expected(0, 100);
+        expected.removeIf(sample -> sample.startsWith("ch3 "));
+        assertThat(writer.written, equalTo(expected));
+        assertThat(spool.hasBacklog(), equalTo(false));
+        spool.close();
+    }
+
+    @Test
+    public void testTransfer() throws Exception
+    {
+        final File source = new File(directory, "source"),
+                   even = new File(directory, "even"),
+                   odd = new File(directory, "odd");
+        final Spool spool = new Spool(source, 100 * 1024 * 1024, 256 * 1024);
+        for (int i=0; i<10000; ++i)
+            spool.append("ch" + (i % 10), i % 10 == 3 ? "short" : null, sample(i));
+        spool.close();
+
+        // Sort samples of reopened spool by channel into other spools
+        final Spool other = new Spool(source, 100 * 1024 * 1024, 256 * 1024);
+        final Spool[] targets = { new Spool(even, 100 * 1024 * 1024, 256 * 1024),
+                                  new Spool(odd, 100 * 1024 * 1024, 256 * 1024) };
+        assertThat(other.transfer(name -> targets[(name.charAt(2) - '0') % 2]), equalTo(10000L));
+        assertThat(other.hasBacklog(), equalTo(false));
+        assertThat(source.listFiles().length, equalTo(0));
+
+        // Each spool has its channels in original order, with retention
+        final List<String> retentions = new ArrayList<>();
+        for (int target=0; target<2; ++target)
+        {
+            final TestWriter writer = new TestWriter()
+            {
+                @Override
+                public WriteChannel getChannel(final String name, final String retention) throws Exception
+                {
+                    retentions.add(name + " " + retention);
+                    return getChannel(name);
+                }
+            };
+            targets[target].replay(writer, 1000, System.nanoTime() + 10_000_000_000L);
+            final List<String> expected = expected(0, 10000);
+            final int parity = target;
+            expected.removeIf(sample -> (sample.charAt(2) - '0') % 2 != parity);
+            assertThat(writer.written, equalTo(expected));
+            targets[target].close();
+        }
+        assertThat(retentions.contains("ch3 short"), equalTo(true));
+        assertThat(retentions.contains("ch4 null"), equalTo(true));
+
+        for (File dir : new File[] { source, even, odd })
+        {
+            for (File file : dir.listFiles())
+                file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testQuota() throws Exception
+    {
+        final Spool spool = new Spool(directory, 512 * 1024, 256 * 1024);
+        int count = 0;
+        while (spool.append("ch" + (count % 10), null, sample(count)))
+            ++count;
+        System.out.println("Quota reached after " + count + " samples");
+        assertThat(spool.isFull(), equalTo(true));
+        assertThat(spool.hasSpace(), equalTo(false));
+        assertThat(spool.getDiskUsage(), equalTo(512 * 1024L));
+
+        // Replay, with deadline that's already passed: Only writes one batch
+        final TestWriter writer = new TestWriter();
+        assertThat(spool.replay(writer, 1000, System.nanoTime()), equalTo(1000L));
+        assertThat(spool.hasBacklog(), equalTo(true));
+
+        // Write the rest
+        spool.replay(writer, 1000, System.nanoTime() + 10_000_000_000L);
+        assertThat(writer.written, equalTo(expected(0, count)));
+        assertThat(spool.hasSpace(), equalTo(true));
+        assertThat(spool.append("ch0", null, sample(count)), equalTo(true));
+        spool.close();
+    }
+}
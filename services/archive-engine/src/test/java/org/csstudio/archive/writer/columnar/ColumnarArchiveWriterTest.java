@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.columnar;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+import org.csstudio.archive.writer.WriteChannel;
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.stats.Range;
+import org.epics.util.text.NumberFormats;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.EnumDisplay;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VString;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** {@link ColumnarArchiveWriter} tests */
+@SuppressWarnings("nls")
+public class ColumnarArchiveWriterTest
+{
+    private static final Display display = Display.of(Range.of(0, 10), Range.of(1, 9), Range.of(2, 8), Range.of(0, 10), "a.u.", NumberFormats.precisionFormat(2));
+
+    /** 2026-03-04 00:00:00 UTC */
+    private static final long START = 1772582400L;
+
+    private File directory;
+
+    @Before
+    public void setup() throws Exception
+    {
+        directory = Files.createTempDirectory("columnar").toFile();
+    }
+
+    @After
+    public void cleanup()
+    {
+        delete(directory);
+    }
+
+    private static void delete(final File file)
+    {
+        final File[] files = file.listFiles();
+        if (files != null)
+            for (File sub : files)
+                delete(sub);
+        file.delete();
+    }
+
+    /** @return 10 Hz sample with some jitter and noise */
+    private static VDouble sample(final int i)
+    {
+        final Instant time = Instant.ofEpochSecond(START, i * 100_000_000L + (i * 7919 % 1000) * 1000);
+        final double value = Math.round(100.0 * (5.0 + Math.sin(i / 100.0))) / 100.0;
+        return VDouble.of(value, Alarm.none(), Time.of(time), display);
+    }
+
+    /** @param data Data file
+     *  @param index Index file
+     *  @return Number of samples in blocks, after checking blocks and index
+     */
+    private static int checkBlocks(final File data, final File index) throws Exception
+    {
+        final ByteBuffer blocks = ByteBuffer.wrap(Files.readAllBytes(data.toPath()));
+        final ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(index.toPath()));
+        assertThat(entries.capacity() % ColumnarFormat.INDEX_ENTRY_SIZE, equalTo(0));
+        int samples = 0;
+        long previous = Long.MIN_VALUE;
+        while (entries.hasRemaining())
+        {
+            final long first = entries.getLong();
+            final long last = entries.getLong();
+            final long offset = entries.getLong();
+            final int count = entries.getInt();
+            final int size = entries.getInt();
+            // Blocks are consecutive, in time order
+            assertThat(offset, equalTo((long) blocks.position()));
+            assertThat(first >= previous, equalTo(true));
+            assertThat(last >= first, equalTo(true));
+            previous = last;
+
+            assertThat(blocks.getInt(), equalTo(ColumnarFormat.BLOCK_MAGIC));
+            assertThat(blocks.getInt(), equalTo(size - ColumnarFormat.BLOCK_HEADER_SIZE));
+            final int checksum = blocks.getInt();
+            final CRC32 crc = new CRC32();
+            crc.update(blocks.array(), (int) offset + ColumnarFormat.BLOCK_CHECKSUM_START, size - ColumnarFormat.BLOCK_CHECKSUM_START);
+            assertThat(checksum, equalTo((int) crc.getValue()));
+            assertThat(blocks.getInt(), equalTo(count));
+            blocks.get();
+            assertThat(blocks.getLong(), equalTo(first));
+            assertThat(blocks.getLong(), equalTo(last));
+            blocks.position((int) offset + size);
+            samples += count;
+        }
+        assertThat(blocks.remaining(), equalTo(0));
+        return samples;
+    }
+
+    @Test
+    public void testWrite() throws Exception
+    {
+        final ColumnarArchiveWriter writer = new ColumnarArchiveWriter(directory);
+        final WriteChannel channel = writer.getChannel("ca://Test:PV.VAL");
+        final int count = 24 * 60 * 60 * 10;
+        for (int i=0; i<count; ++i)
+        {
+            writer.addSample(channel, sample(i));
+            // Flush every 30 seconds
+            if (i % 300 == 299)
+                writer.flush();
+        }
+        // Samples that change the value type
+        final Time time = Time.of(Instant.ofEpochSecond(START + 24 * 60 * 60 + 1));
+        writer.addSample(channel, VString.of("Disconnected", Alarm.disconnected(), time));
+        writer.addSample(channel, VDoubleArray.of(ArrayDouble.of(1, 2, 3), Alarm.of(AlarmSeverity.MINOR, AlarmStatus.DEVICE, "LOW"), time, display));
+        writer.flush();
+
+        final File dir = new File(directory, "ca%3A%2F%2FTest%3APV.VAL");
+        final File data = new File(dir, "20260304.data");
+        assertThat(checkBlocks(data, new File(dir, "20260304.index")), equalTo(count));
+        assertThat(checkBlocks(new File(dir, "20260305.data"), new File(dir, "20260305.index")), equalTo(2));
+        System.out.format("%d samples in %d bytes, %.2f bytes per sample\n",
+                          count, data.length(), data.length() / (double) count);
+        // Less than half of the 16 bytes for plain time stamp and value
+        assertThat(data.length() < 8L * count, equalTo(true));
+
+        final Properties meta = new Properties();
+        try
+        (
+            InputStream in = new FileInputStream(new File(dir, ColumnarFormat.META))
+        )
+        {
+            meta.load(in);
+        }
+        assertThat(meta.getProperty("units"), equalTo("a.u."));
+        assertThat(meta.getProperty("precision"), equalTo("2"));
+        assertThat(meta.getProperty("warning_high"), equalTo("8.0"));
+
+        // Meta data changes to enum labels
+        writer.addSample(channel, VEnum.of(1, EnumDisplay.of("Off", "On"), Alarm.none(), time));
+        writer.flush();
+        meta.clear();
+        try
+        (
+            InputStream in = new FileInputStream(new File(dir, ColumnarFormat.META))
+        )
+        {
+            meta.load(in);
+        }
+        assertThat(meta.getProperty("labels"), equalTo("2"));
+        assertThat(meta.getProperty("label.1"), equalTo("On"));
+        assertThat(meta.getProperty("units"), equalTo(null));
+        writer.close();
+    }
+
+    @Test
+    public void testRecovery() throws Exception
+    {
+        ColumnarArchiveWriter writer = new ColumnarArchiveWriter(directory);
+        WriteChannel channel = writer.getChannel("test");
+        for (int i=0; i<1000; ++i)
+        {
+            writer.addSample(channel, sample(i));
+            if (i % 100 == 99)
+                writer.flush();
+        }
+        writer.close();
+
+        // 'Crash' while writing a block and its index entry
+        final File data = new File(directory, "test/20260304.data");
+        final File index = new File(directory, "test/20260304.index");
+        final long valid = data.length();
+        try
+        (
+            RandomAccessFile file = new RandomAccessFile(data, "rw")
+        )
+        {
+            file.seek(valid);
+            file.write(new byte[1234]);
+        }
+        try
+        (
+            RandomAccessFile file = new RandomAccessFile(index, "rw")
+        )
+        {
+            file.seek(file.length());
+            file.write(new byte[10]);
+        }
+
+        // Restarted writer removes the partial block
+        writer = new ColumnarArchiveWriter(directory);
+        channel = writer.getChannel("test");
+        for (int i=1000; i<1100; ++i)
+            writer.addSample(channel, sample(i));
+        writer.flush();
+        writer.close();
+        assertThat(checkBlocks(data, index), equalTo(1100));
+    }
+
+    @Test
+    public void testRetry() throws Exception
+    {
+        ColumnarArchiveWriter writer = new ColumnarArchiveWriter(directory);
+        WriteChannel channel = writer.getChannel("test");
+        final File data = new File(directory, "test/20260304.data");
+        final File index = new File(directory, "test/20260304.index");
+        // Data file can't be written
+        data.mkdirs();
+        for (int i=0; i<100; ++i)
+            writer.addSample(channel, sample(i));
+        try
+        {
+            writer.flush();
+            throw new Exception("Flush didn't fail");
+        }
+        catch (IOException ex)
+        {
+            // Expected
+        }
+
+        // Samples are written on next flush
+        data.delete();
+        for (int i=100; i<200; ++i)
+            writer.addSample(channel, sample(i));
+        writer.flush();
+        assertThat(checkBlocks(data, index), equalTo(200));
+
+        // Block is written to data file, but index can't be updated.
+        // Samples that are still pending when the writer is closed
+        // are written by the next writer
+        final File saved = new File(directory, "saved.index");
+        index.renameTo(saved);
+        index.mkdirs();
+        for (int i=200; i<300; ++i)
+            writer.addSample(channel, sample(i));
+        try
+        {
+            writer.flush();
+            throw new Exception("Flush didn't fail");
+        }
+        catch (IOException ex)
+        {
+            // Expected
+        }
+        writer.close();
+
+        index.delete();
+        saved.renameTo(index);
+        writer = new ColumnarArchiveWriter(directory);
+        channel = writer.getChannel("test");
+        writer.addSample(channel, sample(300));
+        writer.flush();
+        writer.close();
+        assertThat(checkBlocks(data, index), equalTo(301));
+    }
+}
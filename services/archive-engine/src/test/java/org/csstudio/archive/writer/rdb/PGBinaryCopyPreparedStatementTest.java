@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.Test;
+
+/** {@link PGBinaryCopyPreparedStatement} tests */
+@SuppressWarnings("nls")
+public class PGBinaryCopyPreparedStatementTest
+{
+    private static final String INSERT = "INSERT INTO sample (channel_id, smpl_time, severity_id, status_id, float_val, nanosecs, datatype, array_val, str_val) VALUES (?,?,?,?,?,?,?,?,?)";
+
+    private static String readText(final ByteBuffer buffer)
+    {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testEncoding() throws Exception
+    {
+        final PGCopyStandIn standin = new PGCopyStandIn(true);
+        final PGBinaryCopyPreparedStatement insert = new PGBinaryCopyPreparedStatement(standin.getConnection(), INSERT);
+
+        final LocalDateTime local = LocalDateTime.of(2026, 3, 4, 5, 6, 7, 123456789);
+        insert.setInt(1, 42);
+        insert.setTimestamp(2, Timestamp.valueOf(local));
+        insert.setInt(3, 2);
+        insert.setInt(4, 7);
+        insert.setDouble(5, 3.14);
+        insert.setInt(6, 123456789);
+        insert.setString(7, "d");
+        insert.setBytes(8, new byte[] { 1, 2, 3 });
+        insert.setString(9, "Gr\u00fc\u00dfe");
+        insert.addBatch();
+
+        insert.setLong(1, 1L << 40);
+        insert.setTimestamp(2, Timestamp.valueOf(LocalDateTime.of(1999, 12, 31, 23, 59, 59, 999999600)));
+        insert.setInt(3, 0);
+        insert.setInt(4, 0);
+        insert.setInt(5, -1);
+        insert.setInt(6, 0);
+        insert.setString(7, " ");
+        insert.setBytes(8, null);
+        insert.setNull(9, Types.VARCHAR);
+        insert.addBatch();
+        assertThat(insert.getBatchRows(), equalTo(2));
+
+        insert.executeBatch();
+        assertThat(insert.getBatchRows(), equalTo(0));
+        assertThat(standin.getSQL(), equalTo("COPY sample (channel_id, smpl_time, severity_id, status_id, float_val, nanosecs, datatype, array_val, str_val) FROM STDIN WITH (FORMAT binary)"));
+
+        final ByteBuffer buffer = ByteBuffer.wrap(standin.getData());
+        final byte[] signature = new byte[11];
+        buffer.get(signature);
+        assertThat(signature, equalTo(new byte[] { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0 }));
+        assertThat(buffer.getInt(), equalTo(0));
+        assertThat(buffer.getInt(), equalTo(0));
+
+        // First row
+        assertThat(buffer.getShort(), equalTo((short) 9));
+        assertThat(buffer.getInt(), equalTo(8));
+        assertThat(buffer.getLong(), equalTo(42L));
+        // Timestamp without time zone: Local time in microseconds since 2000-01-01
+        assertThat(buffer.getInt(), equalTo(8));
+        final long micros = buffer.getLong();
+        assertThat(LocalDateTime.ofEpochSecond(946684800L + micros / 1_000_000, (int) (micros % 1_000_000) * 1000, ZoneOffset.UTC),
+                   equalTo(LocalDateTime.of(2026, 3, 4, 5, 6, 7, 123457000)));
+        assertThat(buffer.getInt(), equalTo(8));
+        assertThat(buffer.getLong(), equalTo(2L));
+        assertThat(buffer.getInt(), equalTo(8));
+        assertThat(buffer.getLong(), equalTo(7L));
+        assertThat(buffer.getInt(), equalTo(8));
+        assertThat(buffer.getDouble(), equalTo(3.14));
+        assertThat(buffer.getInt(), equalTo(8));
+        assertThat(buffer.getLong(), equalTo(123456789L));
+        assertThat(readText(buffer), equalTo("d"));
+        assertThat(buffer.getInt(), equalTo(3));
+        assertThat(buffer.get(), equalTo((byte) 1));
+        assertThat(buffer.get(), equalTo((byte) 2));
+        assertThat(buffer.get(), equalTo((byte) 3));
+        assertThat(readText(buffer), equalTo("Gr\u00fc\u00dfe"));
+
+        // Second row
+        assertThat(buffer.getShort(), equalTo((short) 9));
+        assertThat(buffer.getInt(), equalTo(8));
+        assertThat(buffer.getLong(), equalTo(1L << 40));
+        // Rounded up to 2000-01-01 00:00:00
+        assertThat(buffer.getInt(), equalTo(8));
+        assertThat(buffer.getLong(), equalTo(0L));
+        assertThat(buffer.getInt(), equalTo(8));
+        assertThat(buffer.getLong(), equalTo(0L));
+        assertThat(buffer.getInt(), equalTo(8));
+        assertThat(buffer.getLong(), equalTo(0L));
+        // Integer written to double column
+        assertThat(buffer.getInt(), equalTo(8));
+        assertThat(buffer.getDouble(), equalTo(-1.0));
+        assertThat(buffer.getInt(), equalTo(8));
+        assertThat(buffer.getLong(), equalTo(0L));
+        assertThat(readText(buffer), equalTo(" "));
+        assertThat(buffer.getInt(), equalTo(-1));
+        assertThat(buffer.getInt(), equalTo(-1));
+
+        // Trailer
+        assertThat(buffer.getShort(), equalTo((short) -1));
+        assertThat(buffer.remaining(), equalTo(0));
+
+        insert.close();
+    }
+
+    @Test
+    public void testErrors() throws Exception
+    {
+        final PGCopyStandIn standin = new PGCopyStandIn(true);
+        try
+        {
+            new PGBinaryCopyPreparedStatement(standin.getConnection(), "INSERT INTO sample (channel_id, no_such_column) VALUES (?,?)");
+            throw new Exception("Accepted unknown column");
+        }
+        catch (SQLException ex)
+        {
+            System.out.println(ex.getMessage());
+        }
+
+        final PGBinaryCopyPreparedStatement insert = new PGBinaryCopyPreparedStatement(standin.getConnection(), "INSERT INTO sample (channel_id, smpl_time) VALUES (?,?)");
+        insert.setInt(1, 1);
+        insert.setTimestamp(2, new Timestamp(0));
+        insert.addBatch();
+        final int size = insert.getBatchSize();
+
+        // Bad row is not added to the batch
+        insert.setString(1, "abc");
+        insert.setTimestamp(2, new Timestamp(0));
+        try
+        {
+            insert.addBatch();
+            throw new Exception("Accepted text for number");
+        }
+        catch (SQLException ex)
+        {
+            System.out.println(ex.getMessage());
+        }
+        assertThat(insert.getBatchRows(), equalTo(1));
+        assertThat(insert.getBatchSize(), equalTo(size));
+
+        // Numeric text is converted
+        insert.setString(1, "17");
+        insert.setTimestamp(2, new Timestamp(0));
+        insert.addBatch();
+        assertThat(insert.getBatchRows(), equalTo(2));
+
+        insert.clearBatch();
+        assertThat(insert.getBatchRows(), equalTo(0));
+        insert.executeBatch();
+        assertThat(standin.getData().length, equalTo(0));
+        insert.close();
+    }
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.junit.Test;
+
+/** Throughput of text and binary COPY
+ *
+ *  <p>Batches scalar double samples like the {@link RDBArchiveWriter}
+ *  and sends them to a {@link PGCopyStandIn},
+ *  so this measures the client side of the COPY:
+ *  Formatting and encoding the rows,
+ *  not the time spent in the database.
+ */
+@SuppressWarnings("nls")
+public class PGCopyPreparedStatementDemo
+{
+    private static final String INSERT = "INSERT INTO sample (channel_id, smpl_time, severity_id, status_id, float_val, nanosecs, datatype, array_val) VALUES (?,?,?,?,?,?,?,?)";
+
+    private static final int BATCH = 500, BATCHES = 2000;
+
+    private static void run(final boolean binary) throws Exception
+    {
+        final PGCopyStandIn standin = new PGCopyStandIn(false);
+        final PreparedStatement insert = binary
+            ? new PGBinaryCopyPreparedStatement(standin.getConnection(), INSERT)
+            : new PGCopyPreparedStatement(standin.getConnection(), INSERT);
+
+        final long epoch = Instant.now().getEpochSecond();
+        final long start = System.nanoTime();
+        for (int b=0; b<BATCHES; ++b)
+        {
+            for (int i=0; i<BATCH; ++i)
+            {
+                final Timestamp stamp = Timestamp.from(Instant.ofEpochSecond(epoch + b, i * 1000));
+                final int nanos = stamp.getNanos();
+                stamp.setNanos(0);
+                insert.setTimestamp(2, stamp);
+                insert.setInt(6, nanos);
+                insert.setDouble(5, Math.PI * (b + i));
+                insert.setString(7, " ");
+                insert.setBytes(8, null);
+                insert.setInt(1, i);
+                insert.setInt(3, 1);
+                insert.setInt(4, 2);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        final double secs = (System.nanoTime() - start) / 1e9;
+        insert.close();
+
+        final long rows = (long) BATCH * BATCHES;
+        System.out.format("%-6s: %5.2f M rows/s, %5.1f bytes/row\n",
+                          binary ? "Binary" : "Text",
+                          rows / secs / 1e6, (double) standin.getByteCount() / rows);
+    }
+
+    @Test
+    public void demoThroughput() throws Exception
+    {
+        for (int i=0; i<3; ++i)
+        {
+            run(false);
+            run(true);
+        }
+    }
+}
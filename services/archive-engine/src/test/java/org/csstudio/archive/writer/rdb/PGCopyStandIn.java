@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.postgresql.core.Encoding;
+
+/** Stand-in for a PostgreSQL connection that receives COPY data
+ *
+ *  <p>Provides the column information of the SAMPLE table
+ *  and accepts 'COPY .. FROM STDIN' without a database.
+ */
+@SuppressWarnings("nls")
+class PGCopyStandIn
+{
+    /** Columns of the PostgreSQL SAMPLE table and their types */
+    private static final String[][] SAMPLE_COLUMNS =
+    {
+        { "channel_id", "int8" },
+        { "smpl_time", "timestamp" },
+        { "nanosecs", "int8" },
+        { "severity_id", "int8" },
+        { "status_id", "int8" },
+        { "num_val", "int4" },
+        { "float_val", "float8" },
+        { "str_val", "varchar" },
+        { "datatype", "bpchar" },
+        { "array_val", "bytea" }
+    };
+
+    private final boolean keep;
+    private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+    private String sql;
+    private long bytes;
+    private final Connection connection;
+
+    /** @param keep Keep the received data, or only count the bytes? */
+    PGCopyStandIn(final boolean keep) throws Exception
+    {
+        this.keep = keep;
+        connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                                                         new Class<?>[] { BaseConnection.class },
+                                                         (proxy, method, args) ->
+        {
+            switch (method.getName())
+            {
+            case "getMetaData":
+                return createMetaData();
+            case "getCatalog":
+                return null;
+            case "getEncoding":
+                return Encoding.defaultEncoding();
+            case "getQueryExecutor":
+                return null;
+            case "getCopyAPI":
+                return new CopyManager((BaseConnection) proxy)
+                {
+                    @Override
+                    public CopyIn copyIn(final String sql) throws SQLException
+                    {
+                        return createCopyIn(sql);
+                    }
+                };
+            default:
+                throw new SQLException("Not implemented: " + method.getName());
+            }
+        });
+    }
+
+    /** @return Connection */
+    Connection getConnection()
+    {
+        return connection;
+    }
+
+    /** @return SQL of last COPY */
+    String getSQL()
+    {
+        return sql;
+    }
+
+    /** @return Data received by all COPY calls, if kept */
+    byte[] getData()
+    {
+        return data.toByteArray();
+    }
+
+    /** @return Number of bytes received by all COPY calls */
+    long getByteCount()
+    {
+        return bytes;
+    }
+
+    private DatabaseMetaData createMetaData()
+    {
+        return (DatabaseMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+                                                         new Class<?>[] { DatabaseMetaData.class },
+                                                         (proxy, method, args) ->
+        {
+            if (method.getName().equals("getColumns"))
+                return createColumns();
+            throw new SQLException("Not implemented: " + method.getName());
+        });
+    }
+
+    private ResultSet createColumns()
+    {
+        final int[] row = { -1 };
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                                                  new Class<?>[] { ResultSet.class },
+                                                  (proxy, method, args) ->
+        {
+            switch (method.getName())
+            {
+            case "next":
+                return ++row[0] < SAMPLE_COLUMNS.length;
+            case "getString":
+                return args[0].equals("COLUMN_NAME") ? SAMPLE_COLUMNS[row[0]][0] : SAMPLE_COLUMNS[row[0]][1];
+            case "getInt":
+                return row[0] + 1;
+            case "close":
+                return null;
+            default:
+                throw new SQLException("Not implemented: " + method.getName());
+            }
+        });
+    }
+
+    private CopyIn createCopyIn(final String sql)
+    {
+        this.sql = sql;
+        return new CopyIn()
+        {
+            private boolean active = true;
+
+            @Override
+            public void writeToCopy(final byte[] buf, final int off, final int siz) throws SQLException
+            {
+                if (! active)
+                    throw new SQLException("COPY not active");
+                if (keep)
+                    data.write(buf, off, siz);
+                bytes += siz;
+            }
+
+            @Override
+            public void flushCopy() throws SQLException
+            {
+                // NOP
+            }
+
+            @Override
+            public long endCopy() throws SQLException
+            {
+                active = false;
+                return 0;
+            }
+
+            @Override
+            public int getFieldCount()
+            {
+                return 0;
+            }
+
+            @Override
+            public int getFormat()
+            {
+                return 0;
+            }
+
+            @Override
+            public int getFieldFormat(final int field)
+            {
+                return 0;
+            }
+
+            @Override
+            public boolean isActive()
+            {
+                return active;
+            }
+
+            @Override
+            public void cancelCopy() throws SQLException
+            {
+                active = false;
+            }
+
+            @Override
+            public long getHandledRowCount()
+            {
+                return 0;
+            }
+        };
+    }
+}